@@ -0,0 +1,227 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Budgeted derivative.
+ * <p>
+ * Given a list of {@linkplain DerivativePlan plans}, in order of preference,
+ * and a {@linkplain DerivativeBudget budget}, the first plan expected to fit
+ * the budget is used. If no plan fits, the cheapest is used anyway: a less
+ * accurate derivative is preferred to none at all.
+ * <p>
+ * To estimate the time a plan will take, the cost of a function evaluation is
+ * tracked across calls, as an exponential moving average. When a deadline is
+ * specified but the cost is not yet known, the function is first evaluated at
+ * the point itself, which is timed. This evaluation is shared with plans that
+ * {@linkplain DerivativePlan#isPointEvaluated() evaluate the point}, and is
+ * only discounted from the cost of those plans; for others, such as central
+ * first derivatives, whose center coefficient is zero, it is an extra
+ * evaluation.
+ * <p>
+ * Instances of this class are thread-safe, although the cost estimate may be
+ * updated racily.
+ */
+public class BudgetedDerivative
+{
+
+	/**
+	 * The weight of the latest observation in the evaluation cost average.
+	 */
+	private static final double COST_SMOOTHING = 0.25;
+
+	/**
+	 * The function.
+	 */
+	private final UnivariateFunction function;
+
+	/**
+	 * The plans, in order of preference.
+	 */
+	private final List<DerivativePlan> plans;
+
+	/**
+	 * The cheapest plan.
+	 */
+	private final DerivativePlan cheapestPlan;
+
+	/**
+	 * The estimated cost of a single evaluation, in nanoseconds, or
+	 * <code>NaN</code> if unknown.
+	 */
+	private volatile double evaluationNanoseconds = Double.NaN;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * This constructor uses the {@linkplain DerivativePlan#getDefaultPlans(int)
+	 * default plans}.
+	 * 
+	 * @param function The function.
+	 * @param derivativeOrder The derivative order.
+	 */
+	public BudgetedDerivative(final UnivariateFunction function, final int derivativeOrder)
+	{
+		this(function, DerivativePlan.getDefaultPlans(derivativeOrder));
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param plans The plans, in order of preference.
+	 */
+	public BudgetedDerivative(final UnivariateFunction function, final List<DerivativePlan> plans)
+	{
+		if(plans.isEmpty())
+		{
+			throw new IllegalArgumentException("plans");
+		}
+
+		this.function = function;
+		this.plans = new ArrayList<DerivativePlan>(plans);
+
+		DerivativePlan cheapest = plans.get(0);
+		for(DerivativePlan plan : plans)
+		{
+			if(plan.getEstimatedEvaluations() < cheapest.getEstimatedEvaluations())
+			{
+				cheapest = plan;
+			}
+		}
+
+		this.cheapestPlan = cheapest;
+	}
+
+	/**
+	 * Get the derivative at the specified point, within the specified budget.
+	 * 
+	 * @param x The point.
+	 * @param budget The budget.
+	 * @return The derivative.
+	 */
+	public double value(final double x, final DerivativeBudget budget)
+	{
+		return getResult(x, budget).getValue();
+	}
+
+	/**
+	 * Get the derivative at the specified point, within the specified budget,
+	 * together with the plan used.
+	 * 
+	 * @param x The point.
+	 * @param budget The budget.
+	 * @return The result.
+	 */
+	public BudgetedDerivativeResult getResult(final double x, final DerivativeBudget budget)
+	{
+		MemoizedUnivariateFunction memoizedFunction = new MemoizedUnivariateFunction(function);
+		long start = System.nanoTime();
+
+		if(budget.hasDeadline() && Double.isNaN(evaluationNanoseconds))
+		{
+			// time a first evaluation, which the plan may reuse.
+			memoizedFunction.value(x);
+			updateEvaluationNanoseconds(System.nanoTime() - start, 1);
+		}
+
+		DerivativePlan plan = getPlan(budget, memoizedFunction.getEvaluationCount());
+		boolean withinBudget = (plan != null);
+		if(!withinBudget)
+		{
+			plan = cheapestPlan;
+		}
+
+		UnivariateFiniteDifferenceDerivativeFunction derivativeFunction = new UnivariateFiniteDifferenceDerivativeFunction(
+				memoizedFunction, plan.getBandwidthFunction(), plan.getFiniteDifference());
+		double derivative = derivativeFunction.value(x);
+
+		int evaluationCount = memoizedFunction.getEvaluationCount();
+		updateEvaluationNanoseconds(System.nanoTime() - start, evaluationCount);
+
+		return new BudgetedDerivativeResult(derivative, plan, evaluationCount, withinBudget);
+	}
+
+	/**
+	 * Get the first plan that is expected to fit the specified budget.
+	 * 
+	 * @param budget The budget.
+	 * @param spentEvaluations The number of evaluations already spent.
+	 * @return The plan, or <code>null</code> if no plan fits.
+	 */
+	private DerivativePlan getPlan(final DerivativeBudget budget, final int spentEvaluations)
+	{
+		long remainingNanoseconds = budget.getRemainingNanoseconds();
+		double cost = evaluationNanoseconds;
+
+		for(DerivativePlan plan : plans)
+		{
+			int evaluations = plan.getEstimatedEvaluations();
+			if(evaluations > budget.getMaximumEvaluations())
+			{
+				continue;
+			}
+
+			if(budget.hasDeadline())
+			{
+				// the first evaluation, if spent, only counts if reused.
+				int reusedEvaluations = plan.isPointEvaluated() ? spentEvaluations : 0;
+				double time = Math.max(0, evaluations - reusedEvaluations) * cost;
+				if(!(time <= remainingNanoseconds))
+				{
+					continue;
+				}
+			}
+
+			return plan;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Update the estimated cost of a single evaluation.
+	 * 
+	 * @param nanoseconds The elapsed time.
+	 * @param evaluations The number of evaluations made in that time.
+	 */
+	private void updateEvaluationNanoseconds(final long nanoseconds, final int evaluations)
+	{
+		if(evaluations == 0)
+		{
+			return;
+		}
+
+		double observed = (double)nanoseconds / evaluations;
+		double current = evaluationNanoseconds;
+
+		evaluationNanoseconds = Double.isNaN(current) ?
+				observed :
+				current + (COST_SMOOTHING * (observed - current));
+	}
+
+}
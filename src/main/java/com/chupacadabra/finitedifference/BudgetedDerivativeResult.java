@@ -0,0 +1,136 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+/**
+ * The result of a budgeted derivative computation.
+ */
+public final class BudgetedDerivativeResult
+{
+
+	/**
+	 * The value.
+	 */
+	private final double value;
+
+	/**
+	 * The plan used.
+	 */
+	private final DerivativePlan plan;
+
+	/**
+	 * The number of function evaluations.
+	 */
+	private final int evaluationCount;
+
+	/**
+	 * Was the plan chosen within budget?
+	 */
+	private final boolean withinBudget;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param value The value.
+	 * @param plan The plan used.
+	 * @param evaluationCount The number of function evaluations.
+	 * @param withinBudget <code>true</code> if the plan was expected to fit
+	 *            the budget; and <code>false</code> if no plan was, and the
+	 *            cheapest was used instead.
+	 */
+	public BudgetedDerivativeResult(
+			final double value,
+			final DerivativePlan plan,
+			final int evaluationCount,
+			final boolean withinBudget)
+	{
+		this.value = value;
+		this.plan = plan;
+		this.evaluationCount = evaluationCount;
+		this.withinBudget = withinBudget;
+	}
+
+	/**
+	 * Get the value.
+	 * 
+	 * @return The value.
+	 */
+	public double getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Get the plan used.
+	 * 
+	 * @return The plan.
+	 */
+	public DerivativePlan getPlan()
+	{
+		return plan;
+	}
+
+	/**
+	 * Get the number of function evaluations.
+	 * 
+	 * @return The number of evaluations.
+	 */
+	public int getEvaluationCount()
+	{
+		return evaluationCount;
+	}
+
+	/**
+	 * Was the plan expected to fit the budget?
+	 * 
+	 * @return <code>true</code> if the plan was expected to fit the budget;
+	 *         and <code>false</code> if no plan was, and the cheapest was used
+	 *         instead.
+	 */
+	public boolean isWithinBudget()
+	{
+		return withinBudget;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("BudgetedDerivativeResult [value=");
+		builder.append(value);
+		builder.append(", plan=");
+		builder.append(plan);
+		builder.append(", evaluationCount=");
+		builder.append(evaluationCount);
+		builder.append(", withinBudget=");
+		builder.append(withinBudget);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
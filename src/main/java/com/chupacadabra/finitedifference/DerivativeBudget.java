@@ -0,0 +1,163 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+/**
+ * A budget for a single derivative computation: a maximum number of function
+ * evaluations and/or a deadline.
+ * <p>
+ * The deadline is a {@link System#nanoTime()} value, and so is only
+ * meaningful within a single JVM.
+ */
+public final class DerivativeBudget
+{
+
+	/**
+	 * The maximum number of evaluations.
+	 */
+	private final int maximumEvaluations;
+
+	/**
+	 * The deadline, or <code>null</code> for no deadline.
+	 */
+	private final Long deadline;
+
+	/**
+	 * Constructor for an evaluation budget, without a deadline.
+	 * 
+	 * @param maximumEvaluations The maximum number of evaluations.
+	 */
+	public DerivativeBudget(final int maximumEvaluations)
+	{
+		this(maximumEvaluations, null);
+	}
+
+	/**
+	 * Constructor for an evaluation budget with a deadline.
+	 * 
+	 * @param maximumEvaluations The maximum number of evaluations.
+	 * @param deadline The deadline, as a {@link System#nanoTime()} value.
+	 */
+	public DerivativeBudget(final int maximumEvaluations, final long deadline)
+	{
+		this(maximumEvaluations, Long.valueOf(deadline));
+	}
+
+	/**
+	 * Core constructor.
+	 * 
+	 * @param maximumEvaluations The maximum number of evaluations.
+	 * @param deadline The deadline, or <code>null</code> for no deadline.
+	 */
+	private DerivativeBudget(final int maximumEvaluations, final Long deadline)
+	{
+		if(maximumEvaluations < 1)
+		{
+			throw new IllegalArgumentException("maximumEvaluations");
+		}
+
+		this.maximumEvaluations = maximumEvaluations;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Create a budget with a deadline but no limit on the number of
+	 * evaluations.
+	 * 
+	 * @param deadline The deadline, as a {@link System#nanoTime()} value.
+	 * @return The budget.
+	 */
+	public static DerivativeBudget withDeadline(final long deadline)
+	{
+		return new DerivativeBudget(Integer.MAX_VALUE, deadline);
+	}
+
+	/**
+	 * Create a budget with a deadline the specified number of nanoseconds from
+	 * now, but no limit on the number of evaluations.
+	 * 
+	 * @param nanoseconds The time limit, in nanoseconds.
+	 * @return The budget.
+	 */
+	public static DerivativeBudget withTimeLimit(final long nanoseconds)
+	{
+		return withDeadline(System.nanoTime() + nanoseconds);
+	}
+
+	/**
+	 * Get the maximum number of evaluations.
+	 * 
+	 * @return The maximum number of evaluations.
+	 */
+	public int getMaximumEvaluations()
+	{
+		return maximumEvaluations;
+	}
+
+	/**
+	 * Does this budget have a deadline?
+	 * 
+	 * @return <code>true</code> if there is a deadline; and <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean hasDeadline()
+	{
+		return (deadline != null);
+	}
+
+	/**
+	 * Get the time remaining until the deadline.
+	 * 
+	 * @return The time remaining, in nanoseconds, which is negative if the
+	 *         deadline has passed, or {@link Long#MAX_VALUE} if there is no
+	 *         deadline.
+	 */
+	public long getRemainingNanoseconds()
+	{
+		if(deadline == null)
+		{
+			return Long.MAX_VALUE;
+		}
+
+		// subtract, to be robust to numerical overflow of nanoTime.
+		return deadline.longValue() - System.nanoTime();
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("DerivativeBudget [maximumEvaluations=");
+		builder.append(maximumEvaluations);
+		builder.append(", deadline=");
+		builder.append(deadline);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
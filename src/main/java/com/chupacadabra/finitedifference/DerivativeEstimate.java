@@ -0,0 +1,110 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+/**
+ * A derivative estimate, together with an estimate of its (absolute) error.
+ */
+public final class DerivativeEstimate
+{
+
+	/**
+	 * The value.
+	 */
+	private final double value;
+
+	/**
+	 * The error estimate.
+	 */
+	private final double error;
+
+	/**
+	 * The number of function evaluations.
+	 */
+	private final int evaluationCount;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param value The value.
+	 * @param error The error estimate.
+	 * @param evaluationCount The number of function evaluations.
+	 */
+	public DerivativeEstimate(final double value, final double error, final int evaluationCount)
+	{
+		this.value = value;
+		this.error = error;
+		this.evaluationCount = evaluationCount;
+	}
+
+	/**
+	 * Get the value.
+	 * 
+	 * @return The value.
+	 */
+	public double getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Get the error estimate.
+	 * 
+	 * @return The error estimate, which is infinite if no estimate is
+	 *         available.
+	 */
+	public double getError()
+	{
+		return error;
+	}
+
+	/**
+	 * Get the number of function evaluations used to compute the estimate.
+	 * 
+	 * @return The number of evaluations.
+	 */
+	public int getEvaluationCount()
+	{
+		return evaluationCount;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("DerivativeEstimate [value=");
+		builder.append(value);
+		builder.append(", error=");
+		builder.append(error);
+		builder.append(", evaluationCount=");
+		builder.append(evaluationCount);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
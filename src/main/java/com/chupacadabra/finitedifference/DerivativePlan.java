@@ -0,0 +1,234 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.chupacadabra.finitedifference.bandwidth.MathurApproximatelyOptimalUnivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumbUnivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+
+/**
+ * A plan for computing a derivative: a finite difference, a bandwidth strategy
+ * and an (upper bound) estimate of the number of function evaluations they
+ * require together.
+ */
+public final class DerivativePlan
+{
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The bandwidth function.
+	 */
+	private final UnivariateBandwidth bandwidthFunction;
+
+	/**
+	 * The estimated number of evaluations.
+	 */
+	private final int estimatedEvaluations;
+
+	/**
+	 * Is the function evaluated at the point itself?
+	 */
+	private final boolean pointEvaluated;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * The number of evaluations is estimated for the rule-of-thumb and Mathur
+	 * bandwidth strategies; other strategies are assumed to not evaluate the
+	 * function.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param bandwidthFunction The bandwidth function.
+	 */
+	public DerivativePlan(final FiniteDifference finiteDifference, final UnivariateBandwidth bandwidthFunction)
+	{
+		this(finiteDifference, bandwidthFunction, getEstimatedEvaluations(finiteDifference, bandwidthFunction));
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param bandwidthFunction The bandwidth function.
+	 * @param estimatedEvaluations The estimated number of evaluations.
+	 */
+	public DerivativePlan(
+			final FiniteDifference finiteDifference,
+			final UnivariateBandwidth bandwidthFunction,
+			final int estimatedEvaluations)
+	{
+		this.finiteDifference = finiteDifference;
+		this.bandwidthFunction = bandwidthFunction;
+		this.estimatedEvaluations = estimatedEvaluations;
+		this.pointEvaluated = isPointEvaluated(finiteDifference, bandwidthFunction);
+	}
+
+	/**
+	 * Get the default plans for the specified derivative order, in decreasing
+	 * order of (expected) accuracy and cost.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return The plans.
+	 */
+	public static List<DerivativePlan> getDefaultPlans(final int derivativeOrder)
+	{
+		UnivariateBandwidth mathur = new MathurApproximatelyOptimalUnivariateBandwidth();
+		UnivariateBandwidth ruleOfThumb = new RuleOfThumbUnivariateBandwidth();
+
+		FiniteDifference eighthOrder = new FiniteDifference(FiniteDifferenceType.CENTRAL, derivativeOrder, 8);
+		FiniteDifference fourthOrder = new FiniteDifference(FiniteDifferenceType.CENTRAL, derivativeOrder, 4);
+		FiniteDifference secondOrder = new FiniteDifference(FiniteDifferenceType.CENTRAL, derivativeOrder, 2);
+		FiniteDifference firstOrder = new FiniteDifference(FiniteDifferenceType.FORWARD, derivativeOrder, 1);
+
+		List<DerivativePlan> plans = new ArrayList<DerivativePlan>();
+		plans.add(new DerivativePlan(eighthOrder, mathur));
+		plans.add(new DerivativePlan(fourthOrder, mathur));
+		plans.add(new DerivativePlan(eighthOrder, ruleOfThumb));
+		plans.add(new DerivativePlan(fourthOrder, ruleOfThumb));
+		plans.add(new DerivativePlan(secondOrder, ruleOfThumb));
+		plans.add(new DerivativePlan(firstOrder, ruleOfThumb));
+
+		return Collections.unmodifiableList(plans);
+	}
+
+	/**
+	 * Estimate the number of evaluations for a plan.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param bandwidthFunction The bandwidth function.
+	 * @return The estimated number of evaluations.
+	 */
+	private static int getEstimatedEvaluations(
+			final FiniteDifference finiteDifference,
+			final UnivariateBandwidth bandwidthFunction)
+	{
+		int length = finiteDifference.getLength();
+
+		if(bandwidthFunction instanceof MathurApproximatelyOptimalUnivariateBandwidth)
+		{
+			// the point itself plus two trial grids, plus the final grid.
+			return 1 + (3 * length);
+		}
+
+		return length;
+	}
+
+	/**
+	 * Determine whether a plan evaluates the function at the point itself.
+	 * <p>
+	 * Mathur's bandwidth strategy always does; otherwise, only stencils with a
+	 * non-zero center coefficient do, since zero-weight points are never
+	 * evaluated. Other bandwidth strategies are assumed to not evaluate the
+	 * function.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param bandwidthFunction The bandwidth function.
+	 * @return Whether the point is evaluated.
+	 */
+	private static boolean isPointEvaluated(
+			final FiniteDifference finiteDifference,
+			final UnivariateBandwidth bandwidthFunction)
+	{
+		if(bandwidthFunction instanceof MathurApproximatelyOptimalUnivariateBandwidth)
+		{
+			return true;
+		}
+
+		int left = finiteDifference.getLeftMultiplier();
+		if((left > 0) || (finiteDifference.getRightMultiplier() < 0))
+		{
+			return false;
+		}
+
+		return finiteDifference.getCoefficients()[-left] != 0;
+	}
+
+	/**
+	 * Get the finite difference.
+	 * 
+	 * @return The finite difference.
+	 */
+	public FiniteDifference getFiniteDifference()
+	{
+		return finiteDifference;
+	}
+
+	/**
+	 * Get the bandwidth function.
+	 * 
+	 * @return The bandwidth function.
+	 */
+	public UnivariateBandwidth getBandwidthFunction()
+	{
+		return bandwidthFunction;
+	}
+
+	/**
+	 * Get the estimated number of evaluations.
+	 * 
+	 * @return The estimated number of evaluations.
+	 */
+	public int getEstimatedEvaluations()
+	{
+		return estimatedEvaluations;
+	}
+
+	/**
+	 * Is the function evaluated at the point itself? If so, an evaluation
+	 * there that has already been made is reused, rather than repeated.
+	 * 
+	 * @return Whether the point is evaluated.
+	 */
+	public boolean isPointEvaluated()
+	{
+		return pointEvaluated;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("DerivativePlan [finiteDifference=");
+		builder.append(finiteDifference);
+		builder.append(", bandwidthFunction=");
+		builder.append(bandwidthFunction.getClass().getSimpleName());
+		builder.append(", estimatedEvaluations=");
+		builder.append(estimatedEvaluations);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
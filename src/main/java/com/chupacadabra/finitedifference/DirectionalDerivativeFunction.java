@@ -0,0 +1,196 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+
+/**
+ * Finite difference directional derivative function with pluggable bandwidth.
+ * <p>
+ * Computes <code>D<sub>v</sub>F(x) = &nabla;F(x) &middot; v</code> without
+ * forming the gradient, by reducing the problem to a univariate derivative of
+ * <code>F</code> restricted to the line through <code>x</code> along
+ * <code>v</code>. This costs a single univariate stencil's worth of function
+ * evaluations (plus whatever the bandwidth strategy requires), rather than
+ * one stencil per dimension.
+ * <p>
+ * The line is parameterized as
+ * <code>g(s) = F(x + (s - s<sub>0</sub>)v)</code>, with
+ * <code>s<sub>0</sub> = ||x|| / ||v||</code>, and differentiated at
+ * <code>s<sub>0</sub></code>. Hence the bandwidth strategy sees a point whose
+ * magnitude reflects the scale of <code>x</code> relative to <code>v</code>,
+ * just as it would for a coordinate direction.
+ * <p>
+ * Note that <code>v</code> is not normalized, so the result is the derivative
+ * per unit of <code>v</code>.
+ */
+public class DirectionalDerivativeFunction
+	implements MultivariateFunction
+{
+
+	/**
+	 * The function.
+	 */
+	private final MultivariateFunction function;
+
+	/**
+	 * The direction.
+	 */
+	private final double[] direction;
+
+	/**
+	 * The bandwidth function.
+	 */
+	private final UnivariateBandwidth bandwidthFunction;
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The norm of the direction.
+	 */
+	private final double directionNorm;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param direction The direction.
+	 * @param bandwidthFunction The bandwidth function.
+	 * @param finiteDifference The finite difference.
+	 */
+	public DirectionalDerivativeFunction(
+			final MultivariateFunction function,
+			final double[] direction,
+			final UnivariateBandwidth bandwidthFunction,
+			final FiniteDifference finiteDifference)
+	{
+		this.function = function;
+		this.direction = direction;
+		this.bandwidthFunction = bandwidthFunction;
+		this.finiteDifference = finiteDifference;
+
+		double norm = 0;
+		for(double component : direction)
+		{
+			norm += component * component;
+		}
+
+		directionNorm = Math.sqrt(norm);
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.MultivariateFunction#value(double[])
+	 */
+	@Override
+	public double value(final double... x)
+	{
+		if(directionNorm == 0)
+		{
+			return 0;
+		}
+
+		double norm = 0;
+		for(double component : x)
+		{
+			norm += component * component;
+		}
+
+		double origin = Math.sqrt(norm) / directionNorm;
+
+		UnivariateFunction line = new LineFunction(function, x, direction, origin);
+		UnivariateFunction derivative = new UnivariateFiniteDifferenceDerivativeFunction(line, bandwidthFunction, finiteDifference);
+
+		return derivative.value(origin);
+	}
+
+	/**
+	 * The restriction of a multivariate function to a line.
+	 */
+	private static final class LineFunction
+		implements UnivariateFunction
+	{
+
+		/**
+		 * The function.
+		 */
+		private final MultivariateFunction function;
+
+		/**
+		 * The point.
+		 */
+		private final double[] x;
+
+		/**
+		 * The direction.
+		 */
+		private final double[] direction;
+
+		/**
+		 * The parameter value corresponding to <code>x</code>.
+		 */
+		private final double origin;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param function The function.
+		 * @param x The point.
+		 * @param direction The direction.
+		 * @param origin The parameter value corresponding to <code>x</code>.
+		 */
+		LineFunction(
+				final MultivariateFunction function,
+				final double[] x,
+				final double[] direction,
+				final double origin)
+		{
+			this.function = function;
+			this.x = x;
+			this.direction = direction;
+			this.origin = origin;
+		}
+
+		/**
+		 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+		 */
+		@Override
+		public double value(final double at)
+		{
+			double t = at - origin;
+
+			double[] input = new double[x.length];
+			for(int index = 0; index < input.length; index++)
+			{
+				input[index] = x[index] + (t * direction[index]);
+			}
+
+			return function.value(input);
+		}
+
+	}
+
+}
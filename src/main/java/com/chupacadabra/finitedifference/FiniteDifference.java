@@ -25,6 +25,8 @@ package com.chupacadabra.finitedifference;
 
 import java.io.Serializable;
 
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumb;
+
 
 /**
  * A univariate finite difference descriptor.
@@ -97,6 +99,16 @@ public final class FiniteDifference
 	 */
 	private final double[] coefficents;
 	
+	/**
+	 * Sum of the absolute values of the coefficients.
+	 */
+	private final double absoluteCoefficientSum;
+	
+	/**
+	 * The (scale-free) rule-of-thumb grid width.
+	 */
+	private final double ruleOfThumbScale;
+	
 	/**
 	 * Constructor.
 	 * 
@@ -117,8 +129,8 @@ public final class FiniteDifference
 		{
 			case BACKWARD:
 				rightMultiplier = 0;
-				leftMultiplier = errorOrder + derivativeOrder;
-				length = leftMultiplier;
+				leftMultiplier = 1 - (errorOrder + derivativeOrder);
+				length = errorOrder + derivativeOrder;
 				break;
 			case CENTRAL:
 				rightMultiplier = ((derivativeOrder + errorOrder) / 2);
@@ -126,15 +138,25 @@ public final class FiniteDifference
 				length = (rightMultiplier * 2) + 1;
 				break;
 			case FORWARD:
-				rightMultiplier = errorOrder + derivativeOrder;
+				rightMultiplier = (errorOrder + derivativeOrder) - 1;
 				leftMultiplier = 0;
-				length = rightMultiplier;
+				length = errorOrder + derivativeOrder;
 				break;
 			default:
 				throw new IllegalArgumentException("finiteDifferenceType");
 		}
 		
 		this.coefficents = FiniteDifferenceCoefficients.getCoefficients(this);
+		
+		// precompute stencil-dependent bandwidth constants.
+		double sum = 0;
+		for(double c : coefficents)
+		{
+			sum += Math.abs(c);
+		}
+		
+		this.absoluteCoefficientSum = sum;
+		this.ruleOfThumbScale = RuleOfThumb.getRuleOfThumbScale(derivativeOrder, errorOrder, sum);
 	}
 	
 	/**
@@ -147,6 +169,27 @@ public final class FiniteDifference
 		return coefficents;
 	}
 
+	/**
+	 * Get the sum of the absolute values of the coefficients.
+	 * 
+	 * @return The sum.
+	 */
+	public double getAbsoluteCoefficientSum()
+	{
+		return absoluteCoefficientSum;
+	}
+	
+	/**
+	 * Get the scale-free {@linkplain RuleOfThumb rule-of-thumb} grid width,
+	 * i.e. the rule-of-thumb width at <code>|x| &le; 1</code>.
+	 * 
+	 * @return The rule-of-thumb scale.
+	 */
+	public double getRuleOfThumbScale()
+	{
+		return ruleOfThumbScale;
+	}
+
 	/**
 	 * Get the finite difference type.
 	 * 
@@ -264,7 +307,7 @@ public final class FiniteDifference
 		FiniteDifference other = (FiniteDifference)obj;
 		return (finiteDifferenceType == other.finiteDifferenceType) &&
 				(derivativeOrder == other.derivativeOrder) &&
-				(errorOrder == other.derivativeOrder);
+				(errorOrder == other.errorOrder);
 	}
 	
 }
@@ -24,10 +24,16 @@
 package com.chupacadabra.finitedifference;
 
 import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+import com.chupacadabra.finitedifference.dual.Dual;
+import com.chupacadabra.finitedifference.dual.DualMultivariateFunction;
 
 
 /**
  * Finite difference gradient function with pluggable bandwidth.
+ * <p>
+ * If the function is a {@link DualMultivariateFunction}, the gradient is 
+ * instead computed exactly, in a single pass, using dual numbers; the
+ * bandwidths and finite differences are then unused.
  */
 public class FiniteDifferenceGradientFunction
 	implements GradientFunction
@@ -79,6 +85,11 @@ public class FiniteDifferenceGradientFunction
 	@Override
 	public double[] value(final double... x)
 	{
+		if(function instanceof DualMultivariateFunction)
+		{
+			return getDualGradient((DualMultivariateFunction)function, x);
+		}
+		
 		double[] gradient = new double[x.length];
 		for(int index = 0; index < gradient.length; index++)
 		{
@@ -91,6 +102,26 @@ public class FiniteDifferenceGradientFunction
 		return gradient;
 	}
 			
+	/**
+	 * Get the gradient in a single pass using dual numbers.
+	 * 
+	 * @param dualFunction The function.
+	 * @param x The point.
+	 * @return The gradient.
+	 */
+	private static double[] getDualGradient(final DualMultivariateFunction dualFunction, final double[] x)
+	{
+		Dual[] input = new Dual[x.length];
+		for(int index = 0; index < input.length; index++)
+		{
+			input[index] = Dual.variable(x[index], index, x.length);
+		}
+		
+		Dual value = dualFunction.value(input);
+		
+		return value.getDerivatives().clone();
+	}
+			
 	/**
 	 * Partially evaluated function.
 	 */
@@ -0,0 +1,155 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import com.chupacadabra.finitedifference.matrix.LinearOperator;
+
+/**
+ * Matrix-free Hessian-vector product.
+ * <p>
+ * Approximates <code><b>H</b>(x)v</code> by directional differences of the
+ * gradient along <code>v</code>; this is simply a
+ * {@linkplain FiniteDifferenceJacobianVectorProduct Jacobian-vector product}
+ * of the gradient. Each product costs one (forward stencil) or two (central
+ * stencil) gradient evaluations, rather than the <code>O(n)</code> required
+ * to form the Hessian.
+ * <p>
+ * The gradient may be given either as a {@link GradientFunction}, which
+ * allocates a new array on every evaluation, or as a {@link VectorFunction}
+ * that writes it in place, in which case products do not allocate.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class FiniteDifferenceHessianVectorProduct
+	implements LinearOperator
+{
+
+	/**
+	 * The underlying Jacobian-vector product.
+	 */
+	private final FiniteDifferenceJacobianVectorProduct product;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param gradient The gradient.
+	 * @param dimension The dimension.
+	 * @param finiteDifference The (first-order) finite difference.
+	 */
+	public FiniteDifferenceHessianVectorProduct(
+			final GradientFunction gradient,
+			final int dimension,
+			final FiniteDifference finiteDifference)
+	{
+		this(new GradientVectorFunction(gradient), dimension, finiteDifference);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param gradient The gradient, evaluated in place.
+	 * @param dimension The dimension.
+	 * @param finiteDifference The (first-order) finite difference.
+	 */
+	public FiniteDifferenceHessianVectorProduct(
+			final VectorFunction gradient,
+			final int dimension,
+			final FiniteDifference finiteDifference)
+	{
+		product = new FiniteDifferenceJacobianVectorProduct(gradient, dimension, dimension, finiteDifference);
+	}
+
+	/**
+	 * Set the point at which the Hessian is taken.
+	 * 
+	 * @param at The point.
+	 */
+	public void setPoint(final double[] at)
+	{
+		product.setPoint(at);
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getRowDimension()
+	 */
+	@Override
+	public int getRowDimension()
+	{
+		return product.getRowDimension();
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getColumnDimension()
+	 */
+	@Override
+	public int getColumnDimension()
+	{
+		return product.getColumnDimension();
+	}
+
+	/**
+	 * @throws IllegalStateException If the point has not been set.
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#multiply(double[], double[])
+	 */
+	@Override
+	public void multiply(final double[] v, final double[] y)
+	{
+		product.multiply(v, y);
+	}
+
+	/**
+	 * Adapts a gradient function to a vector function.
+	 */
+	private static final class GradientVectorFunction
+		implements VectorFunction
+	{
+
+		/**
+		 * The gradient.
+		 */
+		private final GradientFunction gradient;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param gradient The gradient.
+		 */
+		GradientVectorFunction(final GradientFunction gradient)
+		{
+			this.gradient = gradient;
+		}
+
+		/**
+		 * @see com.chupacadabra.finitedifference.VectorFunction#value(double[], double[])
+		 */
+		@Override
+		public void value(final double[] x, final double[] y)
+		{
+			double[] value = gradient.value(x);
+			System.arraycopy(value, 0, y, 0, y.length);
+		}
+
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumb;
+import com.chupacadabra.finitedifference.matrix.LinearOperator;
+
+/**
+ * Matrix-free Jacobian-vector product.
+ * <p>
+ * Approximates <code><b>J</b>(x)v</code> by the directional derivative of
+ * <code>F</code> along <code>v</code>:
+ * <pre>
+ * <b>J</b>(x)v &asymp; &Sigma;<sub>k</sub> C<sub>k</sub> F(x + kt v) / t
+ * </pre>
+ * where <code>C<sub>k</sub></code> are the coefficients of the specified
+ * (first-order) finite difference. The step <code>t</code> is the
+ * {@linkplain RuleOfThumb rule-of-thumb} grid width at <code>||x||</code>,
+ * scaled by <code>1/||v||</code>, so that the perturbation
+ * <code>tv</code> has the same size regardless of the scale of
+ * <code>v</code>.
+ * <p>
+ * The base point is fixed with {@link #setPoint(double[])}, which must be
+ * called before any product is taken; if the stencil
+ * requires <code>F(x)</code> (e.g. a forward difference), it is evaluated
+ * once there and reused by every subsequent product. Thus, a
+ * {@linkplain FiniteDifference#TWO_POINT_FORWARD forward} stencil costs one
+ * evaluation of <code>F</code> per product and a
+ * {@linkplain FiniteDifference#THREE_POINT_CENTRAL central} stencil two.
+ * All work arrays are allocated at construction, so products do not allocate.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class FiniteDifferenceJacobianVectorProduct
+	implements LinearOperator
+{
+
+	/**
+	 * The function.
+	 */
+	private final VectorFunction function;
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The base point.
+	 */
+	private final double[] x;
+
+	/**
+	 * Function value at the base point, if required.
+	 */
+	private final double[] baseValue;
+
+	/**
+	 * Perturbed point work array.
+	 */
+	private final double[] point;
+
+	/**
+	 * Function value work array.
+	 */
+	private final double[] value;
+
+	/**
+	 * Perturbation size, i.e. the rule-of-thumb grid width at the base point.
+	 */
+	private double perturbation;
+
+	/**
+	 * Has the base point been set?
+	 */
+	private boolean pointSet;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param inputDimension The input dimension, <code>n</code>.
+	 * @param outputDimension The output dimension, <code>m</code>.
+	 * @param finiteDifference The (first-order) finite difference.
+	 */
+	public FiniteDifferenceJacobianVectorProduct(
+			final VectorFunction function,
+			final int inputDimension,
+			final int outputDimension,
+			final FiniteDifference finiteDifference)
+	{
+		if(finiteDifference.getDerivativeOrder() != 1)
+		{
+			throw new IllegalArgumentException(finiteDifference.toString());
+		}
+
+		this.function = function;
+		this.finiteDifference = finiteDifference;
+
+		x = new double[inputDimension];
+		point = new double[inputDimension];
+		baseValue = new double[outputDimension];
+		value = new double[outputDimension];
+	}
+
+	/**
+	 * Set the point at which the Jacobian is taken.
+	 * 
+	 * @param at The point.
+	 */
+	public void setPoint(final double[] at)
+	{
+		System.arraycopy(at, 0, x, 0, x.length);
+
+		double norm = 0;
+		for(double component : x)
+		{
+			norm += component * component;
+		}
+
+		perturbation = RuleOfThumb.getRuleOfThumbBandwidth(Math.sqrt(norm), finiteDifference);
+		pointSet = true;
+
+		double[] coefficients = finiteDifference.getCoefficients();
+		int centerIndex = -finiteDifference.getLeftMultiplier();
+		if((centerIndex >= 0) && (centerIndex < coefficients.length) && (coefficients[centerIndex] != 0))
+		{
+			function.value(x, baseValue);
+		}
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getRowDimension()
+	 */
+	@Override
+	public int getRowDimension()
+	{
+		return value.length;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getColumnDimension()
+	 */
+	@Override
+	public int getColumnDimension()
+	{
+		return x.length;
+	}
+
+	/**
+	 * @throws IllegalStateException If the base point has not been set.
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#multiply(double[], double[])
+	 */
+	@Override
+	public void multiply(final double[] v, final double[] y)
+	{
+		if(!pointSet)
+		{
+			throw new IllegalStateException("point");
+		}
+
+		double norm = 0;
+		for(double component : v)
+		{
+			norm += component * component;
+		}
+
+		for(int row = 0; row < value.length; row++)
+		{
+			y[row] = 0;
+		}
+
+		if(norm == 0)
+		{
+			return;
+		}
+
+		double step = perturbation / Math.sqrt(norm);
+		double[] coefficients = finiteDifference.getCoefficients();
+
+		for(int index = 0, multiplier = finiteDifference.getLeftMultiplier(); index < coefficients.length; index += 1, multiplier += 1)
+		{
+			double coefficient = coefficients[index];
+			if(coefficient == 0)
+			{
+				continue;
+			}
+
+			double[] at = baseValue;
+			if(multiplier != 0)
+			{
+				for(int column = 0; column < x.length; column++)
+				{
+					point[column] = x[column] + ((step * multiplier) * v[column]);
+				}
+
+				function.value(point, value);
+				at = value;
+			}
+
+			for(int row = 0; row < value.length; row++)
+			{
+				y[row] += coefficient * at[row];
+			}
+		}
+
+		for(int row = 0; row < value.length; row++)
+		{
+			y[row] /= step;
+		}
+	}
+
+}
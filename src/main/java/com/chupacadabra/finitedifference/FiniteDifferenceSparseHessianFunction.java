@@ -0,0 +1,478 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.Arrays;
+
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumb;
+import com.chupacadabra.finitedifference.dual.HyperDual;
+import com.chupacadabra.finitedifference.dual.HyperDualMultivariateFunction;
+import com.chupacadabra.finitedifference.matrix.SparseSymmetricMatrix;
+import com.chupacadabra.finitedifference.matrix.SparsityPattern;
+import com.chupacadabra.finitedifference.matrix.StarColoring;
+
+/**
+ * Sparse finite difference Hessian function.
+ * <p>
+ * Given the sparsity pattern of the Hessian, the columns of the Hessian are
+ * grouped using a {@linkplain StarColoring star coloring} of its adjacency
+ * graph. For each color <code>c</code> we form the (scaled) direction
+ * <code>d<sub>c</sub> = &Sigma;<sub>j &isin; c</sub> h<sub>j</sub>e<sub>j</sub></code>
+ * and estimate the compressed product <code><b>H</b>d<sub>c</sub></code>, either
+ * <ul>
+ * <li>from differences of a gradient function along <code>d<sub>c</sub></code>,
+ * at a cost of one gradient evaluation per non-zero stencil coefficient per
+ * color; or</li>
+ * <li>from direct (mixed) second differences of the function itself, along
+ * <code>e<sub>i</sub></code> and <code>d<sub>c</sub></code>, but only for those
+ * rows <code>i</code> that are actually needed to recover the Hessian.</li>
+ * </ul>
+ * Both use the specified first-order {@linkplain FiniteDifference stencil}.
+ * Because the coloring is a star coloring, every non-zero entry can be read
+ * off directly from the compressed product, taking advantage of symmetry.
+ * <p>
+ * If the function is a {@link HyperDualMultivariateFunction}, the compressed
+ * product is instead computed exactly, using one hyper-dual evaluation per
+ * needed row and color.
+ * <p>
+ * The coloring and recovery plan depend only on the sparsity pattern, so they
+ * are computed once, at construction.
+ */
+public class FiniteDifferenceSparseHessianFunction
+{
+
+	/**
+	 * The gradient, or <code>null</code> for direct second differences.
+	 */
+	private final GradientFunction gradient;
+
+	/**
+	 * The function, or <code>null</code> for gradient differences.
+	 */
+	private final MultivariateFunction function;
+
+	/**
+	 * The sparsity pattern.
+	 */
+	private final SparsityPattern pattern;
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The finite difference used to select the grid widths.
+	 */
+	private final FiniteDifference bandwidthFiniteDifference;
+
+	/**
+	 * The number of colors.
+	 */
+	private final int colorCount;
+
+	/**
+	 * Color class pointers; the vertices of color <code>c</code> occupy
+	 * <code>[colorPointers[c], colorPointers[c + 1])</code>.
+	 */
+	private final int[] colorPointers;
+
+	/**
+	 * Vertices ordered by color.
+	 */
+	private final int[] colorMembers;
+
+	/**
+	 * For each stored entry, the row of the compressed product from which it
+	 * is recovered.
+	 */
+	private final int[] sourceRows;
+
+	/**
+	 * For each stored entry, the color from which it is recovered.
+	 */
+	private final int[] sourceColors;
+
+	/**
+	 * For each stored entry, the index of the grid width by which to divide.
+	 */
+	private final int[] scaleIndices;
+
+	/**
+	 * Constructor for gradient differences.
+	 *
+	 * @param gradient The gradient function.
+	 * @param pattern The sparsity pattern of the Hessian.
+	 * @param finiteDifference The (first-order) finite difference.
+	 */
+	public FiniteDifferenceSparseHessianFunction(
+			final GradientFunction gradient,
+			final SparsityPattern pattern,
+			final FiniteDifference finiteDifference)
+	{
+		this(gradient, null, pattern, finiteDifference, finiteDifference);
+	}
+
+	/**
+	 * Constructor for direct second differences.
+	 *
+	 * @param function The function.
+	 * @param pattern The sparsity pattern of the Hessian.
+	 * @param finiteDifference The (first-order) finite difference.
+	 */
+	public FiniteDifferenceSparseHessianFunction(
+			final MultivariateFunction function,
+			final SparsityPattern pattern,
+			final FiniteDifference finiteDifference)
+	{
+		this(null, function, pattern, finiteDifference,
+				new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, finiteDifference.getErrorOrder()));
+	}
+
+	/**
+	 * Core constructor.
+	 *
+	 * @param gradient The gradient function.
+	 * @param function The function.
+	 * @param pattern The sparsity pattern.
+	 * @param finiteDifference The finite difference.
+	 * @param bandwidthFiniteDifference The bandwidth finite difference.
+	 */
+	private FiniteDifferenceSparseHessianFunction(
+			final GradientFunction gradient,
+			final MultivariateFunction function,
+			final SparsityPattern pattern,
+			final FiniteDifference finiteDifference,
+			final FiniteDifference bandwidthFiniteDifference)
+	{
+		if(finiteDifference.getDerivativeOrder() != 1)
+		{
+			throw new IllegalArgumentException(finiteDifference.toString());
+		}
+
+		this.gradient = gradient;
+		this.function = function;
+		this.pattern = pattern;
+		this.finiteDifference = finiteDifference;
+		this.bandwidthFiniteDifference = bandwidthFiniteDifference;
+
+		StarColoring coloring = new StarColoring(pattern);
+		int[] colors = coloring.getColors();
+		colorCount = coloring.getColorCount();
+
+		// group vertices by color.
+		int dimension = pattern.getDimension();
+		colorPointers = new int[colorCount + 1];
+		for(int color : colors)
+		{
+			colorPointers[color + 1] += 1;
+		}
+
+		for(int color = 0; color < colorCount; color++)
+		{
+			colorPointers[color + 1] += colorPointers[color];
+		}
+
+		colorMembers = new int[dimension];
+		int[] next = colorPointers.clone();
+		for(int vertex = 0; vertex < dimension; vertex++)
+		{
+			colorMembers[next[colors[vertex]]++] = vertex;
+		}
+
+		// build the recovery plan.
+		int[] pointers = pattern.getNeighborPointers();
+		int[] neighbors = pattern.getNeighborIndices();
+		int[] colorCounts = new int[colorCount];
+
+		int size = pattern.getLowerTriangleSize();
+		sourceRows = new int[size];
+		sourceColors = new int[size];
+		scaleIndices = new int[size];
+
+		int entry = 0;
+		for(int row = 0; row < dimension; row++)
+		{
+			// count colors in the closed neighborhood of the row.
+			colorCounts[colors[row]] += 1;
+			for(int p = pointers[row]; p < pointers[row + 1]; p++)
+			{
+				colorCounts[colors[neighbors[p]]] += 1;
+			}
+
+			for(int p = pointers[row]; p < pointers[row + 1]; p++)
+			{
+				int column = neighbors[p];
+				if(column > row)
+				{
+					break;
+				}
+
+				if(colorCounts[colors[column]] == 1)
+				{
+					// h(row, column) is the only contribution to this row.
+					sourceRows[entry] = row;
+					sourceColors[entry] = colors[column];
+					scaleIndices[entry] = column;
+				}
+				else
+				{
+					// ...so, by the star property, h(column, row) must be.
+					sourceRows[entry] = column;
+					sourceColors[entry] = colors[row];
+					scaleIndices[entry] = row;
+				}
+
+				entry += 1;
+			}
+
+			// diagonal; proper coloring means this is always unique.
+			sourceRows[entry] = row;
+			sourceColors[entry] = colors[row];
+			scaleIndices[entry] = row;
+			entry += 1;
+
+			colorCounts[colors[row]] = 0;
+			for(int p = pointers[row]; p < pointers[row + 1]; p++)
+			{
+				colorCounts[colors[neighbors[p]]] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of colors, i.e. the number of compressed directions.
+	 *
+	 * @return The number of colors.
+	 */
+	public int getColorCount()
+	{
+		return colorCount;
+	}
+
+	/**
+	 * Get the value of the Hessian.
+	 *
+	 * @param x The point.
+	 * @return The Hessian.
+	 */
+	public SparseSymmetricMatrix value(final double... x)
+	{
+		int dimension = pattern.getDimension();
+		double[] widths = new double[dimension];
+		double[][] compressed;
+
+		if(function instanceof HyperDualMultivariateFunction)
+		{
+			// exact; no scaling required.
+			Arrays.fill(widths, 1);
+			compressed = getCompressedFromHyperDual((HyperDualMultivariateFunction)function, x);
+		}
+		else
+		{
+			// use power-of-two widths so that the perturbed points are exact.
+			for(int index = 0; index < dimension; index++)
+			{
+				widths[index] = RuleOfThumb.getPowerOfTwoRuleOfThumbBandwidth(x[index], bandwidthFiniteDifference);
+			}
+
+			compressed = (gradient != null) ?
+					getCompressedFromGradient(x, widths) :
+					getCompressedFromFunction(x, widths);
+		}
+
+		SparseSymmetricMatrix hessian = new SparseSymmetricMatrix(pattern);
+		double[] values = hessian.getValues();
+		for(int entry = 0; entry < values.length; entry++)
+		{
+			values[entry] = compressed[sourceColors[entry]][sourceRows[entry]] / widths[scaleIndices[entry]];
+		}
+
+		return hessian;
+	}
+
+	/**
+	 * Get the compressed Hessian <code><b>H</b>d<sub>c</sub></code> from
+	 * gradient differences.
+	 *
+	 * @param x The point.
+	 * @param widths The grid widths.
+	 * @return The compressed Hessian, indexed by color and then row.
+	 */
+	private double[][] getCompressedFromGradient(final double[] x, final double[] widths)
+	{
+		double[] coefficients = finiteDifference.getCoefficients();
+		double[][] compressed = new double[colorCount][];
+
+		for(int color = 0; color < colorCount; color++)
+		{
+			double[] product = new double[x.length];
+
+			for(int index = 0, multiplier = finiteDifference.getLeftMultiplier(); index < coefficients.length; index += 1, multiplier += 1)
+			{
+				double coefficient = coefficients[index];
+				if(coefficient == 0)
+				{
+					continue;
+				}
+
+				double[] input = getDirectionalPoint(x, widths, color, multiplier);
+				double[] value = gradient.value(input);
+
+				for(int row = 0; row < product.length; row++)
+				{
+					product[row] += coefficient * value[row];
+				}
+			}
+
+			compressed[color] = product;
+		}
+
+		return compressed;
+	}
+
+	/**
+	 * Get the compressed Hessian <code><b>H</b>d<sub>c</sub></code> from
+	 * direct second differences; only the entries needed for recovery are
+	 * computed.
+	 *
+	 * @param x The point.
+	 * @param widths The grid widths.
+	 * @return The compressed Hessian, indexed by color and then row.
+	 */
+	private double[][] getCompressedFromFunction(final double[] x, final double[] widths)
+	{
+		double[] coefficients = finiteDifference.getCoefficients();
+		int leftMultiplier = finiteDifference.getLeftMultiplier();
+
+		double[][] compressed = new double[colorCount][x.length];
+		boolean[][] done = new boolean[colorCount][x.length];
+
+		for(int entry = 0; entry < sourceRows.length; entry++)
+		{
+			int row = sourceRows[entry];
+			int color = sourceColors[entry];
+			if(done[color][row])
+			{
+				continue;
+			}
+
+			done[color][row] = true;
+
+			// tensor product of the stencil along e(row) and d(color).
+			double sum = 0;
+			for(int i = 0; i < coefficients.length; i++)
+			{
+				if(coefficients[i] == 0)
+				{
+					continue;
+				}
+
+				for(int j = 0; j < coefficients.length; j++)
+				{
+					if(coefficients[j] == 0)
+					{
+						continue;
+					}
+
+					double[] input = getDirectionalPoint(x, widths, color, leftMultiplier + j);
+					input[row] += widths[row] * (leftMultiplier + i);
+
+					sum += coefficients[i] * coefficients[j] * function.value(input);
+				}
+			}
+
+			compressed[color][row] = sum / widths[row];
+		}
+
+		return compressed;
+	}
+
+	/**
+	 * Get the compressed Hessian <code><b>H</b>d<sub>c</sub></code> exactly,
+	 * using hyper-dual numbers; only the entries needed for recovery are
+	 * computed.
+	 *
+	 * @param hyperDualFunction The function.
+	 * @param x The point.
+	 * @return The compressed Hessian, indexed by color and then row.
+	 */
+	private double[][] getCompressedFromHyperDual(final HyperDualMultivariateFunction hyperDualFunction, final double[] x)
+	{
+		double[][] compressed = new double[colorCount][x.length];
+		boolean[][] done = new boolean[colorCount][x.length];
+
+		HyperDual[] input = new HyperDual[x.length];
+
+		for(int entry = 0; entry < sourceRows.length; entry++)
+		{
+			int row = sourceRows[entry];
+			int color = sourceColors[entry];
+			if(done[color][row])
+			{
+				continue;
+			}
+
+			done[color][row] = true;
+
+			// seed e(row) in the first part and d(color) in the second.
+			for(int index = 0; index < input.length; index++)
+			{
+				input[index] = new HyperDual(x[index], (index == row) ? 1 : 0, 0, 0);
+			}
+
+			for(int index = colorPointers[color]; index < colorPointers[color + 1]; index++)
+			{
+				int member = colorMembers[index];
+				input[member] = new HyperDual(x[member], (member == row) ? 1 : 0, 1, 0);
+			}
+
+			compressed[color][row] = hyperDualFunction.value(input).getCross();
+		}
+
+		return compressed;
+	}
+
+	/**
+	 * Get <code>x + m d<sub>c</sub></code>.
+	 *
+	 * @param x The point.
+	 * @param widths The grid widths.
+	 * @param color The color.
+	 * @param multiplier The stencil multiplier.
+	 * @return The point.
+	 */
+	private double[] getDirectionalPoint(final double[] x, final double[] widths, final int color, final int multiplier)
+	{
+		double[] input = x.clone();
+		for(int index = colorPointers[color]; index < colorPointers[color + 1]; index++)
+		{
+			int member = colorMembers[index];
+			input[member] = x[member] + (widths[member] * multiplier);
+		}
+
+		return input;
+	}
+
+}
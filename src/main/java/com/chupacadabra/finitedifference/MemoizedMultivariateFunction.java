@@ -0,0 +1,167 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A multivariate function that remembers the values it has computed.
+ * <p>
+ * This is used to share evaluations between a bandwidth strategy and the
+ * subsequent derivative computation. With power-of-two grid widths, the
+ * points of grids with different widths frequently coincide exactly, so
+ * trial evaluations made while selecting a bandwidth can often be reused.
+ * <p>
+ * Points are compared bitwise. The cache is created lazily, so wrapping a
+ * function that is never evaluated costs (almost) nothing. Instances of this
+ * class are not thread-safe and are intended to be short-lived.
+ */
+public final class MemoizedMultivariateFunction
+	implements MultivariateFunction
+{
+
+	/**
+	 * The function.
+	 */
+	private final MultivariateFunction function;
+
+	/**
+	 * Cached values, or <code>null</code> if nothing has been evaluated.
+	 */
+	private Map<Point, Double> cache;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 */
+	public MemoizedMultivariateFunction(final MultivariateFunction function)
+	{
+		this.function = function;
+	}
+
+	/**
+	 * Has this function been evaluated?
+	 * 
+	 * @return <code>true</code> if this function has not been evaluated; and
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isEmpty()
+	{
+		return (cache == null);
+	}
+
+	/**
+	 * Get the number of distinct evaluations of the underlying function.
+	 * 
+	 * @return The number of evaluations.
+	 */
+	public int getEvaluationCount()
+	{
+		return (cache == null) ? 0 : cache.size();
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.MultivariateFunction#value(double[])
+	 */
+	@Override
+	public double value(final double... x)
+	{
+		if(cache == null)
+		{
+			cache = new HashMap<Point, Double>();
+		}
+
+		Point point = new Point(x.clone());
+		Double value = cache.get(point);
+		if(value == null)
+		{
+			value = Double.valueOf(function.value(x));
+			cache.put(point, value);
+		}
+
+		return value.doubleValue();
+	}
+
+	/**
+	 * A point, with bitwise equality.
+	 */
+	private static final class Point
+	{
+
+		/**
+		 * The coordinates.
+		 */
+		private final double[] x;
+
+		/**
+		 * The hash code.
+		 */
+		private final int hashCode;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param x The coordinates.
+		 */
+		Point(final double[] x)
+		{
+			this.x = x;
+			this.hashCode = Arrays.hashCode(x);
+		}
+
+		/**
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode()
+		{
+			return hashCode;
+		}
+
+		/**
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if(this == obj)
+			{
+				return true;
+			}
+
+			if(!(obj instanceof Point))
+			{
+				return false;
+			}
+
+			Point other = (Point)obj;
+			return (hashCode == other.hashCode) && Arrays.equals(x, other.x);
+		}
+
+	}
+
+}
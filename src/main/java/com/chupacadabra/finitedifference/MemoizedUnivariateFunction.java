@@ -0,0 +1,107 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A univariate function that remembers the values it has computed.
+ * <p>
+ * This is the univariate analogue of {@link MemoizedMultivariateFunction}:
+ * with power-of-two grid widths, the points of grids with different widths
+ * frequently coincide exactly, so their values need only be computed once.
+ * <p>
+ * Points are compared bitwise. The cache is created lazily. Instances of this
+ * class are not thread-safe and are intended to be short-lived.
+ */
+public final class MemoizedUnivariateFunction
+	implements UnivariateFunction
+{
+
+	/**
+	 * The function.
+	 */
+	private final UnivariateFunction function;
+
+	/**
+	 * Cached values, or <code>null</code> if nothing has been evaluated.
+	 */
+	private Map<Double, Double> cache;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 */
+	public MemoizedUnivariateFunction(final UnivariateFunction function)
+	{
+		this.function = function;
+	}
+
+	/**
+	 * Has this function been evaluated?
+	 * 
+	 * @return <code>true</code> if this function has not been evaluated; and
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isEmpty()
+	{
+		return (cache == null);
+	}
+
+	/**
+	 * Get the number of distinct evaluations of the underlying function.
+	 * 
+	 * @return The number of evaluations.
+	 */
+	public int getEvaluationCount()
+	{
+		return (cache == null) ? 0 : cache.size();
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+	 */
+	@Override
+	public double value(final double x)
+	{
+		if(cache == null)
+		{
+			cache = new HashMap<Double, Double>();
+		}
+
+		// Double.equals is bitwise.
+		Double point = Double.valueOf(x);
+		Double value = cache.get(point);
+		if(value == null)
+		{
+			value = Double.valueOf(function.value(x));
+			cache.put(point, value);
+		}
+
+		return value.doubleValue();
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
+
+/**
+ * Multi-order univariate finite difference derivative function.
+ * <p>
+ * Computes several derivatives (e.g. the value and the first and second
+ * derivatives) at the same point from a single, shared set of function
+ * evaluations. The stencil of each order is embedded in the union of all the
+ * stencils, and each point of the union is evaluated exactly once.
+ * <p>
+ * A single grid width is used for all orders: the bandwidth function is
+ * consulted with the stencil of the highest order, which is generally the
+ * most sensitive to the choice of width. The weighted sums are scaled as by
+ * the {@linkplain StencilScale stencil kernels}, i.e. exactly for power-of-two
+ * widths.
+ */
+public class MultiOrderFiniteDifferenceDerivativeFunction
+{
+
+	/**
+	 * The function.
+	 */
+	private final UnivariateFunction function;
+
+	/**
+	 * The bandwidth function.
+	 */
+	private final UnivariateBandwidth bandwidthFunction;
+
+	/**
+	 * The derivative orders.
+	 */
+	private final int[] derivativeOrders;
+
+	/**
+	 * The finite difference used to select the grid width.
+	 */
+	private final FiniteDifference bandwidthFiniteDifference;
+
+	/**
+	 * The multipliers of the shared points.
+	 */
+	private final int[] multipliers;
+
+	/**
+	 * The weights, indexed by derivative and then shared point.
+	 */
+	private final double[][] weights;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param bandwidthFunction The bandwidth function.
+	 * @param finiteDifferenceType The finite difference type.
+	 * @param errorOrder The error order, common to all derivatives.
+	 * @param derivativeOrders The derivative orders.
+	 */
+	public MultiOrderFiniteDifferenceDerivativeFunction(
+			final UnivariateFunction function,
+			final UnivariateBandwidth bandwidthFunction,
+			final FiniteDifferenceType finiteDifferenceType,
+			final int errorOrder,
+			final int... derivativeOrders)
+	{
+		if(derivativeOrders.length == 0)
+		{
+			throw new IllegalArgumentException("derivativeOrders");
+		}
+
+		this.function = function;
+		this.bandwidthFunction = bandwidthFunction;
+		this.derivativeOrders = derivativeOrders.clone();
+
+		FiniteDifference[] finiteDifferences = new FiniteDifference[derivativeOrders.length];
+		FiniteDifference highest = null;
+		int left = Integer.MAX_VALUE;
+		int right = Integer.MIN_VALUE;
+
+		for(int index = 0; index < derivativeOrders.length; index++)
+		{
+			FiniteDifference finiteDifference = new FiniteDifference(finiteDifferenceType, derivativeOrders[index], errorOrder);
+			finiteDifferences[index] = finiteDifference;
+
+			left = Math.min(left, finiteDifference.getLeftMultiplier());
+			right = Math.max(right, finiteDifference.getLeftMultiplier() + finiteDifference.getLength() - 1);
+
+			if((highest == null) || (finiteDifference.getDerivativeOrder() > highest.getDerivativeOrder()))
+			{
+				highest = finiteDifference;
+			}
+		}
+
+		this.bandwidthFiniteDifference = highest;
+
+		// embed each stencil in the union.
+		int size = right - left + 1;
+		double[][] embedded = new double[derivativeOrders.length][size];
+		boolean[] used = new boolean[size];
+		int count = 0;
+
+		for(int index = 0; index < finiteDifferences.length; index++)
+		{
+			double[] coefficients = finiteDifferences[index].getCoefficients();
+			int offset = finiteDifferences[index].getLeftMultiplier() - left;
+
+			for(int point = 0; point < coefficients.length; point++)
+			{
+				embedded[index][offset + point] = coefficients[point];
+
+				if((coefficients[point] != 0) && !used[offset + point])
+				{
+					used[offset + point] = true;
+					count += 1;
+				}
+			}
+		}
+
+		// and drop points with no weight in any stencil.
+		multipliers = new int[count];
+		weights = new double[derivativeOrders.length][count];
+
+		for(int point = 0, shared = 0; point < size; point++)
+		{
+			if(!used[point])
+			{
+				continue;
+			}
+
+			multipliers[shared] = left + point;
+			for(int index = 0; index < derivativeOrders.length; index++)
+			{
+				weights[index][shared] = embedded[index][point];
+			}
+
+			shared += 1;
+		}
+	}
+
+	/**
+	 * Get the number of function evaluations per point.
+	 * 
+	 * @return The number of evaluations.
+	 */
+	public int getEvaluationCount()
+	{
+		return multipliers.length;
+	}
+
+	/**
+	 * Get the derivatives at the specified point.
+	 * 
+	 * @param x The point.
+	 * @return The derivatives, in the order specified at construction.
+	 */
+	public double[] value(final double x)
+	{
+		double gridWidth = bandwidthFunction.value(x, bandwidthFiniteDifference, function);
+
+		double[] values = new double[multipliers.length];
+		for(int point = 0; point < values.length; point++)
+		{
+			values[point] = function.value(x + (gridWidth * multipliers[point]));
+		}
+
+		double[] derivatives = new double[derivativeOrders.length];
+		for(int index = 0; index < derivatives.length; index++)
+		{
+			double sum = 0;
+			for(int point = 0; point < values.length; point++)
+			{
+				sum += weights[index][point] * values[point];
+			}
+
+			derivatives[index] = StencilScale.scale(sum, derivativeOrders[index], gridWidth);
+		}
+
+		return derivatives;
+	}
+
+}
@@ -23,6 +23,8 @@
  */ 
 package com.chupacadabra.finitedifference;
 
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumb;
+
 
 /**
  * A multivariate finite difference stencil descriptor.
@@ -56,6 +58,16 @@ public class MultivariateFiniteDifference
 	 * Finite difference tensor in row-major order.
 	 */
 	private final double[] tensor;
+	
+	/**
+	 * The sum of the absolute values of the tensor coefficients.
+	 */
+	private final double absoluteCoefficientSum;
+	
+	/**
+	 * The (scale-free) rule-of-thumb grid widths.
+	 */
+	private final double[] ruleOfThumbScales;
 
 	/**
 	 * Constructor.
@@ -66,6 +78,16 @@ public class MultivariateFiniteDifference
 	{
 		this.finiteDifferences = finiteDifferences;
 		this.tensor = createCoefficientTensor();
+		
+		// precompute stencil-dependent bandwidth constants.
+		double sum = 0;
+		for(double c : tensor)
+		{
+			sum += Math.abs(c);
+		}
+		
+		this.absoluteCoefficientSum = sum;
+		this.ruleOfThumbScales = RuleOfThumb.getRuleOfThumbScales(finiteDifferences, sum);
 	}
 	
 	/**
@@ -97,7 +119,7 @@ public class MultivariateFiniteDifference
 			
 			tensor[tensorIndex] = tensorValue;
 			
-			if((tensorIndex - 1) < size)
+			if((tensorIndex + 1) < size)
 			{
 				// advance the index
 				int incrementIndex = 0;
@@ -131,6 +153,27 @@ public class MultivariateFiniteDifference
 		return finiteDifferences;
 	}
 	
+	/**
+	 * Get the scale-free {@linkplain RuleOfThumb rule-of-thumb} grid widths,
+	 * i.e. the rule-of-thumb widths at <code>|x<sub>i</sub>| &le; 1</code>.
+	 * 
+	 * @return The rule-of-thumb scales.
+	 */
+	public double[] getRuleOfThumbScales()
+	{
+		return ruleOfThumbScales;
+	}
+	
+	/**
+	 * Get the sum of the absolute values of the tensor coefficients.
+	 * 
+	 * @return The sum.
+	 */
+	public double getAbsoluteCoefficientSum()
+	{
+		return absoluteCoefficientSum;
+	}
+	
 	/**
 	 * Get the finite difference coefficient tensor in row-major order.
 	 * 
@@ -24,11 +24,16 @@
 package com.chupacadabra.finitedifference;
 
 import com.chupacadabra.finitedifference.bandwidth.MultivariateBandwidth;
-import com.chupacadabra.finitedifference.util.DotProduct;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
 
 /**
  * Multivariate finite difference derivative function with a pluggable bandwidth
  * strategy.
+ * <p>
+ * Stencil points with a zero coefficient are never evaluated. When every
+ * component stencil is central, the tensor stencil is symmetric or
+ * antisymmetric about the origin, and each point is paired with its mirror
+ * image before multiplying.
  */
 public class MultivariateFiniteDifferenceDerivativeFunction
 	implements MultivariateFunction
@@ -55,9 +60,25 @@ public class MultivariateFiniteDifferenceDerivativeFunction
 	private final FiniteDifference[] finiteDifferences;
 	
 	/**
-	 * The (multivariate) tensor stencil in row-major order.
+	 * The multipliers of each term.
 	 */
-	private final double[] tensor;
+	private final int[][] termMultipliers;
+	
+	/**
+	 * The coefficient of each term.
+	 */
+	private final double[] termCoefficients;
+	
+	/**
+	 * The sign with which the mirror image of each term is paired, or zero if
+	 * terms are not paired.
+	 */
+	private final int pairSign;
+	
+	/**
+	 * The coefficient at the origin, if terms are paired.
+	 */
+	private final double centerCoefficient;
 	
 	/**
 	 * Constructor.
@@ -78,7 +99,96 @@ public class MultivariateFiniteDifferenceDerivativeFunction
 		// grab/cache some stuff we need from the multivariate stencil
 		// descriptor.
 		finiteDifferences = finiteDifference.getFiniteDifferences();
-		tensor = finiteDifference.getCoefficients();
+		double[] tensor = finiteDifference.getCoefficients();
+		
+		pairSign = getPairSign(tensor);
+		
+		// with pairing, only the first half of the tensor is needed; the
+		// origin is in the middle.
+		int end = (pairSign == 0) ? tensor.length : (tensor.length / 2);
+		centerCoefficient = (pairSign == 0) ? 0 : tensor[end];
+		
+		int count = 0;
+		for(int tensorIndex = 0; tensorIndex < end; tensorIndex++)
+		{
+			if(tensor[tensorIndex] != 0)
+			{
+				count += 1;
+			}
+		}
+		
+		termMultipliers = new int[count][];
+		termCoefficients = new double[count];
+		for(int tensorIndex = 0, term = 0; tensorIndex < end; tensorIndex++)
+		{
+			if(tensor[tensorIndex] != 0)
+			{
+				termMultipliers[term] = getMultipliers(tensorIndex);
+				termCoefficients[term] = tensor[tensorIndex];
+				term += 1;
+			}
+		}
+	}
+	
+	/**
+	 * Get the sign with which the specified tensor stencil pairs each point
+	 * with its mirror image.
+	 * <p>
+	 * If every component stencil is centered on the origin, the mirror image
+	 * of the point at row-major index <code>i</code> is at
+	 * <code>n - 1 - i</code>.
+	 * 
+	 * @param tensor The tensor stencil.
+	 * @return <code>1</code> if symmetric, <code>-1</code> if antisymmetric and
+	 *         <code>0</code> otherwise.
+	 */
+	private int getPairSign(final double[] tensor)
+	{
+		for(FiniteDifference fd : finiteDifferences)
+		{
+			if((fd.getFiniteDifferenceType() != FiniteDifferenceType.CENTRAL) ||
+					(fd.getLength() != (1 - (2 * fd.getLeftMultiplier()))))
+			{
+				return 0;
+			}
+		}
+		
+		for(int sign = 1; sign >= -1; sign -= 2)
+		{
+			boolean paired = true;
+			for(int index = 0; paired && (index <= (tensor.length / 2)); index++)
+			{
+				paired = (tensor[index] == (sign * tensor[tensor.length - 1 - index]));
+			}
+			
+			if(paired)
+			{
+				return sign;
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Get the multipliers of the specified row-major tensor index. 
+	 * 
+	 * @param tensorIndex The tensor index.
+	 * @return The multipliers.
+	 */
+	private int[] getMultipliers(final int tensorIndex)
+	{
+		int[] multipliers = new int[finiteDifferences.length];
+		
+		int remainder = tensorIndex;
+		for(int index = 0; index < multipliers.length; index++)
+		{
+			int length = finiteDifferences[index].getLength();
+			multipliers[index] = finiteDifferences[index].getLeftMultiplier() + (remainder % length);
+			remainder /= length;
+		}
+		
+		return multipliers;
 	}
 
 
@@ -88,8 +198,13 @@ public class MultivariateFiniteDifferenceDerivativeFunction
 	@Override
 	public double value(final double... x)
 	{
-		double[] gridWidths = bandwidthFunction.value(x, finiteDifference, function);
-		double derivative = getDerivative(x, gridWidths);
+		// share any evaluations the bandwidth strategy makes with the
+		// derivative computation itself.
+		MemoizedMultivariateFunction memoized = new MemoizedMultivariateFunction(function);
+		double[] gridWidths = bandwidthFunction.value(x, finiteDifference, memoized);
+		
+		MultivariateFunction evaluator = memoized.isEmpty() ? function : memoized;
+		double derivative = getDerivative(evaluator, x, gridWidths);
 		
 		return derivative;
 	}
@@ -97,77 +212,63 @@ public class MultivariateFiniteDifferenceDerivativeFunction
 	/**
 	 * Get the derivative at the specified point, given the specified widths. 
 	 * 
+	 * @param evaluator The function to evaluate.
 	 * @param x The point.
 	 * @param widths The grid widths.
 	 * @return The derivative.
 	 */
-	private double getDerivative(final double[] x, final double[] widths)
+	private double getDerivative(final MultivariateFunction evaluator, final double[] x, final double[] widths)
 	{
-		double[] valueTensor = getValueTensor(x, widths);
+		double innerProduct = (centerCoefficient == 0) ? 0 : (centerCoefficient * evaluator.value(x));
+		
+		for(int term = 0; term < termCoefficients.length; term++)
+		{
+			int[] multipliers = termMultipliers[term];
+			double value = evaluator.value(getInput(x, widths, multipliers, 1));
+			
+			if(pairSign > 0)
+			{
+				value += evaluator.value(getInput(x, widths, multipliers, -1));
+			}
+			else if(pairSign < 0)
+			{
+				value -= evaluator.value(getInput(x, widths, multipliers, -1));
+			}
+			
+			innerProduct += termCoefficients[term] * value;
+		}
 		
-		// compute inner product.
-		double[] coefficientTensor = finiteDifference.getCoefficients();
-		double innerProduct = DotProduct.of(coefficientTensor, valueTensor);
 		double derivative = innerProduct;
 		
+		// the widths vary from point to point, so use the one-off scaling.
 		for(int index = 0; index < finiteDifferences.length; index++)
 		{
-			derivative /= Math.pow(widths[index], finiteDifferences[index].getDerivativeOrder());
+			derivative = StencilScale.scale(derivative, finiteDifferences[index].getDerivativeOrder(), widths[index]);
 		}
 		
 		return derivative;		
 	}
 
 	/**
-	 * Get a tensor, in row-major order, of function values. 
+	 * Get a stencil point.
 	 *  
 	 * @param x The point.
 	 * @param gridWidths The grid widths.
-	 * @return Value tensor.
+	 * @param multipliers The multipliers.
+	 * @param sign The sign of the multipliers.
+	 * @return The stencil point.
 	 */
-	private double[] getValueTensor(final double[] x, final double[] gridWidths)
+	private static double[] getInput(final double[] x, final double[] gridWidths, final int[] multipliers, final int sign)
 	{
-		double[] valueTensor = new double[tensor.length];
-		
-		FiniteDifference[] finiteDifferences = finiteDifference.getFiniteDifferences();
-		
-		// compute base point.
-		double[] base = new double[x.length];
-		for(int index = 0; index < base.length; index++)
+		// don't keep a "running" input value - it can allow a non-trivial
+		// amount of error to accumulate!
+		double[] input = new double[x.length];
+		for(int index = 0; index < input.length; index++)
 		{
-			base[index] = x[index] + (gridWidths[index] * finiteDifferences[index].getLeftMultiplier());			
-		}
-				
-		double[] input = base.clone();
-		int[] index = new int[finiteDifferences.length];
-		for(int tensorIndex = 0; tensorIndex < tensor.length; tensorIndex++)
-		{
-			double value = function.value(input);
-			valueTensor[tensorIndex] = value;
-			
-			if((tensorIndex - 1) < valueTensor.length)
-			{
-				int incrementIndex = 0;
-				while(true)
-				{
-					index[incrementIndex] += 1;
-					valueTensor[incrementIndex] += gridWidths[incrementIndex];
-					
-					if(index[incrementIndex] == finiteDifferences[incrementIndex].getLength())
-					{
-						index[incrementIndex] = 0;
-						valueTensor[incrementIndex] = base[incrementIndex];
-						incrementIndex += 1;
-					}
-					else
-					{
-						break;
-					}
-				}				
-			}			
+			input[index] = x[index] + (gridWidths[index] * (sign * multipliers[index]));
 		}
 		
-		return valueTensor;
+		return input;
 	}
 
 }
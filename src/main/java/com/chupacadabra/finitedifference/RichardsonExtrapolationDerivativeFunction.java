@@ -0,0 +1,226 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+import com.chupacadabra.finitedifference.util.MachineEpsilon;
+import com.chupacadabra.finitedifference.util.PowerOfTwo;
+
+/**
+ * Richardson extrapolation derivative function.
+ * <p>
+ * The derivative is estimated with the specified (low order) finite
+ * difference at grid widths <code>h, h/2, h/4, ...</code>, and the estimates
+ * are combined in a Neville-style extrapolation table, each column of which
+ * eliminates the next term of the error expansion of the stencil. (For
+ * central differences, only every other power of <code>h</code> appears.)
+ * <p>
+ * The initial width, obtained from the bandwidth function, is rounded up to a
+ * power of two, so every width is a power of two and the stencil points of
+ * successive levels coincide exactly; each point is evaluated only once. The
+ * initial width should therefore be (much) coarser than one suitable for the
+ * finite difference on its own.
+ * <p>
+ * Extrapolation stops as soon as successive diagonal entries of the table
+ * agree to within the specified relative tolerance, or the error estimate
+ * starts to grow, in which case the best estimate seen so far is returned.
+ */
+public class RichardsonExtrapolationDerivativeFunction
+	implements UnivariateFunction
+{
+
+	/**
+	 * The default maximum number of levels.
+	 */
+	public static final int DEFAULT_MAXIMUM_LEVELS = 10;
+
+	/**
+	 * The default relative tolerance.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1024 * MachineEpsilon.DOUBLE_VALUE;
+
+	/**
+	 * The function.
+	 */
+	private final UnivariateFunction function;
+
+	/**
+	 * The bandwidth function, which supplies the initial grid width.
+	 */
+	private final UnivariateBandwidth bandwidthFunction;
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The maximum number of levels.
+	 */
+	private final int maximumLevels;
+
+	/**
+	 * The relative tolerance.
+	 */
+	private final double tolerance;
+
+	/**
+	 * The exponent of the leading error term.
+	 */
+	private final int leadingErrorExponent;
+
+	/**
+	 * The gap between successive exponents of the error expansion.
+	 */
+	private final int errorExponentStep;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * This constructor uses the default maximum number of levels and tolerance.
+	 * 
+	 * @param function The function.
+	 * @param bandwidthFunction The bandwidth function, which supplies the
+	 *            initial grid width.
+	 * @param finiteDifference The finite difference.
+	 */
+	public RichardsonExtrapolationDerivativeFunction(
+			final UnivariateFunction function,
+			final UnivariateBandwidth bandwidthFunction,
+			final FiniteDifference finiteDifference)
+	{
+		this(function, bandwidthFunction, finiteDifference, DEFAULT_MAXIMUM_LEVELS, DEFAULT_TOLERANCE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param bandwidthFunction The bandwidth function, which supplies the
+	 *            initial grid width.
+	 * @param finiteDifference The finite difference.
+	 * @param maximumLevels The maximum number of levels.
+	 * @param tolerance The relative tolerance.
+	 */
+	public RichardsonExtrapolationDerivativeFunction(
+			final UnivariateFunction function,
+			final UnivariateBandwidth bandwidthFunction,
+			final FiniteDifference finiteDifference,
+			final int maximumLevels,
+			final double tolerance)
+	{
+		if(maximumLevels < 1)
+		{
+			throw new IllegalArgumentException("maximumLevels");
+		}
+
+		this.function = function;
+		this.bandwidthFunction = bandwidthFunction;
+		this.finiteDifference = finiteDifference;
+		this.maximumLevels = maximumLevels;
+		this.tolerance = tolerance;
+		this.leadingErrorExponent = finiteDifference.getErrorOrder();
+		this.errorExponentStep = (finiteDifference.getFiniteDifferenceType() == FiniteDifferenceType.CENTRAL) ? 2 : 1;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+	 */
+	@Override
+	public double value(final double x)
+	{
+		return getEstimate(x).getValue();
+	}
+
+	/**
+	 * Get the derivative at the specified point, together with an estimate of
+	 * its error.
+	 * 
+	 * @param x The point.
+	 * @return The estimate.
+	 */
+	public DerivativeEstimate getEstimate(final double x)
+	{
+		MemoizedUnivariateFunction memoizedFunction = new MemoizedUnivariateFunction(function);
+		UnivariateFiniteDifferenceDerivativeFunction derivativeFunction = new UnivariateFiniteDifferenceDerivativeFunction(
+				memoizedFunction, bandwidthFunction, finiteDifference);
+
+		double gridWidth = PowerOfTwo.nextLargestPowerOfTwo(bandwidthFunction.value(x, finiteDifference, memoizedFunction));
+
+		double[] previous = new double[maximumLevels];
+		double[] current = new double[maximumLevels];
+
+		double best = Double.NaN;
+		double bestError = Double.POSITIVE_INFINITY;
+
+		for(int level = 0; level < maximumLevels; level++)
+		{
+			current[0] = derivativeFunction.getDerivative(x, gridWidth);
+
+			for(int column = 1; column <= level; column++)
+			{
+				double factor = Math.scalb(1.0, leadingErrorExponent + ((column - 1) * errorExponentStep));
+				current[column] = current[column - 1] + ((current[column - 1] - previous[column - 1]) / (factor - 1));
+			}
+
+			if(level == 0)
+			{
+				best = current[0];
+			}
+			else
+			{
+				double estimate = current[level];
+				double error = Math.max(
+						Math.abs(estimate - current[level - 1]),
+						Math.abs(estimate - previous[level - 1]));
+
+				if(error <= bestError)
+				{
+					best = estimate;
+					bestError = error;
+				}
+
+				if(bestError <= tolerance * Math.max(1, Math.abs(best)))
+				{
+					break;
+				}
+
+				// the table has started to diverge, due to rounding error.
+				if(Math.abs(estimate - previous[level - 1]) >= 2 * bestError)
+				{
+					break;
+				}
+			}
+
+			double[] swap = previous;
+			previous = current;
+			current = swap;
+
+			gridWidth *= 0.5;
+		}
+
+		return new DerivativeEstimate(best, bestError, memoizedFunction.getEvaluationCount());
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+
+/**
+ * Ridders' adaptive derivative function.
+ * <p>
+ * Starting from a (large) initial grid width, obtained from the bandwidth
+ * function, the derivative is estimated with the specified finite difference
+ * at successively smaller widths <code>h, h/c, h/c<sup>2</sup>, ...</code>,
+ * and the estimates are combined in a Neville extrapolation table. Every
+ * entry of the table yields an error estimate; the entry with the smallest
+ * estimate is retained.
+ * <p>
+ * The iteration terminates as soon as the error estimate falls below the
+ * specified (absolute) tolerance, or as soon as the highest order entry
+ * becomes worse than the best estimate by a significant factor, indicating
+ * that rounding error has started to dominate. Evaluations are thus only
+ * spent where the function needs them.
+ */
+public class RiddersDerivativeFunction
+	implements UnivariateFunction
+{
+
+	/**
+	 * The default shrink factor.
+	 */
+	public static final double DEFAULT_SHRINK_FACTOR = 1.4;
+
+	/**
+	 * The default maximum number of levels.
+	 */
+	public static final int DEFAULT_MAXIMUM_LEVELS = 10;
+
+	/**
+	 * Terminate when the error grows by this factor.
+	 */
+	private static final double SAFETY_FACTOR = 2.0;
+
+	/**
+	 * The function.
+	 */
+	private final UnivariateFunction function;
+
+	/**
+	 * The bandwidth function, which supplies the initial grid width.
+	 */
+	private final UnivariateBandwidth bandwidthFunction;
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The (absolute) tolerance.
+	 */
+	private final double tolerance;
+
+	/**
+	 * The shrink factor.
+	 */
+	private final double shrinkFactor;
+
+	/**
+	 * The maximum number of levels.
+	 */
+	private final int maximumLevels;
+
+	/**
+	 * The exponent of the leading error term.
+	 */
+	private final int leadingErrorExponent;
+
+	/**
+	 * The gap between successive exponents of the error expansion.
+	 */
+	private final int errorExponentStep;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * This constructor uses the default shrink factor and maximum number of
+	 * levels.
+	 * 
+	 * @param function The function.
+	 * @param bandwidthFunction The bandwidth function, which supplies the
+	 *            initial grid width.
+	 * @param finiteDifference The finite difference.
+	 * @param tolerance The (absolute) tolerance.
+	 */
+	public RiddersDerivativeFunction(
+			final UnivariateFunction function,
+			final UnivariateBandwidth bandwidthFunction,
+			final FiniteDifference finiteDifference,
+			final double tolerance)
+	{
+		this(function, bandwidthFunction, finiteDifference, tolerance, DEFAULT_SHRINK_FACTOR, DEFAULT_MAXIMUM_LEVELS);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param bandwidthFunction The bandwidth function, which supplies the
+	 *            initial grid width.
+	 * @param finiteDifference The finite difference.
+	 * @param tolerance The (absolute) tolerance.
+	 * @param shrinkFactor The shrink factor, which must exceed one.
+	 * @param maximumLevels The maximum number of levels.
+	 */
+	public RiddersDerivativeFunction(
+			final UnivariateFunction function,
+			final UnivariateBandwidth bandwidthFunction,
+			final FiniteDifference finiteDifference,
+			final double tolerance,
+			final double shrinkFactor,
+			final int maximumLevels)
+	{
+		if(!(shrinkFactor > 1))
+		{
+			throw new IllegalArgumentException("shrinkFactor");
+		}
+
+		if(maximumLevels < 1)
+		{
+			throw new IllegalArgumentException("maximumLevels");
+		}
+
+		this.function = function;
+		this.bandwidthFunction = bandwidthFunction;
+		this.finiteDifference = finiteDifference;
+		this.tolerance = tolerance;
+		this.shrinkFactor = shrinkFactor;
+		this.maximumLevels = maximumLevels;
+		this.leadingErrorExponent = finiteDifference.getErrorOrder();
+		this.errorExponentStep = (finiteDifference.getFiniteDifferenceType() == FiniteDifferenceType.CENTRAL) ? 2 : 1;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+	 */
+	@Override
+	public double value(final double x)
+	{
+		return getEstimate(x).getValue();
+	}
+
+	/**
+	 * Get the derivative at the specified point, together with an estimate of
+	 * its error.
+	 * 
+	 * @param x The point.
+	 * @return The estimate.
+	 */
+	public DerivativeEstimate getEstimate(final double x)
+	{
+		// count every distinct evaluation, including the bandwidth's.
+		MemoizedUnivariateFunction memoizedFunction = new MemoizedUnivariateFunction(function);
+		UnivariateFiniteDifferenceDerivativeFunction derivativeFunction = new UnivariateFiniteDifferenceDerivativeFunction(
+				memoizedFunction, bandwidthFunction, finiteDifference);
+
+		double gridWidth = bandwidthFunction.value(x, finiteDifference, memoizedFunction);
+
+		double[] previous = new double[maximumLevels];
+		double[] current = new double[maximumLevels];
+
+		double best = Double.NaN;
+		double bestError = Double.POSITIVE_INFINITY;
+
+		for(int level = 0; level < maximumLevels; level++)
+		{
+			current[0] = derivativeFunction.getDerivative(x, gridWidth);
+
+			if(level == 0)
+			{
+				best = current[0];
+			}
+
+			for(int column = 1; column <= level; column++)
+			{
+				double factor = Math.pow(shrinkFactor, leadingErrorExponent + ((column - 1) * errorExponentStep));
+				current[column] = current[column - 1] + ((current[column - 1] - previous[column - 1]) / (factor - 1));
+
+				double error = Math.max(
+						Math.abs(current[column] - current[column - 1]),
+						Math.abs(current[column] - previous[column - 1]));
+
+				if(error <= bestError)
+				{
+					best = current[column];
+					bestError = error;
+				}
+			}
+
+			if(bestError <= tolerance)
+			{
+				break;
+			}
+
+			// higher order is worse by a significant factor; give up.
+			if((level > 0) && (Math.abs(current[level] - previous[level - 1]) >= SAFETY_FACTOR * bestError))
+			{
+				break;
+			}
+
+			double[] swap = previous;
+			previous = current;
+			current = swap;
+
+			gridWidth /= shrinkFactor;
+		}
+
+		return new DerivativeEstimate(best, bestError, memoizedFunction.getEvaluationCount());
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.Arrays;
+
+/**
+ * A local (multivariate) Taylor polynomial model.
+ * <p>
+ * The model is
+ * <code>p(x) = &Sigma;<sub>&alpha;</sub> c<sub>&alpha;</sub>(x - x<sub>0</sub>)<sup>&alpha;</sup></code>,
+ * where the sum runs over all multi-indices <code>&alpha;</code> with
+ * <code>|&alpha;| &le; k</code> and
+ * <code>c<sub>&alpha;</sub> = &part;<sup>&alpha;</sup>f(x<sub>0</sub>) / &alpha;!</code>.
+ * <p>
+ * Instances of this class are immutable.
+ */
+public final class TaylorModel
+	implements MultivariateFunction
+{
+
+	/**
+	 * The center.
+	 */
+	private final double[] center;
+
+	/**
+	 * The order.
+	 */
+	private final int order;
+
+	/**
+	 * The multi-indices, in graded order.
+	 */
+	private final int[][] exponents;
+
+	/**
+	 * The Taylor coefficients.
+	 */
+	private final double[] coefficients;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param center The center.
+	 * @param order The order.
+	 * @param exponents The multi-indices.
+	 * @param coefficients The Taylor coefficients, i.e. the partial
+	 *            derivatives divided by the multi-index factorials.
+	 */
+	TaylorModel(final double[] center, final int order, final int[][] exponents, final double[] coefficients)
+	{
+		this.center = center;
+		this.order = order;
+		this.exponents = exponents;
+		this.coefficients = coefficients;
+	}
+
+	/**
+	 * Get the center.
+	 * 
+	 * @return The center.
+	 */
+	public double[] getCenter()
+	{
+		return center.clone();
+	}
+
+	/**
+	 * Get the order.
+	 * 
+	 * @return The order.
+	 */
+	public int getOrder()
+	{
+		return order;
+	}
+
+	/**
+	 * Get the dimension.
+	 * 
+	 * @return The dimension.
+	 */
+	public int getDimension()
+	{
+		return center.length;
+	}
+
+	/**
+	 * Get the (estimated) partial derivative at the center.
+	 * 
+	 * @param alpha The multi-index; <code>alpha[i]</code> is the order of
+	 *            differentiation along the <code>i</code><sup>th</sup>
+	 *            coordinate.
+	 * @return The partial derivative.
+	 */
+	public double getDerivative(final int... alpha)
+	{
+		if(alpha.length != center.length)
+		{
+			throw new IllegalArgumentException("alpha");
+		}
+
+		for(int term = 0; term < exponents.length; term++)
+		{
+			if(Arrays.equals(exponents[term], alpha))
+			{
+				double factorial = 1;
+				for(int a : alpha)
+				{
+					factorial *= factorial(a);
+				}
+
+				return coefficients[term] * factorial;
+			}
+		}
+
+		throw new IllegalArgumentException("alpha");
+	}
+
+	/**
+	 * Get the gradient at the center.
+	 * 
+	 * @return The gradient.
+	 */
+	public double[] getGradient()
+	{
+		double[] gradient = new double[center.length];
+		for(int term = 0; term < exponents.length; term++)
+		{
+			int degree = getDegree(exponents[term]);
+			if(degree == 1)
+			{
+				gradient[getFirstNonZero(exponents[term])] = coefficients[term];
+			}
+		}
+
+		return gradient;
+	}
+
+	/**
+	 * Get the Hessian at the center.
+	 * 
+	 * @return The Hessian.
+	 */
+	public double[][] getHessian()
+	{
+		if(order < 2)
+		{
+			throw new IllegalStateException("order");
+		}
+
+		double[][] hessian = new double[center.length][center.length];
+		for(int term = 0; term < exponents.length; term++)
+		{
+			int[] alpha = exponents[term];
+			if(getDegree(alpha) != 2)
+			{
+				continue;
+			}
+
+			int i = getFirstNonZero(alpha);
+			if(alpha[i] == 2)
+			{
+				hessian[i][i] = 2 * coefficients[term];
+			}
+			else
+			{
+				int j = getFirstNonZero(alpha, i + 1);
+				hessian[i][j] = coefficients[term];
+				hessian[j][i] = coefficients[term];
+			}
+		}
+
+		return hessian;
+	}
+
+	/**
+	 * Evaluate the model.
+	 * 
+	 * @see com.chupacadabra.finitedifference.MultivariateFunction#value(double[])
+	 */
+	@Override
+	public double value(final double... x)
+	{
+		// tabulate powers of the displacement.
+		double[][] powers = new double[center.length][order + 1];
+		for(int index = 0; index < center.length; index++)
+		{
+			double d = x[index] - center[index];
+			powers[index][0] = 1;
+			for(int power = 1; power <= order; power++)
+			{
+				powers[index][power] = powers[index][power - 1] * d;
+			}
+		}
+
+		double value = 0;
+		for(int term = 0; term < exponents.length; term++)
+		{
+			int[] alpha = exponents[term];
+
+			double product = coefficients[term];
+			for(int index = 0; index < alpha.length; index++)
+			{
+				product *= powers[index][alpha[index]];
+			}
+
+			value += product;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Get the degree of a multi-index.
+	 * 
+	 * @param alpha The multi-index.
+	 * @return The degree.
+	 */
+	static int getDegree(final int[] alpha)
+	{
+		int degree = 0;
+		for(int a : alpha)
+		{
+			degree += a;
+		}
+
+		return degree;
+	}
+
+	/**
+	 * Compute the factorial of the specified value.
+	 * 
+	 * @param n The value.
+	 * @return <code>n!</code>
+	 */
+	static int factorial(final int n)
+	{
+		int value = 1;
+		for(int index = 1; index <= n; index++)
+		{
+			value *= index;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Get the index of the first non-zero entry of a multi-index.
+	 * 
+	 * @param alpha The multi-index.
+	 * @return The index.
+	 */
+	private static int getFirstNonZero(final int[] alpha)
+	{
+		return getFirstNonZero(alpha, 0);
+	}
+
+	/**
+	 * Get the index of the first non-zero entry of a multi-index, at or after
+	 * the specified index.
+	 * 
+	 * @param alpha The multi-index.
+	 * @param start The index at which to start.
+	 * @return The index.
+	 */
+	private static int getFirstNonZero(final int[] alpha, final int start)
+	{
+		for(int index = start; index < alpha.length; index++)
+		{
+			if(alpha[index] != 0)
+			{
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+}
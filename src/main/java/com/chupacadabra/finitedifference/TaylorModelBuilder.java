@@ -0,0 +1,237 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumb;
+
+/**
+ * Local Taylor model builder.
+ * <p>
+ * Estimates every partial derivative of a function up to the specified order
+ * at a point, and assembles them into a {@linkplain TaylorModel Taylor model}.
+ * Each partial derivative <code>&part;<sup>&alpha;</sup>f</code> is the tensor
+ * product of central differences of order <code>&alpha;<sub>i</sub></code>
+ * along each coordinate. All of the tensor products are taken on the same
+ * (power-of-two) grid, so they share most of their points, and each distinct
+ * point is evaluated only once. The grid width along each coordinate is the
+ * rule-of-thumb width for the highest order stencil.
+ */
+public class TaylorModelBuilder
+{
+
+	/**
+	 * The function.
+	 */
+	private final MultivariateFunction function;
+
+	/**
+	 * The order of the model.
+	 */
+	private final int order;
+
+	/**
+	 * The central finite differences, indexed by derivative order.
+	 */
+	private final FiniteDifference[] finiteDifferences;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * This constructor uses second-order accurate central differences.
+	 * 
+	 * @param function The function.
+	 * @param order The order of the model.
+	 */
+	public TaylorModelBuilder(final MultivariateFunction function, final int order)
+	{
+		this(function, order, 2);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param order The order of the model.
+	 * @param errorOrder The (even) error order of the central differences.
+	 */
+	public TaylorModelBuilder(final MultivariateFunction function, final int order, final int errorOrder)
+	{
+		if(order < 0)
+		{
+			throw new IllegalArgumentException("order");
+		}
+
+		this.function = function;
+		this.order = order;
+		this.finiteDifferences = new FiniteDifference[order + 1];
+		for(int derivativeOrder = 0; derivativeOrder <= order; derivativeOrder++)
+		{
+			finiteDifferences[derivativeOrder] = new FiniteDifference(FiniteDifferenceType.CENTRAL, derivativeOrder, errorOrder);
+		}
+	}
+
+	/**
+	 * Build the Taylor model about the specified point.
+	 * 
+	 * @param x The point.
+	 * @return The model.
+	 */
+	public TaylorModel build(final double... x)
+	{
+		MemoizedMultivariateFunction memoizedFunction = new MemoizedMultivariateFunction(function);
+		double[] center = x.clone();
+
+		double[] widths = new double[center.length];
+		for(int index = 0; index < center.length; index++)
+		{
+			widths[index] = RuleOfThumb.getPowerOfTwoRuleOfThumbBandwidth(center[index], finiteDifferences[order]);
+		}
+
+		List<int[]> alphas = getMultiIndices(center.length, order);
+		int[][] exponents = alphas.toArray(new int[alphas.size()][]);
+		double[] coefficients = new double[exponents.length];
+
+		double[] input = new double[center.length];
+		for(int term = 0; term < exponents.length; term++)
+		{
+			int[] alpha = exponents[term];
+
+			double scale = 1;
+			for(int index = 0; index < alpha.length; index++)
+			{
+				scale *= Math.pow(widths[index], alpha[index]) * TaylorModel.factorial(alpha[index]);
+			}
+
+			System.arraycopy(center, 0, input, 0, center.length);
+			double sum = getTensorSum(memoizedFunction, center, widths, alpha, 0, 1, input);
+
+			coefficients[term] = sum / scale;
+		}
+
+		return new TaylorModel(center, order, exponents, coefficients);
+	}
+
+	/**
+	 * Recursively accumulate the tensor product difference for the specified
+	 * multi-index. Coordinates with <code>&alpha;<sub>i</sub> = 0</code> are
+	 * not perturbed.
+	 * 
+	 * @param memoizedFunction The function.
+	 * @param center The center.
+	 * @param widths The grid widths.
+	 * @param alpha The multi-index.
+	 * @param dimension The current dimension.
+	 * @param weight The product of the coefficients so far.
+	 * @param input The input point, which is mutated (and restored).
+	 * @return The sum.
+	 */
+	private double getTensorSum(
+			final MultivariateFunction memoizedFunction,
+			final double[] center,
+			final double[] widths,
+			final int[] alpha,
+			final int dimension,
+			final double weight,
+			final double[] input)
+	{
+		if(dimension == alpha.length)
+		{
+			return weight * memoizedFunction.value(input);
+		}
+
+		if(alpha[dimension] == 0)
+		{
+			return getTensorSum(memoizedFunction, center, widths, alpha, dimension + 1, weight, input);
+		}
+
+		FiniteDifference finiteDifference = finiteDifferences[alpha[dimension]];
+		double[] stencil = finiteDifference.getCoefficients();
+
+		double sum = 0;
+		for(int index = 0, multiplier = finiteDifference.getLeftMultiplier(); index < stencil.length; index += 1, multiplier += 1)
+		{
+			if(stencil[index] == 0)
+			{
+				continue;
+			}
+
+			input[dimension] = center[dimension] + (widths[dimension] * multiplier);
+			sum += getTensorSum(memoizedFunction, center, widths, alpha, dimension + 1, weight * stencil[index], input);
+		}
+
+		input[dimension] = center[dimension];
+
+		return sum;
+	}
+
+	/**
+	 * Get all multi-indices of the specified dimension with degree at most the
+	 * specified order, in graded order.
+	 * 
+	 * @param dimension The dimension.
+	 * @param order The order.
+	 * @return The multi-indices.
+	 */
+	private static List<int[]> getMultiIndices(final int dimension, final int order)
+	{
+		List<int[]> alphas = new ArrayList<int[]>();
+		for(int degree = 0; degree <= order; degree++)
+		{
+			addMultiIndices(new int[dimension], 0, degree, alphas);
+		}
+
+		return alphas;
+	}
+
+	/**
+	 * Recursively enumerate the multi-indices of exactly the specified degree.
+	 * 
+	 * @param alpha The partial multi-index.
+	 * @param dimension The current dimension.
+	 * @param remaining The remaining degree.
+	 * @param alphas The list to which to add.
+	 */
+	private static void addMultiIndices(final int[] alpha, final int dimension, final int remaining, final List<int[]> alphas)
+	{
+		if(dimension == alpha.length - 1)
+		{
+			alpha[dimension] = remaining;
+			alphas.add(alpha.clone());
+			alpha[dimension] = 0;
+			return;
+		}
+
+		for(int power = remaining; power >= 0; power--)
+		{
+			alpha[dimension] = power;
+			addMultiIndices(alpha, dimension + 1, remaining - power, alphas);
+		}
+
+		alpha[dimension] = 0;
+	}
+
+}
@@ -24,7 +24,8 @@
 package com.chupacadabra.finitedifference;
 
 import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
-import com.chupacadabra.finitedifference.util.DotProduct;
+import com.chupacadabra.finitedifference.kernel.StencilKernel;
+import com.chupacadabra.finitedifference.kernel.StencilKernelFactory;
 
 
 /**
@@ -48,6 +49,11 @@ public class UnivariateFiniteDifferenceDerivativeFunction
 	 * The finite difference.
 	 */
 	private final FiniteDifference finiteDifference;
+	
+	/**
+	 * The stencil kernel.
+	 */
+	private final StencilKernel kernel;
 			
 	/**
 	 * Constructor.
@@ -64,6 +70,7 @@ public class UnivariateFiniteDifferenceDerivativeFunction
 		this.function = function;
 		this.bandwidthFunction = bandwidthFunction;
 		this.finiteDifference = finiteDifference;
+		this.kernel = StencilKernelFactory.getKernel(finiteDifference);
 	}
 
 	/**
@@ -87,35 +94,10 @@ public class UnivariateFiniteDifferenceDerivativeFunction
 	 */
 	protected double getDerivative(final double x, final double gridWidth)
 	{
-		double[] valueGrid = getValueGrid(x, gridWidth);
-		
-		double dotProduct = DotProduct.of(valueGrid, finiteDifference.getCoefficients());
-		double derivative = dotProduct / Math.pow(gridWidth, finiteDifference.getDerivativeOrder());
+		double weightedSum = kernel.getWeightedSum(function, x, gridWidth);
+		double derivative = kernel.scale(weightedSum, gridWidth);
 		
 		return derivative;		
 	}
 
-	/**
-	 * Get a grid of function values given the specified stencil, centered at
-	 * the specified value.
-	 * 
-	 * @param x The value.
-	 * @param gridWidth The grid width.
-	 * @return Vector of function values.
-	 */
-	private double[] getValueGrid(final double x, final double gridWidth)
-	{
-		double[] values = new double[finiteDifference.getLength()];
-				
-		for(int index = 0, multiplier = finiteDifference.getLeftMultiplier(); index < values.length; index += 1, multiplier += 1)
-		{
-			// don't keep a "running" input value - it can allow a non-trivial
-			// amount of error to accumulate!
-			double inputValue = x + (gridWidth * multiplier);
-			values[index] = function.value(inputValue);
-		}
-		
-		return values;
-	}
-
 }
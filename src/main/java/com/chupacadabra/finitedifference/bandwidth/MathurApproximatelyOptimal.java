@@ -153,14 +153,7 @@ public final class MathurApproximatelyOptimal
 	 */
 	private double getSimplifiedConditionErrorCoefficient()
 	{
-		double[] coefficients = finiteDifference.getCoefficients();
-		
-		double sum = 0 ;
-		for(double c : coefficients)
-		{
-			sum += Math.abs(c);
-		}
-		
+		double sum = finiteDifference.getAbsoluteCoefficientSum();
 		double conditionError = sum * value;
 		
 		return conditionError;
@@ -0,0 +1,254 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.bandwidth;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.MultivariateFiniteDifference;
+import com.chupacadabra.finitedifference.MultivariateFiniteDifferenceDerivativeFunction;
+import com.chupacadabra.finitedifference.MultivariateFunction;
+import com.chupacadabra.finitedifference.util.MachineEpsilon;
+import com.chupacadabra.finitedifference.util.PowerOfTwo;
+
+
+/**
+ * Mathur-inspired approximately optimal bandwidth selector for tensor-product
+ * stencils.
+ * <p>
+ * For a tensor-product stencil, the total error is approximately:<br>
+ * <code>E(h) = &Sigma;<sub>i</sub> C<sub>i</sub>h<sub>i</sub><sup>n<sub>i</sub></sup> + R(h)</code>, 
+ * where <code>R(h) = (&epsilon;|F<sub>&epsilon;</sub>| + &delta;|F<sub>&delta;</sub>|) / &Pi;<sub>i</sub> h<sub>i</sub><sup>d<sub>i</sub></sup></code>
+ * <p>
+ * Here <code>d<sub>i</sub></code> and <code>n<sub>i</sub></code> are the
+ * derivative and error orders of the stencil in dimension <code>i</code> and
+ * <code>C<sub>i</sub></code> is the truncation error in that dimension. The
+ * condition and roundoff coefficients are as in the univariate
+ * {@linkplain MathurApproximatelyOptimal case}, using the sum of the absolute
+ * tensor coefficients.
+ * <p>
+ * Setting <code>&part;E/&part;h<sub>i</sub> = 0</code> yields 
+ * <code>n<sub>i</sub>C<sub>i</sub>h<sub>i</sub><sup>n<sub>i</sub></sup> = d<sub>i</sub>R(h)</code>
+ * for each <code>i</code>, which can be solved in closed form (in log-space).
+ * In one dimension, this reduces to Mathur's univariate formula.
+ * <p>
+ * Each <code>C<sub>i</sub></code> is estimated by doubling the (trial) width
+ * in dimension <code>i</code> alone. All trial widths are powers of two, so
+ * many trial grid points coincide exactly; these evaluations may be shared
+ * with the final derivative computation by supplying a
+ * {@linkplain com.chupacadabra.finitedifference.MemoizedMultivariateFunction memoized}
+ * function, as
+ * {@link MultivariateFiniteDifferenceDerivativeFunction} does.
+ */
+public final class MathurApproximatelyOptimalMultivariate
+{
+
+	/**
+	 * The trial grid widths.
+	 */
+	private final double[] trialGridWidths;
+
+	/**
+	 * The condition error.
+	 */
+	private final double conditionError;
+
+	/**
+	 * The roundoff error.
+	 */
+	private final double roundoffError;
+
+	/**
+	 * The point.
+	 */
+	private final double[] x;
+
+	/**
+	 * The finite difference.
+	 */
+	private final MultivariateFiniteDifference finiteDifference;
+
+	/**
+	 * The function.
+	 */
+	private final MultivariateFunction function;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param trialGridWidths The trial grid widths, or <code>null</code> to use
+	 *            rule-of-thumb widths.
+	 * @param conditionError The condition error.
+	 * @param roundoffError The round-off error.
+	 * @param x The point.
+	 * @param finiteDifference The finite difference.
+	 * @param function The function.
+	 */
+	public MathurApproximatelyOptimalMultivariate(
+			final double[] trialGridWidths,
+			final double conditionError,
+			final double roundoffError,
+			final double[] x,
+			final MultivariateFiniteDifference finiteDifference,
+			final MultivariateFunction function)
+	{
+		this.trialGridWidths = trialGridWidths;
+		this.conditionError = conditionError;
+		this.roundoffError = roundoffError;
+		this.x = x;
+		this.finiteDifference = finiteDifference;
+		this.function = function;
+	}
+
+	/**
+	 * Get the bandwidths.
+	 * 
+	 * @return The value.
+	 */
+	public double[] value()
+	{
+		FiniteDifference[] finiteDifferences = finiteDifference.getFiniteDifferences();
+		double[] trial = getTrialGridWidths();
+
+		// estimate truncation error in each dimension.
+		double base = getDerivative(trial);
+		double[] truncationErrors = new double[trial.length];
+		for(int index = 0; index < trial.length; index++)
+		{
+			if(finiteDifferences[index].getDerivativeOrder() == 0)
+			{
+				continue;
+			}
+
+			double[] doubled = trial.clone();
+			doubled[index] *= 2;
+
+			double n = finiteDifferences[index].getErrorOrder();
+			double diff = getDerivative(doubled) - base;
+			double cn = diff / (Math.pow(doubled[index], n) - Math.pow(trial[index], n));
+
+			truncationErrors[index] = Math.abs(cn);
+		}
+
+		// condition and roundoff error.
+		double value = Math.max(MachineEpsilon.DOUBLE_VALUE, Math.abs(function.value(x)));
+		double fe = finiteDifference.getAbsoluteCoefficientSum() * value;
+		double fd = fe / 2;
+		double error = conditionError * fe + roundoffError * fd;
+
+		// solve for log(R) - dimensions that do not depend on the step size
+		// (or have a zero truncation error) keep their trial width.
+		double numerator = Math.log(error);
+		double denominator = 1;
+		for(int index = 0; index < trial.length; index++)
+		{
+			double d = finiteDifferences[index].getDerivativeOrder();
+			double n = finiteDifferences[index].getErrorOrder();
+
+			if(isAdaptive(index, truncationErrors))
+			{
+				numerator -= (d / n) * Math.log(d / (n * truncationErrors[index]));
+				denominator += d / n;
+			}
+			else
+			{
+				numerator -= d * Math.log(trial[index]);
+			}
+		}
+
+		double logR = numerator / denominator;
+
+		double[] widths = trial.clone();
+		for(int index = 0; index < widths.length; index++)
+		{
+			if(isAdaptive(index, truncationErrors))
+			{
+				double d = finiteDifferences[index].getDerivativeOrder();
+				double n = finiteDifferences[index].getErrorOrder();
+				double hopt = Math.exp((Math.log(d / (n * truncationErrors[index])) + logR) / n);
+
+				// finally, round up to nearest power of two!
+				widths[index] = PowerOfTwo.nextLargestPowerOfTwo(hopt);
+			}
+		}
+
+		return widths;
+	}
+
+	/**
+	 * Should the width in the specified dimension be adapted?
+	 * 
+	 * @param index The dimension.
+	 * @param truncationErrors The truncation errors.
+	 * @return <code>true</code> if the width should be adapted; and
+	 *         <code>false</code> otherwise.
+	 */
+	private boolean isAdaptive(final int index, final double[] truncationErrors)
+	{
+		double cn = truncationErrors[index];
+
+		return (finiteDifference.getFiniteDifferences()[index].getDerivativeOrder() > 0) &&
+				(cn > 0) && 
+				!Double.isInfinite(cn) &&
+				!Double.isNaN(cn);
+	}
+
+	/**
+	 * Get the derivative with the specified bandwidths.
+	 * 
+	 * @param bandwidths The bandwidths.
+	 * @return The derivative value.
+	 */
+	private double getDerivative(final double[] bandwidths)
+	{
+		FixedMultivariateBandwidth bandwidthFunction = new FixedMultivariateBandwidth(bandwidths);
+		MultivariateFiniteDifferenceDerivativeFunction derivativeFunction = new MultivariateFiniteDifferenceDerivativeFunction(function, bandwidthFunction, finiteDifference);
+		double derivative = derivativeFunction.value(x);
+
+		return derivative;
+	}
+
+	/**
+	 * Get the trial grid widths, used to estimate the truncation errors.
+	 * 
+	 * @return The trial grid widths.
+	 */
+	private double[] getTrialGridWidths()
+	{
+		if(trialGridWidths != null)
+		{
+			// use user-supplied grid widths.
+			return trialGridWidths.clone();
+		}
+
+		// use rule-of-thumb...
+		FiniteDifference[] finiteDifferences = finiteDifference.getFiniteDifferences();
+		double[] widths = new double[x.length];
+		for(int index = 0; index < widths.length; index++)
+		{
+			widths[index] = RuleOfThumb.getPowerOfTwoRuleOfThumbBandwidth(x[index], finiteDifferences[index]);
+		}
+
+		return widths;
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.bandwidth;
+
+import com.chupacadabra.finitedifference.MultivariateFiniteDifference;
+import com.chupacadabra.finitedifference.MultivariateFunction;
+import com.chupacadabra.finitedifference.util.MachineEpsilon;
+
+
+/**
+ * Mathur approximately optimal multivariate bandwidth strategy.
+ * <p>
+ * Selects a power-of-two width per dimension; see
+ * {@link MathurApproximatelyOptimalMultivariate}.
+ */
+public class MathurApproximatelyOptimalMultivariateBandwidth
+	implements MultivariateBandwidth
+{
+
+	/**
+	 * The trial grid widths.
+	 */
+	private final double[] trialGridWidths;
+
+	/**
+	 * The condition error.
+	 */
+	private final double conditionError;
+
+	/**
+	 * The roundoff error.
+	 */
+	private final double roundoffError;
+
+	/**
+	 * Constructor.
+	 */
+	public MathurApproximatelyOptimalMultivariateBandwidth()
+	{
+		this(null, MachineEpsilon.DOUBLE_VALUE, MachineEpsilon.DOUBLE_VALUE);
+	}
+
+	/**
+	 * Full constructor.
+	 * 
+	 * @param trialGridWidths The trial grid widths, or <code>null</code> to
+	 *            use rule-of-thumb widths.
+	 * @param conditionError The function condition error.
+	 * @param roundoffError The function round-off error.
+	 */
+	public MathurApproximatelyOptimalMultivariateBandwidth(
+			final double[] trialGridWidths,
+			final double conditionError, 
+			final double roundoffError)
+	{
+		this.trialGridWidths = trialGridWidths;
+		this.conditionError = conditionError;
+		this.roundoffError = roundoffError;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.bandwidth.MultivariateBandwidth#value(double[], com.chupacadabra.finitedifference.MultivariateFiniteDifference, com.chupacadabra.finitedifference.MultivariateFunction)
+	 */
+	@Override
+	public double[] value(final double[] x,
+			final MultivariateFiniteDifference finiteDifference,
+			final MultivariateFunction function)
+	{
+		// construct core Mathur bandwidth finder.
+		MathurApproximatelyOptimalMultivariate mathur = new MathurApproximatelyOptimalMultivariate(
+				trialGridWidths,
+				conditionError,
+				roundoffError,
+				x,
+				finiteDifference,
+				function);
+
+		double[] bandwidths = mathur.value();
+
+		return bandwidths;
+	}
+
+}
@@ -24,6 +24,7 @@
 package com.chupacadabra.finitedifference.bandwidth;
 
 import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.MultivariateFiniteDifference;
 import com.chupacadabra.finitedifference.util.MachineEpsilon;
 import com.chupacadabra.finitedifference.util.PowerOfTwo;
 
@@ -112,11 +113,123 @@ import com.chupacadabra.finitedifference.util.PowerOfTwo;
  * grid widths, as then <code>x +/- h</code> will be computed exactly (i.e. 
  * without any representation error).  
  * <p>
+ * For a tensor-product {@linkplain MultivariateFiniteDifference stencil}, we
+ * make the same assumptions about the truncation error in each dimension, and
+ * solve the coupled optimality conditions described in
+ * {@link MathurApproximatelyOptimalMultivariate}; in one dimension, this
+ * reduces to the formula above.
+ * <p>
+ * The scale-free part of the grid width depends only on the stencil, so it is
+ * computed once, when the {@linkplain FiniteDifference#getRuleOfThumbScale()
+ * univariate} or {@linkplain MultivariateFiniteDifference#getRuleOfThumbScales()
+ * multivariate} stencil is created. The grid width itself thus costs only a
+ * few multiplications.
+ * <p>
  * This class is stateless and cannot be instantiated.
  */
 public final class RuleOfThumb
 {
 
+	/**
+	 * Get the scale-free rule-of-thumb grid width for a univariate stencil.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @param errorOrder The error order.
+	 * @param absoluteCoefficientSum The sum of the absolute values of the
+	 *            coefficients.
+	 * @return The rule-of-thumb grid width at <code>|x| &le; 1</code>.
+	 */
+	public static double getRuleOfThumbScale(final int derivativeOrder, 
+			final int errorOrder,
+			final double absoluteCoefficientSum)
+	{
+		return getRuleOfThumbScale(derivativeOrder, errorOrder, absoluteCoefficientSum, MachineEpsilon.DOUBLE_VALUE);
+	}
+	
+	/**
+	 * Get the scale-free rule-of-thumb grid width for a univariate stencil
+	 * applied to single precision data, i.e. with <code>&mu;</code> the
+	 * {@linkplain MachineEpsilon#FLOAT_VALUE float machine epsilon}.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @return The rule-of-thumb grid width at <code>|x| &le; 1</code>.
+	 */
+	public static double getFloatRuleOfThumbScale(final FiniteDifference finiteDifference)
+	{
+		return getRuleOfThumbScale(
+				finiteDifference.getDerivativeOrder(), 
+				finiteDifference.getErrorOrder(), 
+				finiteDifference.getAbsoluteCoefficientSum(), 
+				MachineEpsilon.FLOAT_VALUE);
+	}
+	
+	/**
+	 * Get the scale-free rule-of-thumb grid width for a univariate stencil.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @param errorOrder The error order.
+	 * @param absoluteCoefficientSum The sum of the absolute values of the
+	 *            coefficients.
+	 * @param mu The machine epsilon.
+	 * @return The rule-of-thumb grid width at <code>|x| &le; 1</code>.
+	 */
+	private static double getRuleOfThumbScale(final int derivativeOrder, 
+			final int errorOrder,
+			final double absoluteCoefficientSum,
+			final double mu)
+	{
+		double d = derivativeOrder;
+		double n = errorOrder;		
+		double power = 1d / (n + d);
+		double arg = (3 * d * mu * absoluteCoefficientSum) / (2 * n);
+		
+		return Math.pow(arg, power);
+	}
+	
+	/**
+	 * Get the scale-free rule-of-thumb grid widths for a tensor-product
+	 * stencil.
+	 * 
+	 * @param finiteDifferences The univariate stencils.
+	 * @param absoluteCoefficientSum The sum of the absolute values of the
+	 *            tensor coefficients.
+	 * @return The rule-of-thumb grid widths at <code>|x<sub>i</sub>| &le; 1</code>.
+	 */
+	public static double[] getRuleOfThumbScales(final FiniteDifference[] finiteDifferences,
+			final double absoluteCoefficientSum)
+	{
+		double mu = MachineEpsilon.DOUBLE_VALUE;
+		
+		// solve for the log of the (scale-free) roundoff term.
+		double numerator = Math.log(1.5 * mu * absoluteCoefficientSum);
+		double denominator = 1;
+		for(FiniteDifference finiteDifference : finiteDifferences)
+		{
+			double d = finiteDifference.getDerivativeOrder();
+			double n = finiteDifference.getErrorOrder();
+			if(d > 0)
+			{
+				numerator -= (d / n) * Math.log(d / n);
+				denominator += d / n;
+			}
+		}
+		
+		double logR = numerator / denominator;
+		
+		double[] scales = new double[finiteDifferences.length];
+		for(int index = 0; index < scales.length; index++)
+		{
+			double d = finiteDifferences[index].getDerivativeOrder();
+			double n = finiteDifferences[index].getErrorOrder();
+			if(d > 0)
+			{
+				scales[index] = Math.exp((Math.log(d / n) + logR) / n);
+			}
+		}
+		
+		return scales;
+	}
+
 	/**
 	 * Get rule-of-thumb grid width.
 	 * 
@@ -127,28 +240,89 @@ public final class RuleOfThumb
 	public static double getRuleOfThumbBandwidth(final double x,
 			final FiniteDifference finiteDifference)
 	{
-		double sum = 0;
-		double[] cofficients = finiteDifference.getCoefficients();
-		for(double c : cofficients)
+		double gridWidth = finiteDifference.getRuleOfThumbScale() * Math.max(1d, Math.abs(x));		
+
+		return getRepresentableGridWidth(x, gridWidth);
+	}
+	
+	/**
+	 * Get the rule-of-thumb grid width for single precision data.
+	 * <p>
+	 * The width is adjusted so that <code>x</code> and <code>x + h</code>, in
+	 * single precision, differ by an exactly representable number.
+	 * 
+	 * @param x The point around which we want to take a derivative.
+	 * @param finiteDifference The finite difference.
+	 * @return The rule of the thumb grid width.
+	 */
+	public static float getFloatRuleOfThumbBandwidth(final float x,
+			final FiniteDifference finiteDifference)
+	{
+		float gridWidth = (float)(getFloatRuleOfThumbScale(finiteDifference) * Math.max(1d, Math.abs(x)));
+		
+		// the sum is rounded to float precision.
+		float temp = x + gridWidth;
+		
+		return temp - x;
+	}
+	
+	/**
+	 * Get rule-of-thumb grid widths for a tensor-product stencil.
+	 * 
+	 * @param x The point around which we want to take a derivative.
+	 * @param finiteDifference The finite difference.
+	 * @return The rule-of-thumb grid widths.
+	 */
+	public static double[] getRuleOfThumbBandwidths(final double[] x,
+			final MultivariateFiniteDifference finiteDifference)
+	{
+		double[] scales = finiteDifference.getRuleOfThumbScales();
+		double[] gridWidths = new double[x.length];
+		for(int index = 0; index < gridWidths.length; index++)
 		{
-			sum += Math.abs(c);
-		}		
+			double gridWidth = scales[index] * Math.max(1d, Math.abs(x[index]));
+			gridWidths[index] = getRepresentableGridWidth(x[index], gridWidth);
+		}
 		
-		double mu = MachineEpsilon.DOUBLE_VALUE;
-		double d = finiteDifference.getDerivativeOrder();
-		double n = finiteDifference.getErrorOrder();		
-		double power = 1d / (n + d);
-		double arg = (3 * d * mu * sum) / (2 * n);
+		return gridWidths;
+	}
+	
+	/**
+	 * Get next smallest power-of-two to the rule-of-thumb grid widths for a
+	 * tensor-product stencil.
+	 * 
+	 * @param x The point around which we want to take a derivative.
+	 * @param finiteDifference The finite difference.
+	 * @return The rule-of-thumb grid widths.
+	 */
+	public static double[] getPowerOfTwoRuleOfThumbBandwidths(final double[] x,
+			final MultivariateFiniteDifference finiteDifference)
+	{
+		double[] scales = finiteDifference.getRuleOfThumbScales();
+		double[] gridWidths = new double[x.length];
+		for(int index = 0; index < gridWidths.length; index++)
+		{
+			double gridWidth = scales[index] * Math.max(1d, Math.abs(x[index]));
+			gridWidths[index] = PowerOfTwo.nextLargestPowerOfTwo(gridWidth);
+		}
 		
-		// finally, we can compute the grid width.
-		double gridWidth = Math.pow(arg, power) * Math.max(1d, Math.abs(x));		
-
-		// make sure x and x + h differ by an exact representable number.
+		return gridWidths;
+	}
+	
+	/**
+	 * Adjust the specified grid width so that <code>x</code> and 
+	 * <code>x + h</code> differ by an exactly representable number.
+	 * 
+	 * @param x The point.
+	 * @param gridWidth The grid width.
+	 * @return The adjusted grid width.
+	 */
+	private static double getRepresentableGridWidth(final double x, final double gridWidth)
+	{
 		double temp = x + gridWidth;
 		nop(temp);
-		gridWidth = temp - x;
-
-		return gridWidth;
+		
+		return temp - x;
 	}
 
 	/**
@@ -0,0 +1,174 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.chebyshev;
+
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * A finite Chebyshev series on an interval <code>[a, b]</code>,
+ * <code>p(x) = &Sigma;<sub>k=0</sub><sup>n</sup> c<sub>k</sub>T<sub>k</sub>(t)</code>,
+ * where <code>t = (2x - a - b) / (b - a)</code>.
+ * <p>
+ * Instances of this class are immutable. Evaluation uses Clenshaw's
+ * recurrence, and costs <code>O(n)</code>.
+ */
+public final class ChebyshevSeries
+	implements UnivariateFunction
+{
+
+	/**
+	 * The lower bound.
+	 */
+	private final double lowerBound;
+
+	/**
+	 * The upper bound.
+	 */
+	private final double upperBound;
+
+	/**
+	 * The coefficients.
+	 */
+	private final double[] coefficients;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param lowerBound The lower bound.
+	 * @param upperBound The upper bound.
+	 * @param coefficients The coefficients.
+	 */
+	public ChebyshevSeries(final double lowerBound, final double upperBound, final double[] coefficients)
+	{
+		if(!(lowerBound < upperBound))
+		{
+			throw new IllegalArgumentException("bounds");
+		}
+
+		if(coefficients.length == 0)
+		{
+			throw new IllegalArgumentException("coefficients");
+		}
+
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+		this.coefficients = coefficients.clone();
+	}
+
+	/**
+	 * Get the lower bound.
+	 * 
+	 * @return The lower bound.
+	 */
+	public double getLowerBound()
+	{
+		return lowerBound;
+	}
+
+	/**
+	 * Get the upper bound.
+	 * 
+	 * @return The upper bound.
+	 */
+	public double getUpperBound()
+	{
+		return upperBound;
+	}
+
+	/**
+	 * Get the degree.
+	 * 
+	 * @return The degree.
+	 */
+	public int getDegree()
+	{
+		return coefficients.length - 1;
+	}
+
+	/**
+	 * Get the coefficients.
+	 * 
+	 * @return The coefficients.
+	 */
+	public double[] getCoefficients()
+	{
+		return coefficients.clone();
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+	 */
+	@Override
+	public double value(final double x)
+	{
+		double t = ((2 * x) - lowerBound - upperBound) / (upperBound - lowerBound);
+		double t2 = 2 * t;
+
+		// Clenshaw.
+		double b1 = 0;
+		double b2 = 0;
+		for(int k = coefficients.length - 1; k >= 1; k--)
+		{
+			double b0 = coefficients[k] + (t2 * b1) - b2;
+			b2 = b1;
+			b1 = b0;
+		}
+
+		return coefficients[0] + (t * b1) - b2;
+	}
+
+	/**
+	 * Get the derivative of this series, which is again a Chebyshev series on
+	 * the same interval, of one lower degree.
+	 * 
+	 * @return The derivative.
+	 */
+	public ChebyshevSeries derivative()
+	{
+		int n = coefficients.length - 1;
+		if(n == 0)
+		{
+			return new ChebyshevSeries(lowerBound, upperBound, new double[1]);
+		}
+
+		// b(k - 1) = b(k + 1) + 2k c(k).
+		double[] b = new double[n + 1];
+		for(int k = n; k >= 1; k--)
+		{
+			double next = (k + 1 <= n) ? b[k + 1] : 0;
+			b[k - 1] = next + (2 * k * coefficients[k]);
+		}
+
+		double scale = 2 / (upperBound - lowerBound);
+		double[] derivative = new double[n];
+		derivative[0] = 0.5 * b[0] * scale;
+		for(int k = 1; k < n; k++)
+		{
+			derivative[k] = b[k] * scale;
+		}
+
+		return new ChebyshevSeries(lowerBound, upperBound, derivative);
+	}
+
+}
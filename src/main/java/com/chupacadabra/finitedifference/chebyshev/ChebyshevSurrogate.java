@@ -0,0 +1,360 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.chebyshev;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * Chebyshev surrogate for a smooth function on an interval.
+ * <p>
+ * The function is sampled once, at Chebyshev-Lobatto points, and interpolated
+ * by a {@linkplain ChebyshevSeries Chebyshev series}. The degree is doubled,
+ * starting from {@link #INITIAL_DEGREE}, until the coefficients have decayed
+ * below the specified (relative) tolerance; since the Lobatto points of
+ * degree <code>n</code> are a subset of those of degree <code>2n</code>,
+ * every sample is reused. The series is then chopped where the coefficients
+ * reach the tolerance.
+ * <p>
+ * Thereafter, derivatives of any order are answered from the (differentiated)
+ * series at <code>O(n)</code> cost, without evaluating the function again.
+ * The achieved accuracy is reported as a bound on the contribution of the
+ * chopped coefficients, amplified for derivatives by Markov's inequality.
+ * This is only an estimate, since it ignores the (aliased) coefficients
+ * beyond the sampled degree.
+ */
+public class ChebyshevSurrogate
+	implements UnivariateFunction
+{
+
+	/**
+	 * The initial degree.
+	 */
+	public static final int INITIAL_DEGREE = 16;
+
+	/**
+	 * The default maximum degree.
+	 */
+	public static final int DEFAULT_MAXIMUM_DEGREE = 4096;
+
+	/**
+	 * The default relative tolerance.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1e-14;
+
+	/**
+	 * The series.
+	 */
+	private final ChebyshevSeries function;
+
+	/**
+	 * The series and its derivatives, indexed by derivative order.
+	 */
+	private final List<ChebyshevSeries> derivatives;
+
+	/**
+	 * The chopped coefficients.
+	 */
+	private final double[] tail;
+
+	/**
+	 * The index of the first chopped coefficient.
+	 */
+	private final int tailStart;
+
+	/**
+	 * Did the coefficients decay below the tolerance?
+	 */
+	private final boolean converged;
+
+	/**
+	 * The number of function evaluations.
+	 */
+	private final int evaluationCount;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * This constructor uses the default tolerance and maximum degree.
+	 * 
+	 * @param function The function.
+	 * @param lowerBound The lower bound.
+	 * @param upperBound The upper bound.
+	 */
+	public ChebyshevSurrogate(final UnivariateFunction function, final double lowerBound, final double upperBound)
+	{
+		this(function, lowerBound, upperBound, DEFAULT_TOLERANCE, DEFAULT_MAXIMUM_DEGREE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param lowerBound The lower bound.
+	 * @param upperBound The upper bound.
+	 * @param tolerance The tolerance, relative to the largest coefficient.
+	 * @param maximumDegree The maximum degree, at least 1; if it is below the
+	 *            {@linkplain #INITIAL_DEGREE initial degree}, the function is
+	 *            only sampled at the maximum degree.
+	 */
+	public ChebyshevSurrogate(
+			final UnivariateFunction function,
+			final double lowerBound,
+			final double upperBound,
+			final double tolerance,
+			final int maximumDegree)
+	{
+		if(!(lowerBound < upperBound))
+		{
+			throw new IllegalArgumentException("bounds");
+		}
+
+		if(maximumDegree < 1)
+		{
+			throw new IllegalArgumentException("maximumDegree");
+		}
+
+		double[] samples = null;
+		double[] coefficients = null;
+		int chop = -1;
+		int degree = Math.min(INITIAL_DEGREE, maximumDegree);
+		int count = 0;
+
+		while(true)
+		{
+			double[] next = new double[degree + 1];
+			for(int j = 0; j <= degree; j++)
+			{
+				if((samples != null) && ((j % 2) == 0))
+				{
+					// shared with the previous degree.
+					next[j] = samples[j / 2];
+				}
+				else
+				{
+					double t = Math.cos((Math.PI * j) / degree);
+					double x = 0.5 * ((upperBound + lowerBound) + ((upperBound - lowerBound) * t));
+					next[j] = function.value(x);
+					count += 1;
+				}
+			}
+
+			samples = next;
+			coefficients = getCoefficients(samples);
+			chop = getChop(coefficients, tolerance);
+
+			if((chop >= 0) || (2 * degree > maximumDegree))
+			{
+				break;
+			}
+
+			degree *= 2;
+		}
+
+		this.converged = (chop >= 0);
+		this.tailStart = converged ? chop : coefficients.length;
+		this.tail = Arrays.copyOfRange(coefficients, tailStart, coefficients.length);
+		this.evaluationCount = count;
+		this.function = new ChebyshevSeries(lowerBound, upperBound, Arrays.copyOf(coefficients, tailStart));
+		this.derivatives = new ArrayList<ChebyshevSeries>();
+		this.derivatives.add(this.function);
+	}
+
+	/**
+	 * Did the coefficients decay below the tolerance?
+	 * 
+	 * @return <code>true</code> if the surrogate converged; and
+	 *         <code>false</code> if the maximum degree was reached first.
+	 */
+	public boolean isConverged()
+	{
+		return converged;
+	}
+
+	/**
+	 * Get the degree of the (chopped) series.
+	 * 
+	 * @return The degree.
+	 */
+	public int getDegree()
+	{
+		return function.getDegree();
+	}
+
+	/**
+	 * Get the number of function evaluations used to build the surrogate.
+	 * 
+	 * @return The number of evaluations.
+	 */
+	public int getEvaluationCount()
+	{
+		return evaluationCount;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+	 */
+	@Override
+	public double value(final double x)
+	{
+		return function.value(x);
+	}
+
+	/**
+	 * Get the derivative of the specified order at the specified point.
+	 * 
+	 * @param x The point.
+	 * @param derivativeOrder The derivative order.
+	 * @return The derivative.
+	 */
+	public double derivative(final double x, final int derivativeOrder)
+	{
+		return getDerivative(derivativeOrder).value(x);
+	}
+
+	/**
+	 * Get the derivative of the specified order, as a Chebyshev series.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return The derivative.
+	 */
+	public synchronized ChebyshevSeries getDerivative(final int derivativeOrder)
+	{
+		if(derivativeOrder < 0)
+		{
+			throw new IllegalArgumentException("derivativeOrder");
+		}
+
+		while(derivatives.size() <= derivativeOrder)
+		{
+			derivatives.add(derivatives.get(derivatives.size() - 1).derivative());
+		}
+
+		return derivatives.get(derivativeOrder);
+	}
+
+	/**
+	 * Get the estimated (absolute) error of the derivative of the specified
+	 * order, which is zero for the function itself.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return The estimated error.
+	 */
+	public double getEstimatedError(final int derivativeOrder)
+	{
+		double scale = 2 / (function.getUpperBound() - function.getLowerBound());
+
+		double error = 0;
+		for(int index = 0; index < tail.length; index++)
+		{
+			// Markov: |T(k)^(m)| <= prod(j < m) (k^2 - j^2) / (2j + 1).
+			double k = tailStart + index;
+			double bound = 1;
+			for(int j = 0; j < derivativeOrder; j++)
+			{
+				bound *= ((k * k) - (j * j)) / ((2 * j) + 1) * scale;
+			}
+
+			error += Math.abs(tail[index]) * bound;
+		}
+
+		return error;
+	}
+
+	/**
+	 * Get the Chebyshev coefficients of the interpolant through the specified
+	 * values at the Lobatto points.
+	 * 
+	 * @param samples The samples.
+	 * @return The coefficients.
+	 */
+	private static double[] getCoefficients(final double[] samples)
+	{
+		int n = samples.length - 1;
+
+		// cos(pi m / n), for m in [0, 2n).
+		double[] cosines = new double[2 * n];
+		for(int m = 0; m < cosines.length; m++)
+		{
+			cosines[m] = Math.cos((Math.PI * m) / n);
+		}
+
+		double[] coefficients = new double[n + 1];
+		for(int k = 0; k <= n; k++)
+		{
+			double sum = 0.5 * (samples[0] + (samples[n] * cosines[(k * n) % (2 * n)]));
+			for(int j = 1; j < n; j++)
+			{
+				sum += samples[j] * cosines[(j * k) % (2 * n)];
+			}
+
+			coefficients[k] = (2 * sum) / n;
+		}
+
+		coefficients[0] *= 0.5;
+		coefficients[n] *= 0.5;
+
+		return coefficients;
+	}
+
+	/**
+	 * Get the index at which to chop the specified coefficients: the series is
+	 * chopped if at least the last eighth (and at least the last three) of the
+	 * coefficients are below the tolerance.
+	 * 
+	 * @param coefficients The coefficients.
+	 * @param tolerance The tolerance, relative to the largest coefficient.
+	 * @return The index of the first chopped coefficient, or <code>-1</code>
+	 *         if the coefficients have not decayed.
+	 */
+	private static int getChop(final double[] coefficients, final double tolerance)
+	{
+		double scale = 0;
+		for(double c : coefficients)
+		{
+			scale = Math.max(scale, Math.abs(c));
+		}
+
+		double threshold = tolerance * scale;
+
+		int last = coefficients.length - 1;
+		while((last >= 0) && (Math.abs(coefficients[last]) <= threshold))
+		{
+			last -= 1;
+		}
+
+		int plateau = coefficients.length - 1 - last;
+		if(plateau < Math.max(3, coefficients.length / 8))
+		{
+			return -1;
+		}
+
+		// keep at least the constant term.
+		return Math.max(1, last + 1);
+	}
+
+}
@@ -0,0 +1,392 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.complex;
+
+import java.io.Serializable;
+
+/**
+ * A lightweight complex number.
+ * <p>
+ * Instances of this class are immutable. The "operator" methods of this class
+ * return new instances with the desired properties. Only analytic operations
+ * are provided (so, for example, there is no absolute value), since those are
+ * the only ones for which complex-step differentiation is valid.
+ */
+public final class Complex
+	implements Serializable
+{
+
+	/**
+	 * Zero.
+	 */
+	public static final Complex ZERO = new Complex(0, 0);
+
+	/**
+	 * One.
+	 */
+	public static final Complex ONE = new Complex(1, 0);
+
+	/**
+	 * The imaginary unit.
+	 */
+	public static final Complex I = new Complex(0, 1);
+
+	/**
+	 * Serial version.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The real part.
+	 */
+	private final double real;
+
+	/**
+	 * The imaginary part.
+	 */
+	private final double imaginary;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param real The real part.
+	 * @param imaginary The imaginary part.
+	 */
+	public Complex(final double real, final double imaginary)
+	{
+		this.real = real;
+		this.imaginary = imaginary;
+	}
+
+	/**
+	 * Get the real part.
+	 * 
+	 * @return The real part.
+	 */
+	public double getReal()
+	{
+		return real;
+	}
+
+	/**
+	 * Get the imaginary part.
+	 * 
+	 * @return The imaginary part.
+	 */
+	public double getImaginary()
+	{
+		return imaginary;
+	}
+
+	/**
+	 * Add the specified value to this.
+	 * 
+	 * @param that The value to add.
+	 * @return <code>this + that</code>
+	 */
+	public Complex add(final Complex that)
+	{
+		return new Complex(real + that.real, imaginary + that.imaginary);
+	}
+
+	/**
+	 * Add the specified real value to this.
+	 * 
+	 * @param that The value to add.
+	 * @return <code>this + that</code>
+	 */
+	public Complex add(final double that)
+	{
+		return new Complex(real + that, imaginary);
+	}
+
+	/**
+	 * Subtract the specified value from this.
+	 * 
+	 * @param that The value to subtract.
+	 * @return <code>this - that</code>
+	 */
+	public Complex subtract(final Complex that)
+	{
+		return new Complex(real - that.real, imaginary - that.imaginary);
+	}
+
+	/**
+	 * Subtract the specified real value from this.
+	 * 
+	 * @param that The value to subtract.
+	 * @return <code>this - that</code>
+	 */
+	public Complex subtract(final double that)
+	{
+		return new Complex(real - that, imaginary);
+	}
+
+	/**
+	 * Get the negative of this value.
+	 * 
+	 * @return <code>-this</code>
+	 */
+	public Complex negate()
+	{
+		return new Complex(-real, -imaginary);
+	}
+
+	/**
+	 * Multiply this by the specified value.
+	 * 
+	 * @param that The value by which to multiply.
+	 * @return <code>this * that</code>
+	 */
+	public Complex multiply(final Complex that)
+	{
+		return new Complex(
+				(real * that.real) - (imaginary * that.imaginary), 
+				(real * that.imaginary) + (imaginary * that.real));
+	}
+
+	/**
+	 * Multiply this by the specified real value.
+	 * 
+	 * @param that The value by which to multiply.
+	 * @return <code>this * that</code>
+	 */
+	public Complex multiply(final double that)
+	{
+		return new Complex(real * that, imaginary * that);
+	}
+
+	/**
+	 * Divide this by the specified value.
+	 * <p>
+	 * Uses Smith's algorithm to avoid unnecessary overflow.
+	 * 
+	 * @param that The value by which to divide.
+	 * @return <code>this / that</code>
+	 */
+	public Complex divide(final Complex that)
+	{
+		if(Math.abs(that.real) >= Math.abs(that.imaginary))
+		{
+			double ratio = that.imaginary / that.real;
+			double denominator = that.real + (that.imaginary * ratio);
+
+			return new Complex(
+					(real + (imaginary * ratio)) / denominator, 
+					(imaginary - (real * ratio)) / denominator);
+		}
+
+		double ratio = that.real / that.imaginary;
+		double denominator = (that.real * ratio) + that.imaginary;
+
+		return new Complex(
+				((real * ratio) + imaginary) / denominator, 
+				((imaginary * ratio) - real) / denominator);
+	}
+
+	/**
+	 * Divide this by the specified real value.
+	 * 
+	 * @param that The value by which to divide.
+	 * @return <code>this / that</code>
+	 */
+	public Complex divide(final double that)
+	{
+		return new Complex(real / that, imaginary / that);
+	}
+
+	/**
+	 * Get the inverse of this value.
+	 * 
+	 * @return <code>this<sup>-1</sup></code>
+	 */
+	public Complex inverse()
+	{
+		return ONE.divide(this);
+	}
+
+	/**
+	 * Get the exponential of this value.
+	 * 
+	 * @return <code>e<sup>this</sup></code>
+	 */
+	public Complex exp()
+	{
+		double scale = Math.exp(real);
+
+		return new Complex(scale * Math.cos(imaginary), scale * Math.sin(imaginary));
+	}
+
+	/**
+	 * Get the (principal) natural logarithm of this value.
+	 * 
+	 * @return <code>log(this)</code>
+	 */
+	public Complex log()
+	{
+		return new Complex(Math.log(Math.hypot(real, imaginary)), Math.atan2(imaginary, real));
+	}
+
+	/**
+	 * Get the (principal) square root of this value.
+	 * 
+	 * @return <code>&radic;this</code>
+	 */
+	public Complex sqrt()
+	{
+		if((real == 0) && (imaginary == 0))
+		{
+			return ZERO;
+		}
+
+		double t = Math.sqrt((Math.abs(real) + Math.hypot(real, imaginary)) / 2);
+		if(real >= 0)
+		{
+			return new Complex(t, imaginary / (2 * t));
+		}
+
+		return new Complex(Math.abs(imaginary) / (2 * t), Math.copySign(t, imaginary));
+	}
+
+	/**
+	 * Raise this value to the specified real power.
+	 * 
+	 * @param exponent The exponent.
+	 * @return <code>this<sup>exponent</sup></code>
+	 */
+	public Complex pow(final double exponent)
+	{
+		if((real == 0) && (imaginary == 0))
+		{
+			return (exponent == 0) ? ONE : ZERO;
+		}
+
+		return log().multiply(exponent).exp();
+	}
+
+	/**
+	 * Raise this value to the specified integer power, by repeated squaring.
+	 * 
+	 * @param exponent The exponent.
+	 * @return <code>this<sup>exponent</sup></code>
+	 */
+	public Complex pow(final int exponent)
+	{
+		Complex result = ONE;
+		Complex square = this;
+		for(int remaining = Math.abs(exponent); remaining > 0; remaining >>= 1)
+		{
+			if((remaining & 1) != 0)
+			{
+				result = result.multiply(square);
+			}
+
+			square = square.multiply(square);
+		}
+
+		return (exponent < 0) ? result.inverse() : result;
+	}
+
+	/**
+	 * Get the sine of this value.
+	 * 
+	 * @return <code>sin(this)</code>
+	 */
+	public Complex sin()
+	{
+		return new Complex(
+				Math.sin(real) * Math.cosh(imaginary), 
+				Math.cos(real) * Math.sinh(imaginary));
+	}
+
+	/**
+	 * Get the cosine of this value.
+	 * 
+	 * @return <code>cos(this)</code>
+	 */
+	public Complex cos()
+	{
+		return new Complex(
+				Math.cos(real) * Math.cosh(imaginary), 
+				-Math.sin(real) * Math.sinh(imaginary));
+	}
+
+	/**
+	 * Get the tangent of this value.
+	 * 
+	 * @return <code>tan(this)</code>
+	 */
+	public Complex tan()
+	{
+		return sin().divide(cos());
+	}
+
+	/**
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode()
+	{
+		long bits = Double.doubleToLongBits(real);
+		bits ^= Double.doubleToLongBits(imaginary) * 31;
+
+		return (int)(bits ^ (bits >>> 32));
+	}
+
+	/**
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj)
+	{
+		if(this == obj)
+		{
+			return true;
+		}
+
+		if(obj == null)
+		{
+			return false;
+		}
+
+		if(!(obj instanceof Complex))
+		{
+			return false;
+		}
+
+		Complex other = (Complex)obj;
+		return (Double.doubleToLongBits(real) == Double.doubleToLongBits(other.real)) &&
+				(Double.doubleToLongBits(imaginary) == Double.doubleToLongBits(other.imaginary));
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%1$s + %2$si", real, imaginary);
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.complex;
+
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * Complex-step first derivative function.
+ * <p>
+ * For a function <code>f</code> that is analytic and real on the real axis, 
+ * <code>f(x + ih) = f(x) + ihf'(x) - h<sup>2</sup>f''(x)/2 + O(h<sup>3</sup>)</code>,
+ * so that <code>f'(x) = Im(f(x + ih)) / h + O(h<sup>2</sup>)</code>.
+ * <p>
+ * There is no subtraction, and hence no cancellation error, so the step can
+ * be made tiny enough that the truncation error is far below machine
+ * precision. The derivative is thus accurate to (roughly) machine precision,
+ * from a single function evaluation and without any bandwidth selection.
+ */
+public class ComplexStepDerivativeFunction
+	implements UnivariateFunction
+{
+
+	/**
+	 * Default step, <code>2<sup>-64</sup></code>.
+	 * <p>
+	 * Small enough that the truncation error is negligible for any reasonably
+	 * scaled function, but large enough that <code>hf'(x)</code> does not
+	 * underflow. Being a power of two, division by it is exact.
+	 */
+	public static final double DEFAULT_STEP = 0x1.0p-64;
+
+	/**
+	 * The function.
+	 */
+	private final ComplexUnivariateFunction function;
+
+	/**
+	 * The step.
+	 */
+	private final double step;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 */
+	public ComplexStepDerivativeFunction(final ComplexUnivariateFunction function)
+	{
+		this(function, DEFAULT_STEP);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param step The (imaginary) step.
+	 */
+	public ComplexStepDerivativeFunction(final ComplexUnivariateFunction function, final double step)
+	{
+		this.function = function;
+		this.step = step;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+	 */
+	@Override
+	public double value(final double x)
+	{
+		Complex value = function.value(new Complex(x, step));
+
+		return value.getImaginary() / step;
+	}
+
+}
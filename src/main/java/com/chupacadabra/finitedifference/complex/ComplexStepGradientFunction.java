@@ -0,0 +1,97 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.complex;
+
+import com.chupacadabra.finitedifference.GradientFunction;
+
+/**
+ * Complex-step gradient function.
+ * <p>
+ * Each partial derivative is computed with a single complex-step evaluation 
+ * (see {@link ComplexStepDerivativeFunction}), so the gradient costs exactly
+ * <code>n</code> evaluations.
+ */
+public class ComplexStepGradientFunction
+	implements GradientFunction
+{
+
+	/**
+	 * The function.
+	 */
+	private final ComplexMultivariateFunction function;
+
+	/**
+	 * The step.
+	 */
+	private final double step;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 */
+	public ComplexStepGradientFunction(final ComplexMultivariateFunction function)
+	{
+		this(function, ComplexStepDerivativeFunction.DEFAULT_STEP);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param function The function.
+	 * @param step The (imaginary) step.
+	 */
+	public ComplexStepGradientFunction(final ComplexMultivariateFunction function, final double step)
+	{
+		this.function = function;
+		this.step = step;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.GradientFunction#value(double[])
+	 */
+	@Override
+	public double[] value(final double... x)
+	{
+		Complex[] z = new Complex[x.length];
+		for(int index = 0; index < z.length; index++)
+		{
+			z[index] = new Complex(x[index], 0);
+		}
+
+		double[] gradient = new double[x.length];
+		for(int index = 0; index < gradient.length; index++)
+		{
+			Complex real = z[index];
+			z[index] = new Complex(x[index], step);
+
+			gradient[index] = function.value(z).getImaginary() / step;
+
+			z[index] = real;
+		}
+
+		return gradient;
+	}
+
+}
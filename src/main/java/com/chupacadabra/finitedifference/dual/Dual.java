@@ -0,0 +1,362 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.dual;
+
+import java.util.Arrays;
+
+/**
+ * A (vector) dual number, <code>a + &Sigma; b<sub>i</sub>&epsilon;<sub>i</sub></code>,
+ * where <code>&epsilon;<sub>i</sub>&epsilon;<sub>j</sub> = 0</code>.
+ * <p>
+ * Evaluating a function on dual numbers seeded with the unit vectors yields
+ * its value and entire gradient in a single pass, exactly (i.e. without any
+ * truncation error).
+ * <p>
+ * Instances of this class are immutable. The "operator" methods of this class
+ * return new instances with the desired properties. All operands of a binary
+ * operation must have the same dimension. Long sums, which would otherwise
+ * allocate a new instance per term, can be formed with a
+ * {@link DualAccumulator}.
+ */
+public final class Dual
+{
+
+	/**
+	 * Get an independent variable, with a unit derivative in the specified
+	 * dimension.
+	 * 
+	 * @param value The value.
+	 * @param index The index of the variable.
+	 * @param dimension The dimension.
+	 * @return The variable.
+	 */
+	public static Dual variable(final double value, final int index, final int dimension)
+	{
+		double[] derivatives = new double[dimension];
+		derivatives[index] = 1;
+
+		return new Dual(value, derivatives);
+	}
+
+	/**
+	 * Get a constant.
+	 * 
+	 * @param value The value.
+	 * @param dimension The dimension.
+	 * @return The constant.
+	 */
+	public static Dual constant(final double value, final int dimension)
+	{
+		return new Dual(value, new double[dimension]);
+	}
+
+	/**
+	 * The value.
+	 */
+	private final double value;
+
+	/**
+	 * The derivatives.
+	 */
+	private final double[] derivatives;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param value The value.
+	 * @param derivatives The derivatives, which are not copied.
+	 */
+	public Dual(final double value, final double[] derivatives)
+	{
+		this.value = value;
+		this.derivatives = derivatives;
+	}
+
+	/**
+	 * Get the value.
+	 * 
+	 * @return The value.
+	 */
+	public double getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Get the derivatives.
+	 * 
+	 * @return The derivatives.
+	 */
+	public double[] getDerivatives()
+	{
+		return derivatives;
+	}
+
+	/**
+	 * Add the specified value to this.
+	 * 
+	 * @param that The value to add.
+	 * @return <code>this + that</code>
+	 */
+	public Dual add(final Dual that)
+	{
+		double[] result = new double[derivatives.length];
+		for(int index = 0; index < result.length; index++)
+		{
+			result[index] = derivatives[index] + that.derivatives[index];
+		}
+
+		return new Dual(value + that.value, result);
+	}
+
+	/**
+	 * Add the specified constant to this.
+	 * 
+	 * @param that The value to add.
+	 * @return <code>this + that</code>
+	 */
+	public Dual add(final double that)
+	{
+		return new Dual(value + that, derivatives);
+	}
+
+	/**
+	 * Subtract the specified value from this.
+	 * 
+	 * @param that The value to subtract.
+	 * @return <code>this - that</code>
+	 */
+	public Dual subtract(final Dual that)
+	{
+		double[] result = new double[derivatives.length];
+		for(int index = 0; index < result.length; index++)
+		{
+			result[index] = derivatives[index] - that.derivatives[index];
+		}
+
+		return new Dual(value - that.value, result);
+	}
+
+	/**
+	 * Subtract the specified constant from this.
+	 * 
+	 * @param that The value to subtract.
+	 * @return <code>this - that</code>
+	 */
+	public Dual subtract(final double that)
+	{
+		return new Dual(value - that, derivatives);
+	}
+
+	/**
+	 * Get the negative of this value.
+	 * 
+	 * @return <code>-this</code>
+	 */
+	public Dual negate()
+	{
+		return chain(-value, -1);
+	}
+
+	/**
+	 * Multiply this by the specified value.
+	 * 
+	 * @param that The value by which to multiply.
+	 * @return <code>this * that</code>
+	 */
+	public Dual multiply(final Dual that)
+	{
+		double[] result = new double[derivatives.length];
+		for(int index = 0; index < result.length; index++)
+		{
+			result[index] = (derivatives[index] * that.value) + (value * that.derivatives[index]);
+		}
+
+		return new Dual(value * that.value, result);
+	}
+
+	/**
+	 * Multiply this by the specified constant.
+	 * 
+	 * @param that The value by which to multiply.
+	 * @return <code>this * that</code>
+	 */
+	public Dual multiply(final double that)
+	{
+		return chain(value * that, that);
+	}
+
+	/**
+	 * Divide this by the specified value.
+	 * 
+	 * @param that The value by which to divide.
+	 * @return <code>this / that</code>
+	 */
+	public Dual divide(final Dual that)
+	{
+		double quotient = value / that.value;
+
+		double[] result = new double[derivatives.length];
+		for(int index = 0; index < result.length; index++)
+		{
+			result[index] = (derivatives[index] - (quotient * that.derivatives[index])) / that.value;
+		}
+
+		return new Dual(quotient, result);
+	}
+
+	/**
+	 * Divide this by the specified constant.
+	 * 
+	 * @param that The value by which to divide.
+	 * @return <code>this / that</code>
+	 */
+	public Dual divide(final double that)
+	{
+		return chain(value / that, 1 / that);
+	}
+
+	/**
+	 * Get the inverse of this value.
+	 * 
+	 * @return <code>this<sup>-1</sup></code>
+	 */
+	public Dual inverse()
+	{
+		double inverse = 1 / value;
+
+		return chain(inverse, -inverse * inverse);
+	}
+
+	/**
+	 * Get the exponential of this value.
+	 * 
+	 * @return <code>e<sup>this</sup></code>
+	 */
+	public Dual exp()
+	{
+		double exp = Math.exp(value);
+
+		return chain(exp, exp);
+	}
+
+	/**
+	 * Get the natural logarithm of this value.
+	 * 
+	 * @return <code>log(this)</code>
+	 */
+	public Dual log()
+	{
+		return chain(Math.log(value), 1 / value);
+	}
+
+	/**
+	 * Get the square root of this value.
+	 * 
+	 * @return <code>&radic;this</code>
+	 */
+	public Dual sqrt()
+	{
+		double sqrt = Math.sqrt(value);
+
+		return chain(sqrt, 0.5 / sqrt);
+	}
+
+	/**
+	 * Raise this value to the specified constant power.
+	 * 
+	 * @param exponent The exponent.
+	 * @return <code>this<sup>exponent</sup></code>
+	 */
+	public Dual pow(final double exponent)
+	{
+		if(exponent == 0)
+		{
+			return chain(1, 0);
+		}
+
+		// at zero, the derivative is +Inf for 0 < n < 1, its limit.
+		return chain(Math.pow(value, exponent), exponent * Math.pow(value, exponent - 1));
+	}
+
+	/**
+	 * Get the sine of this value.
+	 * 
+	 * @return <code>sin(this)</code>
+	 */
+	public Dual sin()
+	{
+		return chain(Math.sin(value), Math.cos(value));
+	}
+
+	/**
+	 * Get the cosine of this value.
+	 * 
+	 * @return <code>cos(this)</code>
+	 */
+	public Dual cos()
+	{
+		return chain(Math.cos(value), -Math.sin(value));
+	}
+
+	/**
+	 * Get the tangent of this value.
+	 * 
+	 * @return <code>tan(this)</code>
+	 */
+	public Dual tan()
+	{
+		double tan = Math.tan(value);
+
+		return chain(tan, 1 + (tan * tan));
+	}
+
+	/**
+	 * Apply the chain rule for a univariate function.
+	 * 
+	 * @param f The value of the function at this value.
+	 * @param df The derivative of the function at this value.
+	 * @return The composition.
+	 */
+	private Dual chain(final double f, final double df)
+	{
+		double[] result = new double[derivatives.length];
+		for(int index = 0; index < result.length; index++)
+		{
+			result[index] = df * derivatives[index];
+		}
+
+		return new Dual(f, result);
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%1$s + %2$s", value, Arrays.toString(derivatives));
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.dual;
+
+import java.util.Arrays;
+
+/**
+ * A mutable running sum of {@link Dual} numbers.
+ * <p>
+ * Each operation on a {@link Dual} allocates a new array of derivatives. An
+ * accumulator instead adds terms, scaled terms and products into a single
+ * array, so a sum of <code>m</code> terms allocates nothing until the result
+ * is taken with {@link #toDual()}, rather than allocating once per term.
+ * Accumulators can be cleared and reused.
+ * <p>
+ * Instances of this class are mutable, and must not be shared between
+ * threads.
+ */
+public final class DualAccumulator
+{
+
+	/**
+	 * The value.
+	 */
+	private double value;
+
+	/**
+	 * The derivatives.
+	 */
+	private final double[] derivatives;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param dimension The dimension.
+	 */
+	public DualAccumulator(final int dimension)
+	{
+		this.derivatives = new double[dimension];
+	}
+
+	/**
+	 * Get the value.
+	 * 
+	 * @return The value.
+	 */
+	public double getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Reset the sum to zero.
+	 */
+	public void clear()
+	{
+		value = 0;
+		Arrays.fill(derivatives, 0);
+	}
+
+	/**
+	 * Add the specified value.
+	 * 
+	 * @param that The value to add.
+	 */
+	public void add(final Dual that)
+	{
+		double[] other = that.getDerivatives();
+		for(int index = 0; index < derivatives.length; index++)
+		{
+			derivatives[index] += other[index];
+		}
+
+		value += that.getValue();
+	}
+
+	/**
+	 * Add the specified constant.
+	 * 
+	 * @param that The value to add.
+	 */
+	public void add(final double that)
+	{
+		value += that;
+	}
+
+	/**
+	 * Add the specified value, multiplied by the specified constant.
+	 * 
+	 * @param coefficient The constant.
+	 * @param that The value.
+	 */
+	public void addScaled(final double coefficient, final Dual that)
+	{
+		double[] other = that.getDerivatives();
+		for(int index = 0; index < derivatives.length; index++)
+		{
+			derivatives[index] += coefficient * other[index];
+		}
+
+		value += coefficient * that.getValue();
+	}
+
+	/**
+	 * Add the product of the specified values.
+	 * 
+	 * @param a The first value.
+	 * @param b The second value.
+	 */
+	public void addProduct(final Dual a, final Dual b)
+	{
+		double[] first = a.getDerivatives();
+		double[] second = b.getDerivatives();
+		double x = a.getValue();
+		double y = b.getValue();
+
+		for(int index = 0; index < derivatives.length; index++)
+		{
+			derivatives[index] += (first[index] * y) + (x * second[index]);
+		}
+
+		value += x * y;
+	}
+
+	/**
+	 * Get the sum, as a new dual number.
+	 * 
+	 * @return The sum.
+	 */
+	public Dual toDual()
+	{
+		return new Dual(value, derivatives.clone());
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("DualAccumulator [value=");
+		builder.append(value);
+		builder.append(", derivatives=");
+		builder.append(Arrays.toString(derivatives));
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,363 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.dual;
+
+/**
+ * A hyper-dual number, 
+ * <code>a + b&epsilon;<sub>1</sub> + c&epsilon;<sub>2</sub> + d&epsilon;<sub>1</sub>&epsilon;<sub>2</sub></code>,
+ * where <code>&epsilon;<sub>1</sub><sup>2</sup> = &epsilon;<sub>2</sub><sup>2</sup> = 0</code>.
+ * <p>
+ * For a twice-differentiable <code>f</code>,
+ * <code>f(a + b&epsilon;<sub>1</sub> + c&epsilon;<sub>2</sub> + d&epsilon;<sub>1</sub>&epsilon;<sub>2</sub>) = 
+ * f(a) + f'(a)b&epsilon;<sub>1</sub> + f'(a)c&epsilon;<sub>2</sub> + (f'(a)d + f''(a)bc)&epsilon;<sub>1</sub>&epsilon;<sub>2</sub></code>.
+ * Hence, evaluating a multivariate function with the <code>&epsilon;<sub>1</sub></code>
+ * part seeded along <code>u</code> and the <code>&epsilon;<sub>2</sub></code>
+ * part along <code>v</code> yields <code>u<sup>T</sup><b>H</b>v</code>
+ * exactly (i.e. without any truncation error) in the 
+ * <code>&epsilon;<sub>1</sub>&epsilon;<sub>2</sub></code> part.
+ * <p>
+ * Instances of this class are immutable. The "operator" methods of this class
+ * return new instances with the desired properties.
+ */
+public final class HyperDual
+{
+
+	/**
+	 * The real part.
+	 */
+	private final double real;
+
+	/**
+	 * The <code>&epsilon;<sub>1</sub></code> part.
+	 */
+	private final double first;
+
+	/**
+	 * The <code>&epsilon;<sub>2</sub></code> part.
+	 */
+	private final double second;
+
+	/**
+	 * The <code>&epsilon;<sub>1</sub>&epsilon;<sub>2</sub></code> part.
+	 */
+	private final double cross;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param real The real part.
+	 * @param first The <code>&epsilon;<sub>1</sub></code> part.
+	 * @param second The <code>&epsilon;<sub>2</sub></code> part.
+	 * @param cross The <code>&epsilon;<sub>1</sub>&epsilon;<sub>2</sub></code> part.
+	 */
+	public HyperDual(final double real, final double first, final double second, final double cross)
+	{
+		this.real = real;
+		this.first = first;
+		this.second = second;
+		this.cross = cross;
+	}
+
+	/**
+	 * Get the real part.
+	 * 
+	 * @return The real part.
+	 */
+	public double getReal()
+	{
+		return real;
+	}
+
+	/**
+	 * Get the <code>&epsilon;<sub>1</sub></code> part.
+	 * 
+	 * @return The first part.
+	 */
+	public double getFirst()
+	{
+		return first;
+	}
+
+	/**
+	 * Get the <code>&epsilon;<sub>2</sub></code> part.
+	 * 
+	 * @return The second part.
+	 */
+	public double getSecond()
+	{
+		return second;
+	}
+
+	/**
+	 * Get the <code>&epsilon;<sub>1</sub>&epsilon;<sub>2</sub></code> part.
+	 * 
+	 * @return The cross part.
+	 */
+	public double getCross()
+	{
+		return cross;
+	}
+
+	/**
+	 * Add the specified value to this.
+	 * 
+	 * @param that The value to add.
+	 * @return <code>this + that</code>
+	 */
+	public HyperDual add(final HyperDual that)
+	{
+		return new HyperDual(real + that.real, first + that.first, second + that.second, cross + that.cross);
+	}
+
+	/**
+	 * Add the specified constant to this.
+	 * 
+	 * @param that The value to add.
+	 * @return <code>this + that</code>
+	 */
+	public HyperDual add(final double that)
+	{
+		return new HyperDual(real + that, first, second, cross);
+	}
+
+	/**
+	 * Subtract the specified value from this.
+	 * 
+	 * @param that The value to subtract.
+	 * @return <code>this - that</code>
+	 */
+	public HyperDual subtract(final HyperDual that)
+	{
+		return new HyperDual(real - that.real, first - that.first, second - that.second, cross - that.cross);
+	}
+
+	/**
+	 * Subtract the specified constant from this.
+	 * 
+	 * @param that The value to subtract.
+	 * @return <code>this - that</code>
+	 */
+	public HyperDual subtract(final double that)
+	{
+		return new HyperDual(real - that, first, second, cross);
+	}
+
+	/**
+	 * Get the negative of this value.
+	 * 
+	 * @return <code>-this</code>
+	 */
+	public HyperDual negate()
+	{
+		return new HyperDual(-real, -first, -second, -cross);
+	}
+
+	/**
+	 * Multiply this by the specified value.
+	 * 
+	 * @param that The value by which to multiply.
+	 * @return <code>this * that</code>
+	 */
+	public HyperDual multiply(final HyperDual that)
+	{
+		return new HyperDual(
+				real * that.real,
+				(real * that.first) + (first * that.real),
+				(real * that.second) + (second * that.real),
+				(real * that.cross) + (first * that.second) + (second * that.first) + (cross * that.real));
+	}
+
+	/**
+	 * Multiply this by the specified constant.
+	 * 
+	 * @param that The value by which to multiply.
+	 * @return <code>this * that</code>
+	 */
+	public HyperDual multiply(final double that)
+	{
+		return new HyperDual(real * that, first * that, second * that, cross * that);
+	}
+
+	/**
+	 * Divide this by the specified value.
+	 * 
+	 * @param that The value by which to divide.
+	 * @return <code>this / that</code>
+	 */
+	public HyperDual divide(final HyperDual that)
+	{
+		return multiply(that.inverse());
+	}
+
+	/**
+	 * Divide this by the specified constant.
+	 * 
+	 * @param that The value by which to divide.
+	 * @return <code>this / that</code>
+	 */
+	public HyperDual divide(final double that)
+	{
+		return multiply(1 / that);
+	}
+
+	/**
+	 * Get the inverse of this value.
+	 * 
+	 * @return <code>this<sup>-1</sup></code>
+	 */
+	public HyperDual inverse()
+	{
+		double inverse = 1 / real;
+		double inverse2 = inverse * inverse;
+
+		return chain(inverse, -inverse2, 2 * inverse2 * inverse);
+	}
+
+	/**
+	 * Get the exponential of this value.
+	 * 
+	 * @return <code>e<sup>this</sup></code>
+	 */
+	public HyperDual exp()
+	{
+		double exp = Math.exp(real);
+
+		return chain(exp, exp, exp);
+	}
+
+	/**
+	 * Get the natural logarithm of this value.
+	 * 
+	 * @return <code>log(this)</code>
+	 */
+	public HyperDual log()
+	{
+		double inverse = 1 / real;
+
+		return chain(Math.log(real), inverse, -inverse * inverse);
+	}
+
+	/**
+	 * Get the square root of this value.
+	 * 
+	 * @return <code>&radic;this</code>
+	 */
+	public HyperDual sqrt()
+	{
+		double sqrt = Math.sqrt(real);
+		double df = 0.5 / sqrt;
+
+		return chain(sqrt, df, -0.5 * df / real);
+	}
+
+	/**
+	 * Raise this value to the specified constant power.
+	 * 
+	 * @param exponent The exponent.
+	 * @return <code>this<sup>exponent</sup></code>
+	 */
+	public HyperDual pow(final double exponent)
+	{
+		if(exponent == 0)
+		{
+			return new HyperDual(1, 0, 0, 0);
+		}
+
+		if(exponent == 1)
+		{
+			return this;
+		}
+
+		// at zero, for 0 < n < 2, each derivative that diverges is +/-Inf,
+		// its limit.
+		return chain(
+				Math.pow(real, exponent), 
+				exponent * Math.pow(real, exponent - 1), 
+				exponent * (exponent - 1) * Math.pow(real, exponent - 2));
+	}
+
+	/**
+	 * Get the sine of this value.
+	 * 
+	 * @return <code>sin(this)</code>
+	 */
+	public HyperDual sin()
+	{
+		double sin = Math.sin(real);
+
+		return chain(sin, Math.cos(real), -sin);
+	}
+
+	/**
+	 * Get the cosine of this value.
+	 * 
+	 * @return <code>cos(this)</code>
+	 */
+	public HyperDual cos()
+	{
+		double cos = Math.cos(real);
+
+		return chain(cos, -Math.sin(real), -cos);
+	}
+
+	/**
+	 * Get the tangent of this value.
+	 * 
+	 * @return <code>tan(this)</code>
+	 */
+	public HyperDual tan()
+	{
+		double tan = Math.tan(real);
+		double sec2 = 1 + (tan * tan);
+
+		return chain(tan, sec2, 2 * tan * sec2);
+	}
+
+	/**
+	 * Apply the chain rule for a univariate function.
+	 * 
+	 * @param f The value of the function at the real part.
+	 * @param df The first derivative of the function at the real part.
+	 * @param d2f The second derivative of the function at the real part.
+	 * @return The composition.
+	 */
+	private HyperDual chain(final double f, final double df, final double d2f)
+	{
+		return new HyperDual(
+				f, 
+				df * first, 
+				df * second, 
+				(df * cross) + (d2f * first * second));
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("%1$s + %2$s e1 + %3$s e2 + %4$s e1e2", real, first, second, cross);
+	}
+
+}
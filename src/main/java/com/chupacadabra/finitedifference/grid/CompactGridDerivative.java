@@ -0,0 +1,283 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.util.Arrays;
+
+import com.chupacadabra.finitedifference.matrix.TridiagonalSolver;
+
+/**
+ * Compact (Pad&eacute;) finite difference derivative of a function sampled on
+ * a uniform grid.
+ * <p>
+ * Rather than an explicit weighted sum, a compact scheme relates the
+ * derivatives at neighboring points to each other, which yields a
+ * tridiagonal system. In the interior, the fourth-order schemes of Lele
+ * (1992) are used:
+ * <ul>
+ * <li><code>f'<sub>i-1</sub>/4 + f'<sub>i</sub> + f'<sub>i+1</sub>/4 = 3(f<sub>i+1</sub> - f<sub>i-1</sub>)/(4h)</code></li>
+ * <li><code>f''<sub>i-1</sub>/10 + f''<sub>i</sub> + f''<sub>i+1</sub>/10 = 6(f<sub>i+1</sub> - 2f<sub>i</sub> + f<sub>i-1</sub>)/(5h<sup>2</sup>)</code></li>
+ * </ul>
+ * Both use only a three-point stencil, yet are more accurate than the explicit
+ * five-point stencils of the same order. At the ends of the grid, the
+ * standard third-order one-sided closures are used:
+ * <ul>
+ * <li><code>f'<sub>0</sub> + 2f'<sub>1</sub> = (-5f<sub>0</sub> + 4f<sub>1</sub> + f<sub>2</sub>)/(2h)</code></li>
+ * <li><code>f''<sub>0</sub> + 11f''<sub>1</sub> = (13f<sub>0</sub> - 27f<sub>1</sub> + 15f<sub>2</sub> - f<sub>3</sub>)/h<sup>2</sup></code></li>
+ * </ul>
+ * and their mirror images.
+ * <p>
+ * The system is factored once, at construction; differentiation then
+ * allocates nothing. Many series can be differentiated at once, in a
+ * {@linkplain SeriesLayout#SAMPLE_MAJOR sample-major} matrix.
+ */
+public final class CompactGridDerivative
+{
+
+	/**
+	 * The derivative order.
+	 */
+	private final int derivativeOrder;
+
+	/**
+	 * The grid width.
+	 */
+	private final double gridWidth;
+
+	/**
+	 * The grid length.
+	 */
+	private final int length;
+
+	/**
+	 * The solver.
+	 */
+	private final TridiagonalSolver solver;
+
+	/**
+	 * The interior right-hand side scale.
+	 */
+	private final double interiorScale;
+
+	/**
+	 * The boundary right-hand side scale.
+	 */
+	private final double boundaryScale;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivativeOrder The derivative order, one or two.
+	 * @param gridWidth The grid width.
+	 * @param length The grid length.
+	 */
+	public CompactGridDerivative(final int derivativeOrder, final double gridWidth, final int length)
+	{
+		if((derivativeOrder < 1) || (derivativeOrder > 2))
+		{
+			throw new IllegalArgumentException("derivativeOrder");
+		}
+
+		if(!(gridWidth > 0) || Double.isInfinite(gridWidth))
+		{
+			throw new IllegalArgumentException("gridWidth");
+		}
+
+		if(length < (derivativeOrder + 2))
+		{
+			throw new IllegalArgumentException("length");
+		}
+
+		this.derivativeOrder = derivativeOrder;
+		this.gridWidth = gridWidth;
+		this.length = length;
+
+		double alpha = (derivativeOrder == 1) ? 0.25 : 0.1;
+		double closure = (derivativeOrder == 1) ? 2 : 11;
+
+		double[] lower = new double[length];
+		double[] diagonal = new double[length];
+		double[] upper = new double[length];
+
+		Arrays.fill(lower, alpha);
+		Arrays.fill(diagonal, 1);
+		Arrays.fill(upper, alpha);
+
+		upper[0] = closure;
+		lower[length - 1] = closure;
+
+		solver = new TridiagonalSolver(lower, diagonal, upper);
+
+		if(derivativeOrder == 1)
+		{
+			interiorScale = 0.75 / gridWidth;
+			boundaryScale = 0.5 / gridWidth;
+		}
+		else
+		{
+			double squared = gridWidth * gridWidth;
+			interiorScale = 1.2 / squared;
+			boundaryScale = 1 / squared;
+		}
+	}
+
+	/**
+	 * Get the derivative order.
+	 * 
+	 * @return The derivative order.
+	 */
+	public int getDerivativeOrder()
+	{
+		return derivativeOrder;
+	}
+
+	/**
+	 * Get the grid width.
+	 * 
+	 * @return The grid width.
+	 */
+	public double getGridWidth()
+	{
+		return gridWidth;
+	}
+
+	/**
+	 * Get the grid length.
+	 * 
+	 * @return The grid length.
+	 */
+	public int getLength()
+	{
+		return length;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @return The derivatives.
+	 */
+	public double[] differentiate(final double[] values)
+	{
+		double[] derivatives = new double[values.length];
+		differentiate(values, derivatives, 1);
+
+		return derivatives;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives; may not be the same array as the
+	 *            values.
+	 */
+	public void differentiate(final double[] values, final double[] derivatives)
+	{
+		differentiate(values, derivatives, 1);
+	}
+
+	/**
+	 * Get the derivative at every grid point of many series at once.
+	 * 
+	 * @param values The function values, a row-major
+	 *            <code>length &times; count</code> matrix, i.e. with the
+	 *            values of every series at each grid point contiguous.
+	 * @param derivatives The derivatives, in the same layout; may not be the
+	 *            same array as the values.
+	 * @param count The number of series.
+	 */
+	public void differentiate(final double[] values, final double[] derivatives, final int count)
+	{
+		if((count < 1) || (values.length != (length * count)))
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		if(derivatives.length != values.length)
+		{
+			throw new IllegalArgumentException("derivatives");
+		}
+
+		int last = (length - 1) * count;
+
+		if(derivativeOrder == 1)
+		{
+			for(int column = 0; column < count; column++)
+			{
+				int first = column;
+				derivatives[first] = boundaryScale * 
+						((-5 * values[first]) + (4 * values[first + count]) + values[first + (2 * count)]);
+
+				int end = last + column;
+				derivatives[end] = boundaryScale * 
+						((5 * values[end]) - (4 * values[end - count]) - values[end - (2 * count)]);
+			}
+
+			for(int index = count; index < last; index++)
+			{
+				derivatives[index] = interiorScale * (values[index + count] - values[index - count]);
+			}
+		}
+		else
+		{
+			for(int column = 0; column < count; column++)
+			{
+				int first = column;
+				derivatives[first] = boundaryScale * 
+						((13 * values[first]) - (27 * values[first + count]) + (15 * values[first + (2 * count)]) - values[first + (3 * count)]);
+
+				int end = last + column;
+				derivatives[end] = boundaryScale * 
+						((13 * values[end]) - (27 * values[end - count]) + (15 * values[end - (2 * count)]) - values[end - (3 * count)]);
+			}
+
+			for(int index = count; index < last; index++)
+			{
+				derivatives[index] = interiorScale * ((values[index + count] - (2 * values[index])) + values[index - count]);
+			}
+		}
+
+		solver.solve(derivatives, derivatives, count);
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("CompactGridDerivative [derivativeOrder=");
+		builder.append(derivativeOrder);
+		builder.append(", gridWidth=");
+		builder.append(gridWidth);
+		builder.append(", length=");
+		builder.append(length);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.util.Arrays;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
+import com.chupacadabra.finitedifference.matrix.SparseMatrix;
+
+/**
+ * Builds the differentiation matrix of a stencil on a uniform grid, i.e. the
+ * sparse matrix <code><b>D</b></code> such that <code><b>D</b>f</code>
+ * approximates the derivative of the samples <code>f</code>.
+ * <p>
+ * Each entry is a stencil coefficient scaled by
+ * <code>h<sup>-d</sup></code>; stencil points with a zero coefficient are
+ * omitted. {@link GridDifferentiationOperator} applies the same operator
+ * without a matrix.
+ */
+public final class DifferentiationMatrixBuilder
+{
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The grid width.
+	 */
+	private final double gridWidth;
+
+	/**
+	 * The boundary treatment.
+	 */
+	private final GridBoundary boundary;
+
+	/**
+	 * The scale of the coefficients.
+	 */
+	private final StencilScale stencilScale;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param gridWidth The grid width.
+	 * @param boundary The boundary treatment.
+	 */
+	public DifferentiationMatrixBuilder(
+			final FiniteDifference finiteDifference,
+			final double gridWidth,
+			final GridBoundary boundary)
+	{
+		if(!(gridWidth > 0) || Double.isInfinite(gridWidth))
+		{
+			throw new IllegalArgumentException("gridWidth");
+		}
+
+		this.finiteDifference = finiteDifference;
+		this.gridWidth = gridWidth;
+		this.boundary = boundary;
+		this.stencilScale = new StencilScale(finiteDifference.getDerivativeOrder(), gridWidth);
+	}
+
+	/**
+	 * Build the matrix for a grid of the specified length.
+	 * 
+	 * @param length The grid length.
+	 * @return The matrix.
+	 */
+	public SparseMatrix build(final int length)
+	{
+		switch(boundary)
+		{
+			case ONE_SIDED:
+				return buildOneSided(length);
+			case PERIODIC:
+				return buildPeriodic(length);
+			default:
+				throw new IllegalArgumentException("boundary");
+		}
+	}
+
+	/**
+	 * Build the matrix with one-sided stencils at the ends.
+	 * 
+	 * @param length The grid length.
+	 * @return The matrix.
+	 */
+	private SparseMatrix buildOneSided(final int length)
+	{
+		GridDerivative derivative = new GridDerivative(finiteDifference, gridWidth);
+		if(length < derivative.getMinimumLength())
+		{
+			throw new IllegalArgumentException("length");
+		}
+
+		int derivativeOrder = finiteDifference.getDerivativeOrder();
+		int errorOrder = finiteDifference.getErrorOrder();
+
+		StencilTaps interior = new StencilTaps(finiteDifference);
+		StencilTaps left = new StencilTaps(new FiniteDifference(FiniteDifferenceType.FORWARD, derivativeOrder, errorOrder));
+		StencilTaps right = new StencilTaps(new FiniteDifference(FiniteDifferenceType.BACKWARD, derivativeOrder, errorOrder));
+
+		int leftHalo = derivative.getLeftHalo();
+		int rightHalo = derivative.getRightHalo();
+
+		int[] rowPointers = new int[length + 1];
+		for(int row = 0; row < length; row++)
+		{
+			StencilTaps taps = (row < leftHalo) ? left : ((row >= (length - rightHalo)) ? right : interior);
+			rowPointers[row + 1] = rowPointers[row] + taps.getCoefficients().length;
+		}
+
+		int[] columnIndices = new int[rowPointers[length]];
+		double[] values = new double[columnIndices.length];
+
+		for(int row = 0; row < length; row++)
+		{
+			StencilTaps taps = (row < leftHalo) ? left : ((row >= (length - rightHalo)) ? right : interior);
+			int[] multipliers = taps.getMultipliers();
+			double[] coefficients = taps.getCoefficients();
+
+			for(int tap = 0, index = rowPointers[row]; tap < coefficients.length; tap++, index++)
+			{
+				columnIndices[index] = row + multipliers[tap];
+				values[index] = stencilScale.scale(coefficients[tap]);
+			}
+		}
+
+		return new SparseMatrix(length, length, rowPointers, columnIndices, values);
+	}
+
+	/**
+	 * Build the periodic matrix.
+	 * 
+	 * @param length The grid length.
+	 * @return The matrix.
+	 */
+	private SparseMatrix buildPeriodic(final int length)
+	{
+		// shorter grids would wrap the stencil onto itself.
+		if(length < finiteDifference.getLength())
+		{
+			throw new IllegalArgumentException("length");
+		}
+
+		StencilTaps taps = new StencilTaps(finiteDifference);
+		int[] multipliers = taps.getMultipliers();
+		double[] coefficients = taps.getCoefficients();
+		int width = coefficients.length;
+
+		int[] rowPointers = new int[length + 1];
+		int[] columnIndices = new int[length * width];
+		double[] values = new double[columnIndices.length];
+
+		// sort each row's (wrapped) columns by packing them with their tap.
+		long[] entries = new long[width];
+
+		for(int row = 0; row < length; row++)
+		{
+			for(int tap = 0; tap < width; tap++)
+			{
+				int column = (((row + multipliers[tap]) % length) + length) % length;
+				entries[tap] = ((long)column << 32) | tap;
+			}
+
+			Arrays.sort(entries);
+
+			int start = row * width;
+			for(int index = 0; index < width; index++)
+			{
+				columnIndices[start + index] = (int)(entries[index] >>> 32);
+				values[start + index] = stencilScale.scale(coefficients[(int)entries[index]]);
+			}
+
+			rowPointers[row + 1] = start + width;
+		}
+
+		return new SparseMatrix(length, length, rowPointers, columnIndices, values);
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("DifferentiationMatrixBuilder [finiteDifference=");
+		builder.append(finiteDifference);
+		builder.append(", gridWidth=");
+		builder.append(gridWidth);
+		builder.append(", boundary=");
+		builder.append(boundary);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,432 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+
+/**
+ * Single precision finite difference derivative of a function sampled on a
+ * uniform grid.
+ * <p>
+ * Boundaries are handled as in {@link GridDerivative}. The coefficients are
+ * the exact stencil coefficients rounded to <code>float</code>, and sums are
+ * accumulated in <code>float</code>.
+ * <p>
+ * Each interior point is computed in a single pass over its non-zero taps,
+ * as in the double precision kernels. Samples take half the memory of the
+ * double precision sweep.
+ * <p>
+ * The weighted sums are scaled by multiplying by <code>1 / h<sup>d</sup></code>,
+ * which is exact for power-of-two grid widths.
+ */
+public final class FloatGridDerivative
+{
+
+	/**
+	 * The window size, in samples, for buffers.
+	 */
+	private static final int WINDOW_SIZE = 1 << 16;
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The grid width.
+	 */
+	private final float gridWidth;
+
+	/**
+	 * The reciprocal of the grid width to the derivative order.
+	 */
+	private final float inverseScale;
+
+	/**
+	 * The interior multipliers.
+	 */
+	private final int[] multipliers;
+
+	/**
+	 * The interior coefficients.
+	 */
+	private final float[] coefficients;
+
+	/**
+	 * The coefficients for the start of the grid.
+	 */
+	private final float[] leftCoefficients;
+
+	/**
+	 * The coefficients for the end of the grid.
+	 */
+	private final float[] rightCoefficients;
+
+	/**
+	 * The number of points at the start of the grid that use the left stencil.
+	 */
+	private final int leftHalo;
+
+	/**
+	 * The number of points at the end of the grid that use the right stencil.
+	 */
+	private final int rightHalo;
+
+	/**
+	 * The minimum grid length.
+	 */
+	private final int minimumLength;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param gridWidth The grid width.
+	 */
+	public FloatGridDerivative(final FiniteDifference finiteDifference, final float gridWidth)
+	{
+		GridDerivative derivative = new GridDerivative(finiteDifference, gridWidth);
+
+		this.finiteDifference = finiteDifference;
+		this.gridWidth = gridWidth;
+		this.inverseScale = (float)(1d / Math.pow(gridWidth, finiteDifference.getDerivativeOrder()));
+		this.leftHalo = derivative.getLeftHalo();
+		this.rightHalo = derivative.getRightHalo();
+		this.minimumLength = derivative.getMinimumLength();
+
+		StencilTaps taps = new StencilTaps(finiteDifference);
+		multipliers = taps.getMultipliers();
+		coefficients = toFloat(taps.getCoefficients());
+
+		int derivativeOrder = finiteDifference.getDerivativeOrder();
+		int errorOrder = finiteDifference.getErrorOrder();
+		leftCoefficients = toFloat(new FiniteDifference(FiniteDifferenceType.FORWARD, derivativeOrder, errorOrder).getCoefficients());
+		rightCoefficients = toFloat(new FiniteDifference(FiniteDifferenceType.BACKWARD, derivativeOrder, errorOrder).getCoefficients());
+	}
+
+	/**
+	 * Get the finite difference.
+	 * 
+	 * @return The finite difference.
+	 */
+	public FiniteDifference getFiniteDifference()
+	{
+		return finiteDifference;
+	}
+
+	/**
+	 * Get the grid width.
+	 * 
+	 * @return The grid width.
+	 */
+	public float getGridWidth()
+	{
+		return gridWidth;
+	}
+
+	/**
+	 * Get the minimum number of grid points.
+	 * 
+	 * @return The minimum length.
+	 */
+	public int getMinimumLength()
+	{
+		return minimumLength;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @return The derivatives.
+	 */
+	public float[] differentiate(final float[] values)
+	{
+		float[] derivatives = new float[values.length];
+		differentiate(values, derivatives);
+
+		return derivatives;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives; may not be the same array as the
+	 *            values.
+	 */
+	public void differentiate(final float[] values, final float[] derivatives)
+	{
+		if(values.length < minimumLength)
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		if(derivatives.length != values.length)
+		{
+			throw new IllegalArgumentException("derivatives");
+		}
+
+		sweep(values, 0, values.length, derivatives, 0, values.length);
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * <p>
+	 * The values between the position and limit of the value buffer are
+	 * differentiated into the derivative buffer, starting at its position.
+	 * Neither buffer's position is changed. Buffers of any kind, including
+	 * direct buffers, are processed in bounded windows.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives, with at least as many elements
+	 *            remaining as the values.
+	 */
+	public void differentiate(final FloatBuffer values, final FloatBuffer derivatives)
+	{
+		int length = values.remaining();
+		if(length < minimumLength)
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		if(derivatives.remaining() < length)
+		{
+			throw new IllegalArgumentException("derivatives");
+		}
+
+		int halo = minimumLength;
+		float[] window = new float[Math.min(length, WINDOW_SIZE + (2 * halo))];
+		float[] windowDerivatives = new float[window.length];
+
+		FloatBuffer source = values.duplicate();
+		FloatBuffer target = derivatives.duplicate();
+
+		for(int start = 0; start < length; start += WINDOW_SIZE)
+		{
+			int end = Math.min(length, start + WINDOW_SIZE);
+			int readStart = Math.max(0, start - halo);
+			int readEnd = Math.min(length, end + halo);
+
+			// go through Buffer, whose position(int) exists on every platform.
+			((Buffer)source).position(values.position() + readStart);
+			source.get(window, 0, readEnd - readStart);
+
+			sweep(window, readStart, length, windowDerivatives, start - readStart, end - readStart);
+
+			((Buffer)target).position(derivatives.position() + start);
+			target.put(windowDerivatives, start - readStart, end - start);
+		}
+	}
+
+	/**
+	 * Get the derivative at the grid points in the specified range of a
+	 * window onto a grid.
+	 * 
+	 * @param values The window of function values.
+	 * @param offset The grid index of the first element of the window.
+	 * @param length The grid length.
+	 * @param derivatives The window of derivatives.
+	 * @param from The first window index, inclusive.
+	 * @param to The last window index, exclusive.
+	 */
+	private void sweep(
+			final float[] values,
+			final int offset,
+			final int length,
+			final float[] derivatives,
+			final int from,
+			final int to)
+	{
+		int interiorFrom = Math.min(Math.max(from, leftHalo - offset), to);
+		int interiorTo = Math.max(Math.min(to, (length - rightHalo) - offset), interiorFrom);
+
+		for(int index = from; index < interiorFrom; index++)
+		{
+			derivatives[index] = getWeightedSum(values, index, leftCoefficients) * inverseScale;
+		}
+
+		sweepInterior(values, derivatives, interiorFrom, interiorTo);
+
+		for(int index = interiorTo; index < to; index++)
+		{
+			derivatives[index] = getWeightedSum(values, index - (rightCoefficients.length - 1), rightCoefficients) * inverseScale;
+		}
+	}
+
+	/**
+	 * Get the derivative at the interior points in the specified range.
+	 * <p>
+	 * Each point is computed in a single pass that sums all of its taps; the
+	 * common tap counts are unrolled.
+	 * 
+	 * @param values The window of function values.
+	 * @param derivatives The window of derivatives.
+	 * @param from The first window index, inclusive.
+	 * @param to The last window index, exclusive.
+	 */
+	private void sweepInterior(final float[] values, final float[] derivatives, final int from, final int to)
+	{
+		float scale = inverseScale;
+		int[] m = multipliers;
+		float[] c = coefficients;
+
+		switch(c.length)
+		{
+			case 2:
+			{
+				float c0 = c[0];
+				float c1 = c[1];
+				int m0 = m[0];
+				int m1 = m[1];
+				for(int index = from; index < to; index++)
+				{
+					derivatives[index] = ((c0 * values[index + m0]) + (c1 * values[index + m1])) * scale;
+				}
+				break;
+			}
+			case 3:
+			{
+				float c0 = c[0];
+				float c1 = c[1];
+				float c2 = c[2];
+				int m0 = m[0];
+				int m1 = m[1];
+				int m2 = m[2];
+				for(int index = from; index < to; index++)
+				{
+					derivatives[index] = ((c0 * values[index + m0]) + (c1 * values[index + m1]) + (c2 * values[index + m2])) * scale;
+				}
+				break;
+			}
+			case 4:
+			{
+				float c0 = c[0];
+				float c1 = c[1];
+				float c2 = c[2];
+				float c3 = c[3];
+				int m0 = m[0];
+				int m1 = m[1];
+				int m2 = m[2];
+				int m3 = m[3];
+				for(int index = from; index < to; index++)
+				{
+					derivatives[index] = ((c0 * values[index + m0]) + (c1 * values[index + m1]) + 
+							(c2 * values[index + m2]) + (c3 * values[index + m3])) * scale;
+				}
+				break;
+			}
+			case 5:
+			{
+				float c0 = c[0];
+				float c1 = c[1];
+				float c2 = c[2];
+				float c3 = c[3];
+				float c4 = c[4];
+				int m0 = m[0];
+				int m1 = m[1];
+				int m2 = m[2];
+				int m3 = m[3];
+				int m4 = m[4];
+				for(int index = from; index < to; index++)
+				{
+					derivatives[index] = ((c0 * values[index + m0]) + (c1 * values[index + m1]) + 
+							(c2 * values[index + m2]) + (c3 * values[index + m3]) + (c4 * values[index + m4])) * scale;
+				}
+				break;
+			}
+			default:
+			{
+				for(int index = from; index < to; index++)
+				{
+					float sum = 0;
+					for(int tap = 0; tap < c.length; tap++)
+					{
+						sum += c[tap] * values[index + m[tap]];
+					}
+
+					derivatives[index] = sum * scale;
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Get the weighted sum of the values starting at the specified index.
+	 * 
+	 * @param values The values.
+	 * @param start The index of the first value.
+	 * @param weights The weights.
+	 * @return The weighted sum.
+	 */
+	private static float getWeightedSum(final float[] values, final int start, final float[] weights)
+	{
+		float sum = 0;
+		for(int index = 0; index < weights.length; index++)
+		{
+			sum += weights[index] * values[start + index];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Round the specified coefficients to <code>float</code>.
+	 * 
+	 * @param coefficients The coefficients.
+	 * @return The rounded coefficients.
+	 */
+	private static float[] toFloat(final double[] coefficients)
+	{
+		float[] rounded = new float[coefficients.length];
+		for(int index = 0; index < rounded.length; index++)
+		{
+			rounded[index] = (float)coefficients[index];
+		}
+
+		return rounded;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("FloatGridDerivative [finiteDifference=");
+		builder.append(finiteDifference);
+		builder.append(", gridWidth=");
+		builder.append(gridWidth);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
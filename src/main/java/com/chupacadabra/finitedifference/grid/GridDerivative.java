@@ -0,0 +1,362 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.kernel.StencilKernel;
+import com.chupacadabra.finitedifference.kernel.StencilKernelFactory;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
+
+/**
+ * Finite difference derivative of a function sampled on a uniform grid.
+ * <p>
+ * Interior points use the specified finite difference. Points too close to
+ * the start of the grid for it use a {@link FiniteDifferenceType#FORWARD}
+ * stencil, and points too close to the end use a
+ * {@link FiniteDifferenceType#BACKWARD} stencil, each of the same derivative
+ * and error order.
+ * <p>
+ * Each derivative depends only on the input values, so any range of the output
+ * may be computed independently of the others; this is what
+ * {@link ParallelGridDerivative} relies on.
+ */
+public final class GridDerivative
+{
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The grid width.
+	 */
+	private final double gridWidth;
+
+	/**
+	 * The interior kernel.
+	 */
+	private final StencilKernel kernel;
+
+	/**
+	 * The kernel for the start of the grid.
+	 */
+	private final StencilKernel leftKernel;
+
+	/**
+	 * The kernel for the end of the grid.
+	 */
+	private final StencilKernel rightKernel;
+
+	/**
+	 * The scale of weighted sums.
+	 */
+	private final StencilScale stencilScale;
+
+	/**
+	 * The number of points at the start of the grid that use the left kernel.
+	 */
+	private final int leftHalo;
+
+	/**
+	 * The number of points at the end of the grid that use the right kernel.
+	 */
+	private final int rightHalo;
+
+	/**
+	 * The minimum grid length.
+	 */
+	private final int minimumLength;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param gridWidth The grid width.
+	 */
+	public GridDerivative(final FiniteDifference finiteDifference, final double gridWidth)
+	{
+		if(!(gridWidth > 0) || Double.isInfinite(gridWidth))
+		{
+			throw new IllegalArgumentException("gridWidth");
+		}
+
+		this.finiteDifference = finiteDifference;
+		this.gridWidth = gridWidth;
+
+		int derivativeOrder = finiteDifference.getDerivativeOrder();
+		int errorOrder = finiteDifference.getErrorOrder();
+
+		kernel = StencilKernelFactory.getKernel(finiteDifference);
+		leftKernel = StencilKernelFactory.getKernel(new FiniteDifference(FiniteDifferenceType.FORWARD, derivativeOrder, errorOrder));
+		rightKernel = StencilKernelFactory.getKernel(new FiniteDifference(FiniteDifferenceType.BACKWARD, derivativeOrder, errorOrder));
+		stencilScale = new StencilScale(derivativeOrder, gridWidth);
+
+		leftHalo = Math.max(0, -finiteDifference.getLeftMultiplier());
+		rightHalo = Math.max(0, (finiteDifference.getLeftMultiplier() + finiteDifference.getLength()) - 1);
+
+		// one-sided stencils at the ends must fit in the grid, too.
+		int oneSidedLength = derivativeOrder + errorOrder;
+		minimumLength = Math.max(finiteDifference.getLength(), oneSidedLength + Math.max(leftHalo, rightHalo) - 1);
+	}
+
+	/**
+	 * Get the finite difference.
+	 * 
+	 * @return The finite difference.
+	 */
+	public FiniteDifference getFiniteDifference()
+	{
+		return finiteDifference;
+	}
+
+	/**
+	 * Get the grid width.
+	 * 
+	 * @return The grid width.
+	 */
+	public double getGridWidth()
+	{
+		return gridWidth;
+	}
+
+	/**
+	 * Get the number of points to the left of each interior point that its
+	 * stencil reads.
+	 * 
+	 * @return The left halo width.
+	 */
+	public int getLeftHalo()
+	{
+		return leftHalo;
+	}
+
+	/**
+	 * Get the number of points to the right of each interior point that its
+	 * stencil reads.
+	 * 
+	 * @return The right halo width.
+	 */
+	public int getRightHalo()
+	{
+		return rightHalo;
+	}
+
+	/**
+	 * Get the minimum number of grid points.
+	 * 
+	 * @return The minimum length.
+	 */
+	public int getMinimumLength()
+	{
+		return minimumLength;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @return The derivatives.
+	 */
+	public double[] differentiate(final double[] values)
+	{
+		double[] derivatives = new double[values.length];
+		differentiate(values, derivatives);
+
+		return derivatives;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives; may not be the same array as the
+	 *            values.
+	 */
+	public void differentiate(final double[] values, final double[] derivatives)
+	{
+		differentiate(values, derivatives, 0, values.length);
+	}
+
+	/**
+	 * Get the derivative at the grid points in the specified range.
+	 * <p>
+	 * Values outside the range, but within the stencil of a point in it, are
+	 * read as well.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives; may not be the same array as the
+	 *            values.
+	 * @param from The first index, inclusive.
+	 * @param to The last index, exclusive.
+	 */
+	public void differentiate(final double[] values, final double[] derivatives, final int from, final int to)
+	{
+		if(derivatives.length != values.length)
+		{
+			throw new IllegalArgumentException("derivatives");
+		}
+
+		differentiate(values, 0, values.length, derivatives, from, to);
+	}
+
+	/**
+	 * Get the derivative at the grid points in the specified range of a window
+	 * onto a longer grid.
+	 * <p>
+	 * Element <code>i</code> of the window is grid point
+	 * <code>offset + i</code>, and its derivative is written to element
+	 * <code>i</code> of the derivatives. The window must contain every value
+	 * read by the stencils of the points in the range; a window extending
+	 * {@linkplain #getMinimumLength() the minimum length} past each side of
+	 * the range (or to the end of the grid) always suffices.
+	 * 
+	 * @param values The window of function values.
+	 * @param offset The grid index of the first element of the window, which
+	 *            is negative if the grid starts part-way into the window.
+	 * @param length The grid length.
+	 * @param derivatives The window of derivatives; may not be the same array
+	 *            as the values.
+	 * @param from The first window index, inclusive.
+	 * @param to The last window index, exclusive.
+	 */
+	public void differentiate(
+			final double[] values,
+			final long offset,
+			final long length,
+			final double[] derivatives,
+			final int from,
+			final int to)
+	{
+		if(length < minimumLength)
+		{
+			throw new IllegalArgumentException("length");
+		}
+
+		if((from < 0) || (to > Math.min(values.length, derivatives.length)) || (from > to) || 
+				((offset + from) < 0) || ((offset + to) > length))
+		{
+			throw new IndexOutOfBoundsException();
+		}
+
+		// window indices of the first and last interior points.
+		long interiorStart = leftHalo - offset;
+		long interiorEnd = (length - rightHalo) - offset;
+		
+		int interiorFrom = (int)Math.min(Math.max(from, interiorStart), to);
+		int interiorTo = (int)Math.max(Math.min(to, interiorEnd), interiorFrom);
+
+		sweep(values, derivatives, 0, from, interiorFrom, interiorTo, to);
+	}
+
+	/**
+	 * Get the derivative at every point of a grid stored in a range of an
+	 * array, into a range of another array.
+	 * 
+	 * @param values The array of function values.
+	 * @param start The index of the first grid point in the values.
+	 * @param length The grid length.
+	 * @param derivatives The array of derivatives; may not be the same array
+	 *            as the values.
+	 * @param derivativesStart The index of the first grid point in the
+	 *            derivatives.
+	 */
+	void differentiate(
+			final double[] values,
+			final int start,
+			final int length,
+			final double[] derivatives,
+			final int derivativesStart)
+	{
+		if(length < minimumLength)
+		{
+			throw new IllegalArgumentException("length");
+		}
+
+		if((start < 0) || ((start + length) > values.length) || (derivativesStart < 0) || 
+				((derivativesStart + length) > derivatives.length))
+		{
+			throw new IndexOutOfBoundsException();
+		}
+
+		int end = start + length;
+		sweep(values, derivatives, derivativesStart - start, start, start + leftHalo, end - rightHalo, end);
+	}
+
+	/**
+	 * Sweep the specified range of values, where the left, interior and right
+	 * stencils apply to consecutive sub-ranges.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives.
+	 * @param shift The index of the derivative of a value, less the index of
+	 *            the value.
+	 * @param from The first index, inclusive.
+	 * @param interiorFrom The first interior index.
+	 * @param interiorTo The last interior index, exclusive.
+	 * @param to The last index, exclusive.
+	 */
+	private void sweep(
+			final double[] values,
+			final double[] derivatives,
+			final int shift,
+			final int from,
+			final int interiorFrom,
+			final int interiorTo,
+			final int to)
+	{
+		for(int index = from; index < interiorFrom; index++)
+		{
+			derivatives[index + shift] = stencilScale.scale(leftKernel.getWeightedSum(values, index));
+		}
+
+		for(int index = interiorFrom; index < interiorTo; index++)
+		{
+			derivatives[index + shift] = stencilScale.scale(kernel.getWeightedSum(values, index));
+		}
+
+		for(int index = interiorTo; index < to; index++)
+		{
+			derivatives[index + shift] = stencilScale.scale(rightKernel.getWeightedSum(values, index));
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("GridDerivative [finiteDifference=");
+		builder.append(finiteDifference);
+		builder.append(", gridWidth=");
+		builder.append(gridWidth);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.kernel.StencilKernel;
+import com.chupacadabra.finitedifference.kernel.StencilKernelFactory;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
+import com.chupacadabra.finitedifference.matrix.LinearOperator;
+
+/**
+ * Matrix-free differentiation operator on a uniform grid of fixed length.
+ * <p>
+ * This applies the same operator as the matrix built by
+ * {@link DifferentiationMatrixBuilder}, up to rounding, without storing it;
+ * {@link #multiply(double[], double[])} does not allocate.
+ */
+public final class GridDifferentiationOperator
+	implements LinearOperator
+{
+
+	/**
+	 * The grid derivative.
+	 */
+	private final GridDerivative derivative;
+
+	/**
+	 * The boundary treatment.
+	 */
+	private final GridBoundary boundary;
+
+	/**
+	 * The grid length.
+	 */
+	private final int length;
+
+	/**
+	 * The interior kernel, for periodic grids.
+	 */
+	private final StencilKernel kernel;
+
+	/**
+	 * The stencil taps, for the wrapped points of periodic grids.
+	 */
+	private final StencilTaps taps;
+
+	/**
+	 * The scale of weighted sums, for periodic grids.
+	 */
+	private final StencilScale stencilScale;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param gridWidth The grid width.
+	 * @param boundary The boundary treatment.
+	 * @param length The grid length.
+	 */
+	public GridDifferentiationOperator(
+			final FiniteDifference finiteDifference,
+			final double gridWidth,
+			final GridBoundary boundary,
+			final int length)
+	{
+		this.derivative = new GridDerivative(finiteDifference, gridWidth);
+		this.boundary = boundary;
+		this.length = length;
+		this.kernel = StencilKernelFactory.getKernel(finiteDifference);
+		this.taps = new StencilTaps(finiteDifference);
+		this.stencilScale = new StencilScale(finiteDifference.getDerivativeOrder(), gridWidth);
+
+		int minimumLength = (boundary == GridBoundary.PERIODIC) ? finiteDifference.getLength() : derivative.getMinimumLength();
+		if(length < minimumLength)
+		{
+			throw new IllegalArgumentException("length");
+		}
+	}
+
+	/**
+	 * Get the boundary treatment.
+	 * 
+	 * @return The boundary treatment.
+	 */
+	public GridBoundary getBoundary()
+	{
+		return boundary;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getRowDimension()
+	 */
+	@Override
+	public int getRowDimension()
+	{
+		return length;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getColumnDimension()
+	 */
+	@Override
+	public int getColumnDimension()
+	{
+		return length;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#multiply(double[], double[])
+	 */
+	@Override
+	public void multiply(final double[] x, final double[] y)
+	{
+		if((x.length != length) || (y.length != length))
+		{
+			throw new IllegalArgumentException("x");
+		}
+
+		switch(boundary)
+		{
+			case ONE_SIDED:
+				derivative.differentiate(x, y);
+				break;
+			case PERIODIC:
+				multiplyPeriodic(x, y);
+				break;
+			default:
+				throw new IllegalArgumentException("boundary");
+		}
+	}
+
+	/**
+	 * Apply the periodic operator.
+	 * 
+	 * @param x The vector.
+	 * @param y The output vector.
+	 */
+	private void multiplyPeriodic(final double[] x, final double[] y)
+	{
+		int interiorFrom = derivative.getLeftHalo();
+		int interiorTo = length - derivative.getRightHalo();
+
+		for(int index = 0; index < interiorFrom; index++)
+		{
+			y[index] = stencilScale.scale(getWrappedSum(x, index));
+		}
+
+		for(int index = interiorFrom; index < interiorTo; index++)
+		{
+			y[index] = stencilScale.scale(kernel.getWeightedSum(x, index));
+		}
+
+		for(int index = Math.max(interiorFrom, interiorTo); index < length; index++)
+		{
+			y[index] = stencilScale.scale(getWrappedSum(x, index));
+		}
+	}
+
+	/**
+	 * Get the weighted sum around the specified index, wrapping around the
+	 * ends of the grid.
+	 * 
+	 * @param x The values.
+	 * @param center The index.
+	 * @return The weighted sum.
+	 */
+	private double getWrappedSum(final double[] x, final int center)
+	{
+		int[] multipliers = taps.getMultipliers();
+		double[] coefficients = taps.getCoefficients();
+
+		double sum = 0;
+		for(int tap = 0; tap < coefficients.length; tap++)
+		{
+			int index = center + multipliers[tap];
+			if(index < 0)
+			{
+				index += length;
+			}
+			else if(index >= length)
+			{
+				index -= length;
+			}
+
+			sum += coefficients[tap] * x[index];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("GridDifferentiationOperator [derivative=");
+		builder.append(derivative);
+		builder.append(", boundary=");
+		builder.append(boundary);
+		builder.append(", length=");
+		builder.append(length);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
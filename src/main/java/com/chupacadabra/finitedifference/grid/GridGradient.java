@@ -0,0 +1,167 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+
+/**
+ * Gradient field of an N-dimensional grid stored as a flat, row-major array.
+ * <p>
+ * The partial derivatives are fused into a single pass over the grid: it is
+ * visited one line of the last axis at a time, and every component is
+ * computed for a line before moving on, so each line, and the nearby lines
+ * the stencils of the other axes read, is loaded from memory once rather than
+ * once per axis. Each component is identical to that of the corresponding
+ * {@link PartialGridDerivative}.
+ */
+public final class GridGradient
+{
+
+	/**
+	 * The shape.
+	 */
+	private final GridShape shape;
+
+	/**
+	 * The partial derivatives, indexed by axis.
+	 */
+	private final PartialGridDerivative[] partials;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param shape The shape.
+	 * @param finiteDifference The (first derivative) finite difference.
+	 * @param gridWidths The grid width along each axis.
+	 */
+	public GridGradient(final GridShape shape, final FiniteDifference finiteDifference, final double... gridWidths)
+	{
+		if(finiteDifference.getDerivativeOrder() != 1)
+		{
+			throw new IllegalArgumentException("finiteDifference");
+		}
+
+		if(gridWidths.length != shape.getDimension())
+		{
+			throw new IllegalArgumentException("gridWidths");
+		}
+
+		this.shape = shape;
+		this.partials = new PartialGridDerivative[gridWidths.length];
+
+		for(int axis = 0; axis < partials.length; axis++)
+		{
+			partials[axis] = new PartialGridDerivative(shape, axis, finiteDifference, gridWidths[axis]);
+		}
+	}
+
+	/**
+	 * Get the shape.
+	 * 
+	 * @return The shape.
+	 */
+	public GridShape getShape()
+	{
+		return shape;
+	}
+
+	/**
+	 * Get the gradient at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @return The gradient components, indexed by axis.
+	 */
+	public double[][] gradient(final double[] values)
+	{
+		double[][] components = new double[partials.length][values.length];
+		gradient(values, components);
+
+		return components;
+	}
+
+	/**
+	 * Get the gradient at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @param components The gradient components, indexed by axis; none may be
+	 *            the same array as the values.
+	 */
+	public void gradient(final double[] values, final double[][] components)
+	{
+		int size = shape.getSize();
+		if((components.length != partials.length) || (values.length != size))
+		{
+			throw new IllegalArgumentException("components");
+		}
+
+		for(double[] component : components)
+		{
+			if((component.length != size) || (component == values))
+			{
+				throw new IllegalArgumentException("components");
+			}
+		}
+
+		int last = partials.length - 1;
+		int width = shape.getLength(last);
+		int[] position = new int[last];
+
+		for(int start = 0; start < size; start += width)
+		{
+			for(int axis = 0; axis <= last; axis++)
+			{
+				partials[axis].differentiateLine(values, components[axis], start, (axis < last) ? position[axis] : 0);
+			}
+
+			// advance to the next line, in row-major order.
+			for(int axis = last - 1; axis >= 0; axis--)
+			{
+				position[axis] += 1;
+				if(position[axis] < shape.getLength(axis))
+				{
+					break;
+				}
+
+				position[axis] = 0;
+			}
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("GridGradient [shape=");
+		builder.append(shape);
+		builder.append(", finiteDifference=");
+		builder.append(partials[0].getFiniteDifference());
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+
+/**
+ * Laplacian of an N-dimensional grid stored as a flat, row-major array.
+ * <p>
+ * The second partial derivatives are accumulated directly into the output,
+ * so no per-axis temporary grids are allocated, and the scratch lines the
+ * partial derivatives need are allocated once, at construction. An instance
+ * must not be shared between threads.
+ */
+public final class GridLaplacian
+{
+
+	/**
+	 * The shape.
+	 */
+	private final GridShape shape;
+
+	/**
+	 * The second partial derivatives, indexed by axis.
+	 */
+	private final PartialGridDerivative[] partials;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param shape The shape.
+	 * @param finiteDifference The (second derivative) finite difference.
+	 * @param gridWidths The grid width along each axis.
+	 */
+	public GridLaplacian(final GridShape shape, final FiniteDifference finiteDifference, final double... gridWidths)
+	{
+		if(finiteDifference.getDerivativeOrder() != 2)
+		{
+			throw new IllegalArgumentException("finiteDifference");
+		}
+
+		if(gridWidths.length != shape.getDimension())
+		{
+			throw new IllegalArgumentException("gridWidths");
+		}
+
+		this.shape = shape;
+		this.partials = new PartialGridDerivative[gridWidths.length];
+
+		for(int axis = 0; axis < partials.length; axis++)
+		{
+			partials[axis] = new PartialGridDerivative(shape, axis, finiteDifference, gridWidths[axis]);
+		}
+	}
+
+	/**
+	 * Get the shape.
+	 * 
+	 * @return The shape.
+	 */
+	public GridShape getShape()
+	{
+		return shape;
+	}
+
+	/**
+	 * Get the Laplacian at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @return The Laplacian.
+	 */
+	public double[] laplacian(final double[] values)
+	{
+		double[] output = new double[values.length];
+		laplacian(values, output);
+
+		return output;
+	}
+
+	/**
+	 * Get the Laplacian at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @param output The Laplacian; may not be the same array as the values.
+	 */
+	public void laplacian(final double[] values, final double[] output)
+	{
+		for(int axis = 0; axis < partials.length; axis++)
+		{
+			partials[axis].apply(values, output, axis > 0);
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("GridLaplacian [shape=");
+		builder.append(shape);
+		builder.append(", finiteDifference=");
+		builder.append(partials[0].getFiniteDifference());
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.util.Arrays;
+
+/**
+ * The shape of an N-dimensional grid stored as a flat, row-major array, i.e.
+ * with the last axis varying fastest.
+ */
+public final class GridShape
+{
+
+	/**
+	 * The length along each axis.
+	 */
+	private final int[] lengths;
+
+	/**
+	 * The stride of each axis.
+	 */
+	private final int[] strides;
+
+	/**
+	 * The total number of grid points.
+	 */
+	private final int size;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param lengths The length along each axis.
+	 */
+	public GridShape(final int... lengths)
+	{
+		if(lengths.length == 0)
+		{
+			throw new IllegalArgumentException("lengths");
+		}
+
+		this.lengths = lengths.clone();
+		this.strides = new int[lengths.length];
+
+		long stride = 1;
+		for(int axis = lengths.length - 1; axis >= 0; axis--)
+		{
+			if(lengths[axis] < 1)
+			{
+				throw new IllegalArgumentException("lengths");
+			}
+
+			strides[axis] = (int)stride;
+			stride *= lengths[axis];
+
+			if(stride > Integer.MAX_VALUE)
+			{
+				throw new IllegalArgumentException("lengths");
+			}
+		}
+
+		this.size = (int)stride;
+	}
+
+	/**
+	 * Get the number of dimensions.
+	 * 
+	 * @return The dimension.
+	 */
+	public int getDimension()
+	{
+		return lengths.length;
+	}
+
+	/**
+	 * Get the length along the specified axis.
+	 * 
+	 * @param axis The axis.
+	 * @return The length.
+	 */
+	public int getLength(final int axis)
+	{
+		return lengths[axis];
+	}
+
+	/**
+	 * Get the stride of the specified axis, i.e. the distance in the flat
+	 * array between neighbors along it.
+	 * 
+	 * @param axis The axis.
+	 * @return The stride.
+	 */
+	public int getStride(final int axis)
+	{
+		return strides[axis];
+	}
+
+	/**
+	 * Get the total number of grid points.
+	 * 
+	 * @return The size.
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Get the flat index of the specified grid point.
+	 * 
+	 * @param position The position along each axis.
+	 * @return The index.
+	 */
+	public int getIndex(final int... position)
+	{
+		if(position.length != lengths.length)
+		{
+			throw new IllegalArgumentException("position");
+		}
+
+		int index = 0;
+		for(int axis = 0; axis < position.length; axis++)
+		{
+			if((position[axis] < 0) || (position[axis] >= lengths[axis]))
+			{
+				throw new IndexOutOfBoundsException();
+			}
+
+			index += position[axis] * strides[axis];
+		}
+
+		return index;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("GridShape [lengths=");
+		builder.append(Arrays.toString(lengths));
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+	/**
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(lengths);
+	}
+
+	/**
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj)
+	{
+		if(this == obj)
+		{
+			return true;
+		}
+
+		if(!(obj instanceof GridShape))
+		{
+			return false;
+		}
+
+		GridShape other = (GridShape)obj;
+		return Arrays.equals(lengths, other.lengths);
+	}
+
+}
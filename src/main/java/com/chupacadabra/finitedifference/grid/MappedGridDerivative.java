@@ -0,0 +1,248 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Out-of-core grid derivative of files of little-endian doubles.
+ * <p>
+ * The input is processed in windows: each window, together with enough of its
+ * neighbors to cover its stencils, is read with a positional read into one
+ * reusable direct buffer, differentiated, and written back out of the same
+ * buffer with a positional write. No mappings are created, so both heap and
+ * native memory use are bounded by the window size, not the file size, and
+ * the output is identical to that of an in-memory {@link GridDerivative}.
+ */
+public final class MappedGridDerivative
+{
+
+	/**
+	 * The default window size, in doubles.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 20;
+
+	/**
+	 * Bytes per double.
+	 */
+	private static final int BYTES_PER_DOUBLE = 8;
+
+	/**
+	 * The in-memory derivative.
+	 */
+	private final GridDerivative derivative;
+
+	/**
+	 * The window size, in doubles.
+	 */
+	private final int windowSize;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivative The in-memory derivative.
+	 */
+	public MappedGridDerivative(final GridDerivative derivative)
+	{
+		this(derivative, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivative The in-memory derivative.
+	 * @param windowSize The window size, in doubles.
+	 */
+	public MappedGridDerivative(final GridDerivative derivative, final int windowSize)
+	{
+		if(windowSize < 1)
+		{
+			throw new IllegalArgumentException("windowSize");
+		}
+
+		this.derivative = derivative;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Get the in-memory derivative.
+	 * 
+	 * @return The in-memory derivative.
+	 */
+	public GridDerivative getGridDerivative()
+	{
+		return derivative;
+	}
+
+	/**
+	 * Get the window size.
+	 * 
+	 * @return The window size, in doubles.
+	 */
+	public int getWindowSize()
+	{
+		return windowSize;
+	}
+
+	/**
+	 * Differentiate the specified input file into the specified output file,
+	 * which is created or replaced.
+	 * 
+	 * @param input The input file.
+	 * @param output The output file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void differentiate(final Path input, final Path output) throws IOException
+	{
+		try(FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, 
+						StandardOpenOption.CREATE, 
+						StandardOpenOption.TRUNCATE_EXISTING,
+						StandardOpenOption.WRITE))
+		{
+			differentiate(in, out);
+		}
+	}
+
+	/**
+	 * Differentiate the specified input channel into the specified output
+	 * channel.
+	 * <p>
+	 * The output is written starting at position zero, and extended if
+	 * necessary.
+	 * 
+	 * @param input The input channel, which must be readable.
+	 * @param output The output channel, which must be writable.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void differentiate(final FileChannel input, final FileChannel output) throws IOException
+	{
+		long size = input.size();
+		if((size % BYTES_PER_DOUBLE) != 0)
+		{
+			throw new IllegalArgumentException("input");
+		}
+
+		long length = size / BYTES_PER_DOUBLE;
+		if(length < derivative.getMinimumLength())
+		{
+			throw new IllegalArgumentException("input");
+		}
+
+		int halo = derivative.getMinimumLength();
+		double[] values = new double[windowSize + (2 * halo)];
+		double[] derivatives = new double[values.length];
+		ByteBuffer bytes = ByteBuffer.allocateDirect(values.length * BYTES_PER_DOUBLE).order(ByteOrder.LITTLE_ENDIAN);
+		DoubleBuffer doubles = bytes.asDoubleBuffer();
+
+		for(long start = 0; start < length; start += windowSize)
+		{
+			long end = Math.min(length, start + windowSize);
+			long readStart = Math.max(0, start - halo);
+			long readEnd = Math.min(length, end + halo);
+			int count = (int)(readEnd - readStart);
+
+			((Buffer)bytes).clear();
+			((Buffer)bytes).limit(count * BYTES_PER_DOUBLE);
+			read(input, bytes, readStart * BYTES_PER_DOUBLE);
+			((Buffer)doubles).clear();
+			doubles.get(values, 0, count);
+
+			int from = (int)(start - readStart);
+			int to = (int)(end - readStart);
+			derivative.differentiate(values, readStart, length, derivatives, from, to);
+
+			((Buffer)doubles).clear();
+			doubles.put(derivatives, from, to - from);
+			((Buffer)bytes).clear();
+			((Buffer)bytes).limit((to - from) * BYTES_PER_DOUBLE);
+			write(output, bytes, start * BYTES_PER_DOUBLE);
+		}
+	}
+
+	/**
+	 * Fill the remainder of the specified buffer from the specified channel.
+	 * 
+	 * @param channel The channel.
+	 * @param buffer The buffer.
+	 * @param position The channel position to read from.
+	 * @throws IOException If an I/O error occurs, or the channel ends early.
+	 */
+	private static void read(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException
+	{
+		long offset = position;
+		while(buffer.hasRemaining())
+		{
+			int read = channel.read(buffer, offset);
+			if(read < 0)
+			{
+				throw new EOFException("input");
+			}
+
+			offset += read;
+		}
+	}
+
+	/**
+	 * Write the remainder of the specified buffer to the specified channel.
+	 * 
+	 * @param channel The channel.
+	 * @param buffer The buffer.
+	 * @param position The channel position to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void write(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException
+	{
+		long offset = position;
+		while(buffer.hasRemaining())
+		{
+			offset += channel.write(buffer, offset);
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("MappedGridDerivative [derivative=");
+		builder.append(derivative);
+		builder.append(", windowSize=");
+		builder.append(windowSize);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,384 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
+
+/**
+ * Finite difference derivative of many series sampled on the same uniform
+ * grid, in a single pass over a matrix.
+ * <p>
+ * Boundaries are handled as in {@link GridDerivative}. Every loop applies one
+ * stencil tap to a contiguous run of values, so each coefficient is loaded
+ * once per run, rather than once per point, and the JIT can fill the vector
+ * lanes:
+ * <ul>
+ * <li>for {@linkplain SeriesLayout#SAMPLE_MAJOR sample-major} matrices, the
+ * lanes run across series, a tile of series at a time;</li>
+ * <li>for {@linkplain SeriesLayout#SERIES_MAJOR series-major} matrices, the
+ * lanes run along each series, a block of samples at a time.</li>
+ * </ul>
+ * Both layouts sum the taps in the same order, so they give identical results.
+ */
+public final class MultiSeriesGridDerivative
+{
+
+	/**
+	 * The tile size, in values, of each run.
+	 */
+	private static final int TILE_SIZE = 256;
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The grid width.
+	 */
+	private final double gridWidth;
+
+	/**
+	 * The interior stencil.
+	 */
+	private final StencilTaps interior;
+
+	/**
+	 * The stencil for the start of the grid.
+	 */
+	private final StencilTaps left;
+
+	/**
+	 * The stencil for the end of the grid.
+	 */
+	private final StencilTaps right;
+
+	/**
+	 * The number of samples at the start of the grid that use the left
+	 * stencil.
+	 */
+	private final int leftHalo;
+
+	/**
+	 * The number of samples at the end of the grid that use the right stencil.
+	 */
+	private final int rightHalo;
+
+	/**
+	 * The minimum number of samples.
+	 */
+	private final int minimumLength;
+
+	/**
+	 * The scale of weighted sums.
+	 */
+	private final StencilScale stencilScale;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param gridWidth The grid width.
+	 */
+	public MultiSeriesGridDerivative(final FiniteDifference finiteDifference, final double gridWidth)
+	{
+		GridDerivative derivative = new GridDerivative(finiteDifference, gridWidth);
+
+		this.finiteDifference = finiteDifference;
+		this.gridWidth = gridWidth;
+		this.leftHalo = derivative.getLeftHalo();
+		this.rightHalo = derivative.getRightHalo();
+		this.minimumLength = derivative.getMinimumLength();
+
+		int derivativeOrder = finiteDifference.getDerivativeOrder();
+		int errorOrder = finiteDifference.getErrorOrder();
+
+		interior = new StencilTaps(finiteDifference);
+		left = new StencilTaps(new FiniteDifference(FiniteDifferenceType.FORWARD, derivativeOrder, errorOrder));
+		right = new StencilTaps(new FiniteDifference(FiniteDifferenceType.BACKWARD, derivativeOrder, errorOrder));
+
+		stencilScale = new StencilScale(derivativeOrder, gridWidth);
+	}
+
+	/**
+	 * Get the finite difference.
+	 * 
+	 * @return The finite difference.
+	 */
+	public FiniteDifference getFiniteDifference()
+	{
+		return finiteDifference;
+	}
+
+	/**
+	 * Get the grid width.
+	 * 
+	 * @return The grid width.
+	 */
+	public double getGridWidth()
+	{
+		return gridWidth;
+	}
+
+	/**
+	 * Get the minimum number of samples per series.
+	 * 
+	 * @return The minimum length.
+	 */
+	public int getMinimumLength()
+	{
+		return minimumLength;
+	}
+
+	/**
+	 * Differentiate each of the specified series.
+	 * 
+	 * @param series The series, each of the same length.
+	 * @param derivatives The derivatives of each series; none may be the same
+	 *            array as a series.
+	 */
+	public void differentiate(final double[][] series, final double[][] derivatives)
+	{
+		if(derivatives.length != series.length)
+		{
+			throw new IllegalArgumentException("derivatives");
+		}
+
+		for(int index = 0; index < series.length; index++)
+		{
+			int length = series[index].length;
+			if((length != series[0].length) || (length < minimumLength))
+			{
+				throw new IllegalArgumentException("series");
+			}
+
+			if(derivatives[index].length != length)
+			{
+				throw new IllegalArgumentException("derivatives");
+			}
+		}
+
+		for(int index = 0; index < series.length; index++)
+		{
+			differentiateSeries(series[index], 0, derivatives[index], 0, series[index].length);
+		}
+	}
+
+	/**
+	 * Differentiate each series in the specified flat matrix.
+	 * 
+	 * @param values The matrix of values.
+	 * @param derivatives The matrix of derivatives, in the same layout; may not
+	 *            be the same array as the values.
+	 * @param seriesCount The number of series.
+	 * @param layout The layout.
+	 */
+	public void differentiate(
+			final double[] values,
+			final double[] derivatives,
+			final int seriesCount,
+			final SeriesLayout layout)
+	{
+		if((seriesCount < 1) || ((values.length % seriesCount) != 0))
+		{
+			throw new IllegalArgumentException("seriesCount");
+		}
+
+		if(derivatives.length != values.length)
+		{
+			throw new IllegalArgumentException("derivatives");
+		}
+
+		int sampleCount = values.length / seriesCount;
+		if(sampleCount < minimumLength)
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		switch(layout)
+		{
+			case SERIES_MAJOR:
+				for(int index = 0; index < seriesCount; index++)
+				{
+					int start = index * sampleCount;
+					differentiateSeries(values, start, derivatives, start, sampleCount);
+				}
+				break;
+			case SAMPLE_MAJOR:
+				differentiateSamples(values, derivatives, seriesCount, sampleCount);
+				break;
+			default:
+				throw new IllegalArgumentException("layout");
+		}
+	}
+
+	/**
+	 * Differentiate one contiguous series.
+	 * 
+	 * @param values The values.
+	 * @param valuesStart The index of the first sample of the series.
+	 * @param derivatives The derivatives.
+	 * @param derivativesStart The index of the first derivative of the series.
+	 * @param length The number of samples.
+	 */
+	private void differentiateSeries(
+			final double[] values,
+			final int valuesStart,
+			final double[] derivatives,
+			final int derivativesStart,
+			final int length)
+	{
+		for(int sample = 0; sample < leftHalo; sample++)
+		{
+			derivatives[derivativesStart + sample] = stencilScale.scale(getWeightedSum(values, valuesStart + sample, left));
+		}
+
+		int[] multipliers = interior.getMultipliers();
+		double[] coefficients = interior.getCoefficients();
+		int interiorEnd = length - rightHalo;
+
+		for(int blockStart = leftHalo; blockStart < interiorEnd; blockStart += TILE_SIZE)
+		{
+			int blockEnd = Math.min(interiorEnd, blockStart + TILE_SIZE);
+			int source = valuesStart - derivativesStart;
+
+			for(int index = derivativesStart + blockStart; index < (derivativesStart + blockEnd); index++)
+			{
+				derivatives[index] = 0;
+			}
+
+			for(int tap = 0; tap < coefficients.length; tap++)
+			{
+				double coefficient = coefficients[tap];
+				int shift = source + multipliers[tap];
+
+				for(int index = derivativesStart + blockStart; index < (derivativesStart + blockEnd); index++)
+				{
+					derivatives[index] += coefficient * values[index + shift];
+				}
+			}
+
+			for(int index = derivativesStart + blockStart; index < (derivativesStart + blockEnd); index++)
+			{
+				derivatives[index] = stencilScale.scale(derivatives[index]);
+			}
+		}
+
+		for(int sample = interiorEnd; sample < length; sample++)
+		{
+			derivatives[derivativesStart + sample] = stencilScale.scale(getWeightedSum(values, valuesStart + sample, right));
+		}
+	}
+
+	/**
+	 * Differentiate a sample-major matrix, across all series at once.
+	 * 
+	 * @param values The values.
+	 * @param derivatives The derivatives.
+	 * @param seriesCount The number of series.
+	 * @param sampleCount The number of samples.
+	 */
+	private void differentiateSamples(
+			final double[] values,
+			final double[] derivatives,
+			final int seriesCount,
+			final int sampleCount)
+	{
+		for(int column = 0; column < seriesCount; column += TILE_SIZE)
+		{
+			int width = Math.min(TILE_SIZE, seriesCount - column);
+
+			for(int sample = 0; sample < sampleCount; sample++)
+			{
+				StencilTaps taps = (sample < leftHalo) ? left : ((sample >= (sampleCount - rightHalo)) ? right : interior);
+				int[] multipliers = taps.getMultipliers();
+				double[] coefficients = taps.getCoefficients();
+
+				int target = (sample * seriesCount) + column;
+				for(int index = target; index < (target + width); index++)
+				{
+					derivatives[index] = 0;
+				}
+
+				for(int tap = 0; tap < coefficients.length; tap++)
+				{
+					double coefficient = coefficients[tap];
+					int shift = multipliers[tap] * seriesCount;
+
+					for(int index = target; index < (target + width); index++)
+					{
+						derivatives[index] += coefficient * values[index + shift];
+					}
+				}
+
+				for(int index = target; index < (target + width); index++)
+				{
+					derivatives[index] = stencilScale.scale(derivatives[index]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the weighted sum of the specified stencil around the specified
+	 * index.
+	 * 
+	 * @param values The values.
+	 * @param center The index.
+	 * @param taps The stencil.
+	 * @return The weighted sum.
+	 */
+	private static double getWeightedSum(final double[] values, final int center, final StencilTaps taps)
+	{
+		int[] multipliers = taps.getMultipliers();
+		double[] coefficients = taps.getCoefficients();
+
+		double sum = 0;
+		for(int tap = 0; tap < coefficients.length; tap++)
+		{
+			sum += coefficients[tap] * values[center + multipliers[tap]];
+		}
+
+		return sum;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("MultiSeriesGridDerivative [finiteDifference=");
+		builder.append(finiteDifference);
+		builder.append(", gridWidth=");
+		builder.append(gridWidth);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel grid derivative.
+ * <p>
+ * The grid is split recursively into chunks on a {@link ForkJoinPool}, and each
+ * chunk is swept by the underlying {@link GridDerivative}. Chunks share the
+ * (read-only) input array, so the halo of each chunk, i.e. the values just
+ * outside it that its stencils read, is simply read in place, and the
+ * one-sided stencils at the ends of the grid are applied by whichever chunk
+ * contains them. Each output is computed by exactly the same arithmetic as in
+ * a sequential sweep, so the result is identical.
+ */
+public final class ParallelGridDerivative
+{
+
+	/**
+	 * The default chunk size, below which chunks are not split.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * The sequential derivative.
+	 */
+	private final GridDerivative derivative;
+
+	/**
+	 * The pool.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The chunk size.
+	 */
+	private final int chunkSize;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivative The sequential derivative.
+	 * @param pool The pool.
+	 */
+	public ParallelGridDerivative(final GridDerivative derivative, final ForkJoinPool pool)
+	{
+		this(derivative, pool, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivative The sequential derivative.
+	 * @param pool The pool.
+	 * @param chunkSize The chunk size, below which chunks are not split.
+	 */
+	public ParallelGridDerivative(final GridDerivative derivative, final ForkJoinPool pool, final int chunkSize)
+	{
+		if(chunkSize < 1)
+		{
+			throw new IllegalArgumentException("chunkSize");
+		}
+
+		this.derivative = derivative;
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Get the sequential derivative.
+	 * 
+	 * @return The sequential derivative.
+	 */
+	public GridDerivative getGridDerivative()
+	{
+		return derivative;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @return The derivatives.
+	 */
+	public double[] differentiate(final double[] values)
+	{
+		double[] derivatives = new double[values.length];
+		differentiate(values, derivatives);
+
+		return derivatives;
+	}
+
+	/**
+	 * Get the derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives; may not be the same array as the
+	 *            values.
+	 */
+	public void differentiate(final double[] values, final double[] derivatives)
+	{
+		// validate up front, rather than in a worker.
+		derivative.differentiate(values, derivatives, 0, 0);
+
+		pool.invoke(new SweepTask(values, derivatives, 0, values.length));
+	}
+
+	/**
+	 * A sweep over a chunk of the grid.
+	 */
+	private final class SweepTask
+		extends RecursiveAction
+	{
+
+		/**
+		 * Serialization version.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The function values.
+		 */
+		private final double[] values;
+
+		/**
+		 * The derivatives.
+		 */
+		private final double[] derivatives;
+
+		/**
+		 * The first index, inclusive.
+		 */
+		private final int from;
+
+		/**
+		 * The last index, exclusive.
+		 */
+		private final int to;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param values The function values.
+		 * @param derivatives The derivatives.
+		 * @param from The first index, inclusive.
+		 * @param to The last index, exclusive.
+		 */
+		SweepTask(final double[] values, final double[] derivatives, final int from, final int to)
+		{
+			this.values = values;
+			this.derivatives = derivatives;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute()
+		{
+			if((to - from) <= chunkSize)
+			{
+				derivative.differentiate(values, derivatives, from, to);
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(
+					new SweepTask(values, derivatives, from, middle),
+					new SweepTask(values, derivatives, middle, to));
+		}
+
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("ParallelGridDerivative [derivative=");
+		builder.append(derivative);
+		builder.append(", chunkSize=");
+		builder.append(chunkSize);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,439 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
+
+/**
+ * Partial derivative along one axis of an N-dimensional grid stored as a flat,
+ * row-major array.
+ * <p>
+ * As in {@link GridDerivative}, interior points use the specified finite
+ * difference, and points near either end of the axis use one-sided stencils
+ * of the same orders.
+ * <p>
+ * Along the last axis, each (contiguous) line is differentiated by a
+ * {@link GridDerivative}, so the result is identical to a one-dimensional
+ * sweep. Along any other axis, the grid is viewed as
+ * <code>outer &times; length &times; inner</code>, and the stencil is applied
+ * to whole contiguous rows of the inner block at once, a tile of
+ * <code>tileSize</code> columns at a time, so the few rows a stencil reads
+ * stay in cache while it slides along the axis.
+ * <p>
+ * The scratch space needed to add a partial derivative to an existing grid
+ * (as {@link GridLaplacian} does) is allocated once, at construction, so an
+ * instance must not be shared between threads.
+ */
+public final class PartialGridDerivative
+{
+
+	/**
+	 * The default tile size, in columns.
+	 */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	/**
+	 * The shape.
+	 */
+	private final GridShape shape;
+
+	/**
+	 * The axis.
+	 */
+	private final int axis;
+
+	/**
+	 * The one-dimensional derivative.
+	 */
+	private final GridDerivative derivative;
+
+	/**
+	 * The tile size.
+	 */
+	private final int tileSize;
+
+	/**
+	 * The interior stencil.
+	 */
+	private final StencilTaps interior;
+
+	/**
+	 * The stencil for the start of the axis.
+	 */
+	private final StencilTaps left;
+
+	/**
+	 * The stencil for the end of the axis.
+	 */
+	private final StencilTaps right;
+
+	/**
+	 * The scale of weighted sums.
+	 */
+	private final StencilScale stencilScale;
+
+	/**
+	 * Scratch space: a line along the last axis, or a tile of weighted sums
+	 * along any other axis.
+	 */
+	private final double[] scratch;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param shape The shape.
+	 * @param axis The axis.
+	 * @param finiteDifference The finite difference.
+	 * @param gridWidth The grid width along the axis.
+	 */
+	public PartialGridDerivative(
+			final GridShape shape,
+			final int axis,
+			final FiniteDifference finiteDifference,
+			final double gridWidth)
+	{
+		this(shape, axis, finiteDifference, gridWidth, DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param shape The shape.
+	 * @param axis The axis.
+	 * @param finiteDifference The finite difference.
+	 * @param gridWidth The grid width along the axis.
+	 * @param tileSize The tile size, in columns.
+	 */
+	public PartialGridDerivative(
+			final GridShape shape,
+			final int axis,
+			final FiniteDifference finiteDifference,
+			final double gridWidth,
+			final int tileSize)
+	{
+		if((axis < 0) || (axis >= shape.getDimension()))
+		{
+			throw new IllegalArgumentException("axis");
+		}
+
+		if(tileSize < 1)
+		{
+			throw new IllegalArgumentException("tileSize");
+		}
+
+		this.shape = shape;
+		this.axis = axis;
+		this.derivative = new GridDerivative(finiteDifference, gridWidth);
+		this.tileSize = tileSize;
+
+		if(shape.getLength(axis) < derivative.getMinimumLength())
+		{
+			throw new IllegalArgumentException("shape");
+		}
+
+		int derivativeOrder = finiteDifference.getDerivativeOrder();
+		int errorOrder = finiteDifference.getErrorOrder();
+
+		interior = new StencilTaps(finiteDifference);
+		left = new StencilTaps(new FiniteDifference(FiniteDifferenceType.FORWARD, derivativeOrder, errorOrder));
+		right = new StencilTaps(new FiniteDifference(FiniteDifferenceType.BACKWARD, derivativeOrder, errorOrder));
+
+		stencilScale = new StencilScale(derivativeOrder, gridWidth);
+
+		int inner = shape.getStride(axis);
+		scratch = new double[(inner == 1) ? shape.getLength(axis) : Math.min(tileSize, inner)];
+	}
+
+	/**
+	 * Get the shape.
+	 * 
+	 * @return The shape.
+	 */
+	public GridShape getShape()
+	{
+		return shape;
+	}
+
+	/**
+	 * Get the axis.
+	 * 
+	 * @return The axis.
+	 */
+	public int getAxis()
+	{
+		return axis;
+	}
+
+	/**
+	 * Get the finite difference.
+	 * 
+	 * @return The finite difference.
+	 */
+	public FiniteDifference getFiniteDifference()
+	{
+		return derivative.getFiniteDifference();
+	}
+
+	/**
+	 * Get the grid width along the axis.
+	 * 
+	 * @return The grid width.
+	 */
+	public double getGridWidth()
+	{
+		return derivative.getGridWidth();
+	}
+
+	/**
+	 * Get the partial derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @return The derivatives.
+	 */
+	public double[] differentiate(final double[] values)
+	{
+		double[] derivatives = new double[values.length];
+		differentiate(values, derivatives);
+
+		return derivatives;
+	}
+
+	/**
+	 * Get the partial derivative at every grid point.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives; may not be the same array as the
+	 *            values.
+	 */
+	public void differentiate(final double[] values, final double[] derivatives)
+	{
+		apply(values, derivatives, false);
+	}
+
+	/**
+	 * Get the partial derivative at every grid point, and either store it or
+	 * add it to the output.
+	 * 
+	 * @param values The function values.
+	 * @param output The output; may not be the same array as the values.
+	 * @param accumulate Whether to add to, rather than overwrite, the output.
+	 */
+	void apply(final double[] values, final double[] output, final boolean accumulate)
+	{
+		if((values.length != shape.getSize()) || (output.length != shape.getSize()))
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		int length = shape.getLength(axis);
+		int inner = shape.getStride(axis);
+		int outer = shape.getSize() / (length * inner);
+
+		if(inner == 1)
+		{
+			applyContiguous(values, output, accumulate, outer, length);
+		}
+		else
+		{
+			applyTiled(values, output, accumulate, outer, length, inner);
+		}
+	}
+
+	/**
+	 * Get the partial derivative along one line of the last axis.
+	 * <p>
+	 * Each derivative is computed by exactly the same arithmetic as in
+	 * {@link #differentiate(double[], double[])}, so that operators that visit
+	 * the grid a line at a time (such as {@link GridGradient}) get identical
+	 * results.
+	 * 
+	 * @param values The function values.
+	 * @param derivatives The derivatives; may not be the same array as the
+	 *            values.
+	 * @param start The index of the first point of the line.
+	 * @param position The position of the line along this axis; ignored for
+	 *            the last axis.
+	 */
+	void differentiateLine(final double[] values, final double[] derivatives, final int start, final int position)
+	{
+		int width = shape.getLength(shape.getDimension() - 1);
+		int inner = shape.getStride(axis);
+		if(inner == 1)
+		{
+			derivative.differentiate(values, -start, width, derivatives, start, start + width);
+			return;
+		}
+
+		int length = shape.getLength(axis);
+		StencilTaps taps = (position < derivative.getLeftHalo()) ? left : 
+			((position >= (length - derivative.getRightHalo())) ? right : interior);
+		double[] coefficients = taps.getCoefficients();
+		int[] multipliers = taps.getMultipliers();
+
+		// the derivatives double as the weighted sums.
+		for(int index = 0; index < width; index++)
+		{
+			derivatives[start + index] = 0;
+		}
+
+		for(int tap = 0; tap < coefficients.length; tap++)
+		{
+			double coefficient = coefficients[tap];
+			int row = start + (multipliers[tap] * inner);
+
+			for(int index = 0; index < width; index++)
+			{
+				derivatives[start + index] += coefficient * values[row + index];
+			}
+		}
+
+		for(int index = 0; index < width; index++)
+		{
+			derivatives[start + index] = stencilScale.scale(derivatives[start + index]);
+		}
+	}
+
+	/**
+	 * Apply along the last axis, one contiguous line at a time.
+	 * 
+	 * @param values The function values.
+	 * @param output The output.
+	 * @param accumulate Whether to add to, rather than overwrite, the output.
+	 * @param outer The number of lines.
+	 * @param length The line length.
+	 */
+	private void applyContiguous(
+			final double[] values,
+			final double[] output,
+			final boolean accumulate,
+			final int outer,
+			final int length)
+	{
+		if(!accumulate)
+		{
+			for(int block = 0; block < outer; block++)
+			{
+				int start = block * length;
+				derivative.differentiate(values, -start, length, output, start, start + length);
+			}
+
+			return;
+		}
+
+		for(int block = 0; block < outer; block++)
+		{
+			int start = block * length;
+			derivative.differentiate(values, start, length, scratch, 0);
+
+			for(int index = 0; index < length; index++)
+			{
+				output[start + index] += scratch[index];
+			}
+		}
+	}
+
+	/**
+	 * Apply along any other axis, a tile of whole rows at a time.
+	 * 
+	 * @param values The function values.
+	 * @param output The output.
+	 * @param accumulate Whether to add to, rather than overwrite, the output.
+	 * @param outer The number of outer blocks.
+	 * @param length The axis length.
+	 * @param inner The row length, i.e. the stride of the axis.
+	 */
+	private void applyTiled(
+			final double[] values,
+			final double[] output,
+			final boolean accumulate,
+			final int outer,
+			final int length,
+			final int inner)
+	{
+		int leftHalo = derivative.getLeftHalo();
+		int rightHalo = derivative.getRightHalo();
+		double[] sums = scratch;
+
+		for(int block = 0; block < outer; block++)
+		{
+			int base = block * length * inner;
+
+			for(int column = 0; column < inner; column += tileSize)
+			{
+				int width = Math.min(tileSize, inner - column);
+
+				for(int position = 0; position < length; position++)
+				{
+					StencilTaps taps = (position < leftHalo) ? left : ((position >= (length - rightHalo)) ? right : interior);
+					double[] coefficients = taps.getCoefficients();
+					int[] multipliers = taps.getMultipliers();
+
+					for(int index = 0; index < width; index++)
+					{
+						sums[index] = 0;
+					}
+
+					for(int tap = 0; tap < coefficients.length; tap++)
+					{
+						double coefficient = coefficients[tap];
+						int row = base + ((position + multipliers[tap]) * inner) + column;
+
+						for(int index = 0; index < width; index++)
+						{
+							sums[index] += coefficient * values[row + index];
+						}
+					}
+
+					int target = base + (position * inner) + column;
+					for(int index = 0; index < width; index++)
+					{
+						double value = stencilScale.scale(sums[index]);
+						output[target + index] = accumulate ? (output[target + index] + value) : value;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("PartialGridDerivative [shape=");
+		builder.append(shape);
+		builder.append(", axis=");
+		builder.append(axis);
+		builder.append(", derivative=");
+		builder.append(derivative);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+
+/**
+ * The non-zero taps of a stencil, i.e. its non-zero coefficients and their
+ * multipliers.
+ */
+final class StencilTaps
+{
+
+	/**
+	 * The multipliers.
+	 */
+	private final int[] multipliers;
+
+	/**
+	 * The coefficients.
+	 */
+	private final double[] coefficients;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 */
+	StencilTaps(final FiniteDifference finiteDifference)
+	{
+		double[] stencil = finiteDifference.getCoefficients();
+
+		int count = 0;
+		for(double coefficient : stencil)
+		{
+			if(coefficient != 0)
+			{
+				count += 1;
+			}
+		}
+
+		multipliers = new int[count];
+		coefficients = new double[count];
+
+		for(int index = 0, next = 0; index < stencil.length; index++)
+		{
+			if(stencil[index] != 0)
+			{
+				multipliers[next] = finiteDifference.getLeftMultiplier() + index;
+				coefficients[next] = stencil[index];
+				next += 1;
+			}
+		}
+	}
+
+	/**
+	 * Get the multipliers.
+	 * 
+	 * @return The multipliers.
+	 */
+	int[] getMultipliers()
+	{
+		return multipliers;
+	}
+
+	/**
+	 * Get the coefficients.
+	 * 
+	 * @return The coefficients.
+	 */
+	double[] getCoefficients()
+	{
+		return coefficients;
+	}
+
+}
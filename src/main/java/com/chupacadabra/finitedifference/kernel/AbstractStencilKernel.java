@@ -0,0 +1,77 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+
+/**
+ * Base class for stencil kernels.
+ * <p>
+ * Weighted sums are scaled by {@link StencilScale}, i.e. exactly for
+ * power-of-two grid widths.
+ */
+public abstract class AbstractStencilKernel
+	implements StencilKernel
+{
+
+	/**
+	 * The finite difference.
+	 */
+	private final FiniteDifference finiteDifference;
+
+	/**
+	 * The derivative order.
+	 */
+	private final int derivativeOrder;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 */
+	protected AbstractStencilKernel(final FiniteDifference finiteDifference)
+	{
+		this.finiteDifference = finiteDifference;
+		this.derivativeOrder = finiteDifference.getDerivativeOrder();
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#getFiniteDifference()
+	 */
+	@Override
+	public final FiniteDifference getFiniteDifference()
+	{
+		return finiteDifference;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#scale(double, double)
+	 */
+	@Override
+	public final double scale(final double weightedSum, final double gridWidth)
+	{
+		return StencilScale.scale(weightedSum, derivativeOrder, gridWidth);
+	}
+
+}
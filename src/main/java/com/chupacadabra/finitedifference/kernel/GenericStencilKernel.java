@@ -0,0 +1,113 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * Generic stencil kernel, for any finite difference.
+ * <p>
+ * The non-zero coefficients and their multipliers are extracted once, at
+ * construction, and looped over at runtime.
+ */
+public final class GenericStencilKernel
+	extends AbstractStencilKernel
+{
+
+	/**
+	 * The multipliers of the non-zero coefficients.
+	 */
+	private final int[] multipliers;
+
+	/**
+	 * The non-zero coefficients.
+	 */
+	private final double[] coefficients;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 */
+	public GenericStencilKernel(final FiniteDifference finiteDifference)
+	{
+		super(finiteDifference);
+
+		double[] stencil = finiteDifference.getCoefficients();
+
+		int count = 0;
+		for(double coefficient : stencil)
+		{
+			if(coefficient != 0)
+			{
+				count += 1;
+			}
+		}
+
+		multipliers = new int[count];
+		coefficients = new double[count];
+
+		for(int index = 0, next = 0; index < stencil.length; index++)
+		{
+			if(stencil[index] != 0)
+			{
+				multipliers[next] = finiteDifference.getLeftMultiplier() + index;
+				coefficients[next] = stencil[index];
+				next += 1;
+			}
+		}
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#getWeightedSum(com.chupacadabra.finitedifference.UnivariateFunction, double, double)
+	 */
+	@Override
+	public double getWeightedSum(final UnivariateFunction function, final double x, final double gridWidth)
+	{
+		double sum = 0;
+		for(int index = 0; index < coefficients.length; index++)
+		{
+			sum += coefficients[index] * function.value(x + (gridWidth * multipliers[index]));
+		}
+
+		return sum;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#getWeightedSum(double[], int)
+	 */
+	@Override
+	public double getWeightedSum(final double[] values, final int center)
+	{
+		double sum = 0;
+		for(int index = 0; index < coefficients.length; index++)
+		{
+			sum += coefficients[index] * values[center + multipliers[index]];
+		}
+
+		return sum;
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * A stencil kernel: an implementation of the weighted sum of a specific
+ * {@linkplain FiniteDifference finite difference}.
+ * <p>
+ * Kernels skip stencil points with a zero coefficient, so they may make fewer
+ * function evaluations than the stencil has points.
+ */
+public interface StencilKernel
+{
+
+	/**
+	 * Get the finite difference.
+	 * 
+	 * @return The finite difference.
+	 */
+	public FiniteDifference getFiniteDifference();
+
+	/**
+	 * Get the weighted sum <code>&Sigma; c<sub>k</sub>f(x + m<sub>k</sub>h)</code>.
+	 * 
+	 * @param function The function.
+	 * @param x The point.
+	 * @param gridWidth The grid width, <code>h</code>.
+	 * @return The weighted sum.
+	 */
+	public double getWeightedSum(UnivariateFunction function, double x, double gridWidth);
+
+	/**
+	 * Get the weighted sum <code>&Sigma; c<sub>k</sub>v[i + m<sub>k</sub>]</code>.
+	 * 
+	 * @param values The values.
+	 * @param center The index <code>i</code>.
+	 * @return The weighted sum.
+	 */
+	public double getWeightedSum(double[] values, int center);
+
+	/**
+	 * Scale a weighted sum by <code>h<sup>-d</sup></code>, where
+	 * <code>d</code> is the derivative order, to get the derivative.
+	 * 
+	 * @param weightedSum The weighted sum.
+	 * @param gridWidth The grid width, <code>h</code>.
+	 * @return The derivative.
+	 */
+	public double scale(double weightedSum, double gridWidth);
+
+}
@@ -0,0 +1,180 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+
+/**
+ * Stencil kernel factory.
+ * <p>
+ * Common stencils get a pre-generated kernel, with an unrolled loop and
+ * constant coefficients, which the JIT can optimize far better than a loop
+ * over a coefficient array. Other central stencils get a
+ * {@link SymmetricStencilKernel} or {@link AntisymmetricStencilKernel}; all
+ * others get a {@link GenericStencilKernel}.
+ */
+public final class StencilKernelFactory
+{
+
+	/**
+	 * The pre-generated kernels.
+	 */
+	private static final StencilKernel[] SPECIALIZED_KERNELS = {
+			new TwoPointForwardKernel(),
+			new ThreePointCentralKernel(),
+			new FivePointCentralKernel(),
+			new SevenPointCentralKernel(),
+			new FivePointCentralSecondDerivativeKernel()
+	};
+
+	/**
+	 * Get a kernel for the specified finite difference.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @return The kernel.
+	 */
+	public static StencilKernel getKernel(final FiniteDifference finiteDifference)
+	{
+		for(StencilKernel kernel : SPECIALIZED_KERNELS)
+		{
+			if(isSameStencil(kernel.getFiniteDifference(), finiteDifference))
+			{
+				return kernel;
+			}
+		}
+
+		if(isPaired(finiteDifference, 1))
+		{
+			return new SymmetricStencilKernel(finiteDifference);
+		}
+
+		if(isPaired(finiteDifference, -1))
+		{
+			return new AntisymmetricStencilKernel(finiteDifference);
+		}
+
+		return new GenericStencilKernel(finiteDifference);
+	}
+
+	/**
+	 * Is the specified finite difference a central stencil with
+	 * <code>c<sub>-k</sub> = sign &times; c<sub>k</sub></code> for all
+	 * <code>k</code>?
+	 * <p>
+	 * The check is exact, i.e. the stencil coefficients must match bit for bit
+	 * (up to sign).
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param sign The sign, <code>1</code> for symmetric and <code>-1</code>
+	 *            for antisymmetric.
+	 * @return <code>true</code> if the stencil is paired; and
+	 *         <code>false</code> otherwise.
+	 */
+	static boolean isPaired(final FiniteDifference finiteDifference, final int sign)
+	{
+		if(finiteDifference.getFiniteDifferenceType() != FiniteDifferenceType.CENTRAL)
+		{
+			return false;
+		}
+
+		double[] stencil = finiteDifference.getCoefficients();
+		int center = -finiteDifference.getLeftMultiplier();
+		if((center < 0) || ((2 * center + 1) != stencil.length))
+		{
+			return false;
+		}
+
+		if((sign < 0) && (stencil[center] != 0))
+		{
+			return false;
+		}
+
+		for(int k = 1; k <= center; k++)
+		{
+			if(stencil[center - k] != (sign * stencil[center + k]))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Get the positive multipliers with non-zero coefficients of a central
+	 * stencil, in ascending order.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @return The multipliers.
+	 */
+	static int[] getRightHalfMultipliers(final FiniteDifference finiteDifference)
+	{
+		double[] stencil = finiteDifference.getCoefficients();
+		int center = -finiteDifference.getLeftMultiplier();
+
+		int count = 0;
+		for(int k = 1; k <= center; k++)
+		{
+			if(stencil[center + k] != 0)
+			{
+				count += 1;
+			}
+		}
+
+		int[] multipliers = new int[count];
+		for(int k = 1, next = 0; k <= center; k++)
+		{
+			if(stencil[center + k] != 0)
+			{
+				multipliers[next++] = k;
+			}
+		}
+
+		return multipliers;
+	}
+
+	/**
+	 * Do the specified finite differences describe the same stencil?
+	 * 
+	 * @param a The first finite difference.
+	 * @param b The second finite difference.
+	 * @return <code>true</code> if the stencils are the same; and
+	 *         <code>false</code> otherwise.
+	 */
+	private static boolean isSameStencil(final FiniteDifference a, final FiniteDifference b)
+	{
+		return (a.getFiniteDifferenceType() == b.getFiniteDifferenceType()) &&
+				(a.getDerivativeOrder() == b.getDerivativeOrder()) &&
+				(a.getErrorOrder() == b.getErrorOrder());
+	}
+
+	/**
+	 * Constructor.
+	 */
+	private StencilKernelFactory()
+	{
+	}
+
+}
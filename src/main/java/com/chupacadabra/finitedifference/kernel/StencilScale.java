@@ -0,0 +1,150 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import com.chupacadabra.finitedifference.util.PowerOfTwo;
+
+/**
+ * Scaling of stencil weighted sums by <code>h<sup>-d</sup></code>, for a
+ * fixed grid width <code>h</code> and derivative order <code>d</code>.
+ * <p>
+ * Power-of-two grid widths are scaled exactly with
+ * {@link Math#scalb(double, int)}; other widths are divided by
+ * <code>h<sup>d</sup></code>. Either way, the scale factor is computed once,
+ * at construction, so that scaling is cheap enough to apply at every point of
+ * a grid.
+ * <p>
+ * Instances of this class are immutable.
+ */
+public final class StencilScale
+{
+
+	/**
+	 * The grid width.
+	 */
+	private final double gridWidth;
+
+	/**
+	 * The derivative order.
+	 */
+	private final int derivativeOrder;
+
+	/**
+	 * Is the grid width a power of two?
+	 */
+	private final boolean powerOfTwo;
+
+	/**
+	 * The power of two by which to scale weighted sums, if the grid width is
+	 * a power of two.
+	 */
+	private final int scaleExponent;
+
+	/**
+	 * The divisor by which to scale weighted sums, otherwise.
+	 */
+	private final double divisor;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @param gridWidth The grid width.
+	 */
+	public StencilScale(final int derivativeOrder, final double gridWidth)
+	{
+		this.gridWidth = gridWidth;
+		this.derivativeOrder = derivativeOrder;
+		this.powerOfTwo = PowerOfTwo.isPowerOfTwo(gridWidth);
+		this.scaleExponent = -derivativeOrder * Math.getExponent(gridWidth);
+		this.divisor = Math.pow(gridWidth, derivativeOrder);
+	}
+
+	/**
+	 * Scale a weighted sum by <code>h<sup>-d</sup></code>, for a grid width
+	 * that is not known in advance.
+	 * 
+	 * @param weightedSum The weighted sum.
+	 * @param derivativeOrder The derivative order.
+	 * @param gridWidth The grid width.
+	 * @return The derivative.
+	 */
+	public static double scale(final double weightedSum, final int derivativeOrder, final double gridWidth)
+	{
+		if(PowerOfTwo.isPowerOfTwo(gridWidth))
+		{
+			return Math.scalb(weightedSum, -derivativeOrder * Math.getExponent(gridWidth));
+		}
+
+		return weightedSum / Math.pow(gridWidth, derivativeOrder);
+	}
+
+	/**
+	 * Get the grid width.
+	 * 
+	 * @return The grid width.
+	 */
+	public double getGridWidth()
+	{
+		return gridWidth;
+	}
+
+	/**
+	 * Get the derivative order.
+	 * 
+	 * @return The derivative order.
+	 */
+	public int getDerivativeOrder()
+	{
+		return derivativeOrder;
+	}
+
+	/**
+	 * Scale a weighted sum by <code>h<sup>-d</sup></code>.
+	 * 
+	 * @param weightedSum The weighted sum.
+	 * @return The derivative.
+	 */
+	public double scale(final double weightedSum)
+	{
+		return powerOfTwo ? Math.scalb(weightedSum, scaleExponent) : (weightedSum / divisor);
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("StencilScale [gridWidth=");
+		builder.append(gridWidth);
+		builder.append(", derivativeOrder=");
+		builder.append(derivativeOrder);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
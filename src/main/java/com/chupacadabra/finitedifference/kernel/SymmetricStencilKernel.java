@@ -0,0 +1,122 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * Kernel for a symmetric central stencil, i.e. one for an even derivative
+ * order, where <code>c<sub>-k</sub> = c<sub>k</sub></code>.
+ * <p>
+ * Each pair <code>f(x + kh) + f(x - kh)</code> is summed before multiplying,
+ * so only the center and right half of the coefficients are stored and about
+ * half the multiplications are made. A zero center weight is skipped.
+ */
+public final class SymmetricStencilKernel
+	extends AbstractStencilKernel
+{
+
+	/**
+	 * The center coefficient.
+	 */
+	private final double centerCoefficient;
+
+	/**
+	 * Is the center coefficient non-zero?
+	 */
+	private final boolean hasCenter;
+
+	/**
+	 * The multipliers of the non-zero right half coefficients.
+	 */
+	private final int[] multipliers;
+
+	/**
+	 * The non-zero right half coefficients.
+	 */
+	private final double[] coefficients;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param finiteDifference The finite difference, which must be symmetric.
+	 * @throws IllegalArgumentException If the stencil is not symmetric.
+	 */
+	public SymmetricStencilKernel(final FiniteDifference finiteDifference)
+	{
+		super(finiteDifference);
+
+		if(!StencilKernelFactory.isPaired(finiteDifference, 1))
+		{
+			throw new IllegalArgumentException("finiteDifference");
+		}
+
+		double[] stencil = finiteDifference.getCoefficients();
+		int center = -finiteDifference.getLeftMultiplier();
+
+		centerCoefficient = stencil[center];
+		hasCenter = (centerCoefficient != 0);
+		multipliers = StencilKernelFactory.getRightHalfMultipliers(finiteDifference);
+		coefficients = new double[multipliers.length];
+
+		for(int index = 0; index < multipliers.length; index++)
+		{
+			coefficients[index] = stencil[center + multipliers[index]];
+		}
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#getWeightedSum(com.chupacadabra.finitedifference.UnivariateFunction, double, double)
+	 */
+	@Override
+	public double getWeightedSum(final UnivariateFunction function, final double x, final double gridWidth)
+	{
+		double sum = hasCenter ? (centerCoefficient * function.value(x)) : 0;
+		for(int index = 0; index < coefficients.length; index++)
+		{
+			double offset = gridWidth * multipliers[index];
+			sum += coefficients[index] * (function.value(x + offset) + function.value(x - offset));
+		}
+
+		return sum;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#getWeightedSum(double[], int)
+	 */
+	@Override
+	public double getWeightedSum(final double[] values, final int center)
+	{
+		double sum = hasCenter ? (centerCoefficient * values[center]) : 0;
+		for(int index = 0; index < coefficients.length; index++)
+		{
+			int multiplier = multipliers[index];
+			sum += coefficients[index] * (values[center + multiplier] + values[center - multiplier]);
+		}
+
+		return sum;
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * Two-point forward first derivative kernel, <code>[-1, 1]</code>.
+ * <p>
+ * The loop is unrolled and the coefficients are compile-time constants.
+ */
+public final class TwoPointForwardKernel
+	extends AbstractStencilKernel
+{
+
+	/**
+	 * The finite difference.
+	 */
+	public static final FiniteDifference FINITE_DIFFERENCE = new FiniteDifference(FiniteDifferenceType.FORWARD, 1, 1);
+
+	/**
+	 * Coefficient at multiplier zero.
+	 */
+	private static final double C0 = -1.0;
+
+	/**
+	 * Coefficient at multiplier plus one.
+	 */
+	private static final double P1 = 1.0;
+
+	/**
+	 * Constructor.
+	 */
+	public TwoPointForwardKernel()
+	{
+		super(FINITE_DIFFERENCE);
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#getWeightedSum(com.chupacadabra.finitedifference.UnivariateFunction, double, double)
+	 */
+	@Override
+	public double getWeightedSum(final UnivariateFunction function, final double x, final double gridWidth)
+	{
+		return (C0 * function.value(x))
+				+ (P1 * function.value(x + gridWidth));
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.kernel.StencilKernel#getWeightedSum(double[], int)
+	 */
+	@Override
+	public double getWeightedSum(final double[] values, final int center)
+	{
+		return (C0 * values[center])
+				+ (P1 * values[center + 1]);
+	}
+
+}
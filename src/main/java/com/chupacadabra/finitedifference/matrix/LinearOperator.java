@@ -0,0 +1,56 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.matrix;
+
+
+/**
+ * A linear operator <code><b>R</b><sup>n</sup> &rarr; <b>R</b><sup>m</sup></code>,
+ * which may or may not be backed by an explicit matrix.
+ */
+public interface LinearOperator
+{
+
+	/**
+	 * Get the row dimension, <code>m</code>.
+	 * 
+	 * @return The row dimension.
+	 */
+	public int getRowDimension();
+
+	/**
+	 * Get the column dimension, <code>n</code>.
+	 * 
+	 * @return The column dimension.
+	 */
+	public int getColumnDimension();
+
+	/**
+	 * Compute <code>y = Ax</code>.
+	 * 
+	 * @param x The vector.
+	 * @param y The output vector.
+	 */
+	public void multiply(double[] x, double[] y);
+
+}
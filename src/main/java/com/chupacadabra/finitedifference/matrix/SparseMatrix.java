@@ -0,0 +1,227 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.matrix;
+
+import java.util.Arrays;
+
+/**
+ * A general sparse matrix, in compressed sparse row form.
+ * <p>
+ * Column indices within each row are sorted in ascending order, without
+ * duplicates.
+ */
+public final class SparseMatrix
+	implements LinearOperator
+{
+
+	/**
+	 * The row dimension.
+	 */
+	private final int rowDimension;
+
+	/**
+	 * The column dimension.
+	 */
+	private final int columnDimension;
+
+	/**
+	 * Row pointers; the entries of row <code>i</code> occupy
+	 * <code>[rowPointers[i], rowPointers[i + 1])</code>.
+	 */
+	private final int[] rowPointers;
+
+	/**
+	 * Column indices.
+	 */
+	private final int[] columnIndices;
+
+	/**
+	 * Values.
+	 */
+	private final double[] values;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * The arrays are used directly, not copied.
+	 * 
+	 * @param rowDimension The row dimension.
+	 * @param columnDimension The column dimension.
+	 * @param rowPointers The row pointers, of length
+	 *            <code>rowDimension + 1</code>.
+	 * @param columnIndices The column indices, sorted within each row.
+	 * @param values The values.
+	 */
+	public SparseMatrix(
+			final int rowDimension,
+			final int columnDimension,
+			final int[] rowPointers,
+			final int[] columnIndices,
+			final double[] values)
+	{
+		if((rowPointers.length != (rowDimension + 1)) || (rowPointers[0] != 0) || (rowPointers[rowDimension] != columnIndices.length))
+		{
+			throw new IllegalArgumentException("rowPointers");
+		}
+
+		if(values.length != columnIndices.length)
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		for(int row = 0; row < rowDimension; row++)
+		{
+			for(int index = rowPointers[row]; index < rowPointers[row + 1]; index++)
+			{
+				int column = columnIndices[index];
+				if((column < 0) || (column >= columnDimension) || 
+						((index > rowPointers[row]) && (column <= columnIndices[index - 1])))
+				{
+					throw new IllegalArgumentException("columnIndices");
+				}
+			}
+		}
+
+		this.rowDimension = rowDimension;
+		this.columnDimension = columnDimension;
+		this.rowPointers = rowPointers;
+		this.columnIndices = columnIndices;
+		this.values = values;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getRowDimension()
+	 */
+	@Override
+	public int getRowDimension()
+	{
+		return rowDimension;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getColumnDimension()
+	 */
+	@Override
+	public int getColumnDimension()
+	{
+		return columnDimension;
+	}
+
+	/**
+	 * Get the row pointers.
+	 * 
+	 * @return The row pointers.
+	 */
+	public int[] getRowPointers()
+	{
+		return rowPointers;
+	}
+
+	/**
+	 * Get the column indices.
+	 * 
+	 * @return The column indices.
+	 */
+	public int[] getColumnIndices()
+	{
+		return columnIndices;
+	}
+
+	/**
+	 * Get the values, which are stored in the same order as the
+	 * {@linkplain #getColumnIndices() column indices}.
+	 * 
+	 * @return The values.
+	 */
+	public double[] getValues()
+	{
+		return values;
+	}
+
+	/**
+	 * Get the number of stored entries.
+	 * 
+	 * @return The number of entries.
+	 */
+	public int getEntryCount()
+	{
+		return values.length;
+	}
+
+	/**
+	 * Get the specified entry.
+	 * 
+	 * @param row The row.
+	 * @param column The column.
+	 * @return The value, which is zero for structurally zero entries.
+	 */
+	public double get(final int row, final int column)
+	{
+		int index = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+		if(index < 0)
+		{
+			return 0;
+		}
+
+		return values[index];
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#multiply(double[], double[])
+	 */
+	@Override
+	public void multiply(final double[] x, final double[] y)
+	{
+		for(int row = 0; row < rowDimension; row++)
+		{
+			double sum = 0;
+			for(int index = rowPointers[row]; index < rowPointers[row + 1]; index++)
+			{
+				sum += values[index] * x[columnIndices[index]];
+			}
+
+			y[row] = sum;
+		}
+	}
+
+	/**
+	 * Get a dense copy of this matrix.
+	 * 
+	 * @return The dense matrix.
+	 */
+	public double[][] toArray()
+	{
+		double[][] dense = new double[rowDimension][columnDimension];
+		for(int row = 0; row < rowDimension; row++)
+		{
+			for(int index = rowPointers[row]; index < rowPointers[row + 1]; index++)
+			{
+				dense[row][columnIndices[index]] = values[index];
+			}
+		}
+
+		return dense;
+	}
+
+}
@@ -0,0 +1,229 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.matrix;
+
+import java.util.Arrays;
+
+/**
+ * A sparse symmetric matrix.
+ * <p>
+ * Only the lower triangle (including the diagonal) is stored, in compressed
+ * sparse row form. Column indices within each row are sorted in ascending
+ * order, so the diagonal is always the last entry of its row.
+ */
+public final class SparseSymmetricMatrix
+	implements LinearOperator
+{
+
+	/**
+	 * The dimension.
+	 */
+	private final int dimension;
+
+	/**
+	 * Row pointers; the entries of row <code>i</code> occupy
+	 * <code>[rowPointers[i], rowPointers[i + 1])</code>.
+	 */
+	private final int[] rowPointers;
+
+	/**
+	 * Column indices.
+	 */
+	private final int[] columnIndices;
+
+	/**
+	 * Values.
+	 */
+	private final double[] values;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * Creates a matrix with the structure of the specified pattern, with all
+	 * values set to zero.
+	 *
+	 * @param pattern The sparsity pattern.
+	 */
+	public SparseSymmetricMatrix(final SparsityPattern pattern)
+	{
+		this.dimension = pattern.getDimension();
+		this.rowPointers = new int[dimension + 1];
+		this.columnIndices = new int[pattern.getLowerTriangleSize()];
+		this.values = new double[columnIndices.length];
+
+		int[] neighborPointers = pattern.getNeighborPointers();
+		int[] neighborIndices = pattern.getNeighborIndices();
+
+		int size = 0;
+		for(int row = 0; row < dimension; row++)
+		{
+			rowPointers[row] = size;
+
+			for(int index = neighborPointers[row]; index < neighborPointers[row + 1]; index++)
+			{
+				int column = neighborIndices[index];
+				if(column > row)
+				{
+					break;
+				}
+
+				columnIndices[size++] = column;
+			}
+
+			columnIndices[size++] = row;
+		}
+
+		rowPointers[dimension] = size;
+	}
+
+	/**
+	 * Get the dimension.
+	 *
+	 * @return The dimension.
+	 */
+	public int getDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getRowDimension()
+	 */
+	@Override
+	public int getRowDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getColumnDimension()
+	 */
+	@Override
+	public int getColumnDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * Get the row pointers.
+	 *
+	 * @return The row pointers.
+	 */
+	public int[] getRowPointers()
+	{
+		return rowPointers;
+	}
+
+	/**
+	 * Get the column indices.
+	 *
+	 * @return The column indices.
+	 */
+	public int[] getColumnIndices()
+	{
+		return columnIndices;
+	}
+
+	/**
+	 * Get the values, which are stored in the same order as the
+	 * {@linkplain #getColumnIndices() column indices}.
+	 *
+	 * @return The values.
+	 */
+	public double[] getValues()
+	{
+		return values;
+	}
+
+	/**
+	 * Get the specified entry.
+	 *
+	 * @param row The row.
+	 * @param column The column.
+	 * @return The value, which is zero for structurally zero entries.
+	 */
+	public double get(final int row, final int column)
+	{
+		int lower = Math.max(row, column);
+		int upper = Math.min(row, column);
+
+		int index = Arrays.binarySearch(columnIndices, rowPointers[lower], rowPointers[lower + 1], upper);
+		if(index < 0)
+		{
+			return 0;
+		}
+
+		return values[index];
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#multiply(double[], double[])
+	 */
+	@Override
+	public void multiply(final double[] x, final double[] y)
+	{
+		Arrays.fill(y, 0, dimension, 0);
+
+		for(int row = 0; row < dimension; row++)
+		{
+			double sum = 0;
+			double xRow = x[row];
+
+			int end = rowPointers[row + 1] - 1;
+			for(int index = rowPointers[row]; index < end; index++)
+			{
+				int column = columnIndices[index];
+				double value = values[index];
+
+				sum += value * x[column];
+				y[column] += value * xRow;
+			}
+
+			// diagonal.
+			y[row] += sum + (values[end] * xRow);
+		}
+	}
+
+	/**
+	 * Get a dense copy of this matrix.
+	 *
+	 * @return The dense matrix.
+	 */
+	public double[][] toArray()
+	{
+		double[][] dense = new double[dimension][dimension];
+		for(int row = 0; row < dimension; row++)
+		{
+			for(int index = rowPointers[row]; index < rowPointers[row + 1]; index++)
+			{
+				int column = columnIndices[index];
+				dense[row][column] = values[index];
+				dense[column][row] = values[index];
+			}
+		}
+
+		return dense;
+	}
+
+}
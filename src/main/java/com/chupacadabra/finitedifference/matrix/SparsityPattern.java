@@ -0,0 +1,193 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.matrix;
+
+import java.util.Arrays;
+
+/**
+ * The sparsity pattern of a symmetric matrix.
+ * <p>
+ * The pattern is regarded as the adjacency graph of the matrix: vertex
+ * <code>i</code> is adjacent to vertex <code>j</code> whenever the
+ * <code>(i, j)</code> entry is (structurally) non-zero and
+ * <code>i &ne; j</code>. The diagonal is always assumed to be non-zero and is
+ * not part of the adjacency structure.
+ * <p>
+ * Adjacency lists are stored in compressed form, sorted in ascending order.
+ */
+public final class SparsityPattern
+{
+
+	/**
+	 * The dimension.
+	 */
+	private final int dimension;
+
+	/**
+	 * Adjacency list pointers; the neighbors of <code>i</code> occupy
+	 * <code>[pointers[i], pointers[i + 1])</code>.
+	 */
+	private final int[] neighborPointers;
+
+	/**
+	 * Adjacency lists.
+	 */
+	private final int[] neighborIndices;
+
+	/**
+	 * Constructor.
+	 * <p>
+	 * The specified pattern need not be symmetric (e.g. it may contain only
+	 * the lower or upper triangle); it is symmetrized. Duplicate and diagonal
+	 * entries are ignored.
+	 *
+	 * @param pattern The pattern, where <code>pattern[i]</code> contains the
+	 *            column indices of the non-zero entries in row <code>i</code>.
+	 */
+	public SparsityPattern(final int[][] pattern)
+	{
+		this.dimension = pattern.length;
+
+		// count the (possibly duplicated) degree of each vertex.
+		int[] counts = new int[dimension + 1];
+		for(int row = 0; row < dimension; row++)
+		{
+			for(int column : pattern[row])
+			{
+				if((column < 0) || (column >= dimension))
+				{
+					throw new IllegalArgumentException("column");
+				}
+
+				if(column != row)
+				{
+					counts[row + 1] += 1;
+					counts[column + 1] += 1;
+				}
+			}
+		}
+
+		for(int row = 0; row < dimension; row++)
+		{
+			counts[row + 1] += counts[row];
+		}
+
+		// fill both directions of each edge.
+		int[] raw = new int[counts[dimension]];
+		int[] next = Arrays.copyOf(counts, dimension);
+		for(int row = 0; row < dimension; row++)
+		{
+			for(int column : pattern[row])
+			{
+				if(column != row)
+				{
+					raw[next[row]++] = column;
+					raw[next[column]++] = row;
+				}
+			}
+		}
+
+		// sort and remove duplicates.
+		neighborPointers = new int[dimension + 1];
+		int size = 0;
+		for(int row = 0; row < dimension; row++)
+		{
+			Arrays.sort(raw, counts[row], counts[row + 1]);
+
+			neighborPointers[row] = size;
+			for(int index = counts[row]; index < counts[row + 1]; index++)
+			{
+				if((size == neighborPointers[row]) || (raw[size - 1] != raw[index]))
+				{
+					raw[size++] = raw[index];
+				}
+			}
+		}
+
+		neighborPointers[dimension] = size;
+		neighborIndices = Arrays.copyOf(raw, size);
+	}
+
+	/**
+	 * Get the dimension.
+	 *
+	 * @return The dimension.
+	 */
+	public int getDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * Get the adjacency list pointers.
+	 *
+	 * @return The pointers.
+	 */
+	public int[] getNeighborPointers()
+	{
+		return neighborPointers;
+	}
+
+	/**
+	 * Get the (concatenated) adjacency lists.
+	 *
+	 * @return The adjacency lists.
+	 */
+	public int[] getNeighborIndices()
+	{
+		return neighborIndices;
+	}
+
+	/**
+	 * Get the number of structurally non-zero entries in the lower triangle,
+	 * including the diagonal.
+	 *
+	 * @return The number of non-zero entries.
+	 */
+	public int getLowerTriangleSize()
+	{
+		return dimension + (neighborIndices.length / 2);
+	}
+
+	/**
+	 * Is the specified entry structurally non-zero?
+	 *
+	 * @param row The row.
+	 * @param column The column.
+	 * @return <code>true</code> if the entry is non-zero; and
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isNonZero(final int row, final int column)
+	{
+		if(row == column)
+		{
+			return true;
+		}
+
+		int index = Arrays.binarySearch(neighborIndices, neighborPointers[row], neighborPointers[row + 1], column);
+
+		return (index >= 0);
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.matrix;
+
+import java.util.Arrays;
+
+/**
+ * Greedy star coloring of the adjacency graph of a symmetric sparsity pattern.
+ * <p>
+ * A star coloring is a proper (distance-1) coloring in which every path on
+ * four vertices uses at least three colors. Equivalently, every two-colored
+ * subgraph is a collection of stars. This is exactly the property required
+ * to directly recover a symmetric matrix <code><b>H</b></code> from the
+ * compressed product <code><b>HD</b></code>, where column <code>c</code> of
+ * <code><b>D</b></code> is the indicator of color <code>c</code>: for each
+ * non-zero <code>h<sub>ij</sub></code>, either <code>j</code> is the only
+ * vertex of its color in the closed neighborhood of <code>i</code>, or vice
+ * versa.
+ * <p>
+ * Vertices are colored in natural order; each vertex gets the smallest color
+ * that is neither used by a neighbor nor closes a two-colored path on four
+ * vertices.
+ */
+public final class StarColoring
+{
+
+	/**
+	 * The colors, in <code>[0, colorCount)</code>.
+	 */
+	private final int[] colors;
+
+	/**
+	 * The number of colors.
+	 */
+	private final int colorCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param pattern The sparsity pattern.
+	 */
+	public StarColoring(final SparsityPattern pattern)
+	{
+		int dimension = pattern.getDimension();
+		int[] pointers = pattern.getNeighborPointers();
+		int[] neighbors = pattern.getNeighborIndices();
+
+		colors = new int[dimension];
+		Arrays.fill(colors, -1);
+
+		// forbidden[c] == v iff color c is forbidden for vertex v.
+		int[] forbidden = new int[dimension + 1];
+		Arrays.fill(forbidden, -1);
+
+		// number of neighbors of the current vertex with a given color.
+		int[] neighborColorCounts = new int[dimension + 1];
+
+		int count = 0;
+		for(int v = 0; v < dimension; v++)
+		{
+			for(int p = pointers[v]; p < pointers[v + 1]; p++)
+			{
+				int w = neighbors[p];
+				if(colors[w] >= 0)
+				{
+					forbidden[colors[w]] = v;
+					neighborColorCounts[colors[w]] += 1;
+				}
+			}
+
+			for(int p = pointers[v]; p < pointers[v + 1]; p++)
+			{
+				int w = neighbors[p];
+				int colorW = colors[w];
+				if(colorW < 0)
+				{
+					continue;
+				}
+
+				for(int q = pointers[w]; q < pointers[w + 1]; q++)
+				{
+					int x = neighbors[q];
+					int colorX = colors[x];
+					if((colorX < 0) || (forbidden[colorX] == v))
+					{
+						continue;
+					}
+
+					// path u-v-w-x with color(u) = color(w).
+					if(neighborColorCounts[colorW] > 1)
+					{
+						forbidden[colorX] = v;
+						continue;
+					}
+
+					// path v-w-x-y with color(y) = color(w).
+					for(int r = pointers[x]; r < pointers[x + 1]; r++)
+					{
+						int y = neighbors[r];
+						if((y != w) && (colors[y] == colorW))
+						{
+							forbidden[colorX] = v;
+							break;
+						}
+					}
+				}
+			}
+
+			int color = 0;
+			while(forbidden[color] == v)
+			{
+				color += 1;
+			}
+
+			colors[v] = color;
+			count = Math.max(count, color + 1);
+
+			// reset counts.
+			for(int p = pointers[v]; p < pointers[v + 1]; p++)
+			{
+				int w = neighbors[p];
+				if(colors[w] >= 0)
+				{
+					neighborColorCounts[colors[w]] = 0;
+				}
+			}
+		}
+
+		colorCount = count;
+	}
+
+	/**
+	 * Get the colors, indexed by vertex.
+	 *
+	 * @return The colors.
+	 */
+	public int[] getColors()
+	{
+		return colors;
+	}
+
+	/**
+	 * Get the number of colors.
+	 *
+	 * @return The number of colors.
+	 */
+	public int getColorCount()
+	{
+		return colorCount;
+	}
+
+}
@@ -0,0 +1,217 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.matrix;
+
+/**
+ * Solver for tridiagonal systems <code><b>A</b>x = b</code>, using the Thomas
+ * algorithm, i.e. Gaussian elimination without pivoting.
+ * <p>
+ * The matrix is factored once, at construction, and each solve then costs
+ * <code>O(n)</code> and allocates nothing. The matrix must be safe to factor
+ * without pivoting. Diagonally dominant matrices, such as those of implicit
+ * diffusion steps and the interior rows of compact finite difference schemes,
+ * always are. The one-sided closures of compact schemes are not diagonally
+ * dominant (e.g. <code>f''<sub>0</sub> + 11f''<sub>1</sub></code>), but they
+ * only occupy the first and last rows: the pivots next to them are small but
+ * fixed (-0.1 and about -0.11 for the fourth-order second derivative, 0.5 and
+ * about 0.46 for the first), and the dominant interior rows pull the pivots
+ * in between back towards a fixed point near 1, whatever the dimension.
+ * Elimination is therefore stable, and an exactly zero pivot is reported as
+ * an {@link ArithmeticException}.
+ * <p>
+ * Many right-hand sides can be solved at once in a
+ * <code>n &times; count</code> row-major matrix, i.e. with the
+ * <code>i</code><sup>th</sup> component of every system contiguous; the inner
+ * loops then run across systems and can be vectorized.
+ */
+public final class TridiagonalSolver
+{
+
+	/**
+	 * The dimension.
+	 */
+	private final int dimension;
+
+	/**
+	 * The sub-diagonal; <code>lower[i]</code> is in row <code>i</code>.
+	 */
+	private final double[] lower;
+
+	/**
+	 * The eliminated super-diagonal.
+	 */
+	private final double[] upper;
+
+	/**
+	 * The reciprocal pivots.
+	 */
+	private final double[] inversePivots;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param lower The sub-diagonal, where <code>lower[i]</code> is in row
+	 *            <code>i</code> (so <code>lower[0]</code> is ignored).
+	 * @param diagonal The diagonal.
+	 * @param upper The super-diagonal, where <code>upper[i]</code> is in row
+	 *            <code>i</code> (so <code>upper[n - 1]</code> is ignored).
+	 * @throws ArithmeticException If a zero pivot is encountered.
+	 */
+	public TridiagonalSolver(final double[] lower, final double[] diagonal, final double[] upper)
+	{
+		dimension = diagonal.length;
+		if((dimension == 0) || (lower.length != dimension) || (upper.length != dimension))
+		{
+			throw new IllegalArgumentException("diagonal");
+		}
+
+		this.lower = lower.clone();
+		this.upper = new double[dimension];
+		this.inversePivots = new double[dimension];
+
+		double previous = 0;
+		for(int row = 0; row < dimension; row++)
+		{
+			double pivot = diagonal[row] - ((row == 0) ? 0 : (lower[row] * previous));
+			if(pivot == 0)
+			{
+				throw new ArithmeticException("pivot");
+			}
+
+			inversePivots[row] = 1 / pivot;
+			previous = (row == (dimension - 1)) ? 0 : (upper[row] * inversePivots[row]);
+			this.upper[row] = previous;
+		}
+	}
+
+	/**
+	 * Get the dimension.
+	 * 
+	 * @return The dimension.
+	 */
+	public int getDimension()
+	{
+		return dimension;
+	}
+
+	/**
+	 * Solve <code><b>A</b>x = b</code>.
+	 * 
+	 * @param b The right-hand side.
+	 * @param x The solution; may be the same array as the right-hand side.
+	 */
+	public void solve(final double[] b, final double[] x)
+	{
+		if((b.length != dimension) || (x.length != dimension))
+		{
+			throw new IllegalArgumentException("b");
+		}
+
+		x[0] = b[0] * inversePivots[0];
+		for(int row = 1; row < dimension; row++)
+		{
+			x[row] = (b[row] - (lower[row] * x[row - 1])) * inversePivots[row];
+		}
+
+		for(int row = dimension - 2; row >= 0; row--)
+		{
+			x[row] -= upper[row] * x[row + 1];
+		}
+	}
+
+	/**
+	 * Solve <code><b>A</b>X = B</code> for many right-hand sides at once.
+	 * 
+	 * @param b The right-hand sides, a row-major <code>n &times; count</code>
+	 *            matrix.
+	 * @param x The solutions, in the same layout; may be the same array as
+	 *            the right-hand sides.
+	 * @param count The number of systems.
+	 */
+	public void solve(final double[] b, final double[] x, final int count)
+	{
+		if((count < 1) || (b.length != (dimension * count)) || (x.length != b.length))
+		{
+			throw new IllegalArgumentException("b");
+		}
+
+		solve(b, x, 0, count, count);
+	}
+
+	/**
+	 * Solve <code><b>A</b>X = B</code> for many right-hand sides at once,
+	 * stored in a strided block of a larger array.
+	 * <p>
+	 * Component <code>i</code> of system <code>j</code> is at
+	 * <code>offset + (i &times; stride) + j</code>; e.g. the lines along any
+	 * axis of a row-major grid can be solved this way.
+	 * 
+	 * @param b The right-hand sides.
+	 * @param x The solutions, in the same layout; may be the same array as
+	 *            the right-hand sides.
+	 * @param offset The offset of the first component of the first system.
+	 * @param stride The stride between components.
+	 * @param count The number of systems.
+	 */
+	public void solve(final double[] b, final double[] x, final int offset, final int stride, final int count)
+	{
+		long end = offset + ((long)(dimension - 1) * stride) + count;
+		if((count < 1) || (stride < count) || (offset < 0) || (end > b.length) || (end > x.length))
+		{
+			throw new IllegalArgumentException("b");
+		}
+
+		double inversePivot = inversePivots[0];
+		for(int column = offset; column < (offset + count); column++)
+		{
+			x[column] = b[column] * inversePivot;
+		}
+
+		for(int row = 1; row < dimension; row++)
+		{
+			double factor = lower[row];
+			inversePivot = inversePivots[row];
+
+			int current = offset + (row * stride);
+			int previous = current - stride;
+			for(int column = 0; column < count; column++)
+			{
+				x[current + column] = (b[current + column] - (factor * x[previous + column])) * inversePivot;
+			}
+		}
+
+		for(int row = dimension - 2; row >= 0; row--)
+		{
+			double factor = upper[row];
+
+			int current = offset + (row * stride);
+			int next = current + stride;
+			for(int column = 0; column < count; column++)
+			{
+				x[current + column] -= factor * x[next + column];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,503 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.pde;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.grid.GridShape;
+import com.chupacadabra.finitedifference.matrix.TridiagonalSolver;
+
+/**
+ * Implicit time stepping of a {@link ConvectionDiffusionEquation} by the
+ * alternating direction implicit (ADI) scheme of Douglas.
+ * <p>
+ * With <code>L = &sum;<sub>d</sub> L<sub>d</sub></code> split by axis, each
+ * step is
+ * <ul>
+ * <li><code>Y<sub>0</sub> = u + &Delta;t Lu</code></li>
+ * <li><code>(I - &theta;&Delta;t L<sub>d</sub>) Y<sub>d</sub> = Y<sub>d-1</sub> - &theta;&Delta;t L<sub>d</sub>u</code>, for each axis <code>d</code></li>
+ * </ul>
+ * and the new values are the last <code>Y<sub>d</sub></code>. In one
+ * dimension this is exactly the &theta;-scheme, i.e. Crank-Nicolson for
+ * <code>&theta; = 1/2</code> and backward Euler for <code>&theta; = 1</code>;
+ * in two dimensions, <code>&theta; = 1/2</code> is second order in time.
+ * <p>
+ * The scheme is limited to three-point central differences, so that each
+ * implicit sweep is a set of independent tridiagonal systems, one per grid
+ * line along the axis: the explicit terms are those of a
+ * {@link SpatialOperator} of error order 2, and the implicit systems are
+ * built from the same stencils. Wider stencils would make the systems banded
+ * rather than tridiagonal, so no other error order is supported. The systems
+ * are factored once, at construction, and solved
+ * in batches of adjacent lines, so that the inner loops run across
+ * contiguous memory. Given a {@link ForkJoinPool}, the lines of each sweep are
+ * split recursively across it; each line is solved by exactly the same
+ * arithmetic as in a sequential sweep, so the result is identical.
+ * <p>
+ * All grids are allocated at construction, so stepping allocates nothing
+ * (bar the pool's tasks), and an instance must not be shared between threads.
+ */
+public final class AlternatingDirectionImplicitStepper
+	implements TimeStepper
+{
+
+	/**
+	 * The default chunk size, in grid points, below which sweeps are not
+	 * split.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+	/**
+	 * The equation.
+	 */
+	private final ConvectionDiffusionEquation equation;
+
+	/**
+	 * The time step.
+	 */
+	private final double timeStep;
+
+	/**
+	 * The implicitness.
+	 */
+	private final double theta;
+
+	/**
+	 * The pool, or <code>null</code> to sweep sequentially.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The chunk size.
+	 */
+	private final int chunkSize;
+
+	/**
+	 * The error order of the per-axis operators.
+	 */
+	private static final int ERROR_ORDER = 2;
+
+	/**
+	 * The spatial operator, which computes the explicit terms.
+	 */
+	private final SpatialOperator operator;
+
+	/**
+	 * The three-point stencils of the per-axis operators, indexed by axis.
+	 */
+	private final double[][] stencils;
+
+	/**
+	 * The implicit solvers, indexed by axis.
+	 */
+	private final TridiagonalSolver[] solvers;
+
+	/**
+	 * The explicit per-axis terms <code>L<sub>d</sub>u</code>, indexed by
+	 * axis.
+	 */
+	private final double[][] explicit;
+
+	/**
+	 * The work grid.
+	 */
+	private final double[] work;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param equation The equation.
+	 * @param timeStep The time step.
+	 * @param theta The implicitness, in <code>[0, 1]</code>.
+	 */
+	public AlternatingDirectionImplicitStepper(
+			final ConvectionDiffusionEquation equation,
+			final double timeStep,
+			final double theta)
+	{
+		this(equation, timeStep, theta, null, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param equation The equation.
+	 * @param timeStep The time step.
+	 * @param theta The implicitness, in <code>[0, 1]</code>.
+	 * @param pool The pool, or <code>null</code> to sweep sequentially.
+	 */
+	public AlternatingDirectionImplicitStepper(
+			final ConvectionDiffusionEquation equation,
+			final double timeStep,
+			final double theta,
+			final ForkJoinPool pool)
+	{
+		this(equation, timeStep, theta, pool, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param equation The equation.
+	 * @param timeStep The time step.
+	 * @param theta The implicitness, in <code>[0, 1]</code>.
+	 * @param pool The pool, or <code>null</code> to sweep sequentially.
+	 * @param chunkSize The chunk size, in grid points, below which sweeps are
+	 *            not split.
+	 */
+	public AlternatingDirectionImplicitStepper(
+			final ConvectionDiffusionEquation equation,
+			final double timeStep,
+			final double theta,
+			final ForkJoinPool pool,
+			final int chunkSize)
+	{
+		if(!(timeStep > 0) || Double.isInfinite(timeStep))
+		{
+			throw new IllegalArgumentException("timeStep");
+		}
+
+		if(!(theta >= 0) || (theta > 1))
+		{
+			throw new IllegalArgumentException("theta");
+		}
+
+		if(chunkSize < 1)
+		{
+			throw new IllegalArgumentException("chunkSize");
+		}
+
+		this.equation = equation;
+		this.timeStep = timeStep;
+		this.theta = theta;
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+
+		GridShape shape = equation.getShape();
+		int dimension = shape.getDimension();
+
+		this.operator = new SpatialOperator(equation, ERROR_ORDER);
+		this.stencils = new double[dimension][];
+		this.solvers = new TridiagonalSolver[dimension];
+		for(int axis = 0; axis < dimension; axis++)
+		{
+			stencils[axis] = createStencil(axis);
+			solvers[axis] = createSolver(axis);
+		}
+
+		this.explicit = new double[dimension][shape.getSize()];
+		this.work = new double[shape.getSize()];
+	}
+
+	/**
+	 * Create the three-point stencil of <code>L<sub>d</sub></code>, at
+	 * multipliers <code>-1</code>, <code>0</code> and <code>1</code>; these are
+	 * the interior stencils of the spatial operator.
+	 * 
+	 * @param axis The axis.
+	 * @return The stencil.
+	 */
+	private double[] createStencil(final int axis)
+	{
+		FiniteDifference first = new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, ERROR_ORDER);
+		FiniteDifference second = new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, ERROR_ORDER - 1);
+
+		double h = equation.getGridWidth(axis);
+		double convection = equation.getConvection(axis) / h;
+		double diffusion = equation.getDiffusion(axis) / (h * h);
+
+		double[] stencil = new double[3];
+		for(int index = 0; index < stencil.length; index++)
+		{
+			stencil[index] = (convection * first.getCoefficients()[index]) + (diffusion * second.getCoefficients()[index]);
+		}
+
+		// the reaction is split evenly across the axes.
+		stencil[1] += equation.getReaction() / equation.getShape().getDimension();
+
+		return stencil;
+	}
+
+	/**
+	 * Create the solver for <code>I - &theta;&Delta;t L<sub>d</sub></code>
+	 * along the specified axis.
+	 * 
+	 * @param axis The axis.
+	 * @return The solver.
+	 */
+	private TridiagonalSolver createSolver(final int axis)
+	{
+		double[] stencil = stencils[axis];
+
+		int length = equation.getShape().getLength(axis);
+		double[] lower = new double[length];
+		double[] diagonal = new double[length];
+		double[] upper = new double[length];
+
+		double scale = theta * timeStep;
+		for(int row = 1; row < (length - 1); row++)
+		{
+			lower[row] = -scale * stencil[0];
+			diagonal[row] = 1 - (scale * stencil[1]);
+			upper[row] = -scale * stencil[2];
+		}
+
+		// boundary values are fixed.
+		diagonal[0] = 1;
+		diagonal[length - 1] = 1;
+
+		return new TridiagonalSolver(lower, diagonal, upper);
+	}
+
+	/**
+	 * Get the equation.
+	 * 
+	 * @return The equation.
+	 */
+	public ConvectionDiffusionEquation getEquation()
+	{
+		return equation;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.pde.TimeStepper#getTimeStep()
+	 */
+	@Override
+	public double getTimeStep()
+	{
+		return timeStep;
+	}
+
+	/**
+	 * Get the implicitness.
+	 * 
+	 * @return The implicitness.
+	 */
+	public double getTheta()
+	{
+		return theta;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.pde.TimeStepper#step(double[])
+	 */
+	@Override
+	public void step(final double[] values)
+	{
+		if(values.length != work.length)
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		int size = values.length;
+
+		System.arraycopy(values, 0, work, 0, size);
+		for(int axis = 0; axis < explicit.length; axis++)
+		{
+			double[] term = explicit[axis];
+			operator.multiply(axis, values, term);
+
+			for(int index = 0; index < size; index++)
+			{
+				work[index] += timeStep * term[index];
+			}
+		}
+
+		if(theta == 0)
+		{
+			System.arraycopy(work, 0, values, 0, size);
+			return;
+		}
+
+		double scale = theta * timeStep;
+		for(int axis = 0; axis < explicit.length; axis++)
+		{
+			double[] term = explicit[axis];
+			for(int index = 0; index < size; index++)
+			{
+				work[index] -= scale * term[index];
+			}
+
+			sweep(axis);
+
+			// lines on the boundary of another axis were solved needlessly.
+			for(int index : equation.getBoundaryIndices())
+			{
+				work[index] = values[index];
+			}
+		}
+
+		System.arraycopy(work, 0, values, 0, size);
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.pde.TimeStepper#step(double[], int)
+	 */
+	@Override
+	public void step(final double[] values, final int steps)
+	{
+		for(int step = 0; step < steps; step++)
+		{
+			step(values);
+		}
+	}
+
+	/**
+	 * Solve the implicit systems along the specified axis, in place.
+	 * 
+	 * @param axis The axis.
+	 */
+	private void sweep(final int axis)
+	{
+		GridShape shape = equation.getShape();
+		int lines = shape.getSize() / shape.getLength(axis);
+
+		if(pool == null)
+		{
+			solve(axis, 0, lines);
+		}
+		else
+		{
+			pool.invoke(new SweepTask(axis, 0, lines));
+		}
+	}
+
+	/**
+	 * Solve the implicit systems of a range of lines along the specified axis,
+	 * in place.
+	 * <p>
+	 * Line <code>l</code> along an axis with stride <code>s</code> is the
+	 * <code>(l mod s)</code><sup>th</sup> column of the
+	 * <code>(l / s)</code><sup>th</sup> <code>n &times; s</code> block of
+	 * the grid, so adjacent lines in the same block are solved together.
+	 * 
+	 * @param axis The axis.
+	 * @param from The first line, inclusive.
+	 * @param to The last line, exclusive.
+	 */
+	private void solve(final int axis, final int from, final int to)
+	{
+		GridShape shape = equation.getShape();
+		int stride = shape.getStride(axis);
+		int block = shape.getLength(axis) * stride;
+		TridiagonalSolver solver = solvers[axis];
+
+		int line = from;
+		while(line < to)
+		{
+			int outer = line / stride;
+			int column = line - (outer * stride);
+			int count = Math.min(to, (outer + 1) * stride) - line;
+
+			solver.solve(work, work, (outer * block) + column, stride, count);
+			line += count;
+		}
+	}
+
+	/**
+	 * A sweep over a range of lines.
+	 */
+	private final class SweepTask
+		extends RecursiveAction
+	{
+
+		/**
+		 * Serialization version.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The axis.
+		 */
+		private final int axis;
+
+		/**
+		 * The first line, inclusive.
+		 */
+		private final int from;
+
+		/**
+		 * The last line, exclusive.
+		 */
+		private final int to;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param axis The axis.
+		 * @param from The first line, inclusive.
+		 * @param to The last line, exclusive.
+		 */
+		SweepTask(final int axis, final int from, final int to)
+		{
+			this.axis = axis;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute()
+		{
+			long points = (long)(to - from) * equation.getShape().getLength(axis);
+			if(((to - from) < 2) || (points <= chunkSize))
+			{
+				solve(axis, from, to);
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(
+					new SweepTask(axis, from, middle),
+					new SweepTask(axis, middle, to));
+		}
+
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("AlternatingDirectionImplicitStepper [equation=");
+		builder.append(equation);
+		builder.append(", timeStep=");
+		builder.append(timeStep);
+		builder.append(", theta=");
+		builder.append(theta);
+		builder.append(", chunkSize=");
+		builder.append(chunkSize);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,270 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.pde;
+
+import java.util.Arrays;
+
+import com.chupacadabra.finitedifference.grid.GridShape;
+
+/**
+ * A linear convection-diffusion-reaction equation with constant coefficients
+ * on a uniform N-dimensional grid,
+ * <code>&part;u/&part;t = &sum;<sub>d</sub> (a<sub>d</sub> &part;<sup>2</sup>u/&part;x<sub>d</sub><sup>2</sup> + b<sub>d</sub> &part;u/&part;x<sub>d</sub>) + cu</code>.
+ * <p>
+ * The values on the boundary of the grid, i.e. at the first and last point
+ * along any axis, are (Dirichlet) boundary conditions and are held fixed.
+ * <p>
+ * The Black-Scholes equation in log-price, for example, is
+ * <code>a = &sigma;<sup>2</sup>/2</code>,
+ * <code>b = r - &sigma;<sup>2</sup>/2</code> and <code>c = -r</code>, in
+ * time-to-maturity.
+ */
+public final class ConvectionDiffusionEquation
+{
+
+	/**
+	 * The shape.
+	 */
+	private final GridShape shape;
+
+	/**
+	 * The grid width along each axis.
+	 */
+	private final double[] gridWidths;
+
+	/**
+	 * The diffusion coefficient along each axis.
+	 */
+	private final double[] diffusion;
+
+	/**
+	 * The convection coefficient along each axis.
+	 */
+	private final double[] convection;
+
+	/**
+	 * The reaction coefficient.
+	 */
+	private final double reaction;
+
+	/**
+	 * The flat indices of the boundary points, in ascending order.
+	 */
+	private final int[] boundaryIndices;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param shape The shape.
+	 * @param gridWidths The grid width along each axis.
+	 * @param diffusion The diffusion coefficient along each axis.
+	 * @param convection The convection coefficient along each axis.
+	 * @param reaction The reaction coefficient.
+	 */
+	public ConvectionDiffusionEquation(
+			final GridShape shape,
+			final double[] gridWidths,
+			final double[] diffusion,
+			final double[] convection,
+			final double reaction)
+	{
+		int dimension = shape.getDimension();
+		if(gridWidths.length != dimension)
+		{
+			throw new IllegalArgumentException("gridWidths");
+		}
+
+		if(diffusion.length != dimension)
+		{
+			throw new IllegalArgumentException("diffusion");
+		}
+
+		if(convection.length != dimension)
+		{
+			throw new IllegalArgumentException("convection");
+		}
+
+		for(int axis = 0; axis < dimension; axis++)
+		{
+			if(shape.getLength(axis) < 3)
+			{
+				throw new IllegalArgumentException("shape");
+			}
+
+			if(!(gridWidths[axis] > 0) || Double.isInfinite(gridWidths[axis]))
+			{
+				throw new IllegalArgumentException("gridWidths");
+			}
+		}
+
+		this.shape = shape;
+		this.gridWidths = gridWidths.clone();
+		this.diffusion = diffusion.clone();
+		this.convection = convection.clone();
+		this.reaction = reaction;
+		this.boundaryIndices = findBoundaryIndices(shape);
+	}
+
+	/**
+	 * Find the boundary points of the specified shape.
+	 * 
+	 * @param shape The shape.
+	 * @return The flat indices of the boundary points, in ascending order.
+	 */
+	private static int[] findBoundaryIndices(final GridShape shape)
+	{
+		int dimension = shape.getDimension();
+		int size = shape.getSize();
+
+		int interior = 1;
+		for(int axis = 0; axis < dimension; axis++)
+		{
+			interior *= shape.getLength(axis) - 2;
+		}
+
+		int[] indices = new int[size - interior];
+		int[] position = new int[dimension];
+
+		for(int index = 0, next = 0; index < size; index++)
+		{
+			boolean boundary = false;
+			for(int axis = 0; axis < dimension; axis++)
+			{
+				if((position[axis] == 0) || (position[axis] == (shape.getLength(axis) - 1)))
+				{
+					boundary = true;
+					break;
+				}
+			}
+
+			if(boundary)
+			{
+				indices[next++] = index;
+			}
+
+			// advance the row-major position.
+			for(int axis = dimension - 1; axis >= 0; axis--)
+			{
+				position[axis] += 1;
+				if(position[axis] < shape.getLength(axis))
+				{
+					break;
+				}
+
+				position[axis] = 0;
+			}
+		}
+
+		return indices;
+	}
+
+	/**
+	 * Get the shape.
+	 * 
+	 * @return The shape.
+	 */
+	public GridShape getShape()
+	{
+		return shape;
+	}
+
+	/**
+	 * Get the grid width along the specified axis.
+	 * 
+	 * @param axis The axis.
+	 * @return The grid width.
+	 */
+	public double getGridWidth(final int axis)
+	{
+		return gridWidths[axis];
+	}
+
+	/**
+	 * Get the diffusion coefficient along the specified axis.
+	 * 
+	 * @param axis The axis.
+	 * @return The diffusion coefficient.
+	 */
+	public double getDiffusion(final int axis)
+	{
+		return diffusion[axis];
+	}
+
+	/**
+	 * Get the convection coefficient along the specified axis.
+	 * 
+	 * @param axis The axis.
+	 * @return The convection coefficient.
+	 */
+	public double getConvection(final int axis)
+	{
+		return convection[axis];
+	}
+
+	/**
+	 * Get the reaction coefficient.
+	 * 
+	 * @return The reaction coefficient.
+	 */
+	public double getReaction()
+	{
+		return reaction;
+	}
+
+	/**
+	 * Get the flat indices of the boundary points.
+	 * <p>
+	 * The array is shared, not copied, as it is read on every step; callers
+	 * must not modify it.
+	 * 
+	 * @return The indices, in ascending order.
+	 */
+	int[] getBoundaryIndices()
+	{
+		return boundaryIndices;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("ConvectionDiffusionEquation [shape=");
+		builder.append(shape);
+		builder.append(", gridWidths=");
+		builder.append(Arrays.toString(gridWidths));
+		builder.append(", diffusion=");
+		builder.append(Arrays.toString(diffusion));
+		builder.append(", convection=");
+		builder.append(Arrays.toString(convection));
+		builder.append(", reaction=");
+		builder.append(reaction);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.pde;
+
+/**
+ * Explicit Runge-Kutta methods, given by their Butcher tableaux.
+ */
+public enum RungeKuttaMethod
+{
+
+	/**
+	 * Forward Euler; first order.
+	 */
+	EULER(new double[][] { {} }, new double[] { 1 }),
+
+	/**
+	 * Heun's method, i.e. the explicit trapezoidal rule; second order.
+	 */
+	HEUN(new double[][] { {}, { 1 } }, new double[] { 0.5, 0.5 }),
+
+	/**
+	 * The strong-stability-preserving method of Shu and Osher; third order.
+	 */
+	SSP_THIRD_ORDER(new double[][] { {}, { 1 }, { 0.25, 0.25 } }, new double[] { 1.0 / 6, 1.0 / 6, 2.0 / 3 }),
+
+	/**
+	 * The classical method; fourth order.
+	 */
+	CLASSICAL(new double[][] { {}, { 0.5 }, { 0, 0.5 }, { 0, 0, 1 } }, new double[] { 1.0 / 6, 1.0 / 3, 1.0 / 3, 1.0 / 6 });
+
+	/**
+	 * The stage coefficients; <code>coefficients[i][j]</code> is the weight of
+	 * stage <code>j &lt; i</code> in the input to stage <code>i</code>.
+	 */
+	private final double[][] coefficients;
+
+	/**
+	 * The stage weights of the step.
+	 */
+	private final double[] weights;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param coefficients The stage coefficients.
+	 * @param weights The stage weights.
+	 */
+	private RungeKuttaMethod(final double[][] coefficients, final double[] weights)
+	{
+		this.coefficients = coefficients;
+		this.weights = weights;
+	}
+
+	/**
+	 * Get the number of stages.
+	 * 
+	 * @return The number of stages.
+	 */
+	public int getStageCount()
+	{
+		return weights.length;
+	}
+
+	/**
+	 * Get the weight of an earlier stage in the input to a stage.
+	 * 
+	 * @param stage The stage.
+	 * @param earlier The earlier stage.
+	 * @return The weight.
+	 */
+	public double getCoefficient(final int stage, final int earlier)
+	{
+		return coefficients[stage][earlier];
+	}
+
+	/**
+	 * Get the weight of a stage in the step.
+	 * 
+	 * @param stage The stage.
+	 * @return The weight.
+	 */
+	public double getWeight(final int stage)
+	{
+		return weights[stage];
+	}
+
+}
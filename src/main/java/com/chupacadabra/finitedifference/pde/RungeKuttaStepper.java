@@ -0,0 +1,195 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.pde;
+
+/**
+ * Explicit Runge-Kutta time stepping of the semi-discrete system
+ * <code>du/dt = Lu</code>.
+ * <p>
+ * The stage derivatives and the stage input are allocated once, at
+ * construction, so stepping allocates nothing. Explicit methods are only
+ * conditionally stable: for diffusion, the time step must be of the order of
+ * <code>h<sup>2</sup>/a</code> or smaller.
+ * <p>
+ * An instance must not be shared between threads.
+ */
+public final class RungeKuttaStepper
+	implements TimeStepper
+{
+
+	/**
+	 * The spatial operator.
+	 */
+	private final SpatialOperator operator;
+
+	/**
+	 * The method.
+	 */
+	private final RungeKuttaMethod method;
+
+	/**
+	 * The time step.
+	 */
+	private final double timeStep;
+
+	/**
+	 * The stage derivatives, indexed by stage.
+	 */
+	private final double[][] stages;
+
+	/**
+	 * The stage input.
+	 */
+	private final double[] input;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param operator The spatial operator.
+	 * @param method The method.
+	 * @param timeStep The time step.
+	 */
+	public RungeKuttaStepper(final SpatialOperator operator, final RungeKuttaMethod method, final double timeStep)
+	{
+		if(!(timeStep > 0) || Double.isInfinite(timeStep))
+		{
+			throw new IllegalArgumentException("timeStep");
+		}
+
+		this.operator = operator;
+		this.method = method;
+		this.timeStep = timeStep;
+
+		int size = operator.getRowDimension();
+		this.stages = new double[method.getStageCount()][size];
+		this.input = new double[size];
+	}
+
+	/**
+	 * Get the spatial operator.
+	 * 
+	 * @return The spatial operator.
+	 */
+	public SpatialOperator getSpatialOperator()
+	{
+		return operator;
+	}
+
+	/**
+	 * Get the method.
+	 * 
+	 * @return The method.
+	 */
+	public RungeKuttaMethod getMethod()
+	{
+		return method;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.pde.TimeStepper#getTimeStep()
+	 */
+	@Override
+	public double getTimeStep()
+	{
+		return timeStep;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.pde.TimeStepper#step(double[])
+	 */
+	@Override
+	public void step(final double[] values)
+	{
+		if(values.length != input.length)
+		{
+			throw new IllegalArgumentException("values");
+		}
+
+		int size = values.length;
+
+		operator.multiply(values, stages[0]);
+		for(int stage = 1; stage < stages.length; stage++)
+		{
+			System.arraycopy(values, 0, input, 0, size);
+			for(int earlier = 0; earlier < stage; earlier++)
+			{
+				double weight = timeStep * method.getCoefficient(stage, earlier);
+				if(weight == 0)
+				{
+					continue;
+				}
+
+				double[] derivative = stages[earlier];
+				for(int index = 0; index < size; index++)
+				{
+					input[index] += weight * derivative[index];
+				}
+			}
+
+			operator.multiply(input, stages[stage]);
+		}
+
+		for(int stage = 0; stage < stages.length; stage++)
+		{
+			double weight = timeStep * method.getWeight(stage);
+
+			double[] derivative = stages[stage];
+			for(int index = 0; index < size; index++)
+			{
+				values[index] += weight * derivative[index];
+			}
+		}
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.pde.TimeStepper#step(double[], int)
+	 */
+	@Override
+	public void step(final double[] values, final int steps)
+	{
+		for(int step = 0; step < steps; step++)
+		{
+			step(values);
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("RungeKuttaStepper [operator=");
+		builder.append(operator);
+		builder.append(", method=");
+		builder.append(method);
+		builder.append(", timeStep=");
+		builder.append(timeStep);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.pde;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.grid.GridShape;
+import com.chupacadabra.finitedifference.grid.PartialGridDerivative;
+import com.chupacadabra.finitedifference.matrix.LinearOperator;
+
+/**
+ * The spatial operator <code>L</code> of a
+ * {@link ConvectionDiffusionEquation}, i.e. the right-hand side of the
+ * semi-discrete system <code>du/dt = Lu</code>.
+ * <p>
+ * The partial derivatives are taken with central finite differences of the
+ * specified (even) error order, i.e. with <code>errorOrder + 1</code> points,
+ * and with one-sided differences near the ends of each axis, where the
+ * central stencil does not fit. <code>Lu</code> is zero at
+ * the boundary points, so that the boundary values are held fixed.
+ * <p>
+ * The operator can also be applied one axis at a time, as required by
+ * operator-splitting schemes; the reaction term is then split evenly across
+ * the axes, so that the per-axis operators sum to <code>L</code>.
+ * <p>
+ * A single scratch grid is allocated at construction, so an instance must not
+ * be shared between threads.
+ */
+public final class SpatialOperator
+	implements LinearOperator
+{
+
+	/**
+	 * The equation.
+	 */
+	private final ConvectionDiffusionEquation equation;
+
+	/**
+	 * The error order.
+	 */
+	private final int errorOrder;
+
+	/**
+	 * The first partial derivatives, indexed by axis.
+	 */
+	private final PartialGridDerivative[] firstPartials;
+
+	/**
+	 * The second partial derivatives, indexed by axis.
+	 */
+	private final PartialGridDerivative[] secondPartials;
+
+	/**
+	 * The scratch grid.
+	 */
+	private final double[] scratch;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param equation The equation.
+	 * @param errorOrder The (even) error order of the finite differences.
+	 */
+	public SpatialOperator(final ConvectionDiffusionEquation equation, final int errorOrder)
+	{
+		if((errorOrder < 2) || ((errorOrder % 2) != 0))
+		{
+			throw new IllegalArgumentException("errorOrder");
+		}
+
+		this.equation = equation;
+		this.errorOrder = errorOrder;
+
+		GridShape shape = equation.getShape();
+		int dimension = shape.getDimension();
+
+		FiniteDifference first = new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, errorOrder);
+		// central second derivatives of odd error order are symmetric, so
+		// gain an order: this is the stencil of the same width.
+		FiniteDifference second = new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, errorOrder - 1);
+
+		firstPartials = new PartialGridDerivative[dimension];
+		secondPartials = new PartialGridDerivative[dimension];
+
+		for(int axis = 0; axis < dimension; axis++)
+		{
+			double h = equation.getGridWidth(axis);
+			firstPartials[axis] = new PartialGridDerivative(shape, axis, first, h);
+			secondPartials[axis] = new PartialGridDerivative(shape, axis, second, h);
+		}
+
+		scratch = new double[shape.getSize()];
+	}
+
+	/**
+	 * Get the equation.
+	 * 
+	 * @return The equation.
+	 */
+	public ConvectionDiffusionEquation getEquation()
+	{
+		return equation;
+	}
+
+	/**
+	 * Get the error order.
+	 * 
+	 * @return The error order.
+	 */
+	public int getErrorOrder()
+	{
+		return errorOrder;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getRowDimension()
+	 */
+	@Override
+	public int getRowDimension()
+	{
+		return scratch.length;
+	}
+
+	/**
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#getColumnDimension()
+	 */
+	@Override
+	public int getColumnDimension()
+	{
+		return scratch.length;
+	}
+
+	/**
+	 * Compute <code>y = Lu</code>.
+	 * 
+	 * @param x The grid values.
+	 * @param y The result; may not be the same array as the values.
+	 * @see com.chupacadabra.finitedifference.matrix.LinearOperator#multiply(double[], double[])
+	 */
+	@Override
+	public void multiply(final double[] x, final double[] y)
+	{
+		validate(x, y);
+
+		double reaction = equation.getReaction();
+		for(int index = 0; index < y.length; index++)
+		{
+			y[index] = reaction * x[index];
+		}
+
+		for(int axis = 0; axis < firstPartials.length; axis++)
+		{
+			accumulate(axis, x, y);
+		}
+
+		clearBoundary(y);
+	}
+
+	/**
+	 * Compute <code>y = L<sub>d</sub>u</code>, the part of the operator along
+	 * the specified axis.
+	 * 
+	 * @param axis The axis.
+	 * @param x The grid values.
+	 * @param y The result; may not be the same array as the values.
+	 */
+	public void multiply(final int axis, final double[] x, final double[] y)
+	{
+		validate(x, y);
+
+		double reaction = equation.getReaction() / firstPartials.length;
+		for(int index = 0; index < y.length; index++)
+		{
+			y[index] = reaction * x[index];
+		}
+
+		accumulate(axis, x, y);
+		clearBoundary(y);
+	}
+
+	/**
+	 * Validate the arguments of a multiplication.
+	 * 
+	 * @param x The grid values.
+	 * @param y The result.
+	 */
+	private void validate(final double[] x, final double[] y)
+	{
+		if(x.length != scratch.length)
+		{
+			throw new IllegalArgumentException("x");
+		}
+
+		if((y.length != scratch.length) || (y == x))
+		{
+			throw new IllegalArgumentException("y");
+		}
+	}
+
+	/**
+	 * Add the convection and diffusion terms along the specified axis.
+	 * 
+	 * @param axis The axis.
+	 * @param x The grid values.
+	 * @param y The result.
+	 */
+	private void accumulate(final int axis, final double[] x, final double[] y)
+	{
+		double convection = equation.getConvection(axis);
+		if(convection != 0)
+		{
+			firstPartials[axis].differentiate(x, scratch);
+			for(int index = 0; index < y.length; index++)
+			{
+				y[index] += convection * scratch[index];
+			}
+		}
+
+		double diffusion = equation.getDiffusion(axis);
+		if(diffusion != 0)
+		{
+			secondPartials[axis].differentiate(x, scratch);
+			for(int index = 0; index < y.length; index++)
+			{
+				y[index] += diffusion * scratch[index];
+			}
+		}
+	}
+
+	/**
+	 * Zero the boundary points.
+	 * 
+	 * @param y The result.
+	 */
+	private void clearBoundary(final double[] y)
+	{
+		for(int index : equation.getBoundaryIndices())
+		{
+			y[index] = 0;
+		}
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("SpatialOperator [equation=");
+		builder.append(equation);
+		builder.append(", errorOrder=");
+		builder.append(errorOrder);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
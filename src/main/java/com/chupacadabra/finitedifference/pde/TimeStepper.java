@@ -0,0 +1,54 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.pde;
+
+/**
+ * Advances the grid values of a time-dependent equation by a fixed time step.
+ */
+public interface TimeStepper
+{
+
+	/**
+	 * Get the time step.
+	 * 
+	 * @return The time step.
+	 */
+	public double getTimeStep();
+
+	/**
+	 * Advance the specified values by one time step, in place.
+	 * 
+	 * @param values The grid values.
+	 */
+	public void step(double[] values);
+
+	/**
+	 * Advance the specified values by many time steps, in place.
+	 * 
+	 * @param values The grid values.
+	 * @param steps The number of steps.
+	 */
+	public void step(double[] values, int steps);
+
+}
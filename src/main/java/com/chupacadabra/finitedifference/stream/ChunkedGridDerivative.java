@@ -0,0 +1,319 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.stream;
+
+import com.chupacadabra.finitedifference.grid.GridDerivative;
+
+/**
+ * Grid derivative of an unbounded stream of samples that arrive in chunks.
+ * <p>
+ * The stencil state, i.e. the trailing samples that later stencils still
+ * need, is carried across chunk boundaries in a fixed-size window. The
+ * derivative at a sample is emitted as soon as every sample its stencil reads
+ * has arrived, which is {@linkplain #getLatency() a fixed number} of samples
+ * later; the last few derivatives, which use one-sided stencils, are emitted
+ * when the stream is {@linkplain #finish(double[], int) finished}. The
+ * concatenated output is identical to that of
+ * {@link GridDerivative#differentiate(double[])} over the whole stream.
+ * <p>
+ * Each call emits at most as many derivatives as it was given samples, into
+ * a caller-provided buffer, so the caller controls the flow of data in both
+ * directions and nothing is buffered beyond the window.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class ChunkedGridDerivative
+{
+
+	/**
+	 * The default slice size, i.e. the number of new samples the window holds.
+	 */
+	public static final int DEFAULT_SLICE_SIZE = 4096;
+
+	/**
+	 * The grid derivative.
+	 */
+	private final GridDerivative derivative;
+
+	/**
+	 * The number of samples that must arrive after a sample before its
+	 * derivative is emitted.
+	 */
+	private final int latency;
+
+	/**
+	 * The number of samples before the next derivative to keep in the window.
+	 */
+	private final int history;
+
+	/**
+	 * The window of samples.
+	 */
+	private final double[] window;
+
+	/**
+	 * The window of derivatives.
+	 */
+	private final double[] derivatives;
+
+	/**
+	 * The index of the first sample in the window.
+	 */
+	private long windowStart;
+
+	/**
+	 * The number of samples in the window.
+	 */
+	private int windowCount;
+
+	/**
+	 * The number of samples received.
+	 */
+	private long count;
+
+	/**
+	 * The number of derivatives emitted.
+	 */
+	private long emittedCount;
+
+	/**
+	 * Has the stream been finished?
+	 */
+	private boolean finished;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivative The grid derivative.
+	 */
+	public ChunkedGridDerivative(final GridDerivative derivative)
+	{
+		this(derivative, DEFAULT_SLICE_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param derivative The grid derivative.
+	 * @param sliceSize The slice size, i.e. the number of new samples the
+	 *            window holds.
+	 */
+	public ChunkedGridDerivative(final GridDerivative derivative, final int sliceSize)
+	{
+		if(sliceSize < 1)
+		{
+			throw new IllegalArgumentException("sliceSize");
+		}
+
+		this.derivative = derivative;
+
+		// one-sided stencils at the start read forward as far as interior
+		// stencils; wait for those, too.
+		int oneSidedLength = derivative.getFiniteDifference().getDerivativeOrder() + derivative.getFiniteDifference().getErrorOrder();
+		this.latency = Math.max(derivative.getRightHalo(), oneSidedLength - 1);
+		this.history = derivative.getMinimumLength();
+
+		this.window = new double[history + latency + sliceSize];
+		this.derivatives = new double[window.length];
+	}
+
+	/**
+	 * Get the grid derivative.
+	 * 
+	 * @return The grid derivative.
+	 */
+	public GridDerivative getGridDerivative()
+	{
+		return derivative;
+	}
+
+	/**
+	 * Get the latency, i.e. the number of samples that must arrive after a
+	 * sample before its derivative is emitted.
+	 * 
+	 * @return The latency.
+	 */
+	public int getLatency()
+	{
+		return latency;
+	}
+
+	/**
+	 * Get the number of samples received.
+	 * 
+	 * @return The count.
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Get the number of derivatives emitted.
+	 * 
+	 * @return The count.
+	 */
+	public long getEmittedCount()
+	{
+		return emittedCount;
+	}
+
+	/**
+	 * Process a chunk of samples.
+	 * 
+	 * @param chunk The samples.
+	 * @param offset The offset of the first sample.
+	 * @param length The number of samples.
+	 * @param output The derivatives, with room for at least
+	 *            <code>length</code> values.
+	 * @param outputOffset The offset of the first derivative.
+	 * @return The number of derivatives emitted.
+	 * @throws IllegalStateException If the stream has been finished.
+	 */
+	public int process(final double[] chunk, final int offset, final int length, final double[] output, final int outputOffset)
+	{
+		if(finished)
+		{
+			throw new IllegalStateException("finished");
+		}
+
+		int emitted = 0;
+		int remaining = length;
+		int next = offset;
+
+		while(remaining > 0)
+		{
+			int slice = Math.min(remaining, window.length - windowCount);
+			System.arraycopy(chunk, next, window, windowCount, slice);
+
+			windowCount += slice;
+			count += slice;
+			next += slice;
+			remaining -= slice;
+
+			// the end of the stream is unknown, so nothing is at the end yet.
+			emitted += emit(count - latency, Long.MAX_VALUE, output, outputOffset + emitted);
+			compact();
+		}
+
+		return emitted;
+	}
+
+	/**
+	 * Finish the stream, emitting the remaining derivatives.
+	 * 
+	 * @param output The derivatives, with room for at least
+	 *            {@linkplain #getLatency() latency} values.
+	 * @param outputOffset The offset of the first derivative.
+	 * @return The number of derivatives emitted.
+	 * @throws IllegalStateException If the stream has already been finished,
+	 *             or is shorter than the grid derivative's minimum length.
+	 */
+	public int finish(final double[] output, final int outputOffset)
+	{
+		if(finished || (count < derivative.getMinimumLength()))
+		{
+			throw new IllegalStateException("count");
+		}
+
+		finished = true;
+
+		return emit(count, count, output, outputOffset);
+	}
+
+	/**
+	 * Forget all samples, and start a new stream.
+	 */
+	public void reset()
+	{
+		windowStart = 0;
+		windowCount = 0;
+		count = 0;
+		emittedCount = 0;
+		finished = false;
+	}
+
+	/**
+	 * Emit the derivatives up to the specified sample.
+	 * 
+	 * @param end The last sample, exclusive.
+	 * @param length The grid length to assume; samples within the right halo
+	 *            of its end use one-sided stencils.
+	 * @param output The derivatives.
+	 * @param outputOffset The offset of the first derivative.
+	 * @return The number of derivatives emitted.
+	 */
+	private int emit(final long end, final long length, final double[] output, final int outputOffset)
+	{
+		if(end <= emittedCount)
+		{
+			return 0;
+		}
+
+		int from = (int)(emittedCount - windowStart);
+		int to = (int)(end - windowStart);
+		derivative.differentiate(window, windowStart, length, derivatives, from, to);
+		System.arraycopy(derivatives, from, output, outputOffset, to - from);
+
+		emittedCount = end;
+
+		return to - from;
+	}
+
+	/**
+	 * Discard samples that no future stencil reads.
+	 */
+	private void compact()
+	{
+		long keepFrom = Math.max(windowStart, emittedCount - history);
+		int discard = (int)(keepFrom - windowStart);
+		if(discard == 0)
+		{
+			return;
+		}
+
+		windowCount -= discard;
+		System.arraycopy(window, discard, window, 0, windowCount);
+		windowStart = keepFrom;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("ChunkedGridDerivative [derivative=");
+		builder.append(derivative);
+		builder.append(", latency=");
+		builder.append(latency);
+		builder.append(", count=");
+		builder.append(count);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,340 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.stream;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.kernel.StencilKernel;
+import com.chupacadabra.finitedifference.kernel.StencilKernelFactory;
+import com.chupacadabra.finitedifference.kernel.StencilScale;
+
+/**
+ * Sliding-window derivative of a stream of samples on a uniform grid.
+ * <p>
+ * Samples are kept in a primitive ring buffer, and derivatives at the latest
+ * sample use {@link FiniteDifferenceType#BACKWARD} stencils, in
+ * <code>O(stencil length)</code> time and with no allocation. Once enough
+ * later samples have arrived, a more accurate, {@link FiniteDifferenceType#CENTRAL}
+ * estimate is available for a slightly older, delayed sample.
+ * <p>
+ * Every sample is written twice, <code>capacity</code> apart, so the most
+ * recent samples are always contiguous in the buffer and the stencil kernels
+ * can read them directly.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class StreamingDerivative
+{
+
+	/**
+	 * The grid width.
+	 */
+	private final double gridWidth;
+
+	/**
+	 * The maximum derivative order.
+	 */
+	private final int maximumDerivativeOrder;
+
+	/**
+	 * The error order.
+	 */
+	private final int errorOrder;
+
+	/**
+	 * Backward kernels, indexed by derivative order.
+	 */
+	private final StencilKernel[] backwardKernels;
+
+	/**
+	 * Central kernels, indexed by derivative order.
+	 */
+	private final StencilKernel[] centralKernels;
+
+	/**
+	 * The scales of weighted sums, indexed by derivative order.
+	 */
+	private final StencilScale[] scales;
+
+	/**
+	 * The ring buffer capacity.
+	 */
+	private final int capacity;
+
+	/**
+	 * The (doubled) ring buffer.
+	 */
+	private final double[] buffer;
+
+	/**
+	 * The number of samples pushed.
+	 */
+	private long count;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param gridWidth The grid width, i.e. the sample spacing.
+	 * @param maximumDerivativeOrder The maximum derivative order.
+	 * @param errorOrder The error order.
+	 */
+	public StreamingDerivative(final double gridWidth, final int maximumDerivativeOrder, final int errorOrder)
+	{
+		if(!(gridWidth > 0) || Double.isInfinite(gridWidth))
+		{
+			throw new IllegalArgumentException("gridWidth");
+		}
+
+		if(maximumDerivativeOrder < 1)
+		{
+			throw new IllegalArgumentException("maximumDerivativeOrder");
+		}
+
+		if(errorOrder < 1)
+		{
+			throw new IllegalArgumentException("errorOrder");
+		}
+
+		this.gridWidth = gridWidth;
+		this.maximumDerivativeOrder = maximumDerivativeOrder;
+		this.errorOrder = errorOrder;
+
+		backwardKernels = new StencilKernel[maximumDerivativeOrder + 1];
+		centralKernels = new StencilKernel[maximumDerivativeOrder + 1];
+		scales = new StencilScale[maximumDerivativeOrder + 1];
+
+		int maximumLength = 1;
+		for(int order = 1; order <= maximumDerivativeOrder; order++)
+		{
+			FiniteDifference backward = new FiniteDifference(FiniteDifferenceType.BACKWARD, order, errorOrder);
+			FiniteDifference central = new FiniteDifference(FiniteDifferenceType.CENTRAL, order, errorOrder);
+
+			backwardKernels[order] = StencilKernelFactory.getKernel(backward);
+			centralKernels[order] = StencilKernelFactory.getKernel(central);
+			scales[order] = new StencilScale(order, gridWidth);
+
+			maximumLength = Math.max(maximumLength, Math.max(backward.getLength(), central.getLength()));
+		}
+
+		this.capacity = maximumLength;
+		this.buffer = new double[2 * capacity];
+	}
+
+	/**
+	 * Get the grid width.
+	 * 
+	 * @return The grid width.
+	 */
+	public double getGridWidth()
+	{
+		return gridWidth;
+	}
+
+	/**
+	 * Get the maximum derivative order.
+	 * 
+	 * @return The maximum derivative order.
+	 */
+	public int getMaximumDerivativeOrder()
+	{
+		return maximumDerivativeOrder;
+	}
+
+	/**
+	 * Get the error order.
+	 * 
+	 * @return The error order.
+	 */
+	public int getErrorOrder()
+	{
+		return errorOrder;
+	}
+
+	/**
+	 * Get the number of samples pushed.
+	 * 
+	 * @return The count.
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Push a sample.
+	 * 
+	 * @param value The sample.
+	 */
+	public void push(final double value)
+	{
+		int index = (int)(count % capacity);
+		buffer[index] = value;
+		buffer[index + capacity] = value;
+		count += 1;
+	}
+
+	/**
+	 * Forget all samples.
+	 */
+	public void reset()
+	{
+		count = 0;
+	}
+
+	/**
+	 * Have enough samples been pushed for a derivative of the specified order
+	 * at the latest sample?
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return <code>true</code> if the derivative is available; and
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isReady(final int derivativeOrder)
+	{
+		return count >= backwardKernels[checkOrder(derivativeOrder)].getFiniteDifference().getLength();
+	}
+
+	/**
+	 * Get the derivative at the latest sample.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return The derivative.
+	 * @throws IllegalStateException If too few samples have been pushed.
+	 */
+	public double getDerivative(final int derivativeOrder)
+	{
+		if(!isReady(derivativeOrder))
+		{
+			throw new IllegalStateException("count");
+		}
+
+		StencilKernel kernel = backwardKernels[derivativeOrder];
+		int center = getBufferIndex(count - 1, kernel);
+
+		return scales[derivativeOrder].scale(kernel.getWeightedSum(buffer, center));
+	}
+
+	/**
+	 * Get the delay, in samples, of the central estimate of the specified
+	 * order.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return The delay.
+	 */
+	public int getCentralDelay(final int derivativeOrder)
+	{
+		return centralKernels[checkOrder(derivativeOrder)].getFiniteDifference().getRightMultiplier();
+	}
+
+	/**
+	 * Have enough samples been pushed for a central estimate of the specified
+	 * order?
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return <code>true</code> if the estimate is available; and
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isCentralReady(final int derivativeOrder)
+	{
+		return count >= centralKernels[checkOrder(derivativeOrder)].getFiniteDifference().getLength();
+	}
+
+	/**
+	 * Get the central estimate of the derivative at the sample
+	 * {@linkplain #getCentralDelay(int) delay} samples before the latest.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return The derivative.
+	 * @throws IllegalStateException If too few samples have been pushed.
+	 */
+	public double getCentralDerivative(final int derivativeOrder)
+	{
+		if(!isCentralReady(derivativeOrder))
+		{
+			throw new IllegalStateException("count");
+		}
+
+		StencilKernel kernel = centralKernels[derivativeOrder];
+		int delay = kernel.getFiniteDifference().getRightMultiplier();
+		int center = getBufferIndex(count - 1 - delay, kernel);
+
+		return scales[derivativeOrder].scale(kernel.getWeightedSum(buffer, center));
+	}
+
+	/**
+	 * Get the buffer index of the specified sample, chosen so that the
+	 * specified kernel's stencil around it lies within the buffer.
+	 * 
+	 * @param sample The sample number.
+	 * @param kernel The kernel.
+	 * @return The buffer index.
+	 */
+	private int getBufferIndex(final long sample, final StencilKernel kernel)
+	{
+		int index = (int)(sample % capacity);
+		if((index + kernel.getFiniteDifference().getLeftMultiplier()) < 0)
+		{
+			index += capacity;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Check the specified derivative order.
+	 * 
+	 * @param derivativeOrder The derivative order.
+	 * @return The derivative order.
+	 */
+	private int checkOrder(final int derivativeOrder)
+	{
+		if((derivativeOrder < 1) || (derivativeOrder > maximumDerivativeOrder))
+		{
+			throw new IllegalArgumentException("derivativeOrder");
+		}
+
+		return derivativeOrder;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("StreamingDerivative [gridWidth=");
+		builder.append(gridWidth);
+		builder.append(", maximumDerivativeOrder=");
+		builder.append(maximumDerivativeOrder);
+		builder.append(", errorOrder=");
+		builder.append(errorOrder);
+		builder.append(", count=");
+		builder.append(count);
+		builder.append("]");
+
+		return builder.toString();
+	}
+
+}
@@ -1,57 +0,0 @@
-/*  
- * $Id$  
- *   
- * Copyright (c) 2012-2014 Fran Lattanzio  
- *   
- * Permission is hereby granted, free of charge, to any person obtaining a copy 
- * of this software and associated documentation files (the "Software"), to deal  
- * in the Software without restriction, including without limitation the rights  
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell  
- * copies of the Software, and to permit persons to whom the Software is  
- * furnished to do so, subject to the following conditions:  
- *   
- * The above copyright notice and this permission notice shall be included in  
- * all copies or substantial portions of the Software.  
- *   
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR  
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,  
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE  
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER  
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,  
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE  
- * SOFTWARE.  
- */ 
-package com.chupacadabra.finitedifference.util;
-
-/**
- * Computes the dot product.
- */
-public final class DotProduct
-{
-	
-	/**
-	 * Compute the dot product of the specified vectors,
-	 * 
-	 * @param a The first vector.
-	 * @param b The second vector. 
-	 * @return <code>a * b</code>
-	 */
-	public static double of(final double[] a, final double[] b)
-	{
-		double value = 0;
-		for(int index = 0; index < a.length; index++)
-		{
-			value += a[index] * b[index];
-		}
-		
-		return value;		
-	}
-
-	/**
-	 * Constructor.
-	 */
-	private DotProduct()
-	{
-	}
-	
-}
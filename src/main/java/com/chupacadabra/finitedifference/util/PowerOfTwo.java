@@ -58,6 +58,25 @@ public final class PowerOfTwo
 		return powerOfTwo;
 	}
 
+	/**
+	 * Is the specified value a (positive, normal) power of two?
+	 * 
+	 * @param value The value.
+	 * @return <code>true</code> if the value is a power of two; and
+	 *         <code>false</code> otherwise.
+	 */
+	public static boolean isPowerOfTwo(final double value)
+	{
+		if(!(value >= Double.MIN_NORMAL) || Double.isInfinite(value))
+		{
+			return false;
+		}
+
+		long bits = Double.doubleToLongBits(value);
+
+		return ((bits & ~MASK) == 0);
+	}
+
 	/**
 	 * Constructor.
 	 */
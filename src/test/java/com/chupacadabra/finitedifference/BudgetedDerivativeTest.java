@@ -0,0 +1,132 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+import com.chupacadabra.finitedifference.function.Exp;
+
+/**
+ * Budgeted derivative tests.
+ */
+public final class BudgetedDerivativeTest
+{
+
+	/**
+	 * The default plans.
+	 */
+	private static final List<DerivativePlan> PLANS = DerivativePlan.getDefaultPlans(1);
+
+	/**
+	 * An unlimited budget uses the most accurate plan.
+	 */
+	@Test
+	public void unlimited()
+	{
+		BudgetedDerivative derivative = new BudgetedDerivative(new Exp(), 1);
+		BudgetedDerivativeResult result = derivative.getResult(1, new DerivativeBudget(Integer.MAX_VALUE));
+
+		Assert.assertSame(PLANS.get(0).getBandwidthFunction().getClass(), result.getPlan().getBandwidthFunction().getClass());
+		Assert.assertEquals(8, result.getPlan().getFiniteDifference().getErrorOrder());
+		Assert.assertTrue(result.isWithinBudget());
+		Assert.assertTrue(result.getEvaluationCount() <= result.getPlan().getEstimatedEvaluations());
+		Assert.assertEquals(Math.E, result.getValue(), 1e-10);
+	}
+
+	/**
+	 * Evaluation budgets are respected.
+	 */
+	@Test
+	public void evaluationBudget()
+	{
+		BudgetedDerivative derivative = new BudgetedDerivative(new Exp(), 1);
+
+		for(int maximumEvaluations = 2; maximumEvaluations <= 40; maximumEvaluations++)
+		{
+			BudgetedDerivativeResult result = derivative.getResult(1, new DerivativeBudget(maximumEvaluations));
+
+			Assert.assertTrue(result.isWithinBudget());
+			Assert.assertTrue(result.getEvaluationCount() <= maximumEvaluations);
+			Assert.assertEquals(Math.E, result.getValue(), 1e-6);
+		}
+
+		// 10 evaluations buy an eighth-order stencil with a rule-of-thumb width.
+		BudgetedDerivativeResult result = derivative.getResult(1, new DerivativeBudget(10));
+		Assert.assertEquals(8, result.getPlan().getFiniteDifference().getErrorOrder());
+		Assert.assertEquals(Math.E, result.getValue(), 1e-12);
+	}
+
+	/**
+	 * An impossible budget degrades to the cheapest plan.
+	 */
+	@Test
+	public void impossible()
+	{
+		BudgetedDerivative derivative = new BudgetedDerivative(new Exp(), 1);
+
+		BudgetedDerivativeResult result = derivative.getResult(1, new DerivativeBudget(1));
+		Assert.assertFalse(result.isWithinBudget());
+		Assert.assertEquals(FiniteDifferenceType.FORWARD, result.getPlan().getFiniteDifference().getFiniteDifferenceType());
+		Assert.assertEquals(Math.E, result.getValue(), 1e-6);
+
+		result = derivative.getResult(1, DerivativeBudget.withDeadline(System.nanoTime() - 1000));
+		Assert.assertFalse(result.isWithinBudget());
+		Assert.assertEquals(FiniteDifferenceType.FORWARD, result.getPlan().getFiniteDifference().getFiniteDifferenceType());
+	}
+
+	/**
+	 * A generous deadline uses the most accurate plan.
+	 */
+	@Test
+	public void generousDeadline()
+	{
+		BudgetedDerivative derivative = new BudgetedDerivative(new Exp(), 1);
+		BudgetedDerivativeResult result = derivative.getResult(1, DerivativeBudget.withTimeLimit(1000000000L));
+
+		Assert.assertTrue(result.isWithinBudget());
+		Assert.assertSame(PLANS.get(0).getBandwidthFunction().getClass(), result.getPlan().getBandwidthFunction().getClass());
+		Assert.assertEquals(8, result.getPlan().getFiniteDifference().getErrorOrder());
+	}
+
+	/**
+	 * Only plans that evaluate the point itself can reuse the timed
+	 * evaluation.
+	 */
+	@Test
+	public void pointEvaluated()
+	{
+		Assert.assertTrue(PLANS.get(0).isPointEvaluated());
+		Assert.assertFalse(PLANS.get(2).isPointEvaluated());
+		Assert.assertTrue(PLANS.get(PLANS.size() - 1).isPointEvaluated());
+
+		UnivariateBandwidth bandwidth = PLANS.get(2).getBandwidthFunction();
+		Assert.assertTrue(new DerivativePlan(new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 2), bandwidth).isPointEvaluated());
+		Assert.assertTrue(new DerivativePlan(new FiniteDifference(FiniteDifferenceType.BACKWARD, 1, 1), bandwidth).isPointEvaluated());
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.bandwidth.MathurApproximatelyOptimalUnivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumbUnivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+
+/**
+ * Directional derivative tests, using
+ * <code>F(x, y, z) = e<sup>x</sup>sin(y) + xz<sup>2</sup></code>.
+ */
+public final class DirectionalDerivativeFunctionTest
+{
+
+	/**
+	 * Rule-of-thumb bandwidth.
+	 */
+	@Test
+	public void ruleOfThumb()
+	{
+		testCore(new RuleOfThumbUnivariateBandwidth(), 1e-9);
+	}
+
+	/**
+	 * Mathur bandwidth.
+	 */
+	@Test
+	public void mathur()
+	{
+		testCore(new MathurApproximatelyOptimalUnivariateBandwidth(), 1e-9);
+	}
+
+	/**
+	 * Core tester.
+	 * 
+	 * @param bandwidth The bandwidth.
+	 * @param tolerance The relative tolerance.
+	 */
+	private static void testCore(final UnivariateBandwidth bandwidth, final double tolerance)
+	{
+		MultivariateFunction function = new MultivariateFunction()
+		{
+			@Override
+			public double value(final double... x)
+			{
+				return (Math.exp(x[0]) * Math.sin(x[1])) + (x[0] * x[2] * x[2]);
+			}
+		};
+
+		double[] v = { 0.25, -2, 10 };
+		DirectionalDerivativeFunction derivative = new DirectionalDerivativeFunction(function, v, bandwidth, FiniteDifference.FIVE_POINT_CENTRAL);
+
+		double[][] points = { { 0, 0, 0 }, { 1, 2, 3 }, { -3, 100, 0.5 } };
+		for(double[] x : points)
+		{
+			double[] gradient = {
+					(Math.exp(x[0]) * Math.sin(x[1])) + (x[2] * x[2]),
+					Math.exp(x[0]) * Math.cos(x[1]),
+					2 * x[0] * x[2]
+			};
+
+			double expected = 0;
+			for(int index = 0; index < v.length; index++)
+			{
+				expected += gradient[index] * v[index];
+			}
+
+			Assert.assertEquals(expected, derivative.value(x), tolerance * Math.max(1, Math.abs(expected)));
+		}
+	}
+
+}
@@ -71,6 +71,17 @@ public final class FiniteDifferenceCoefficientGeneratorTest
 		testCore(finiteDifference, -0.5, 0, 0.5);
 	}
 
+	/**
+	 * Backward stencils.
+	 */
+	@Test
+	public void backward()
+	{
+		testCore(new FiniteDifference(FiniteDifferenceType.BACKWARD, 1, 1), -1, 1);
+		testCore(new FiniteDifference(FiniteDifferenceType.BACKWARD, 1, 2), 0.5, -2, 1.5);
+		testCore(new FiniteDifference(FiniteDifferenceType.BACKWARD, 2, 1), 1, -2, 1);
+	}
+
 	/**
 	 * Core tester.
 	 *  
@@ -0,0 +1,181 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Matrix-free Jacobian- and Hessian-vector product tests.
+ */
+public final class FiniteDifferenceJacobianVectorProductTest
+{
+
+	/**
+	 * Central Jacobian-vector product.
+	 */
+	@Test
+	public void centralJacobian()
+	{
+		testJacobian(FiniteDifference.FIVE_POINT_CENTRAL, 1e-9);
+	}
+
+	/**
+	 * Forward Jacobian-vector product.
+	 */
+	@Test
+	public void forwardJacobian()
+	{
+		testJacobian(FiniteDifference.TWO_POINT_FORWARD, 1e-6);
+	}
+
+	/**
+	 * Hessian-vector product of <code>f(x) = &Sigma; x<sub>i</sub><sup>3</sup></code>.
+	 */
+	@Test
+	public void hessian()
+	{
+		GradientFunction gradient = new GradientFunction()
+		{
+			@Override
+			public double[] value(final double... x)
+			{
+				double[] value = new double[x.length];
+				for(int index = 0; index < x.length; index++)
+				{
+					value[index] = 3 * x[index] * x[index];
+				}
+
+				return value;
+			}
+		};
+
+		FiniteDifferenceHessianVectorProduct product = new FiniteDifferenceHessianVectorProduct(gradient, 3, FiniteDifference.THREE_POINT_CENTRAL);
+
+		double[] x = { 1, -2, 3 };
+		double[] v = { 1e3, 1e-3, -5 };
+		double[] y = new double[3];
+
+		product.setPoint(x);
+		product.multiply(v, y);
+
+		for(int index = 0; index < x.length; index++)
+		{
+			double expected = 6 * x[index] * v[index];
+			Assert.assertEquals(expected, y[index], 1e-7 * Math.max(1, Math.abs(expected)));
+		}
+	}
+
+	/**
+	 * In-place Hessian-vector product of
+	 * <code>f(x) = &Sigma; x<sub>i</sub><sup>3</sup></code>.
+	 */
+	@Test
+	public void inPlaceHessian()
+	{
+		VectorFunction gradient = new VectorFunction()
+		{
+			@Override
+			public void value(final double[] x, final double[] y)
+			{
+				for(int index = 0; index < x.length; index++)
+				{
+					y[index] = 3 * x[index] * x[index];
+				}
+			}
+		};
+
+		FiniteDifferenceHessianVectorProduct product = new FiniteDifferenceHessianVectorProduct(gradient, 2, FiniteDifference.THREE_POINT_CENTRAL);
+
+		double[] x = { 1, -2 };
+		double[] v = { 2, 0.5 };
+		double[] y = new double[2];
+
+		product.setPoint(x);
+		product.multiply(v, y);
+
+		for(int index = 0; index < x.length; index++)
+		{
+			Assert.assertEquals(6 * x[index] * v[index], y[index], 1e-7);
+		}
+	}
+
+	/**
+	 * A product requires a point.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void pointNotSet()
+	{
+		VectorFunction function = new VectorFunction()
+		{
+			@Override
+			public void value(final double[] x, final double[] y)
+			{
+				y[0] = x[0];
+			}
+		};
+
+		new FiniteDifferenceJacobianVectorProduct(function, 1, 1, FiniteDifference.THREE_POINT_CENTRAL).multiply(new double[] { 1 }, new double[1]);
+	}
+
+	/**
+	 * Test a Jacobian-vector product of
+	 * <code>F(x, y) = (x<sup>2</sup>y, sin(x) + y)</code>.
+	 * 
+	 * @param finiteDifference The finite difference.
+	 * @param tolerance The relative tolerance.
+	 */
+	private static void testJacobian(final FiniteDifference finiteDifference, final double tolerance)
+	{
+		VectorFunction function = new VectorFunction()
+		{
+			@Override
+			public void value(final double[] x, final double[] y)
+			{
+				y[0] = x[0] * x[0] * x[1];
+				y[1] = Math.sin(x[0]) + x[1];
+			}
+		};
+
+		FiniteDifferenceJacobianVectorProduct product = new FiniteDifferenceJacobianVectorProduct(function, 2, 2, finiteDifference);
+
+		double[] x = { 0.5, 2 };
+		double[] v = { 3, -1 };
+		double[] y = new double[2];
+
+		product.setPoint(x);
+		product.multiply(v, y);
+
+		double[] expected = {
+				(2 * x[0] * x[1] * v[0]) + (x[0] * x[0] * v[1]),
+				(Math.cos(x[0]) * v[0]) + v[1]
+		};
+
+		for(int index = 0; index < expected.length; index++)
+		{
+			Assert.assertEquals(expected[index], y[index], tolerance * Math.abs(expected[index]));
+		}
+	}
+
+}
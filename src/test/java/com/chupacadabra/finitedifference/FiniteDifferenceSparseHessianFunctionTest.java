@@ -0,0 +1,204 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.matrix.SparseSymmetricMatrix;
+import com.chupacadabra.finitedifference.matrix.SparsityPattern;
+
+/**
+ * Sparse finite difference Hessian tests.
+ * <p>
+ * The test function is
+ * <code>f(x) = &Sigma; x<sub>i</sub><sup>2</sup>x<sub>i+1</sub> + e<sup>x<sub>0</sub></sup>&Sigma;<sub>i&gt;0</sub> x<sub>i</sub></code>,
+ * whose Hessian is tridiagonal plus a dense first row and column.
+ */
+public final class FiniteDifferenceSparseHessianFunctionTest
+{
+
+	/**
+	 * The dimension.
+	 */
+	private static final int DIMENSION = 40;
+
+	/**
+	 * Gradient differences.
+	 */
+	@Test
+	public void gradientDifferences()
+	{
+		FiniteDifferenceSparseHessianFunction hessian = new FiniteDifferenceSparseHessianFunction(
+				new TestGradient(), getPattern(), FiniteDifference.FIVE_POINT_CENTRAL);
+
+		Assert.assertTrue(hessian.getColorCount() <= 5);
+		testCore(hessian, 1e-7);
+	}
+
+	/**
+	 * Direct second differences.
+	 */
+	@Test
+	public void secondDifferences()
+	{
+		FiniteDifferenceSparseHessianFunction hessian = new FiniteDifferenceSparseHessianFunction(
+				new TestFunction(), getPattern(), FiniteDifference.FIVE_POINT_CENTRAL);
+
+		testCore(hessian, 1e-5);
+	}
+
+	/**
+	 * Core tester.
+	 * 
+	 * @param hessian The Hessian function.
+	 * @param tolerance The absolute error tolerance.
+	 */
+	private static void testCore(final FiniteDifferenceSparseHessianFunction hessian, final double tolerance)
+	{
+		double[] x = new double[DIMENSION];
+		for(int index = 0; index < x.length; index++)
+		{
+			x[index] = Math.sin(index + 1);
+		}
+
+		SparseSymmetricMatrix matrix = hessian.value(x);
+		double[][] expected = getHessian(x);
+		double[][] actual = matrix.toArray();
+
+		for(int row = 0; row < DIMENSION; row++)
+		{
+			Assert.assertArrayEquals(expected[row], actual[row], tolerance);
+		}
+	}
+
+	/**
+	 * Get the sparsity pattern.
+	 * 
+	 * @return The pattern.
+	 */
+	private static SparsityPattern getPattern()
+	{
+		int[][] pattern = new int[DIMENSION][];
+		pattern[0] = new int[0];
+		for(int row = 1; row < DIMENSION; row++)
+		{
+			pattern[row] = new int[] { 0, row - 1 };
+		}
+
+		return new SparsityPattern(pattern);
+	}
+
+	/**
+	 * Get the analytical Hessian.
+	 * 
+	 * @param x The point.
+	 * @return The Hessian.
+	 */
+	private static double[][] getHessian(final double[] x)
+	{
+		double[][] hessian = new double[DIMENSION][DIMENSION];
+		double exp = Math.exp(x[0]);
+
+		for(int index = 0; index < DIMENSION - 1; index++)
+		{
+			hessian[index][index] += 2 * x[index + 1];
+			hessian[index][index + 1] += 2 * x[index];
+			hessian[index + 1][index] += 2 * x[index];
+		}
+
+		for(int index = 1; index < DIMENSION; index++)
+		{
+			hessian[0][0] += exp * x[index];
+			hessian[0][index] += exp;
+			hessian[index][0] += exp;
+		}
+
+		return hessian;
+	}
+
+	/**
+	 * Test function.
+	 */
+	private static final class TestFunction
+		implements MultivariateFunction
+	{
+
+		/**
+		 * @see com.chupacadabra.finitedifference.MultivariateFunction#value(double[])
+		 */
+		@Override
+		public double value(final double... x)
+		{
+			double value = 0;
+			for(int index = 0; index < x.length - 1; index++)
+			{
+				value += x[index] * x[index] * x[index + 1];
+			}
+
+			double sum = 0;
+			for(int index = 1; index < x.length; index++)
+			{
+				sum += x[index];
+			}
+
+			return value + (Math.exp(x[0]) * sum);
+		}
+
+	}
+
+	/**
+	 * Analytical gradient of the test function.
+	 */
+	private static final class TestGradient
+		implements GradientFunction
+	{
+
+		/**
+		 * @see com.chupacadabra.finitedifference.GradientFunction#value(double[])
+		 */
+		@Override
+		public double[] value(final double... x)
+		{
+			double[] gradient = new double[x.length];
+			double exp = Math.exp(x[0]);
+
+			for(int index = 0; index < x.length - 1; index++)
+			{
+				gradient[index] += 2 * x[index] * x[index + 1];
+				gradient[index + 1] += x[index] * x[index];
+			}
+
+			for(int index = 1; index < x.length; index++)
+			{
+				gradient[0] += exp * x[index];
+				gradient[index] += exp;
+			}
+
+			return gradient;
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumbUnivariateBandwidth;
+
+/**
+ * Multi-order finite difference tests.
+ */
+public final class MultiOrderFiniteDifferenceDerivativeFunctionTest
+{
+
+	/**
+	 * Value, first and second derivatives of sine share a single stencil.
+	 */
+	@Test
+	public void valueFirstSecond()
+	{
+		UnivariateFunction sin = new UnivariateFunction()
+		{
+			@Override
+			public double value(final double x)
+			{
+				return Math.sin(x);
+			}
+		};
+
+		MultiOrderFiniteDifferenceDerivativeFunction derivatives = new MultiOrderFiniteDifferenceDerivativeFunction(
+				sin, new RuleOfThumbUnivariateBandwidth(), FiniteDifferenceType.CENTRAL, 4, 0, 1, 2);
+
+		// no more points than the widest stencil alone.
+		Assert.assertEquals(new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 4).getLength(), derivatives.getEvaluationCount());
+
+		for(double x = 0; x <= 4 * Math.PI; x += 0.01)
+		{
+			double[] value = derivatives.value(x);
+
+			Assert.assertEquals(Math.sin(x), value[0], 0);
+			Assert.assertEquals(Math.cos(x), value[1], 1e-6);
+			Assert.assertEquals(-Math.sin(x), value[2], 1e-4);
+		}
+	}
+
+	/**
+	 * Forward differences share their points too; the orders need not be
+	 * sorted.
+	 */
+	@Test
+	public void forward()
+	{
+		UnivariateFunction exp = new UnivariateFunction()
+		{
+			@Override
+			public double value(final double x)
+			{
+				return Math.exp(x);
+			}
+		};
+
+		MultiOrderFiniteDifferenceDerivativeFunction derivatives = new MultiOrderFiniteDifferenceDerivativeFunction(
+				exp, new RuleOfThumbUnivariateBandwidth(), FiniteDifferenceType.FORWARD, 2, 2, 1);
+
+		Assert.assertEquals(4, derivatives.getEvaluationCount());
+
+		for(double x = -5; x <= 5; x += 0.125)
+		{
+			double[] value = derivatives.value(x);
+
+			Assert.assertEquals(Math.exp(x), value[0], 1e-4 * Math.exp(x));
+			Assert.assertEquals(Math.exp(x), value[1], 1e-5 * Math.exp(x));
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.bandwidth.FixedMultivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.MathurApproximatelyOptimalMultivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.MultivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumbMultivariateBandwidth;
+
+/**
+ * Multivariate finite difference derivative tests, using
+ * <code>F(x, y) = e<sup>x</sup>sin(y)</code>.
+ */
+public final class MultivariateFiniteDifferenceDerivativeFunctionTest
+{
+
+	/**
+	 * Mixed partial stencil.
+	 */
+	private static final MultivariateFiniteDifference MIXED = new MultivariateFiniteDifference(
+			FiniteDifference.FIVE_POINT_CENTRAL, 
+			FiniteDifference.FIVE_POINT_CENTRAL);
+
+	/**
+	 * Fixed bandwidth mixed partial.
+	 */
+	@Test
+	public void fixedMixedPartial()
+	{
+		testCore(new FixedMultivariateBandwidth(new double[] { 1d / 256, 1d / 256 }), 1e-7);
+	}
+
+	/**
+	 * Mathur bandwidth mixed partial.
+	 */
+	@Test
+	public void mathurMixedPartial()
+	{
+		testCore(new MathurApproximatelyOptimalMultivariateBandwidth(), 1e-8);
+	}
+
+	/**
+	 * Rule-of-thumb bandwidth mixed partial.
+	 */
+	@Test
+	public void ruleOfThumbMixedPartial()
+	{
+		testCore(new RuleOfThumbMultivariateBandwidth(), 1e-8);
+	}
+
+	/**
+	 * Mathur trial evaluations are shared with the final derivative.
+	 */
+	@Test
+	public void mathurSharesEvaluations()
+	{
+		CountingFunction function = new CountingFunction();
+		MultivariateFunction derivative = new MultivariateFiniteDifferenceDerivativeFunction(
+				function, new MathurApproximatelyOptimalMultivariateBandwidth(), MIXED);
+
+		derivative.value(0.5, 0.25);
+
+		// three trial grids, plus the final grid and the center.
+		int unshared = (4 * MIXED.getCoefficients().length) + 1;
+		Assert.assertTrue(function.count < unshared);
+	}
+
+	/**
+	 * Zero-weight stencil points are not evaluated.
+	 */
+	@Test
+	public void skipsZeroWeights()
+	{
+		CountingFunction function = new CountingFunction();
+		MultivariateFunction derivative = new MultivariateFiniteDifferenceDerivativeFunction(
+				function, new FixedMultivariateBandwidth(new double[] { 1d / 256, 1d / 256 }), MIXED);
+
+		derivative.value(0.5, 0.25);
+
+		// the center row and column of the 5 x 5 tensor are zero.
+		Assert.assertEquals(4 * 4, function.count);
+	}
+
+	/**
+	 * Core tester.
+	 * 
+	 * @param bandwidth The bandwidth.
+	 * @param tolerance The absolute tolerance.
+	 */
+	private static void testCore(final MultivariateBandwidth bandwidth, final double tolerance)
+	{
+		MultivariateFunction derivative = new MultivariateFiniteDifferenceDerivativeFunction(
+				new CountingFunction(), bandwidth, MIXED);
+
+		for(double x = -2; x <= 2; x += 0.25)
+		{
+			for(double y = -3; y <= 3; y += 0.5)
+			{
+				double expected = Math.exp(x) * Math.cos(y);
+				Assert.assertEquals(expected, derivative.value(x, y), tolerance * Math.max(1, Math.abs(expected)));
+			}
+		}
+	}
+
+	/**
+	 * Counts evaluations.
+	 */
+	private static final class CountingFunction
+		implements MultivariateFunction
+	{
+
+		/**
+		 * Evaluation count.
+		 */
+		private int count;
+
+		/**
+		 * @see com.chupacadabra.finitedifference.MultivariateFunction#value(double[])
+		 */
+		@Override
+		public double value(final double... x)
+		{
+			count += 1;
+
+			return Math.exp(x[0]) * Math.sin(x[1]);
+		}
+
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.bandwidth.FixedUnivariateBandwidth;
+import com.chupacadabra.finitedifference.function.Cosine;
+import com.chupacadabra.finitedifference.function.Exp;
+import com.chupacadabra.finitedifference.function.Sine;
+
+/**
+ * Richardson extrapolation derivative tests.
+ */
+public final class RichardsonExtrapolationDerivativeFunctionTest
+{
+
+	/**
+	 * First-order sine.
+	 */
+	@Test
+	public void firstOrderSin()
+	{
+		CountingFunction sin = new CountingFunction(new Sine());
+		UnivariateFunction cos = new Cosine();
+
+		RichardsonExtrapolationDerivativeFunction derivative = new RichardsonExtrapolationDerivativeFunction(
+				sin, new FixedUnivariateBandwidth(0.25), FiniteDifference.THREE_POINT_CENTRAL);
+
+		int points = 0;
+		for(double x = 0; x <= 4 * Math.PI; x += 0.01)
+		{
+			Assert.assertEquals(cos.value(x), derivative.value(x), 1e-13);
+			points += 1;
+		}
+
+		// a 9-point, 8th-order central stencil is accurate to only ~1e-8 here.
+		Assert.assertTrue(sin.count <= 11 * points);
+	}
+
+	/**
+	 * First order exponential, using a forward difference.
+	 */
+	@Test
+	public void firstOrderExpForward()
+	{
+		UnivariateFunction exp = new Exp();
+
+		RichardsonExtrapolationDerivativeFunction derivative = new RichardsonExtrapolationDerivativeFunction(
+				exp, new FixedUnivariateBandwidth(0.25), FiniteDifference.TWO_POINT_FORWARD);
+
+		for(double x = -10; x <= 10; x += 0.125)
+		{
+			double expected = exp.value(x);
+			Assert.assertEquals(expected, derivative.value(x), 1e-10 * expected);
+		}
+	}
+
+	/**
+	 * Second order exponential.
+	 */
+	@Test
+	public void secondOrderExp()
+	{
+		UnivariateFunction exp = new Exp();
+		FiniteDifference finiteDifference = new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 2);
+
+		RichardsonExtrapolationDerivativeFunction derivative = new RichardsonExtrapolationDerivativeFunction(
+				exp, new FixedUnivariateBandwidth(0.5), finiteDifference);
+
+		for(double x = -10; x <= 10; x += 0.125)
+		{
+			double expected = exp.value(x);
+			Assert.assertEquals(expected, derivative.value(x), 1e-9 * expected);
+		}
+	}
+
+	/**
+	 * Stencil points are shared between levels.
+	 */
+	@Test
+	public void sharedPoints()
+	{
+		CountingFunction exp = new CountingFunction(new Exp());
+
+		// no early termination.
+		RichardsonExtrapolationDerivativeFunction derivative = new RichardsonExtrapolationDerivativeFunction(
+				exp, new FixedUnivariateBandwidth(1), FiniteDifference.FIVE_POINT_CENTRAL, 3, 0);
+
+		derivative.value(1);
+
+		// levels 1, 1/2 and 1/4 have 4 non-zero points each; two points of
+		// each level are shared with the next.
+		Assert.assertEquals(4 + 2 + 2, exp.count);
+	}
+
+	/**
+	 * Function that counts its evaluations.
+	 */
+	private static final class CountingFunction
+		implements UnivariateFunction
+	{
+
+		/**
+		 * The function.
+		 */
+		private final UnivariateFunction function;
+
+		/**
+		 * The number of evaluations.
+		 */
+		private int count;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param function The function.
+		 */
+		CountingFunction(final UnivariateFunction function)
+		{
+			this.function = function;
+		}
+
+		/**
+		 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+		 */
+		@Override
+		public double value(final double x)
+		{
+			count += 1;
+			return function.value(x);
+		}
+
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.bandwidth.FixedUnivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+import com.chupacadabra.finitedifference.function.Cosine;
+import com.chupacadabra.finitedifference.function.Exp;
+import com.chupacadabra.finitedifference.function.Sine;
+
+/**
+ * Ridders' adaptive derivative tests.
+ */
+public final class RiddersDerivativeFunctionTest
+{
+
+	/**
+	 * First-order sine; the error estimate bounds the actual error, up to
+	 * rounding.
+	 */
+	@Test
+	public void firstOrderSin()
+	{
+		UnivariateFunction cos = new Cosine();
+
+		RiddersDerivativeFunction derivative = new RiddersDerivativeFunction(
+				new Sine(), new FixedUnivariateBandwidth(0.5), FiniteDifference.THREE_POINT_CENTRAL, 0);
+
+		for(double x = 0; x <= 4 * Math.PI; x += 0.01)
+		{
+			DerivativeEstimate estimate = derivative.getEstimate(x);
+			double error = Math.abs(cos.value(x) - estimate.getValue());
+
+			Assert.assertTrue(error < 1e-12);
+			Assert.assertTrue(error <= Math.max(estimate.getError(), 1e-13));
+		}
+	}
+
+	/**
+	 * Second order exponential.
+	 */
+	@Test
+	public void secondOrderExp()
+	{
+		UnivariateFunction exp = new Exp();
+		FiniteDifference finiteDifference = new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 2);
+
+		RiddersDerivativeFunction derivative = new RiddersDerivativeFunction(
+				exp, new FixedUnivariateBandwidth(0.5), finiteDifference, 0);
+
+		for(double x = -10; x <= 10; x += 0.125)
+		{
+			double expected = exp.value(x);
+			Assert.assertEquals(expected, derivative.value(x), 1e-8 * expected);
+		}
+	}
+
+	/**
+	 * A loose tolerance spends fewer evaluations.
+	 */
+	@Test
+	public void earlyTermination()
+	{
+		UnivariateFunction exp = new Exp();
+
+		RiddersDerivativeFunction loose = new RiddersDerivativeFunction(
+				exp, new FixedUnivariateBandwidth(0.5), FiniteDifference.THREE_POINT_CENTRAL, 1e-4);
+		RiddersDerivativeFunction tight = new RiddersDerivativeFunction(
+				exp, new FixedUnivariateBandwidth(0.5), FiniteDifference.THREE_POINT_CENTRAL, 0);
+
+		DerivativeEstimate looseEstimate = loose.getEstimate(1);
+		DerivativeEstimate tightEstimate = tight.getEstimate(1);
+
+		Assert.assertTrue(looseEstimate.getError() <= 1e-4);
+		Assert.assertEquals(Math.E, looseEstimate.getValue(), 1e-4);
+		Assert.assertTrue(looseEstimate.getEvaluationCount() < tightEstimate.getEvaluationCount());
+		Assert.assertEquals(Math.E, tightEstimate.getValue(), 1e-13);
+	}
+
+	/**
+	 * Evaluations made by the bandwidth function are counted.
+	 */
+	@Test
+	public void evaluationCount()
+	{
+		final int[] count = new int[1];
+		UnivariateFunction exp = new UnivariateFunction()
+		{
+			@Override
+			public double value(final double x)
+			{
+				count[0] += 1;
+				return Math.exp(x);
+			}
+		};
+
+		// evaluates the function away from the stencil, like Mathur's.
+		UnivariateBandwidth bandwidth = new UnivariateBandwidth()
+		{
+			@Override
+			public double value(final double x, final FiniteDifference finiteDifference, final UnivariateFunction function)
+			{
+				function.value(x + 3);
+				return 0.5;
+			}
+		};
+
+		RiddersDerivativeFunction derivative = new RiddersDerivativeFunction(
+				exp, bandwidth, FiniteDifference.TWO_POINT_FORWARD, 0);
+
+		DerivativeEstimate estimate = derivative.getEstimate(1);
+
+		Assert.assertEquals(count[0], estimate.getEvaluationCount());
+		Assert.assertEquals(Math.E, estimate.getValue(), 1e-6);
+	}
+
+}
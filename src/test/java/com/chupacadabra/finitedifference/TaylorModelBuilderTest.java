@@ -0,0 +1,145 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Taylor model tests.
+ * <p>
+ * The test function is <code>f(x, y, z) = e<sup>x</sup>sin(y) + xyz + z<sup>3</sup></code>.
+ */
+public final class TaylorModelBuilderTest
+{
+
+	/**
+	 * Second-order model: value, gradient and Hessian.
+	 */
+	@Test
+	public void secondOrder()
+	{
+		CountingFunction function = new CountingFunction();
+		TaylorModel model = new TaylorModelBuilder(function, 2).build(0.5, 1.25, -0.75);
+
+		double x = 0.5;
+		double y = 1.25;
+		double z = -0.75;
+		double ex = Math.exp(x);
+
+		double[] gradient = { ex * Math.sin(y) + y * z, ex * Math.cos(y) + x * z, x * y + 3 * z * z };
+		double[][] hessian = {
+				{ ex * Math.sin(y), ex * Math.cos(y) + z, y },
+				{ ex * Math.cos(y) + z, -ex * Math.sin(y), x },
+				{ y, x, 6 * z }
+		};
+
+		Assert.assertEquals(function.value(x, y, z), model.value(x, y, z), 0);
+		Assert.assertArrayEquals(gradient, model.getGradient(), 1e-6);
+		for(int row = 0; row < 3; row++)
+		{
+			Assert.assertArrayEquals(hessian[row], model.getHessian()[row], 1e-4);
+		}
+
+		Assert.assertEquals(hessian[0][1], model.getDerivative(1, 1, 0), 1e-4);
+
+		// points are shared between the partial derivatives.
+		Assert.assertTrue(function.count < 40);
+	}
+
+	/**
+	 * Third-order model: nearby queries.
+	 */
+	@Test
+	public void thirdOrder()
+	{
+		CountingFunction function = new CountingFunction();
+		TaylorModel model = new TaylorModelBuilder(function, 3).build(0.5, 1.25, -0.75);
+
+		Assert.assertEquals(20, getTermCount(model));
+		Assert.assertEquals(6, model.getDerivative(0, 0, 3), 1e-2);
+		Assert.assertEquals(-Math.exp(0.5) * Math.sin(1.25), model.getDerivative(1, 2, 0), 1e-2);
+		Assert.assertEquals(1, model.getDerivative(1, 1, 1), 1e-2);
+
+		int count = function.count;
+		for(int step = -10; step <= 10; step++)
+		{
+			double d = step * 0.001;
+			double expected = function.value(0.5 + d, 1.25 - d, -0.75 + d);
+			Assert.assertEquals(expected, model.value(0.5 + d, 1.25 - d, -0.75 + d), 1e-6);
+		}
+
+		// the model itself does not evaluate the function.
+		Assert.assertEquals(count + 21, function.count);
+	}
+
+	/**
+	 * Count the terms of a model.
+	 * 
+	 * @param model The model.
+	 * @return The number of terms.
+	 */
+	private static int getTermCount(final TaylorModel model)
+	{
+		int count = 0;
+		for(int i = 0; i <= 3; i++)
+		{
+			for(int j = 0; i + j <= 3; j++)
+			{
+				for(int k = 0; i + j + k <= 3; k++)
+				{
+					model.getDerivative(i, j, k);
+					count += 1;
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Test function that counts its evaluations.
+	 */
+	private static final class CountingFunction
+		implements MultivariateFunction
+	{
+
+		/**
+		 * The number of evaluations.
+		 */
+		private int count;
+
+		/**
+		 * @see com.chupacadabra.finitedifference.MultivariateFunction#value(double[])
+		 */
+		@Override
+		public double value(final double... x)
+		{
+			count += 1;
+			return (Math.exp(x[0]) * Math.sin(x[1])) + (x[0] * x[1] * x[2]) + (x[2] * x[2] * x[2]);
+		}
+
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.chebyshev;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.UnivariateFunction;
+
+/**
+ * Chebyshev surrogate tests.
+ */
+public final class ChebyshevSurrogateTest
+{
+
+	/**
+	 * Derivatives of <code>e<sup>x/4</sup>sin(x)</code> on <code>[0, 10]</code>.
+	 */
+	@Test
+	public void smooth()
+	{
+		CountingFunction function = new CountingFunction();
+		ChebyshevSurrogate surrogate = new ChebyshevSurrogate(function, 0, 10);
+
+		Assert.assertTrue(surrogate.isConverged());
+		Assert.assertEquals(function.count, surrogate.getEvaluationCount());
+		Assert.assertTrue(surrogate.getEvaluationCount() <= 129);
+
+		int count = function.count;
+		for(double x = 0; x <= 10; x += 0.01)
+		{
+			double e = Math.exp(x / 4);
+			double s = Math.sin(x);
+			double c = Math.cos(x);
+
+			double[] expected = {
+					e * s,
+					e * ((s / 4) + c),
+					e * (((-15 * s) / 16) + (c / 2)),
+					e * (((-47 * s) / 64) - ((13 * c) / 16))
+			};
+
+			for(int order = 0; order < expected.length; order++)
+			{
+				double tolerance = Math.max(1e-13 * Math.pow(100, order), surrogate.getEstimatedError(order));
+				Assert.assertEquals(expected[order], surrogate.derivative(x, order), tolerance * Math.exp(2.5));
+			}
+		}
+
+		// queries do not evaluate the function.
+		Assert.assertEquals(count, function.count);
+	}
+
+	/**
+	 * A polynomial is recovered exactly, at the initial degree.
+	 */
+	@Test
+	public void polynomial()
+	{
+		UnivariateFunction cubic = new UnivariateFunction()
+		{
+			@Override
+			public double value(final double x)
+			{
+				return (x * x * x) - (2 * x) + 1;
+			}
+		};
+
+		ChebyshevSurrogate surrogate = new ChebyshevSurrogate(cubic, -2, 3);
+
+		Assert.assertTrue(surrogate.isConverged());
+		Assert.assertEquals(3, surrogate.getDegree());
+		Assert.assertEquals(ChebyshevSurrogate.INITIAL_DEGREE + 1, surrogate.getEvaluationCount());
+		Assert.assertEquals(6, surrogate.derivative(0.7, 3), 1e-12);
+		Assert.assertEquals(0, surrogate.derivative(0.7, 4), 0);
+		Assert.assertEquals((3 * 0.49) - 2, surrogate.derivative(0.7, 1), 1e-13);
+	}
+
+	/**
+	 * A non-smooth function does not converge, and says so.
+	 */
+	@Test
+	public void nonSmooth()
+	{
+		UnivariateFunction abs = new UnivariateFunction()
+		{
+			@Override
+			public double value(final double x)
+			{
+				return Math.abs(x - 0.1);
+			}
+		};
+
+		ChebyshevSurrogate surrogate = new ChebyshevSurrogate(abs, -1, 1, 1e-14, 256);
+
+		Assert.assertFalse(surrogate.isConverged());
+		Assert.assertEquals(256, surrogate.getDegree());
+		Assert.assertEquals(257, surrogate.getEvaluationCount());
+	}
+
+	/**
+	 * A maximum degree below the initial degree is respected.
+	 */
+	@Test
+	public void smallMaximumDegree()
+	{
+		CountingFunction function = new CountingFunction();
+		ChebyshevSurrogate surrogate = new ChebyshevSurrogate(function, 0, 10, 1e-14, 5);
+
+		Assert.assertFalse(surrogate.isConverged());
+		Assert.assertEquals(5, surrogate.getDegree());
+		Assert.assertEquals(6, surrogate.getEvaluationCount());
+		Assert.assertEquals(6, function.count);
+	}
+
+	/**
+	 * A maximum degree below one is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidMaximumDegree()
+	{
+		new ChebyshevSurrogate(new CountingFunction(), 0, 10, 1e-14, 0);
+	}
+
+	/**
+	 * Test function that counts its evaluations.
+	 */
+	private static final class CountingFunction
+		implements UnivariateFunction
+	{
+
+		/**
+		 * The number of evaluations.
+		 */
+		private int count;
+
+		/**
+		 * @see com.chupacadabra.finitedifference.UnivariateFunction#value(double)
+		 */
+		@Override
+		public double value(final double x)
+		{
+			count += 1;
+			return Math.exp(x / 4) * Math.sin(x);
+		}
+
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.complex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Complex-step derivative tests.
+ */
+public final class ComplexStepDerivativeFunctionTest
+{
+
+	/**
+	 * First derivative of <code>e<sup>x</sup>sin(x) / (1 + x<sup>2</sup>)<sup>1/2</sup></code>.
+	 */
+	@Test
+	public void univariate()
+	{
+		ComplexUnivariateFunction function = new ComplexUnivariateFunction()
+		{
+			@Override
+			public Complex value(final Complex z)
+			{
+				return z.exp().multiply(z.sin()).divide(z.pow(2).add(1).sqrt());
+			}
+		};
+
+		ComplexStepDerivativeFunction derivative = new ComplexStepDerivativeFunction(function);
+
+		for(double x = -10; x <= 10; x += 0.125)
+		{
+			double s = Math.sqrt(1 + (x * x));
+			double f = Math.exp(x) * Math.sin(x) / s;
+			double expected = (f + (Math.exp(x) * Math.cos(x) / s)) - (f * x / (s * s));
+
+			Assert.assertEquals(expected, derivative.value(x), 1e-14 * Math.max(1, Math.abs(expected)));
+		}
+	}
+
+	/**
+	 * Gradient of <code>x<sup>2</sup>log(y) + cos(xy)</code>.
+	 */
+	@Test
+	public void gradient()
+	{
+		ComplexMultivariateFunction function = new ComplexMultivariateFunction()
+		{
+			@Override
+			public Complex value(final Complex... z)
+			{
+				return z[0].multiply(z[0]).multiply(z[1].log()).add(z[0].multiply(z[1]).cos());
+			}
+		};
+
+		ComplexStepGradientFunction gradient = new ComplexStepGradientFunction(function);
+
+		double x = 1.5;
+		double y = 0.75;
+		double[] expected = {
+				(2 * x * Math.log(y)) - (y * Math.sin(x * y)),
+				(x * x / y) - (x * Math.sin(x * y))
+		};
+
+		Assert.assertArrayEquals(expected, gradient.value(x, y), 1e-15);
+	}
+
+}
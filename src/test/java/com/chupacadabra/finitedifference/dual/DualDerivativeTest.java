@@ -0,0 +1,348 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.dual;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceGradientFunction;
+import com.chupacadabra.finitedifference.FiniteDifferenceSparseHessianFunction;
+import com.chupacadabra.finitedifference.bandwidth.FixedUnivariateBandwidth;
+import com.chupacadabra.finitedifference.bandwidth.UnivariateBandwidth;
+import com.chupacadabra.finitedifference.matrix.SparsityPattern;
+
+/**
+ * Dual and hyper-dual derivative tests.
+ * <p>
+ * The test function is
+ * <code>f(x) = &Sigma; x<sub>i</sub><sup>2</sup>x<sub>i+1</sub> + e<sup>x<sub>0</sub></sup>&Sigma;<sub>i&gt;0</sub> x<sub>i</sub></code>,
+ * whose Hessian is tridiagonal plus a dense first row and column.
+ */
+public final class DualDerivativeTest
+{
+
+	/**
+	 * The dimension.
+	 */
+	private static final int DIMENSION = 12;
+
+	/**
+	 * The gradient engine uses the dual path and never evaluates the function
+	 * at a real point.
+	 */
+	@Test
+	public void gradient()
+	{
+		TestFunction function = new TestFunction();
+
+		UnivariateBandwidth[] bandwidths = new UnivariateBandwidth[DIMENSION];
+		FiniteDifference[] finiteDifferences = new FiniteDifference[DIMENSION];
+		for(int index = 0; index < DIMENSION; index++)
+		{
+			bandwidths[index] = new FixedUnivariateBandwidth(0x1.0p-10);
+			finiteDifferences[index] = FiniteDifference.FIVE_POINT_CENTRAL;
+		}
+
+		FiniteDifferenceGradientFunction gradient = new FiniteDifferenceGradientFunction(
+				function, bandwidths, finiteDifferences);
+
+		double[] x = getPoint();
+		double[] expected = getGradient(x);
+
+		Assert.assertArrayEquals(expected, gradient.value(x), 1e-14);
+		Assert.assertEquals(0, function.realEvaluations);
+		Assert.assertEquals(1, function.dualEvaluations);
+	}
+
+	/**
+	 * The sparse Hessian engine uses the hyper-dual path.
+	 */
+	@Test
+	public void hessian()
+	{
+		TestFunction function = new TestFunction();
+
+		int[][] pattern = new int[DIMENSION][];
+		pattern[0] = new int[0];
+		for(int row = 1; row < DIMENSION; row++)
+		{
+			pattern[row] = new int[] { 0, row - 1 };
+		}
+
+		FiniteDifferenceSparseHessianFunction hessian = new FiniteDifferenceSparseHessianFunction(
+				function, new SparsityPattern(pattern), FiniteDifference.FIVE_POINT_CENTRAL);
+
+		double[] x = getPoint();
+		double[][] expected = getHessian(x);
+		double[][] actual = hessian.value(x).toArray();
+
+		for(int row = 0; row < DIMENSION; row++)
+		{
+			Assert.assertArrayEquals(expected[row], actual[row], 1e-14);
+		}
+
+		Assert.assertEquals(0, function.realEvaluations);
+	}
+
+	/**
+	 * Elementary functions agree with their analytical derivatives.
+	 */
+	@Test
+	public void elementary()
+	{
+		double x = 0.7;
+		Dual dual = Dual.variable(x, 0, 1);
+		HyperDual hyper = new HyperDual(x, 1, 1, 0);
+
+		// f(x) = sin(x) exp(x) / sqrt(x) + log(x) tan(x).
+		Dual f = dual.sin().multiply(dual.exp()).divide(dual.sqrt()).add(dual.log().multiply(dual.tan()));
+		HyperDual g = hyper.sin().multiply(hyper.exp()).divide(hyper.sqrt()).add(hyper.log().multiply(hyper.tan()));
+
+		double value = (Math.sin(x) * Math.exp(x) / Math.sqrt(x)) + (Math.log(x) * Math.tan(x));
+		double first = getNumericalDerivative(x, 1);
+		double second = getNumericalDerivative(x, 2);
+
+		Assert.assertEquals(value, f.getValue(), 1e-15);
+		Assert.assertEquals(first, f.getDerivatives()[0], 1e-6);
+		Assert.assertEquals(value, g.getReal(), 1e-15);
+		Assert.assertEquals(first, g.getFirst(), 1e-6);
+		Assert.assertEquals(first, g.getSecond(), 1e-6);
+		Assert.assertEquals(second, g.getCross(), 1e-5);
+	}
+
+	/**
+	 * Fractional powers at zero take the limits of their derivatives: infinite
+	 * where the power is not differentiable, and zero otherwise.
+	 */
+	@Test
+	public void powAtZero()
+	{
+		Dual dual = Dual.variable(0, 0, 1);
+		HyperDual hyper = new HyperDual(0, 1, 1, 0);
+
+		Assert.assertEquals(0, dual.pow(0.5).getValue(), 0);
+		Assert.assertEquals(Double.POSITIVE_INFINITY, dual.pow(0.5).getDerivatives()[0], 0);
+		Assert.assertEquals(0, dual.pow(1.5).getValue(), 0);
+		Assert.assertEquals(0, dual.pow(1.5).getDerivatives()[0], 0);
+
+		Assert.assertEquals(0, hyper.pow(0.5).getReal(), 0);
+		Assert.assertEquals(0, hyper.pow(1.5).getReal(), 0);
+		Assert.assertEquals(0, hyper.pow(1.5).getFirst(), 0);
+		Assert.assertEquals(0, hyper.pow(1.5).getSecond(), 0);
+		Assert.assertEquals(Double.POSITIVE_INFINITY, hyper.pow(1.5).getCross(), 0);
+
+		HyperDual pow = hyper.pow(2.5);
+		Assert.assertEquals(0, pow.getReal(), 0);
+		Assert.assertEquals(0, pow.getFirst(), 0);
+		Assert.assertEquals(0, pow.getCross(), 0);
+	}
+
+	/**
+	 * Get a central difference estimate of the derivative of the test
+	 * function used in {@link #elementary()}.
+	 * 
+	 * @param x The point.
+	 * @param order The derivative order, 1 or 2.
+	 * @return The estimate.
+	 */
+	private static double getNumericalDerivative(final double x, final int order)
+	{
+		double h = 0x1.0p-12;
+		double[] values = new double[3];
+		for(int index = 0; index < 3; index++)
+		{
+			double t = x + ((index - 1) * h);
+			values[index] = (Math.sin(t) * Math.exp(t) / Math.sqrt(t)) + (Math.log(t) * Math.tan(t));
+		}
+
+		if(order == 1)
+		{
+			return (values[2] - values[0]) / (2 * h);
+		}
+
+		return (values[2] - (2 * values[1]) + values[0]) / (h * h);
+	}
+
+	/**
+	 * Get the test point.
+	 * 
+	 * @return The point.
+	 */
+	private static double[] getPoint()
+	{
+		double[] x = new double[DIMENSION];
+		for(int index = 0; index < x.length; index++)
+		{
+			x[index] = Math.sin(index + 1);
+		}
+
+		return x;
+	}
+
+	/**
+	 * Get the analytical gradient.
+	 * 
+	 * @param x The point.
+	 * @return The gradient.
+	 */
+	private static double[] getGradient(final double[] x)
+	{
+		double[] gradient = new double[x.length];
+		double exp = Math.exp(x[0]);
+
+		for(int index = 0; index < x.length - 1; index++)
+		{
+			gradient[index] += 2 * x[index] * x[index + 1];
+			gradient[index + 1] += x[index] * x[index];
+		}
+
+		for(int index = 1; index < x.length; index++)
+		{
+			gradient[0] += exp * x[index];
+			gradient[index] += exp;
+		}
+
+		return gradient;
+	}
+
+	/**
+	 * Get the analytical Hessian.
+	 * 
+	 * @param x The point.
+	 * @return The Hessian.
+	 */
+	private static double[][] getHessian(final double[] x)
+	{
+		double[][] hessian = new double[DIMENSION][DIMENSION];
+		double exp = Math.exp(x[0]);
+
+		for(int index = 0; index < DIMENSION - 1; index++)
+		{
+			hessian[index][index] += 2 * x[index + 1];
+			hessian[index][index + 1] += 2 * x[index];
+			hessian[index + 1][index] += 2 * x[index];
+		}
+
+		for(int index = 1; index < DIMENSION; index++)
+		{
+			hessian[0][0] += exp * x[index];
+			hessian[0][index] += exp;
+			hessian[index][0] += exp;
+		}
+
+		return hessian;
+	}
+
+	/**
+	 * Test function, with real, dual and hyper-dual implementations.
+	 */
+	private static final class TestFunction
+		implements DualMultivariateFunction, HyperDualMultivariateFunction
+	{
+
+		/**
+		 * The number of real evaluations.
+		 */
+		private int realEvaluations;
+
+		/**
+		 * The number of dual evaluations.
+		 */
+		private int dualEvaluations;
+
+		/**
+		 * @see com.chupacadabra.finitedifference.MultivariateFunction#value(double[])
+		 */
+		@Override
+		public double value(final double... x)
+		{
+			realEvaluations += 1;
+
+			double value = 0;
+			for(int index = 0; index < x.length - 1; index++)
+			{
+				value += x[index] * x[index] * x[index + 1];
+			}
+
+			double sum = 0;
+			for(int index = 1; index < x.length; index++)
+			{
+				sum += x[index];
+			}
+
+			return value + (Math.exp(x[0]) * sum);
+		}
+
+		/**
+		 * @see com.chupacadabra.finitedifference.dual.DualMultivariateFunction#value(com.chupacadabra.finitedifference.dual.Dual[])
+		 */
+		@Override
+		public Dual value(final Dual... x)
+		{
+			dualEvaluations += 1;
+
+			int dimension = x[0].getDerivatives().length;
+
+			DualAccumulator value = new DualAccumulator(dimension);
+			for(int index = 0; index < x.length - 1; index++)
+			{
+				value.addProduct(x[index].multiply(x[index]), x[index + 1]);
+			}
+
+			DualAccumulator sum = new DualAccumulator(dimension);
+			for(int index = 1; index < x.length; index++)
+			{
+				sum.add(x[index]);
+			}
+
+			value.addProduct(x[0].exp(), sum.toDual());
+
+			return value.toDual();
+		}
+
+		/**
+		 * @see com.chupacadabra.finitedifference.dual.HyperDualMultivariateFunction#value(com.chupacadabra.finitedifference.dual.HyperDual[])
+		 */
+		@Override
+		public HyperDual value(final HyperDual... x)
+		{
+			HyperDual value = new HyperDual(0, 0, 0, 0);
+			for(int index = 0; index < x.length - 1; index++)
+			{
+				value = value.add(x[index].multiply(x[index]).multiply(x[index + 1]));
+			}
+
+			HyperDual sum = new HyperDual(0, 0, 0, 0);
+			for(int index = 1; index < x.length; index++)
+			{
+				sum = sum.add(x[index]);
+			}
+
+			return value.add(x[0].exp().multiply(sum));
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.matrix.TridiagonalSolver;
+
+/**
+ * Compact grid derivative tests.
+ */
+public final class CompactGridDerivativeTest
+{
+
+	/**
+	 * The solver inverts its matrix, singly and in batches.
+	 */
+	@Test
+	public void solver()
+	{
+		double[] lower = { 0, 1, -2, 0.5, 1 };
+		double[] diagonal = { 4, 5, 6, 4, 3 };
+		double[] upper = { 1, 2, 1, -1, 0 };
+		double[] x = { 1, -2, 3, 0.25, 7 };
+
+		int n = x.length;
+		double[] b = new double[n];
+		for(int row = 0; row < n; row++)
+		{
+			b[row] = diagonal[row] * x[row];
+			if(row > 0)
+			{
+				b[row] += lower[row] * x[row - 1];
+			}
+			if(row < (n - 1))
+			{
+				b[row] += upper[row] * x[row + 1];
+			}
+		}
+
+		TridiagonalSolver solver = new TridiagonalSolver(lower, diagonal, upper);
+		double[] solution = new double[n];
+		solver.solve(b, solution);
+		Assert.assertArrayEquals(x, solution, 1e-14);
+
+		// in place, and batched with a scaled copy.
+		double[] batch = new double[2 * n];
+		for(int row = 0; row < n; row++)
+		{
+			batch[2 * row] = b[row];
+			batch[(2 * row) + 1] = 3 * b[row];
+		}
+
+		solver.solve(b, b);
+		solver.solve(batch, batch, 2);
+		for(int row = 0; row < n; row++)
+		{
+			Assert.assertEquals(solution[row], b[row], 0);
+			Assert.assertEquals(solution[row], batch[2 * row], 0);
+			Assert.assertEquals(3 * x[row], batch[(2 * row) + 1], 1e-13);
+		}
+	}
+
+	/**
+	 * The first derivative beats an explicit stencil of the same width.
+	 */
+	@Test
+	public void firstDerivative()
+	{
+		int length = 101;
+		double h = 0.01;
+		double[] values = new double[length];
+		for(int index = 0; index < length; index++)
+		{
+			values[index] = Math.sin(index * h);
+		}
+
+		double[] compact = new CompactGridDerivative(1, h, length).differentiate(values);
+		double[] explicit = new GridDerivative(new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, 2), h).differentiate(values);
+
+		double compactError = 0;
+		double explicitError = 0;
+		for(int index = 1; index < (length - 1); index++)
+		{
+			double expected = Math.cos(index * h);
+			compactError = Math.max(compactError, Math.abs(compact[index] - expected));
+			explicitError = Math.max(explicitError, Math.abs(explicit[index] - expected));
+		}
+
+		Assert.assertEquals(1, compact[0], 1e-6);
+		Assert.assertEquals(Math.cos(1), compact[length - 1], 1e-6);
+		Assert.assertTrue(compactError < 1e-6);
+		Assert.assertTrue(compactError < (explicitError / 10));
+	}
+
+	/**
+	 * The second derivative is accurate, and batches match single series.
+	 */
+	@Test
+	public void secondDerivative()
+	{
+		int length = 101;
+		int count = 3;
+		double h = 0.01;
+		CompactGridDerivative derivative = new CompactGridDerivative(2, h, length);
+
+		double[] values = new double[length * count];
+		for(int index = 0; index < length; index++)
+		{
+			for(int series = 0; series < count; series++)
+			{
+				values[(index * count) + series] = Math.sin((series + 1) * index * h);
+			}
+		}
+
+		double[] batch = new double[values.length];
+		derivative.differentiate(values, batch, count);
+
+		double[] single = new double[length];
+		double[] out = new double[length];
+		for(int series = 0; series < count; series++)
+		{
+			double k = series + 1;
+			for(int index = 0; index < length; index++)
+			{
+				single[index] = values[(index * count) + series];
+			}
+
+			derivative.differentiate(single, out);
+			for(int index = 0; index < length; index++)
+			{
+				Assert.assertEquals(out[index], batch[(index * count) + series], 0);
+				Assert.assertEquals(-k * k * single[index], out[index], 1e-3);
+			}
+		}
+	}
+
+}
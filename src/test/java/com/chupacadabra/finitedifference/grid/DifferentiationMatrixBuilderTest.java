@@ -0,0 +1,131 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.matrix.LinearOperator;
+import com.chupacadabra.finitedifference.matrix.SparseMatrix;
+
+/**
+ * Differentiation matrix tests.
+ */
+public final class DifferentiationMatrixBuilderTest
+{
+
+	/**
+	 * The fourth-order central first derivative.
+	 */
+	private static final FiniteDifference FD = new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, 4);
+
+	/**
+	 * One-sided matrix and operator agree with a grid sweep.
+	 */
+	@Test
+	public void oneSided()
+	{
+		int length = 200;
+		double h = 0.01;
+		double[] x = sample(length, h, 1);
+
+		double[] expected = new GridDerivative(FD, h).differentiate(x);
+
+		SparseMatrix matrix = new DifferentiationMatrixBuilder(FD, h, GridBoundary.ONE_SIDED).build(length);
+		assertMultiply(expected, matrix, x, 1e-10);
+		assertMultiply(expected, new GridDifferentiationOperator(FD, h, GridBoundary.ONE_SIDED, length), x, 0);
+
+		// 5 points in the first and last two rows; 4 non-zero points in the
+		// interior.
+		Assert.assertEquals((4 * 5) + ((length - 4) * 4), matrix.getEntryCount());
+		Assert.assertEquals(-1 / (12 * h), matrix.get(100, 102), 1e-12);
+		Assert.assertEquals(0, matrix.get(100, 100), 0);
+	}
+
+	/**
+	 * Periodic matrix and operator differentiate a periodic function.
+	 */
+	@Test
+	public void periodic()
+	{
+		int length = 128;
+		double h = (2 * Math.PI) / length;
+		double[] x = sample(length, h, 3);
+
+		double[] expected = new double[length];
+		for(int index = 0; index < length; index++)
+		{
+			expected[index] = 3 * Math.cos(3 * index * h);
+		}
+
+		SparseMatrix matrix = new DifferentiationMatrixBuilder(FD, h, GridBoundary.PERIODIC).build(length);
+		LinearOperator operator = new GridDifferentiationOperator(FD, h, GridBoundary.PERIODIC, length);
+
+		assertMultiply(expected, matrix, x, 1e-4);
+		assertMultiply(expected, operator, x, 1e-4);
+
+		Assert.assertEquals(length * 4, matrix.getEntryCount());
+		Assert.assertEquals(-2 / (3 * h), matrix.get(0, length - 1), 1e-12);
+		Assert.assertEquals(1 / (12 * h), matrix.get(0, length - 2), 1e-12);
+	}
+
+	/**
+	 * Assert that the specified operator maps the specified vector to the
+	 * expected vector.
+	 * 
+	 * @param expected The expected vector.
+	 * @param operator The operator.
+	 * @param x The vector.
+	 * @param tolerance The absolute tolerance.
+	 */
+	private static void assertMultiply(final double[] expected, final LinearOperator operator, final double[] x, final double tolerance)
+	{
+		double[] y = new double[operator.getRowDimension()];
+		operator.multiply(x, y);
+
+		Assert.assertArrayEquals(expected, y, tolerance);
+	}
+
+	/**
+	 * Sample <code>sin(kx)</code> on a grid.
+	 * 
+	 * @param length The length.
+	 * @param h The grid width.
+	 * @param k The frequency.
+	 * @return The samples.
+	 */
+	private static double[] sample(final int length, final double h, final double k)
+	{
+		double[] values = new double[length];
+		for(int index = 0; index < length; index++)
+		{
+			values[index] = Math.sin(k * index * h);
+		}
+
+		return values;
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.bandwidth.RuleOfThumb;
+
+/**
+ * Single precision grid derivative tests.
+ */
+public final class FloatGridDerivativeTest
+{
+
+	/**
+	 * First derivative of a sampled sine, including the ends.
+	 */
+	@Test
+	public void sine()
+	{
+		FiniteDifference fd = new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, 4);
+		float h = (float)RuleOfThumb.getFloatRuleOfThumbScale(fd);
+		float[] values = sample(2000, h);
+
+		float[] derivatives = new FloatGridDerivative(fd, h).differentiate(values);
+
+		for(int index = 0; index < values.length; index++)
+		{
+			Assert.assertEquals(Math.cos(index * (double)h), derivatives[index], 1e-4);
+		}
+	}
+
+	/**
+	 * Buffers, direct or not, give the same result as arrays.
+	 */
+	@Test
+	public void buffers()
+	{
+		float h = 1f / 1024;
+		float[] values = sample(150001, h);
+
+		FloatGridDerivative derivative = new FloatGridDerivative(new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 6), h);
+		float[] expected = derivative.differentiate(values);
+
+		FloatBuffer direct = ByteBuffer.allocateDirect(4 * (values.length + 3)).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		direct.position(3);
+		direct.put(values);
+		direct.position(3);
+
+		FloatBuffer output = FloatBuffer.allocate(values.length);
+		derivative.differentiate(direct, output);
+
+		Assert.assertEquals(3, direct.position());
+		Assert.assertEquals(0, output.position());
+		Assert.assertArrayEquals(expected, output.array(), 0);
+	}
+
+	/**
+	 * The single precision rule-of-thumb grid width is wider than the double
+	 * precision one, and exactly representable.
+	 */
+	@Test
+	public void ruleOfThumb()
+	{
+		FiniteDifference fd = FiniteDifference.THREE_POINT_CENTRAL;
+		Assert.assertTrue(RuleOfThumb.getFloatRuleOfThumbScale(fd) > fd.getRuleOfThumbScale());
+
+		float x = 3.1f;
+		float h = RuleOfThumb.getFloatRuleOfThumbBandwidth(x, fd);
+		Assert.assertEquals(h, (x + h) - x, 0);
+	}
+
+	/**
+	 * Sample sine on a grid.
+	 * 
+	 * @param length The length.
+	 * @param h The grid width.
+	 * @return The samples.
+	 */
+	private static float[] sample(final int length, final float h)
+	{
+		float[] values = new float[length];
+		for(int index = 0; index < length; index++)
+		{
+			values[index] = (float)Math.sin(index * (double)h);
+		}
+
+		return values;
+	}
+
+}
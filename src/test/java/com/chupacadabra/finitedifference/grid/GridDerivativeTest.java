@@ -0,0 +1,138 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+
+/**
+ * Grid derivative tests.
+ */
+public final class GridDerivativeTest
+{
+
+	/**
+	 * First derivative of a sampled sine, including the ends.
+	 */
+	@Test
+	public void sine()
+	{
+		double h = 1d / 1024;
+		double[] values = sample(4096, h);
+
+		for(int errorOrder = 2; errorOrder <= 6; errorOrder += 2)
+		{
+			GridDerivative derivative = new GridDerivative(new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, errorOrder), h);
+			double[] derivatives = derivative.differentiate(values);
+
+			for(int index = 0; index < values.length; index++)
+			{
+				Assert.assertEquals(Math.cos(index * h), derivatives[index], 1e-5);
+			}
+		}
+	}
+
+	/**
+	 * Second derivative of a sampled sine, including the ends.
+	 */
+	@Test
+	public void secondDerivative()
+	{
+		double h = 1d / 256;
+		double[] values = sample(1024, h);
+
+		GridDerivative derivative = new GridDerivative(new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 4), h);
+		double[] derivatives = derivative.differentiate(values);
+
+		for(int index = 0; index < values.length; index++)
+		{
+			Assert.assertEquals(-Math.sin(index * h), derivatives[index], 1e-6);
+		}
+	}
+
+	/**
+	 * The parallel sweep is identical to the sequential sweep.
+	 */
+	@Test
+	public void parallel()
+	{
+		double h = 0.001;
+		double[] values = sample(100003, h);
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try
+		{
+			for(FiniteDifferenceType type : FiniteDifferenceType.values())
+			{
+				GridDerivative derivative = new GridDerivative(new FiniteDifference(type, 1, 4), h);
+				double[] expected = derivative.differentiate(values);
+
+				// tiny chunks, so halos and ends fall in different chunks.
+				for(int chunkSize : new int[] { 1, 3, 1000, ParallelGridDerivative.DEFAULT_CHUNK_SIZE })
+				{
+					ParallelGridDerivative parallel = new ParallelGridDerivative(derivative, pool, chunkSize);
+					Assert.assertArrayEquals(expected, parallel.differentiate(values), 0);
+				}
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Too short a grid is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void tooShort()
+	{
+		GridDerivative derivative = new GridDerivative(FiniteDifference.FIVE_POINT_CENTRAL, 1);
+		derivative.differentiate(new double[derivative.getMinimumLength() - 1]);
+	}
+
+	/**
+	 * Sample sine on a grid.
+	 * 
+	 * @param length The length.
+	 * @param h The grid width.
+	 * @return The samples.
+	 */
+	private static double[] sample(final int length, final double h)
+	{
+		double[] values = new double[length];
+		for(int index = 0; index < length; index++)
+		{
+			values[index] = Math.sin(index * h);
+		}
+
+		return values;
+	}
+
+}
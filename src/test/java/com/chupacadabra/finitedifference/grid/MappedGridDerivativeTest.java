@@ -0,0 +1,89 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+
+/**
+ * Memory-mapped grid derivative tests.
+ */
+public final class MappedGridDerivativeTest
+{
+
+	/**
+	 * The output is identical to an in-memory sweep, whatever the window size.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Test
+	public void matchesInMemory() throws IOException
+	{
+		double[] values = new double[10007];
+		for(int index = 0; index < values.length; index++)
+		{
+			values[index] = Math.sin(index * 0.01) + Math.cos(index * 0.37);
+		}
+
+		Path input = Files.createTempFile("input", ".bin");
+		Path output = Files.createTempFile("output", ".bin");
+
+		try
+		{
+			ByteBuffer bytes = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+			bytes.asDoubleBuffer().put(values);
+			Files.write(input, bytes.array());
+
+			GridDerivative derivative = new GridDerivative(new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 6), 0.01);
+			double[] expected = derivative.differentiate(values);
+
+			for(int windowSize : new int[] { 1, 7, 1000, 20000 })
+			{
+				new MappedGridDerivative(derivative, windowSize).differentiate(input, output);
+
+				byte[] written = Files.readAllBytes(output);
+				Assert.assertEquals(values.length * 8, written.length);
+
+				double[] actual = new double[values.length];
+				ByteBuffer.wrap(written).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(actual);
+				Assert.assertArrayEquals(expected, actual, 0);
+			}
+		}
+		finally
+		{
+			Files.delete(input);
+			Files.delete(output);
+		}
+	}
+
+}
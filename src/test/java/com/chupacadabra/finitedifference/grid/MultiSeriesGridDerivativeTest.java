@@ -0,0 +1,107 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+
+/**
+ * Multi-series grid derivative tests, using series
+ * <code>sin(x + s)</code>.
+ */
+public final class MultiSeriesGridDerivativeTest
+{
+
+	/**
+	 * The number of series.
+	 */
+	private static final int SERIES = 300;
+
+	/**
+	 * The number of samples.
+	 */
+	private static final int SAMPLES = 700;
+
+	/**
+	 * The grid width.
+	 */
+	private static final double H = 1d / 128;
+
+	/**
+	 * Both layouts, and separate arrays, give identical and accurate results.
+	 */
+	@Test
+	public void layouts()
+	{
+		MultiSeriesGridDerivative derivative = new MultiSeriesGridDerivative(new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, 4), H);
+
+		double[][] series = new double[SERIES][SAMPLES];
+		double[] seriesMajor = new double[SERIES * SAMPLES];
+		double[] sampleMajor = new double[SERIES * SAMPLES];
+
+		for(int s = 0; s < SERIES; s++)
+		{
+			for(int t = 0; t < SAMPLES; t++)
+			{
+				double value = Math.sin((t * H) + s);
+				series[s][t] = value;
+				seriesMajor[(s * SAMPLES) + t] = value;
+				sampleMajor[(t * SERIES) + s] = value;
+			}
+		}
+
+		double[][] seriesDerivatives = new double[SERIES][SAMPLES];
+		double[] seriesMajorDerivatives = new double[SERIES * SAMPLES];
+		double[] sampleMajorDerivatives = new double[SERIES * SAMPLES];
+
+		derivative.differentiate(series, seriesDerivatives);
+		derivative.differentiate(seriesMajor, seriesMajorDerivatives, SERIES, SeriesLayout.SERIES_MAJOR);
+		derivative.differentiate(sampleMajor, sampleMajorDerivatives, SERIES, SeriesLayout.SAMPLE_MAJOR);
+
+		for(int s = 0; s < SERIES; s++)
+		{
+			for(int t = 0; t < SAMPLES; t++)
+			{
+				double expected = seriesDerivatives[s][t];
+				Assert.assertEquals(Math.cos((t * H) + s), expected, 1e-5);
+				Assert.assertEquals(expected, seriesMajorDerivatives[(s * SAMPLES) + t], 0);
+				Assert.assertEquals(expected, sampleMajorDerivatives[(t * SERIES) + s], 0);
+			}
+		}
+	}
+
+	/**
+	 * Mismatched series lengths are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void ragged()
+	{
+		MultiSeriesGridDerivative derivative = new MultiSeriesGridDerivative(FiniteDifference.THREE_POINT_CENTRAL, H);
+		derivative.differentiate(new double[][] { new double[10], new double[11] }, new double[][] { new double[10], new double[11] });
+	}
+
+}
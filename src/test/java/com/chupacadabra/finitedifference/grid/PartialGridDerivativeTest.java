@@ -0,0 +1,178 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.grid;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+
+/**
+ * N-dimensional grid operator tests, using
+ * <code>F(x, y, z) = sin(x)cos(y)e<sup>z/2</sup></code>.
+ */
+public final class PartialGridDerivativeTest
+{
+
+	/**
+	 * The shape.
+	 */
+	private static final GridShape SHAPE = new GridShape(24, 33, 40);
+
+	/**
+	 * The grid widths.
+	 */
+	private static final double[] H = { 0.05, 1d / 32, 0.04 };
+
+	/**
+	 * The first derivative stencil.
+	 */
+	private static final FiniteDifference FIRST = new FiniteDifference(FiniteDifferenceType.CENTRAL, 1, 4);
+
+	/**
+	 * The second derivative stencil.
+	 */
+	private static final FiniteDifference SECOND = new FiniteDifference(FiniteDifferenceType.CENTRAL, 2, 4);
+
+	/**
+	 * Gradient, including the boundaries.
+	 */
+	@Test
+	public void gradient()
+	{
+		double[] values = sample();
+		double[][] gradient = new GridGradient(SHAPE, FIRST, H).gradient(values);
+
+		for(int i = 0; i < SHAPE.getLength(0); i++)
+		{
+			for(int j = 0; j < SHAPE.getLength(1); j++)
+			{
+				for(int k = 0; k < SHAPE.getLength(2); k++)
+				{
+					double x = i * H[0];
+					double y = j * H[1];
+					double z = k * H[2];
+					int index = SHAPE.getIndex(i, j, k);
+
+					Assert.assertEquals(Math.cos(x) * Math.cos(y) * Math.exp(z / 2), gradient[0][index], 1e-4);
+					Assert.assertEquals(-Math.sin(x) * Math.sin(y) * Math.exp(z / 2), gradient[1][index], 1e-4);
+					Assert.assertEquals(0.5 * Math.sin(x) * Math.cos(y) * Math.exp(z / 2), gradient[2][index], 1e-4);
+				}
+			}
+		}
+
+		// the fused sweep matches the separate partial derivatives exactly.
+		for(int axis = 0; axis < SHAPE.getDimension(); axis++)
+		{
+			double[] partial = new PartialGridDerivative(SHAPE, axis, FIRST, H[axis]).differentiate(values);
+			Assert.assertArrayEquals(partial, gradient[axis], 0);
+		}
+	}
+
+	/**
+	 * Laplacian, including the boundaries.
+	 */
+	@Test
+	public void laplacian()
+	{
+		double[] values = sample();
+		double[] laplacian = new GridLaplacian(SHAPE, SECOND, H).laplacian(values);
+
+		for(int index = 0; index < values.length; index++)
+		{
+			Assert.assertEquals(-1.75 * values[index], laplacian[index], 1e-3);
+		}
+	}
+
+	/**
+	 * The tile size does not change the result.
+	 */
+	@Test
+	public void tiling()
+	{
+		double[] values = sample();
+
+		for(int axis = 0; axis < 2; axis++)
+		{
+			double[] expected = new PartialGridDerivative(SHAPE, axis, SECOND, H[axis]).differentiate(values);
+
+			for(int tileSize : new int[] { 1, 7, 64 })
+			{
+				double[] actual = new PartialGridDerivative(SHAPE, axis, SECOND, H[axis], tileSize).differentiate(values);
+				Assert.assertArrayEquals(expected, actual, 0);
+			}
+		}
+	}
+
+	/**
+	 * Along the last axis, the result is identical to a one-dimensional sweep
+	 * of each line.
+	 */
+	@Test
+	public void lastAxis()
+	{
+		double[] values = sample();
+		double[] partial = new PartialGridDerivative(SHAPE, 2, FIRST, H[2]).differentiate(values);
+
+		GridDerivative derivative = new GridDerivative(FIRST, H[2]);
+		int length = SHAPE.getLength(2);
+
+		for(int start = 0; start < values.length; start += length)
+		{
+			double[] line = new double[length];
+			System.arraycopy(values, start, line, 0, length);
+
+			double[] expected = derivative.differentiate(line);
+			for(int index = 0; index < length; index++)
+			{
+				Assert.assertEquals(expected[index], partial[start + index], 0);
+			}
+		}
+	}
+
+	/**
+	 * Sample the function on the grid.
+	 * 
+	 * @return The samples.
+	 */
+	private static double[] sample()
+	{
+		double[] values = new double[SHAPE.getSize()];
+
+		for(int i = 0; i < SHAPE.getLength(0); i++)
+		{
+			for(int j = 0; j < SHAPE.getLength(1); j++)
+			{
+				for(int k = 0; k < SHAPE.getLength(2); k++)
+				{
+					values[SHAPE.getIndex(i, j, k)] = Math.sin(i * H[0]) * Math.cos(j * H[1]) * Math.exp((k * H[2]) / 2);
+				}
+			}
+		}
+
+		return values;
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.kernel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.UnivariateFunction;
+import com.chupacadabra.finitedifference.function.Exp;
+
+/**
+ * Stencil kernel tests.
+ */
+public final class StencilKernelTest
+{
+
+	/**
+	 * The pre-generated kernels.
+	 */
+	private static final StencilKernel[] KERNELS = {
+			new TwoPointForwardKernel(),
+			new ThreePointCentralKernel(),
+			new FivePointCentralKernel(),
+			new SevenPointCentralKernel(),
+			new FivePointCentralSecondDerivativeKernel()
+	};
+
+	/**
+	 * The factory returns the pre-generated kernels for common stencils.
+	 */
+	@Test
+	public void factory()
+	{
+		for(StencilKernel kernel : KERNELS)
+		{
+			FiniteDifference fd = kernel.getFiniteDifference();
+			FiniteDifference copy = new FiniteDifference(fd.getFiniteDifferenceType(), fd.getDerivativeOrder(), fd.getErrorOrder());
+
+			Assert.assertSame(kernel.getClass(), StencilKernelFactory.getKernel(copy).getClass());
+		}
+
+		FiniteDifference odd = new FiniteDifference(FiniteDifferenceType.CENTRAL, 3, 2);
+		Assert.assertSame(AntisymmetricStencilKernel.class, StencilKernelFactory.getKernel(odd).getClass());
+
+		FiniteDifference even = new FiniteDifference(FiniteDifferenceType.CENTRAL, 4, 2);
+		Assert.assertSame(SymmetricStencilKernel.class, StencilKernelFactory.getKernel(even).getClass());
+
+		FiniteDifference forward = new FiniteDifference(FiniteDifferenceType.FORWARD, 2, 2);
+		Assert.assertSame(GenericStencilKernel.class, StencilKernelFactory.getKernel(forward).getClass());
+	}
+
+	/**
+	 * The pre-generated kernels agree bit-for-bit with the equivalent
+	 * run-time kernel.
+	 */
+	@Test
+	public void matchesRuntime()
+	{
+		UnivariateFunction exp = new Exp();
+
+		double[] values = new double[16];
+		for(int index = 0; index < values.length; index++)
+		{
+			values[index] = Math.sin(index * 0.37) + index;
+		}
+
+		for(StencilKernel kernel : KERNELS)
+		{
+			StencilKernel generic = getRuntimeKernel(kernel.getFiniteDifference());
+
+			for(double x = -2; x <= 2; x += 0.125)
+			{
+				for(double h = 1e-4; h < 1; h *= 3.7)
+				{
+					Assert.assertEquals(
+							Double.doubleToLongBits(generic.getWeightedSum(exp, x, h)),
+							Double.doubleToLongBits(kernel.getWeightedSum(exp, x, h)));
+				}
+			}
+
+			for(int center = 4; center < values.length - 4; center++)
+			{
+				Assert.assertEquals(
+						Double.doubleToLongBits(generic.getWeightedSum(values, center)),
+						Double.doubleToLongBits(kernel.getWeightedSum(values, center)));
+			}
+		}
+	}
+
+	/**
+	 * Paired kernels agree with the generic kernel.
+	 */
+	@Test
+	public void pairedMatchesGeneric()
+	{
+		UnivariateFunction exp = new Exp();
+
+		for(int derivativeOrder = 1; derivativeOrder <= 4; derivativeOrder++)
+		{
+			FiniteDifference fd = new FiniteDifference(FiniteDifferenceType.CENTRAL, derivativeOrder, 4);
+			StencilKernel paired = getRuntimeKernel(fd);
+			StencilKernel generic = new GenericStencilKernel(fd);
+
+			for(double x = -2; x <= 2; x += 0.125)
+			{
+				double expected = generic.getWeightedSum(exp, x, 0.25);
+				Assert.assertEquals(expected, paired.getWeightedSum(exp, x, 0.25), 1e-14 * Math.exp(x));
+			}
+		}
+	}
+
+	/**
+	 * The kernel weights are the finite difference coefficients.
+	 */
+	@Test
+	public void coefficients()
+	{
+		StencilKernel[] kernels = {
+				new GenericStencilKernel(new FiniteDifference(FiniteDifferenceType.FORWARD, 2, 3)),
+				new SymmetricStencilKernel(new FiniteDifference(FiniteDifferenceType.CENTRAL, 4, 4)),
+				new AntisymmetricStencilKernel(new FiniteDifference(FiniteDifferenceType.CENTRAL, 3, 4))
+		};
+
+		for(StencilKernel kernel : concat(KERNELS, kernels))
+		{
+			FiniteDifference fd = kernel.getFiniteDifference();
+			double[] coefficients = fd.getCoefficients();
+			int center = -fd.getLeftMultiplier();
+
+			for(int index = 0; index < coefficients.length; index++)
+			{
+				double[] unit = new double[coefficients.length];
+				unit[index] = 1;
+
+				Assert.assertEquals(coefficients[index], kernel.getWeightedSum(unit, center), 0);
+			}
+		}
+	}
+
+	/**
+	 * Power-of-two scaling is exact.
+	 */
+	@Test
+	public void scale()
+	{
+		StencilKernel kernel = new FivePointCentralSecondDerivativeKernel();
+
+		for(int exponent = -30; exponent <= 4; exponent++)
+		{
+			double h = Math.scalb(1.0, exponent);
+			Assert.assertEquals(0.7 / Math.pow(h, 2), kernel.scale(0.7, h), 0);
+		}
+
+		Assert.assertEquals(0.7 / Math.pow(0.3, 2), kernel.scale(0.7, 0.3), 0);
+	}
+
+	/**
+	 * Get the kernel that would be built at run-time for the specified finite
+	 * difference, were there no pre-generated kernel.
+	 * 
+	 * @param fd The finite difference.
+	 * @return The kernel.
+	 */
+	private static StencilKernel getRuntimeKernel(final FiniteDifference fd)
+	{
+		if(fd.getFiniteDifferenceType() != FiniteDifferenceType.CENTRAL)
+		{
+			return new GenericStencilKernel(fd);
+		}
+
+		if((fd.getDerivativeOrder() % 2) == 0)
+		{
+			return new SymmetricStencilKernel(fd);
+		}
+
+		return new AntisymmetricStencilKernel(fd);
+	}
+
+	/**
+	 * Concatenate two arrays of kernels.
+	 * 
+	 * @param a The first array.
+	 * @param b The second array.
+	 * @return The concatenation.
+	 */
+	private static StencilKernel[] concat(final StencilKernel[] a, final StencilKernel[] b)
+	{
+		StencilKernel[] both = new StencilKernel[a.length + b.length];
+		System.arraycopy(a, 0, both, 0, a.length);
+		System.arraycopy(b, 0, both, a.length, b.length);
+
+		return both;
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.pde;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.grid.GridShape;
+
+/**
+ * Method-of-lines tests.
+ */
+public final class MethodOfLinesTest
+{
+
+	/**
+	 * Explicit steps match a naive loop, and converge to the exact solution
+	 * of the heat equation.
+	 */
+	@Test
+	public void rungeKutta()
+	{
+		int length = 65;
+		double h = Math.PI / (length - 1);
+		double dt = 0.25 * h * h;
+		int steps = 400;
+
+		ConvectionDiffusionEquation equation = new ConvectionDiffusionEquation(
+				new GridShape(length), new double[] { h }, new double[] { 1 }, new double[] { 0 }, 0);
+		SpatialOperator operator = new SpatialOperator(equation, 2);
+
+		double[] euler = sine(length, h);
+		new RungeKuttaStepper(operator, RungeKuttaMethod.EULER, dt).step(euler, steps);
+
+		// naive forward Euler.
+		double[] naive = sine(length, h);
+		double[] next = new double[length];
+		for(int step = 0; step < steps; step++)
+		{
+			for(int index = 1; index < (length - 1); index++)
+			{
+				next[index] = naive[index] + ((dt * ((naive[index + 1] - (2 * naive[index])) + naive[index - 1])) / (h * h));
+			}
+
+			System.arraycopy(next, 1, naive, 1, length - 2);
+		}
+
+		Assert.assertArrayEquals(naive, euler, 1e-12);
+
+		double[] classical = sine(length, h);
+		new RungeKuttaStepper(new SpatialOperator(equation, 4), RungeKuttaMethod.CLASSICAL, dt).step(classical, steps);
+
+		double decay = Math.exp(-steps * dt);
+		for(int index = 0; index < length; index++)
+		{
+			double expected = decay * Math.sin(index * h);
+			Assert.assertEquals(expected, classical[index], 1e-6);
+			Assert.assertEquals(expected, euler[index], 1e-3);
+		}
+	}
+
+	/**
+	 * One-dimensional steps match a naive Crank-Nicolson loop.
+	 */
+	@Test
+	public void crankNicolson()
+	{
+		int length = 101;
+		double h = 0.05;
+		double dt = 0.01;
+		int steps = 50;
+		double a = 0.08;
+		double b = 0.03;
+		double c = -0.05;
+
+		ConvectionDiffusionEquation equation = new ConvectionDiffusionEquation(
+				new GridShape(length), new double[] { h }, new double[] { a }, new double[] { b }, c);
+
+		double[] values = new double[length];
+		for(int index = 0; index < length; index++)
+		{
+			values[index] = Math.max((index * h) - 2.5, 0);
+		}
+
+		double[] naive = values.clone();
+		new AlternatingDirectionImplicitStepper(equation, dt, 0.5).step(values, steps);
+
+		// naive loop, re-assembling and solving every step.
+		double lower = (a / (h * h)) - (b / (2 * h));
+		double diagonal = (-2 * a / (h * h)) + c;
+		double upper = (a / (h * h)) + (b / (2 * h));
+		for(int step = 0; step < steps; step++)
+		{
+			double[] rhs = naive.clone();
+			double[] sub = new double[length];
+			double[] main = new double[length];
+			double[] sup = new double[length];
+			main[0] = 1;
+			main[length - 1] = 1;
+
+			for(int index = 1; index < (length - 1); index++)
+			{
+				rhs[index] += (0.5 * dt) * ((lower * naive[index - 1]) + (diagonal * naive[index]) + (upper * naive[index + 1]));
+				sub[index] = -0.5 * dt * lower;
+				main[index] = 1 - (0.5 * dt * diagonal);
+				sup[index] = -0.5 * dt * upper;
+			}
+
+			for(int index = 1; index < length; index++)
+			{
+				double factor = sub[index] / main[index - 1];
+				main[index] -= factor * sup[index - 1];
+				rhs[index] -= factor * rhs[index - 1];
+			}
+
+			naive[length - 1] = rhs[length - 1] / main[length - 1];
+			for(int index = length - 2; index >= 0; index--)
+			{
+				naive[index] = (rhs[index] - (sup[index] * naive[index + 1])) / main[index];
+			}
+		}
+
+		Assert.assertArrayEquals(naive, values, 1e-12);
+	}
+
+	/**
+	 * Two-dimensional steps converge to the exact solution of the heat
+	 * equation, parallel sweeps match sequential ones, and the explicit terms
+	 * are those of the spatial operator.
+	 */
+	@Test
+	public void alternatingDirectionImplicit()
+	{
+		int rows = 41;
+		int columns = 61;
+		double h = Math.PI / (rows - 1);
+		double k = Math.PI / (columns - 1);
+		double dt = 0.01;
+		int steps = 20;
+
+		GridShape shape = new GridShape(rows, columns);
+		ConvectionDiffusionEquation equation = new ConvectionDiffusionEquation(
+				shape, new double[] { h, k }, new double[] { 1, 1 }, new double[] { 0, 0 }, 0);
+
+		double[] sequential = new double[shape.getSize()];
+		for(int row = 0; row < rows; row++)
+		{
+			for(int column = 0; column < columns; column++)
+			{
+				sequential[shape.getIndex(row, column)] = Math.sin(row * h) * Math.sin(column * k);
+			}
+		}
+
+		double[] parallel = sequential.clone();
+		new AlternatingDirectionImplicitStepper(equation, dt, 0.5).step(sequential, steps);
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			new AlternatingDirectionImplicitStepper(equation, dt, 0.5, pool, 100).step(parallel, steps);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		Assert.assertArrayEquals(sequential, parallel, 0);
+
+		double decay = Math.exp(-2 * steps * dt);
+		for(int row = 0; row < rows; row++)
+		{
+			for(int column = 0; column < columns; column++)
+			{
+				double expected = decay * Math.sin(row * h) * Math.sin(column * k);
+				Assert.assertEquals(expected, sequential[shape.getIndex(row, column)], 1e-3);
+			}
+		}
+
+		// an explicit step is the forward Euler step of the spatial operator.
+		SpatialOperator operator = new SpatialOperator(equation, 2);
+		double[] explicit = sequential.clone();
+		double[] expected = sequential.clone();
+		double[] term = new double[shape.getSize()];
+		for(int axis = 0; axis < shape.getDimension(); axis++)
+		{
+			operator.multiply(axis, sequential, term);
+			for(int index = 0; index < term.length; index++)
+			{
+				expected[index] += dt * term[index];
+			}
+		}
+
+		new AlternatingDirectionImplicitStepper(equation, dt, 0).step(explicit);
+		Assert.assertArrayEquals(expected, explicit, 0);
+	}
+
+	/**
+	 * Sample a sine over <code>[0, &pi;]</code>.
+	 * 
+	 * @param length The length.
+	 * @param h The grid width.
+	 * @return The samples.
+	 */
+	private static double[] sine(final int length, final double h)
+	{
+		double[] values = new double[length];
+		for(int index = 0; index < length; index++)
+		{
+			values[index] = Math.sin(index * h);
+		}
+
+		values[length - 1] = 0;
+
+		return values;
+	}
+
+}
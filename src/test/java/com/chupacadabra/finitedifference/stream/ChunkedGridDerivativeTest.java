@@ -0,0 +1,100 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.stream;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.grid.GridDerivative;
+
+/**
+ * Chunked grid derivative tests.
+ */
+public final class ChunkedGridDerivativeTest
+{
+
+	/**
+	 * The output is identical to a grid sweep over the whole stream, whatever
+	 * the chunking.
+	 */
+	@Test
+	public void matchesGrid()
+	{
+		Random random = new Random(42);
+
+		double[] values = new double[20011];
+		for(int index = 0; index < values.length; index++)
+		{
+			values[index] = Math.sin(index * 0.01) + (0.001 * random.nextGaussian());
+		}
+
+		for(FiniteDifferenceType type : FiniteDifferenceType.values())
+		{
+			GridDerivative grid = new GridDerivative(new FiniteDifference(type, 2, 4), 0.01);
+			double[] expected = grid.differentiate(values);
+
+			for(int sliceSize : new int[] { 1, 64, ChunkedGridDerivative.DEFAULT_SLICE_SIZE })
+			{
+				ChunkedGridDerivative chunked = new ChunkedGridDerivative(grid, sliceSize);
+				double[] actual = new double[values.length];
+
+				int read = 0;
+				int written = 0;
+				while(read < values.length)
+				{
+					int length = Math.min(values.length - read, random.nextInt(300));
+					int emitted = chunked.process(values, read, length, actual, written);
+
+					Assert.assertTrue(emitted <= length);
+					read += length;
+					written += emitted;
+				}
+
+				Assert.assertEquals(values.length - chunked.getLatency(), written);
+				written += chunked.finish(actual, written);
+
+				Assert.assertEquals(values.length, written);
+				Assert.assertArrayEquals(expected, actual, 0);
+			}
+		}
+	}
+
+	/**
+	 * A stream too short for the stencil cannot be finished.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void tooShort()
+	{
+		ChunkedGridDerivative chunked = new ChunkedGridDerivative(new GridDerivative(FiniteDifference.FIVE_POINT_CENTRAL, 1));
+
+		double[] output = new double[8];
+		chunked.process(new double[] { 1, 2 }, 0, 2, output, 0);
+		chunked.finish(output, 0);
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2012-2014 Fran Lattanzio
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.chupacadabra.finitedifference.stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.chupacadabra.finitedifference.FiniteDifference;
+import com.chupacadabra.finitedifference.FiniteDifferenceType;
+import com.chupacadabra.finitedifference.grid.GridDerivative;
+
+/**
+ * Streaming derivative tests, using a sampled sine.
+ */
+public final class StreamingDerivativeTest
+{
+
+	/**
+	 * The sample spacing.
+	 */
+	private static final double H = 1d / 512;
+
+	/**
+	 * Backward derivatives at the latest sample.
+	 */
+	@Test
+	public void latest()
+	{
+		StreamingDerivative derivative = new StreamingDerivative(H, 2, 2);
+
+		for(int sample = 0; sample < 5000; sample++)
+		{
+			derivative.push(Math.sin(sample * H));
+
+			if(derivative.isReady(2))
+			{
+				Assert.assertEquals(Math.cos(sample * H), derivative.getDerivative(1), 1e-5);
+				Assert.assertEquals(-Math.sin(sample * H), derivative.getDerivative(2), 1e-4);
+			}
+		}
+
+		Assert.assertEquals(5000, derivative.getCount());
+	}
+
+	/**
+	 * Delayed central estimates match a grid sweep.
+	 */
+	@Test
+	public void central()
+	{
+		double[] values = new double[3000];
+		for(int index = 0; index < values.length; index++)
+		{
+			values[index] = Math.sin(index * H);
+		}
+
+		StreamingDerivative derivative = new StreamingDerivative(H, 3, 4);
+
+		for(int order = 1; order <= 3; order++)
+		{
+			GridDerivative grid = new GridDerivative(new FiniteDifference(FiniteDifferenceType.CENTRAL, order, 4), H);
+			double[] expected = grid.differentiate(values);
+			int delay = derivative.getCentralDelay(order);
+
+			derivative.reset();
+			for(int sample = 0; sample < values.length; sample++)
+			{
+				derivative.push(values[sample]);
+
+				if(derivative.isCentralReady(order))
+				{
+					Assert.assertEquals(expected[sample - delay], derivative.getCentralDerivative(order), 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Derivatives are unavailable until enough samples are pushed.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void notReady()
+	{
+		StreamingDerivative derivative = new StreamingDerivative(H, 1, 2);
+		derivative.push(1);
+		derivative.push(2);
+
+		Assert.assertFalse(derivative.isReady(1));
+		derivative.getDerivative(1);
+	}
+
+}